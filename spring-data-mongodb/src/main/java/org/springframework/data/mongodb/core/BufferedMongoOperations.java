@@ -0,0 +1,472 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+import org.springframework.util.Assert;
+
+/**
+ * Write-behind buffer for inserts issued through a {@link MongoTemplate}. Entities are queued per collection and
+ * inserted in batches once a collection has queued the configured batch size or the linger time has elapsed, which
+ * turns many single document inserts into few batch inserts. Every insert returns a {@link Future} completed once the
+ * batch containing the entity has been written, so that callers needing durability can wait for it while others just
+ * fire and forget. The write concern used for the batches is the one the template resolves for
+ * {@link MongoActionOperation#INSERT_LIST}. The number of entities queued is bounded, the {@link OverflowPolicy}
+ * defines what happens to inserts issued while the buffer is full. Entities count against the capacity until the batch
+ * containing them has been written. Inserts are rejected once the buffer has been {@link #destroy() destroyed}.
+ * 
+ * @since 1.3
+ */
+@ManagedResource(description = "Buffered inserts")
+public class BufferedMongoOperations implements DisposableBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BufferedMongoOperations.class);
+
+	/**
+	 * Defines how to handle inserts issued while the buffer is full.
+	 */
+	public static enum OverflowPolicy {
+
+		/**
+		 * Flushes the buffers in the calling thread until the entity can be queued, which slows down producers to the pace
+		 * of the database.
+		 */
+		FLUSH,
+
+		/**
+		 * Drops the entity and fails the {@link Future} returned for it with a
+		 * {@link TransientDataAccessResourceException}.
+		 */
+		DROP,
+
+		/**
+		 * Rejects the insert by throwing a {@link TransientDataAccessResourceException}.
+		 */
+		FAIL;
+	}
+
+	private final MongoTemplate template;
+	private final int batchSize;
+	private final int capacity;
+	private final ScheduledExecutorService scheduler;
+	private final ConcurrentMap<String, Buffer> buffers = new ConcurrentHashMap<String, Buffer>();
+
+	private final Object capacityMonitor = new Object();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger writing = new AtomicInteger();
+	private final AtomicLong flushes = new AtomicLong();
+	private final AtomicLong flushedEntities = new AtomicLong();
+	private final AtomicLong failedEntities = new AtomicLong();
+	private final AtomicLong droppedEntities = new AtomicLong();
+	private final AtomicLong totalFlushNanos = new AtomicLong();
+	private final AtomicLong lastFlushNanos = new AtomicLong();
+
+	private volatile OverflowPolicy overflowPolicy = OverflowPolicy.FLUSH;
+	private volatile boolean destroyed;
+
+	/**
+	 * Creates a new {@link BufferedMongoOperations} inserting entities through the given {@link MongoTemplate}.
+	 * 
+	 * @param template must not be {@literal null}.
+	 * @param batchSize the number of entities queued for a collection to trigger a flush, must be greater than zero.
+	 * @param capacity the maximum number of entities queued over all collections, must not be less than the batch size.
+	 * @param linger the maximum time an entity stays queued before being flushed, must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 */
+	public BufferedMongoOperations(MongoTemplate template, int batchSize, int capacity, long linger, TimeUnit unit) {
+
+		Assert.notNull(template, "MongoTemplate must not be null!");
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than zero!");
+		Assert.isTrue(capacity >= batchSize, "Capacity must not be less than the batch size!");
+		Assert.isTrue(linger > 0, "Linger time must be greater than zero!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.template = template;
+		this.batchSize = batchSize;
+		this.capacity = capacity;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("mongo-insert-buffer"));
+
+		this.scheduler.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				flush();
+			}
+		}, linger, linger, unit);
+	}
+
+	/**
+	 * Configures how to handle inserts issued while the buffer is full. Defaults to {@link OverflowPolicy#FLUSH}.
+	 * 
+	 * @param overflowPolicy must not be {@literal null}.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null!");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Queues the given entity for insertion into the collection of its type.
+	 * 
+	 * @param entity must not be {@literal null}.
+	 * @return a {@link Future} completed with the entity once it has been inserted.
+	 * @see MongoTemplate#getCollectionName(Class)
+	 */
+	public <T> Future<T> insert(T entity) {
+
+		Assert.notNull(entity, "Entity must not be null!");
+		return insert(entity, template.getCollectionName(entity.getClass()));
+	}
+
+	/**
+	 * Queues the given entity for insertion into the given collection.
+	 * 
+	 * @param entity must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @return a {@link Future} completed with the entity once it has been inserted.
+	 * @throws IllegalStateException if the buffer has already been destroyed.
+	 */
+	public <T> Future<T> insert(T entity, String collectionName) {
+
+		Assert.notNull(entity, "Entity must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.state(!destroyed, "Insert buffer has already been destroyed!");
+
+		PendingInsert<T> insert = new PendingInsert<T>(entity);
+
+		if (!reserve(collectionName)) {
+
+			droppedEntities.incrementAndGet();
+			TransientDataAccessResourceException exception = new TransientDataAccessResourceException(String.format(
+					"Insert buffer full, rejecting %s for collection %s!", entity, collectionName));
+
+			if (overflowPolicy == OverflowPolicy.FAIL) {
+				throw exception;
+			}
+
+			insert.fail(exception);
+			return insert;
+		}
+
+		Buffer buffer = getBuffer(collectionName);
+		buffer.add(insert);
+
+		if (destroyed) {
+			flush(collectionName);
+		} else if (buffer.size() >= batchSize) {
+			scheduleFlush(collectionName, buffer);
+		}
+
+		return insert;
+	}
+
+	/**
+	 * Inserts all entities currently queued. Blocks until all of them have been written.
+	 */
+	@ManagedOperation(description = "Inserts all queued entities")
+	public void flush() {
+
+		for (String collectionName : buffers.keySet()) {
+			flush(collectionName);
+		}
+	}
+
+	/**
+	 * Inserts all entities currently queued for the given collection. Blocks until all of them have been written.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 */
+	public void flush(String collectionName) {
+
+		Buffer buffer = buffers.get(collectionName);
+
+		if (buffer == null) {
+			return;
+		}
+
+		List<PendingInsert<?>> batch = buffer.drain(batchSize);
+
+		while (!batch.isEmpty()) {
+			write(collectionName, batch);
+			batch = buffer.drain(batchSize);
+		}
+	}
+
+	/**
+	 * Rejects further inserts, flushes all queued entities and stops the background flushing.
+	 * 
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public void destroy() {
+
+		destroyed = true;
+		scheduler.shutdown();
+		flush();
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Number of queued entities")
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Number of batches written")
+	public long getFlushCount() {
+		return flushes.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Number of entities written")
+	public long getFlushedCount() {
+		return flushedEntities.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Number of entities failed to be written")
+	public long getFailedCount() {
+		return failedEntities.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Number of entities rejected as the buffer was full")
+	public long getDroppedCount() {
+		return droppedEntities.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Duration of the last batch write in milliseconds")
+	public long getLastFlushLatency() {
+		return TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get());
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Average duration of batch writes in milliseconds")
+	public long getAverageFlushLatency() {
+
+		long count = flushes.get();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalFlushNanos.get() / count);
+	}
+
+	/**
+	 * Reserves room for a single entity in the buffer. Flushes in the calling thread until there's room if configured
+	 * to do so.
+	 * 
+	 * @param collectionName
+	 * @return whether room was reserved.
+	 */
+	private boolean reserve(String collectionName) {
+
+		while (true) {
+
+			int current = queued.get();
+
+			if (current < capacity) {
+				if (queued.compareAndSet(current, current + 1)) {
+					return true;
+				}
+				continue;
+			}
+
+			if (overflowPolicy != OverflowPolicy.FLUSH) {
+				return false;
+			}
+
+			flush(collectionName);
+
+			if (queued.get() >= capacity) {
+				flush();
+			}
+
+			awaitWrites();
+		}
+	}
+
+	/**
+	 * Waits for batches being written by other threads to complete while the buffer is still full.
+	 */
+	private void awaitWrites() {
+
+		synchronized (capacityMonitor) {
+
+			while (queued.get() >= capacity && writing.get() > 0) {
+
+				try {
+					capacityMonitor.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new UncategorizedMongoDbException("Interrupted while waiting for room in the insert buffer!", e);
+				}
+			}
+		}
+	}
+
+	private Buffer getBuffer(String collectionName) {
+
+		Buffer buffer = buffers.get(collectionName);
+
+		if (buffer == null) {
+			Buffer newBuffer = new Buffer();
+			buffer = buffers.putIfAbsent(collectionName, newBuffer);
+			buffer = buffer == null ? newBuffer : buffer;
+		}
+
+		return buffer;
+	}
+
+	private void scheduleFlush(final String collectionName, final Buffer buffer) {
+
+		if (!buffer.flushScheduled.compareAndSet(false, true)) {
+			return;
+		}
+
+		Runnable task = new Runnable() {
+			public void run() {
+				buffer.flushScheduled.set(false);
+				flush(collectionName);
+			}
+		};
+
+		try {
+			scheduler.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	private void write(String collectionName, List<PendingInsert<?>> batch) {
+
+		List<Object> entities = new ArrayList<Object>(batch.size());
+
+		for (PendingInsert<?> insert : batch) {
+			entities.add(insert.entity);
+		}
+
+		long start = System.nanoTime();
+
+		try {
+
+			template.insert(entities, collectionName);
+
+			for (PendingInsert<?> insert : batch) {
+				insert.complete();
+			}
+
+			flushedEntities.addAndGet(batch.size());
+
+		} catch (RuntimeException e) {
+
+			LOGGER.error(String.format("Failed to insert batch of %s entities into collection %s!", batch.size(),
+					collectionName), e);
+
+			for (PendingInsert<?> insert : batch) {
+				insert.fail(e);
+			}
+
+			failedEntities.addAndGet(batch.size());
+
+		} finally {
+
+			long duration = System.nanoTime() - start;
+
+			flushes.incrementAndGet();
+			totalFlushNanos.addAndGet(duration);
+			lastFlushNanos.set(duration);
+
+			synchronized (capacityMonitor) {
+				writing.addAndGet(-batch.size());
+				queued.addAndGet(-batch.size());
+				capacityMonitor.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * The entities queued for a single collection.
+	 */
+	private class Buffer {
+
+		private final Queue<PendingInsert<?>> inserts = new ConcurrentLinkedQueue<PendingInsert<?>>();
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+		public void add(PendingInsert<?> insert) {
+			inserts.add(insert);
+			size.incrementAndGet();
+		}
+
+		public int size() {
+			return size.get();
+		}
+
+		/**
+		 * Removes at most the given number of entities from the buffer. The entities keep counting against the capacity
+		 * until they have been written.
+		 * 
+		 * @param max
+		 * @return
+		 */
+		public List<PendingInsert<?>> drain(int max) {
+
+			List<PendingInsert<?>> result = new ArrayList<PendingInsert<?>>(Math.min(max, size()));
+			PendingInsert<?> insert;
+
+			while (result.size() < max && (insert = inserts.poll()) != null) {
+				result.add(insert);
+			}
+
+			size.addAndGet(-result.size());
+			writing.addAndGet(result.size());
+
+			return result;
+		}
+	}
+
+	/**
+	 * {@link Future} for a queued entity, completed once the entity has been written.
+	 */
+	private static class PendingInsert<T> extends SettableFuture<T> {
+
+		private final T entity;
+
+		public PendingInsert(T entity) {
+			this.entity = entity;
+		}
+
+		public void complete() {
+			set(entity);
+		}
+
+		public void fail(Throwable cause) {
+			setException(cause);
+		}
+	}
+}
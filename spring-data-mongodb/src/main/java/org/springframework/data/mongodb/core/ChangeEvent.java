@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import org.bson.types.BSONTimestamp;
+import org.springframework.util.Assert;
+
+/**
+ * A change of a single document read from the oplog by a {@link ChangeFeed}.
+ * 
+ * @since 1.3
+ */
+public class ChangeEvent<T> {
+
+	/**
+	 * The type of change along with the operation code used in the oplog.
+	 */
+	public static enum Operation {
+
+		INSERT("i"), UPDATE("u"), DELETE("d");
+
+		private final String code;
+
+		private Operation(String code) {
+			this.code = code;
+		}
+
+		/**
+		 * Returns the code of the operation used in the {@code op} field of oplog entries.
+		 * 
+		 * @return
+		 */
+		public String getCode() {
+			return code;
+		}
+
+		/**
+		 * Returns the {@link Operation} for the given oplog operation code.
+		 * 
+		 * @param code
+		 * @return the {@link Operation} or {@literal null} if the code does not denote a change of a document.
+		 */
+		public static Operation fromCode(String code) {
+
+			for (Operation operation : values()) {
+				if (operation.code.equals(code)) {
+					return operation;
+				}
+			}
+
+			return null;
+		}
+	}
+
+	private final Operation operation;
+	private final String namespace;
+	private final Object id;
+	private final T document;
+	private final BSONTimestamp timestamp;
+
+	/**
+	 * Creates a new {@link ChangeEvent}.
+	 * 
+	 * @param operation must not be {@literal null}.
+	 * @param namespace must not be {@literal null}.
+	 * @param id the id of the document changed, can be {@literal null}.
+	 * @param document the full document after the change, can be {@literal null}.
+	 * @param timestamp the timestamp of the oplog entry, must not be {@literal null}.
+	 */
+	public ChangeEvent(Operation operation, String namespace, Object id, T document, BSONTimestamp timestamp) {
+
+		Assert.notNull(operation, "Operation must not be null!");
+		Assert.notNull(namespace, "Namespace must not be null!");
+		Assert.notNull(timestamp, "Timestamp must not be null!");
+
+		this.operation = operation;
+		this.namespace = namespace;
+		this.id = id;
+		this.document = document;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Returns the type of change.
+	 * 
+	 * @return
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the namespace, i.e. {@code database.collection}, of the document changed.
+	 * 
+	 * @return
+	 */
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * Returns the {@code _id} of the document changed.
+	 * 
+	 * @return
+	 */
+	public Object getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the document after the change. Only available for inserts and updates replacing the entire document.
+	 * 
+	 * @return the document or {@literal null} for deletes and updates using modifiers.
+	 */
+	public T getDocument() {
+		return document;
+	}
+
+	/**
+	 * Returns the timestamp of the oplog entry. It can be used as resume token to continue reading the oplog after this
+	 * change.
+	 * 
+	 * @return
+	 */
+	public BSONTimestamp getTimestamp() {
+		return timestamp;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("ChangeEvent: %s of %s in %s at %s", operation, id, namespace, timestamp);
+	}
+}
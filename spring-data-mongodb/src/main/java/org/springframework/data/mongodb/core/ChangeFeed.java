@@ -0,0 +1,307 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.BSONTimestamp;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.ChangeEvent.Operation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * Change feed tailing the oplog of a replica set member to notify subscribers about inserts, updates and deletes of
+ * documents in a namespace. The feed has to be created with {@link MongoOperations} bound to the database holding the
+ * oplog, usually {@code local}. Any capped collection containing entries in the oplog format can be used instead of
+ * the oplog, e.g. to test subscribers without a replica set.
+ * <p>
+ * Every {@link ChangeEvent} carries the timestamp of its oplog entry, which can be handed to
+ * {@link #subscribe(String, Class, BSONTimestamp, EntityCallbackHandler)} to resume after it. If a
+ * {@link ResumeTokenStore} is configured, the feed stores the timestamp of the last entry processed periodically and
+ * once a subscription stops, and resumes from it on subscription, so changes are delivered at least once across
+ * restarts. Only entries the handler processed successfully are stored. If the handler throws an exception, the
+ * subscription is cancelled, so that the failed change is delivered again once resubscribed.
+ * 
+ * @since 1.3
+ */
+public class ChangeFeed {
+
+	public static final String DEFAULT_OPLOG_COLLECTION_NAME = "oplog.rs";
+
+	private static final String TIMESTAMP_FIELD = "ts";
+	private static final String OPERATION_FIELD = "op";
+	private static final String NAMESPACE_FIELD = "ns";
+	private static final String OBJECT_FIELD = "o";
+	private static final String CRITERIA_FIELD = "o2";
+	private static final String ID_FIELD = "_id";
+
+	private final MongoOperations operations;
+	private final String oplogCollectionName;
+
+	private MongoConverter converter;
+	private Set<Operation> operationTypes = EnumSet.allOf(Operation.class);
+	private ResumeTokenStore resumeTokenStore;
+	private String feedName;
+	private long checkpointInterval = 1000;
+
+	/**
+	 * Creates a new {@link ChangeFeed} tailing the {@value #DEFAULT_OPLOG_COLLECTION_NAME} collection.
+	 * 
+	 * @param operations {@link MongoOperations} bound to the database holding the oplog, must not be {@literal null}.
+	 */
+	public ChangeFeed(MongoOperations operations) {
+		this(operations, DEFAULT_OPLOG_COLLECTION_NAME);
+	}
+
+	/**
+	 * Creates a new {@link ChangeFeed} tailing the oplog collection with the given name, e.g. {@code oplog.$main} for a
+	 * master/slave setup.
+	 * 
+	 * @param operations {@link MongoOperations} bound to the database holding the oplog, must not be {@literal null}.
+	 * @param oplogCollectionName must not be {@literal null} or empty.
+	 */
+	public ChangeFeed(MongoOperations operations, String oplogCollectionName) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(oplogCollectionName, "Oplog collection name must not be null or empty!");
+
+		this.operations = operations;
+		this.oplogCollectionName = oplogCollectionName;
+		this.converter = operations.getConverter();
+	}
+
+	/**
+	 * Configures the {@link MongoConverter} to map changed documents to domain types with. Defaults to the one of the
+	 * {@link MongoOperations} the feed was created with.
+	 * 
+	 * @param converter must not be {@literal null}.
+	 */
+	public void setConverter(MongoConverter converter) {
+
+		Assert.notNull(converter, "MongoConverter must not be null!");
+		this.converter = converter;
+	}
+
+	/**
+	 * Restricts the feed to the given types of changes. Defaults to all of them.
+	 * 
+	 * @param operationTypes must not be {@literal null} or empty.
+	 */
+	public void setOperationTypes(Operation... operationTypes) {
+
+		Assert.notEmpty(operationTypes, "Operation types must not be null or empty!");
+		this.operationTypes = EnumSet.copyOf(Arrays.asList(operationTypes));
+	}
+
+	/**
+	 * Configures the {@link ResumeTokenStore} to keep the position of subscriptions in. Positions are stored per feed
+	 * name and namespace.
+	 * 
+	 * @param resumeTokenStore can be {@literal null} to not store positions which is the default.
+	 * @param feedName the name identifying the consumer of the feed, must not be {@literal null} or empty if a store is
+	 *          given.
+	 */
+	public void setResumeTokenStore(ResumeTokenStore resumeTokenStore, String feedName) {
+
+		Assert.isTrue(resumeTokenStore == null || feedName != null && feedName.length() > 0,
+				"Feed name must not be null or empty!");
+
+		this.resumeTokenStore = resumeTokenStore;
+		this.feedName = feedName;
+	}
+
+	/**
+	 * Configures the minimum time between storing the position of a subscription. Defaults to one second.
+	 * 
+	 * @param interval must not be negative.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setCheckpointInterval(long interval, TimeUnit unit) {
+
+		Assert.isTrue(interval >= 0, "Interval must not be negative!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.checkpointInterval = unit.toMillis(interval);
+	}
+
+	/**
+	 * Subscribes the given handler to the changes of documents in the given namespace. Resumes from the position stored
+	 * in the {@link ResumeTokenStore} if one is configured, otherwise starts with the changes happening after the
+	 * subscription.
+	 * 
+	 * @param namespace the namespace, i.e. {@code database.collection}, must not be {@literal null} or empty.
+	 * @param type the domain type to map changed documents to, must not be {@literal null}.
+	 * @param handler must not be {@literal null}.
+	 * @return
+	 */
+	public <T> Subscription subscribe(String namespace, Class<T> type, EntityCallbackHandler<ChangeEvent<T>> handler) {
+
+		Assert.hasText(namespace, "Namespace must not be null or empty!");
+
+		BSONTimestamp resumeAfter = resumeTokenStore == null ? null : resumeTokenStore.load(getTokenName(namespace));
+		return subscribe(namespace, type, resumeAfter == null ? getLastTimestamp() : resumeAfter, handler);
+	}
+
+	/**
+	 * Subscribes the given handler to the changes of documents in the given namespace happening after the given oplog
+	 * timestamp.
+	 * 
+	 * @param namespace the namespace, i.e. {@code database.collection}, must not be {@literal null} or empty.
+	 * @param type the domain type to map changed documents to, must not be {@literal null}.
+	 * @param resumeAfter the timestamp to resume after, {@literal null} to read the entire oplog.
+	 * @param handler must not be {@literal null}.
+	 * @return
+	 */
+	public <T> Subscription subscribe(String namespace, Class<T> type, BSONTimestamp resumeAfter,
+			EntityCallbackHandler<ChangeEvent<T>> handler) {
+
+		Assert.hasText(namespace, "Namespace must not be null or empty!");
+		Assert.notNull(type, "Type must not be null!");
+		Assert.notNull(handler, "EntityCallbackHandler must not be null!");
+
+		List<String> codes = new ArrayList<String>();
+
+		for (Operation operation : operationTypes) {
+			codes.add(operation.getCode());
+		}
+
+		DBObject query = new BasicDBObject(NAMESPACE_FIELD, namespace).append(OPERATION_FIELD,
+				new BasicDBObject("$in", codes));
+		final ChangeEventDispatcher<T> dispatcher = new ChangeEventDispatcher<T>(namespace, type, handler);
+
+		return new TailingSubscription(operations, oplogCollectionName, query, null, dispatcher, TIMESTAMP_FIELD,
+				resumeAfter) {
+
+			@Override
+			protected void onStop() {
+				dispatcher.saveCheckpoint();
+			}
+		}.start();
+	}
+
+	/**
+	 * Returns the timestamp of the most recent oplog entry.
+	 * 
+	 * @return the timestamp or {@literal null} if the oplog is empty.
+	 */
+	private BSONTimestamp getLastTimestamp() {
+
+		return operations.execute(oplogCollectionName, new CollectionCallback<BSONTimestamp>() {
+			public BSONTimestamp doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+
+				DBCursor cursor = collection.find(new BasicDBObject(), new BasicDBObject(TIMESTAMP_FIELD, 1))
+						.sort(new BasicDBObject("$natural", -1)).limit(1);
+
+				try {
+					return cursor.hasNext() ? (BSONTimestamp) cursor.next().get(TIMESTAMP_FIELD) : null;
+				} finally {
+					cursor.close();
+				}
+			}
+		});
+	}
+
+	private String getTokenName(String namespace) {
+		return feedName + ":" + namespace;
+	}
+
+	private static boolean isModifier(DBObject object) {
+
+		for (String key : object.keySet()) {
+			if (key.startsWith("$")) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * {@link DocumentCallbackHandler} turning oplog entries into {@link ChangeEvent}s and storing the position of the
+	 * last entry processed successfully periodically.
+	 */
+	private class ChangeEventDispatcher<T> implements DocumentCallbackHandler {
+
+		private final String namespace;
+		private final Class<T> type;
+		private final EntityCallbackHandler<ChangeEvent<T>> handler;
+		private long lastCheckpoint;
+		private BSONTimestamp lastProcessed;
+		private BSONTimestamp lastSaved;
+
+		public ChangeEventDispatcher(String namespace, Class<T> type, EntityCallbackHandler<ChangeEvent<T>> handler) {
+
+			this.namespace = namespace;
+			this.type = type;
+			this.handler = handler;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.core.DocumentCallbackHandler#processDocument(com.mongodb.DBObject)
+		 */
+		public void processDocument(DBObject entry) throws MongoException, DataAccessException {
+
+			Operation operation = Operation.fromCode((String) entry.get(OPERATION_FIELD));
+			BSONTimestamp timestamp = (BSONTimestamp) entry.get(TIMESTAMP_FIELD);
+			DBObject object = (DBObject) entry.get(OBJECT_FIELD);
+
+			if (operation == null || timestamp == null || object == null) {
+				return;
+			}
+
+			DBObject criteria = (DBObject) entry.get(CRITERIA_FIELD);
+			Object id = operation == Operation.UPDATE ? (criteria == null ? null : criteria.get(ID_FIELD)) : object
+					.get(ID_FIELD);
+			boolean fullDocument = operation == Operation.INSERT || operation == Operation.UPDATE && !isModifier(object);
+			T document = fullDocument ? converter.read(type, object) : null;
+
+			handler.processEntity(new ChangeEvent<T>(operation, namespace, id, document, timestamp));
+
+			lastProcessed = timestamp;
+
+			if (System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
+				saveCheckpoint();
+			}
+		}
+
+		/**
+		 * Stores the timestamp of the last entry processed successfully unless already stored.
+		 */
+		public void saveCheckpoint() {
+
+			if (resumeTokenStore == null || lastProcessed == null || lastProcessed.equals(lastSaved)) {
+				return;
+			}
+
+			resumeTokenStore.save(getTokenName(namespace), lastProcessed);
+			lastSaved = lastProcessed;
+			lastCheckpoint = System.currentTimeMillis();
+		}
+	}
+}
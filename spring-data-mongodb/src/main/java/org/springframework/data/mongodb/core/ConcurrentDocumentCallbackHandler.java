@@ -0,0 +1,303 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * {@link DocumentCallbackHandler} handing the documents read from a cursor to a delegate on a number of worker
+ * threads, so that the work done by the delegate does not stall the cursor. The number of documents queued or in
+ * progress is bounded to twice the number of workers, so the cursor is blocked if the workers cannot keep up. If an
+ * ordering key is given, documents with the same value for it are processed one after another in the order they were
+ * read. Once the delegate fails, the remaining documents are discarded and the failure is rethrown to the thread
+ * reading the cursor.
+ * <p>
+ * Every worker occupies a thread of the {@link Executor} until {@link #finish(boolean)} is called, so the
+ * {@link Executor} has to provide a free thread for each of them other than the one reading the cursor. Otherwise
+ * documents would be queued for workers never running. {@link #start()} thus fails if a worker is run in the calling
+ * thread or not all of them are running within {@link #setStartTimeout(long, TimeUnit)}.
+ * 
+ * @see MongoOperations#executeQuery(org.springframework.data.mongodb.core.query.Query, String,
+ *      DocumentCallbackHandler, Executor, int, String)
+ * @since 1.3
+ */
+class ConcurrentDocumentCallbackHandler implements DocumentCallbackHandler {
+
+	private static final DBObject END = new BasicDBObject();
+	private static final long DEFAULT_START_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+	private final DocumentCallbackHandler delegate;
+	private final Executor executor;
+	private final int concurrency;
+	private final String[] orderingKey;
+	private final List<BlockingQueue<DBObject>> queues;
+	private final Semaphore permits;
+	private final CountDownLatch running;
+	private final CountDownLatch finished;
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	private long startTimeout = DEFAULT_START_TIMEOUT;
+	private volatile Thread startingThread;
+	private volatile boolean aborted;
+
+	/**
+	 * Creates a new {@link ConcurrentDocumentCallbackHandler}.
+	 * 
+	 * @param delegate must not be {@literal null}.
+	 * @param executor must not be {@literal null}.
+	 * @param concurrency the number of workers, must be greater than zero.
+	 * @param orderingKey the field to keep the order of documents by, can be {@literal null}.
+	 */
+	public ConcurrentDocumentCallbackHandler(DocumentCallbackHandler delegate, Executor executor, int concurrency,
+			String orderingKey) {
+
+		Assert.notNull(delegate, "DocumentCallbackHandler must not be null!");
+		Assert.notNull(executor, "Executor must not be null!");
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than zero!");
+
+		this.delegate = delegate;
+		this.executor = executor;
+		this.concurrency = concurrency;
+		this.orderingKey = StringUtils.hasText(orderingKey) ? StringUtils.delimitedListToStringArray(orderingKey, ".")
+				: null;
+		this.queues = new ArrayList<BlockingQueue<DBObject>>();
+		this.permits = new Semaphore(concurrency * 2);
+		this.running = new CountDownLatch(concurrency);
+		this.finished = new CountDownLatch(concurrency);
+
+		for (int i = 0; i < (this.orderingKey == null ? 1 : concurrency); i++) {
+			queues.add(new LinkedBlockingQueue<DBObject>());
+		}
+	}
+
+	/**
+	 * Configures how long {@link #start()} waits for all workers to be running. Defaults to 10 seconds.
+	 * 
+	 * @param timeout must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setStartTimeout(long timeout, TimeUnit unit) {
+
+		Assert.isTrue(timeout > 0, "Timeout must be greater than zero!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.startTimeout = unit.toMillis(timeout);
+	}
+
+	/**
+	 * Starts the workers on the {@link Executor} and waits for all of them to be running.
+	 * 
+	 * @return the handler itself.
+	 * @throws InvalidDataAccessApiUsageException if the {@link Executor} runs a worker in the calling thread or does not
+	 *           run all of them within the start timeout.
+	 */
+	public ConcurrentDocumentCallbackHandler start() {
+
+		this.startingThread = Thread.currentThread();
+
+		for (int i = 0; i < concurrency; i++) {
+
+			try {
+				executor.execute(new Worker(queues.get(i % queues.size())));
+			} catch (RuntimeException e) {
+				abort();
+				throw e;
+			}
+		}
+
+		try {
+
+			if (failure.get() == null && !running.await(startTimeout, TimeUnit.MILLISECONDS)) {
+				failure.compareAndSet(null, new InvalidDataAccessApiUsageException(String.format(
+						"Only %s of %s workers were running after %s ms! The Executor has to provide a free thread for "
+								+ "each worker.", concurrency - running.getCount(), concurrency, startTimeout)));
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure.compareAndSet(null, new UncategorizedMongoDbException("Interrupted while starting workers!", e));
+		}
+
+		if (failure.get() != null) {
+			abort();
+			rethrowFailure();
+		}
+
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.DocumentCallbackHandler#processDocument(com.mongodb.DBObject)
+	 */
+	public void processDocument(DBObject dbObject) throws MongoException, DataAccessException {
+
+		rethrowFailure();
+
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncategorizedMongoDbException("Interrupted while waiting for a worker!", e);
+		}
+
+		if (failure.get() != null) {
+			permits.release();
+			rethrowFailure();
+		}
+
+		queues.get(getQueueIndex(dbObject)).add(dbObject);
+	}
+
+	/**
+	 * Signals the workers that no more documents will be handed out and waits for them to complete. Rethrows the
+	 * failure of the delegate if it failed processing the remaining documents.
+	 * 
+	 * @param abort whether to discard the documents not processed yet instead of rethrowing failures, e.g. because
+	 *          reading the cursor failed.
+	 */
+	public void finish(boolean abort) {
+
+		this.aborted = abort;
+		signalEnd();
+
+		try {
+			finished.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncategorizedMongoDbException("Interrupted while waiting for workers to complete!", e);
+		}
+
+		if (!abort) {
+			rethrowFailure();
+		}
+	}
+
+	/**
+	 * Discards all documents and signals the workers to stop without waiting for them, as some of them might never be
+	 * run by the {@link Executor}.
+	 */
+	private void abort() {
+
+		this.aborted = true;
+		signalEnd();
+	}
+
+	private void signalEnd() {
+
+		for (int i = 0; i < concurrency; i++) {
+			queues.get(i % queues.size()).add(END);
+		}
+	}
+
+	private int getQueueIndex(DBObject dbObject) {
+
+		if (orderingKey == null) {
+			return 0;
+		}
+
+		Object value = dbObject;
+
+		for (String segment : orderingKey) {
+			value = value instanceof DBObject ? ((DBObject) value).get(segment) : null;
+		}
+
+		return value == null ? 0 : (value.hashCode() & Integer.MAX_VALUE) % queues.size();
+	}
+
+	private void rethrowFailure() {
+
+		Throwable cause = failure.get();
+
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+	}
+
+	/**
+	 * Worker processing the documents of a single queue until it reads the end marker.
+	 */
+	private class Worker implements Runnable {
+
+		private final BlockingQueue<DBObject> queue;
+
+		public Worker(BlockingQueue<DBObject> queue) {
+			this.queue = queue;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+
+			if (Thread.currentThread() == startingThread) {
+				failure.compareAndSet(null, new InvalidDataAccessApiUsageException(
+						"Executor ran a worker in the thread starting it! Workers need threads of their own."));
+				finished.countDown();
+				return;
+			}
+
+			running.countDown();
+
+			try {
+
+				for (DBObject dbObject = queue.take(); dbObject != END; dbObject = queue.take()) {
+
+					try {
+						if (failure.get() == null && !aborted) {
+							delegate.processDocument(dbObject);
+						}
+					} catch (RuntimeException e) {
+						failure.compareAndSet(null, e);
+					} catch (Error e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						permits.release();
+					}
+				}
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure.compareAndSet(null, new UncategorizedMongoDbException("Interrupted while processing documents!", e));
+			} finally {
+				finished.countDown();
+			}
+		}
+	}
+}
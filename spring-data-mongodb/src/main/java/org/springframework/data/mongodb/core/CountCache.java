@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import com.mongodb.DBObject;
+import com.mongodb.util.JSON;
+
+/**
+ * Cache for the results of count queries issued through {@link MongoTemplate}. Entries are keyed by the collection
+ * name and the mapped query and expire after a configurable time to live. The cache holds a bounded number of entries
+ * and evicts the least recently used ones first. Writes issued through the {@link MongoTemplate} evict all entries
+ * for the collection written to and increment its generation, so that counts read concurrently to the write are not
+ * cached.
+ */
+public class CountCache {
+
+	private final int maxEntries;
+	private final long timeToLive;
+	private final Map<Key, Entry> entries;
+	private final Map<String, Long> generations = new HashMap<String, Long>();
+
+	/**
+	 * Creates a new {@link CountCache} holding at most the given number of entries for the given amount of time.
+	 * 
+	 * @param maxEntries must be greater than zero.
+	 * @param timeToLive must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 */
+	public CountCache(int maxEntries, long timeToLive, TimeUnit unit) {
+
+		Assert.isTrue(maxEntries > 0, "Maximum number of entries must be greater than zero!");
+		Assert.isTrue(timeToLive > 0, "Time to live must be greater than zero!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.maxEntries = maxEntries;
+		this.timeToLive = unit.toMillis(timeToLive);
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -6021538437587446313L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > CountCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached count for the given collection and query or {@literal null} if no count is cached or the
+	 * cached one has expired.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param query can be {@literal null}.
+	 * @return
+	 */
+	public synchronized Long get(String collectionName, DBObject query) {
+
+		Key key = new Key(collectionName, query);
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			return null;
+		}
+
+		if (entry.isExpired(System.currentTimeMillis())) {
+			entries.remove(key);
+			return null;
+		}
+
+		return entry.count;
+	}
+
+	/**
+	 * Returns the current generation of the given collection. Obtain the generation before reading the count to be
+	 * cached so that writes happening concurrently prevent it from being cached.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @return
+	 */
+	public synchronized long getGeneration(String collectionName) {
+
+		Long generation = generations.get(collectionName);
+		return generation == null ? 0 : generation;
+	}
+
+	/**
+	 * Caches the given count for the given collection and query if it was read for the current generation of the
+	 * collection.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param query can be {@literal null}.
+	 * @param count
+	 * @param generation the generation of the collection obtained before the count was read.
+	 */
+	public synchronized void put(String collectionName, DBObject query, long count, long generation) {
+
+		if (generation != getGeneration(collectionName)) {
+			return;
+		}
+
+		entries.put(new Key(collectionName, query), new Entry(count, System.currentTimeMillis() + timeToLive));
+	}
+
+	/**
+	 * Evicts all cached counts for the given collection and increments its generation.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 */
+	public synchronized void evict(String collectionName) {
+
+		generations.put(collectionName, getGeneration(collectionName) + 1);
+
+		Iterator<Key> iterator = entries.keySet().iterator();
+
+		while (iterator.hasNext()) {
+			if (iterator.next().collectionName.equals(collectionName)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Evicts all cached counts.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of entries currently held by the cache, including expired ones not evicted yet.
+	 * 
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Cache key consisting of the collection name and the JSON representation of the query.
+	 */
+	private static class Key {
+
+		private final String collectionName;
+		private final String query;
+
+		public Key(String collectionName, DBObject query) {
+
+			Assert.notNull(collectionName);
+
+			this.collectionName = collectionName;
+			this.query = query == null ? "{ }" : JSON.serialize(query);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key that = (Key) obj;
+			return this.collectionName.equals(that.collectionName) && this.query.equals(that.query);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+
+			int result = 17;
+
+			result += 31 * collectionName.hashCode();
+			result += 31 * ObjectUtils.nullSafeHashCode(query);
+
+			return result;
+		}
+	}
+
+	/**
+	 * A cached count along with its expiry timestamp.
+	 */
+	private static class Entry {
+
+		private final long count;
+		private final long expiresAt;
+
+		public Entry(long count, long expiresAt) {
+			this.count = count;
+			this.expiresAt = expiresAt;
+		}
+
+		public boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.mongodb.core.mapping.CachedEntity;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+import org.springframework.util.Assert;
+
+import com.mongodb.DBObject;
+
+/**
+ * Second level cache for documents looked up by id through {@link MongoTemplate#findById(Object, Class, String)}.
+ * Only types annotated with {@link CachedEntity} are cached. Documents are kept per collection keyed by their mapped
+ * id, the maximum number of documents per collection and their time to live are taken from the annotation of the type
+ * first cached for the collection. Writes issued through the {@link MongoTemplate} evict the documents written or the
+ * entire collection if the documents affected cannot be determined. Hit, miss and eviction counts are exposed through
+ * JMX when the cache is exported by an annotation-driven MBean exporter.
+ * 
+ * @since 1.3
+ */
+@ManagedResource(description = "Entity cache")
+public class EntityCache {
+
+	private static final Settings NOT_CACHEABLE = new Settings(null);
+
+	private final ConcurrentMap<Class<?>, Settings> settings = new ConcurrentHashMap<Class<?>, Settings>();
+	private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<String, Region>();
+	private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Returns whether documents of the given type shall be cached, i.e. whether the type is annotated with
+	 * {@link CachedEntity}.
+	 * 
+	 * @param type can be {@literal null}.
+	 * @return
+	 */
+	public boolean isCacheable(Class<?> type) {
+		return type != null && getSettings(type) != NOT_CACHEABLE;
+	}
+
+	/**
+	 * Returns the current generation of the given collection. The generation is incremented whenever documents of the
+	 * collection are evicted and allows to detect writes having happened while a document was read.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @return
+	 */
+	public long getGeneration(String collectionName) {
+		return getGenerationCounter(collectionName).get();
+	}
+
+	/**
+	 * Returns the cached document with the given id from the given collection.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param id the mapped id, must not be {@literal null}.
+	 * @return the document or {@literal null} if none is cached or the cached one has expired.
+	 */
+	public DBObject get(String collectionName, Object id) {
+
+		Assert.notNull(collectionName, "Collection name must not be null!");
+		Assert.notNull(id, "Id must not be null!");
+
+		Region region = regions.get(collectionName);
+		DBObject document = region == null ? null : region.get(id);
+
+		(document == null ? misses : hits).incrementAndGet();
+		return document;
+	}
+
+	/**
+	 * Caches the given document read for the given type from the given collection unless documents of the collection
+	 * have been evicted since the given generation was obtained.
+	 * 
+	 * @param type must be a type annotated with {@link CachedEntity}.
+	 * @param collectionName must not be {@literal null}.
+	 * @param id the mapped id, must not be {@literal null}.
+	 * @param document must not be {@literal null}.
+	 * @param generation the generation of the collection obtained before the document was read.
+	 * @see #getGeneration(String)
+	 */
+	public void put(Class<?> type, String collectionName, Object id, DBObject document, long generation) {
+
+		Assert.isTrue(isCacheable(type), String.format("Type %s is not annotated with @CachedEntity!", type));
+		Assert.notNull(collectionName, "Collection name must not be null!");
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(document, "Document must not be null!");
+
+		Region region = regions.get(collectionName);
+
+		if (region == null) {
+			Region newRegion = new Region(getSettings(type).annotation);
+			region = regions.putIfAbsent(collectionName, newRegion);
+			region = region == null ? newRegion : region;
+		}
+
+		region.put(id, document, generation, getGenerationCounter(collectionName));
+	}
+
+	/**
+	 * Evicts the document with the given id from the given collection.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param id the mapped id, can be {@literal null}.
+	 */
+	public void evict(String collectionName, Object id) {
+
+		getGenerationCounter(collectionName).incrementAndGet();
+
+		Region region = regions.get(collectionName);
+
+		if (region != null && id != null) {
+			region.remove(id);
+		}
+	}
+
+	/**
+	 * Evicts all documents of the given collection.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 */
+	public void evict(String collectionName) {
+
+		getGenerationCounter(collectionName).incrementAndGet();
+
+		Region region = regions.get(collectionName);
+
+		if (region != null) {
+			region.clear();
+		}
+	}
+
+	/**
+	 * Evicts all cached documents.
+	 */
+	@ManagedOperation(description = "Evicts all cached documents")
+	public void clear() {
+
+		for (String collectionName : regions.keySet()) {
+			evict(collectionName);
+		}
+	}
+
+	/**
+	 * Returns the number of lookups served from the cache.
+	 * 
+	 * @return
+	 */
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Cache hit count")
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups not found in the cache.
+	 * 
+	 * @return
+	 */
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Cache miss count")
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of documents evicted from the cache.
+	 * 
+	 * @return
+	 */
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Cache eviction count")
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Returns the number of documents currently cached across all collections.
+	 * 
+	 * @return
+	 */
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Number of cached documents")
+	public int getSize() {
+
+		int size = 0;
+
+		for (Region region : regions.values()) {
+			size += region.size();
+		}
+
+		return size;
+	}
+
+	private Settings getSettings(Class<?> type) {
+
+		Settings result = settings.get(type);
+
+		if (result == null) {
+			CachedEntity annotation = AnnotationUtils.findAnnotation(type, CachedEntity.class);
+			result = annotation == null ? NOT_CACHEABLE : new Settings(annotation);
+			settings.putIfAbsent(type, result);
+		}
+
+		return result;
+	}
+
+	private AtomicLong getGenerationCounter(String collectionName) {
+
+		Assert.notNull(collectionName, "Collection name must not be null!");
+
+		AtomicLong generation = generations.get(collectionName);
+
+		if (generation == null) {
+			AtomicLong newGeneration = new AtomicLong();
+			generation = generations.putIfAbsent(collectionName, newGeneration);
+			generation = generation == null ? newGeneration : generation;
+		}
+
+		return generation;
+	}
+
+	/**
+	 * The {@link CachedEntity} annotation resolved for a type.
+	 */
+	private static class Settings {
+
+		private final CachedEntity annotation;
+
+		public Settings(CachedEntity annotation) {
+			this.annotation = annotation;
+		}
+	}
+
+	/**
+	 * The documents cached for a single collection, evicting the least recently used ones first.
+	 */
+	private class Region {
+
+		private final long timeToLive;
+		private final Map<Object, Entry> entries;
+
+		public Region(final CachedEntity annotation) {
+
+			Assert.isTrue(annotation.maxEntries() > 0, "Maximum number of entries must be greater than zero!");
+			Assert.isTrue(annotation.timeToLive() > 0, "Time to live must be greater than zero!");
+
+			this.timeToLive = annotation.unit().toMillis(annotation.timeToLive());
+			this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 2873567713427843227L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+
+					boolean remove = size() > annotation.maxEntries();
+
+					if (remove) {
+						evictions.incrementAndGet();
+					}
+
+					return remove;
+				}
+			};
+		}
+
+		public synchronized DBObject get(Object id) {
+
+			Entry entry = entries.get(id);
+
+			if (entry == null) {
+				return null;
+			}
+
+			if (entry.isExpired(System.currentTimeMillis())) {
+				entries.remove(id);
+				evictions.incrementAndGet();
+				return null;
+			}
+
+			return entry.document;
+		}
+
+		/**
+		 * Caches the given document unless the given current generation differs from the given one the document was read
+		 * with. Checking the generation while holding the lock guarantees that no eviction is lost, as evictions increment
+		 * the generation before acquiring it.
+		 */
+		public synchronized void put(Object id, DBObject document, long generation, AtomicLong current) {
+
+			if (current.get() == generation) {
+				entries.put(id, new Entry(document, System.currentTimeMillis() + timeToLive));
+			}
+		}
+
+		public synchronized void remove(Object id) {
+
+			if (entries.remove(id) != null) {
+				evictions.incrementAndGet();
+			}
+		}
+
+		public synchronized void clear() {
+			evictions.addAndGet(entries.size());
+			entries.clear();
+		}
+
+		public synchronized int size() {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * A cached document along with its expiry timestamp.
+	 */
+	private static class Entry {
+
+		private final DBObject document;
+		private final long expiresAt;
+
+		public Entry(DBObject document, long expiresAt) {
+			this.document = document;
+			this.expiresAt = expiresAt;
+		}
+
+		public boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
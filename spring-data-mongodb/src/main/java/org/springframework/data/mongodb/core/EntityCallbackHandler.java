@@ -0,0 +1,33 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+/**
+ * Callback interface used by {@link MongoTemplate} to hand out entities read from a long running operation like
+ * tailing a capped collection one at a time.
+ * 
+ * @see MongoOperations#tail(org.springframework.data.mongodb.core.query.Query, Class, EntityCallbackHandler)
+ * @since 1.3
+ */
+public interface EntityCallbackHandler<T> {
+
+	/**
+	 * Processes the given entity.
+	 * 
+	 * @param entity will never be {@literal null}.
+	 */
+	void processEntity(T entity);
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.util.Assert;
+
+import com.mongodb.DBObject;
+
+/**
+ * Coalesces concurrent lookups of documents by id issued against the same collection into a single {@code $in} query.
+ * A lookup not contending with any other lookup of the collection reads its document right away. Lookups issued while
+ * a batch of the collection is being read are collected into the next batch which is read as soon as the previous one
+ * completes, the configured window elapses or the batch fills up, whichever comes first. Concurrent lookups of the
+ * same id thus result in a single id in the query. Batches are kept per collection and hold raw documents, so types
+ * sharing a collection share batches as well.
+ * 
+ * @since 1.3
+ */
+class FindByIdCoalescer {
+
+	private final long window;
+	private final int maxBatchSize;
+	private final DocumentLoader loader;
+	private final Map<String, Lane> lanes = new HashMap<String, Lane>();
+
+	/**
+	 * Creates a new {@link FindByIdCoalescer} collecting ids for the given window into batches of the given maximum size.
+	 * 
+	 * @param window must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 * @param maxBatchSize must be greater than zero.
+	 * @param loader must not be {@literal null}.
+	 */
+	public FindByIdCoalescer(long window, TimeUnit unit, int maxBatchSize, DocumentLoader loader) {
+
+		Assert.isTrue(window > 0, "Window must be greater than zero!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+		Assert.isTrue(maxBatchSize > 0, "Maximum batch size must be greater than zero!");
+		Assert.notNull(loader, "DocumentLoader must not be null!");
+
+		this.window = unit.toNanos(window);
+		this.maxBatchSize = maxBatchSize;
+		this.loader = loader;
+	}
+
+	/**
+	 * Returns the document with the given id from the given collection, reading it along with the documents looked up
+	 * concurrently by other threads if there are any.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param id the mapped id, must not be {@literal null}.
+	 * @return the document or {@literal null} if no document with the given id exists.
+	 */
+	public DBObject findById(String collectionName, Object id) {
+
+		Assert.notNull(collectionName, "Collection name must not be null!");
+		Assert.notNull(id, "Id must not be null!");
+
+		Lane lane;
+		Batch batch;
+		boolean leader = false;
+		boolean contended = false;
+
+		synchronized (lanes) {
+
+			lane = lanes.get(collectionName);
+
+			if (lane == null) {
+				lane = new Lane();
+				lanes.put(collectionName, lane);
+			}
+
+			batch = lane.open;
+
+			if (batch == null) {
+				batch = new Batch();
+				lane.open = batch;
+				leader = true;
+				contended = lane.reading > 0;
+			}
+
+			batch.ids.add(id);
+
+			if (batch.ids.size() >= maxBatchSize) {
+				lane.open = null;
+				lane.reading++;
+				batch.close();
+			}
+		}
+
+		if (leader) {
+			execute(collectionName, lane, batch, contended);
+		}
+
+		return batch.await(id);
+	}
+
+	/**
+	 * Reads the documents for all ids collected by the given batch. If another batch of the collection is being read,
+	 * waits for it to complete, the given batch to be closed or the window to elapse first.
+	 * 
+	 * @param collectionName
+	 * @param lane
+	 * @param batch
+	 * @param contended whether another batch of the collection was being read when the given one was opened.
+	 */
+	private void execute(String collectionName, Lane lane, Batch batch, boolean contended) {
+
+		if (contended) {
+			batch.awaitClosed(System.nanoTime() + window);
+		}
+
+		synchronized (lanes) {
+
+			if (lane.open == batch) {
+				lane.open = null;
+				lane.reading++;
+				batch.close();
+			}
+		}
+
+		try {
+			batch.complete(loader.load(collectionName, new ArrayList<Object>(batch.ids)));
+		} catch (RuntimeException e) {
+			batch.fail(e);
+		} catch (Error e) {
+			batch.fail(new UncategorizedMongoDbException("Batched lookup of documents by id failed!", e));
+			throw e;
+		} finally {
+
+			synchronized (lanes) {
+
+				lane.reading--;
+
+				if (lane.open != null) {
+					lane.open.close();
+				} else if (lane.reading == 0) {
+					lanes.remove(collectionName);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Strategy to read the documents with the given ids from a collection.
+	 */
+	interface DocumentLoader {
+
+		/**
+		 * Reads the documents with the given ids from the given collection.
+		 * 
+		 * @param collectionName will never be {@literal null}.
+		 * @param ids the mapped ids, will never be {@literal null} or empty.
+		 * @return
+		 */
+		List<DBObject> load(String collectionName, List<Object> ids);
+	}
+
+	/**
+	 * The batch of a collection currently collecting ids and the number of batches of the collection being read.
+	 */
+	private static class Lane {
+
+		private Batch open;
+		private int reading;
+	}
+
+	/**
+	 * The ids collected for a single {@code $in} query and the documents read for them once completed.
+	 */
+	private static class Batch {
+
+		private static final String ID_FIELD = "_id";
+
+		private final Set<Object> ids = new LinkedHashSet<Object>();
+
+		private boolean closed;
+		private boolean done;
+		private Map<Object, DBObject> documents;
+		private RuntimeException failure;
+
+		public synchronized void close() {
+			closed = true;
+			notifyAll();
+		}
+
+		public synchronized void awaitClosed(long deadline) {
+
+			long remaining = deadline - System.nanoTime();
+
+			while (!closed && remaining > 0) {
+
+				try {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+
+				remaining = deadline - System.nanoTime();
+			}
+
+			closed = true;
+		}
+
+		public synchronized void complete(List<DBObject> result) {
+
+			documents = new HashMap<Object, DBObject>(result.size());
+
+			for (DBObject document : result) {
+				documents.put(document.get(ID_FIELD), document);
+			}
+
+			done = true;
+			notifyAll();
+		}
+
+		public synchronized void fail(RuntimeException e) {
+
+			failure = e;
+			done = true;
+			notifyAll();
+		}
+
+		public synchronized DBObject await(Object id) {
+
+			while (!done) {
+
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new UncategorizedMongoDbException("Interrupted while waiting for batched lookup by id!", e);
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+
+			return documents.get(id);
+		}
+	}
+}
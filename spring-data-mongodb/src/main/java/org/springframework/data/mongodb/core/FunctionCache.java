@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.util.Assert;
+
+/**
+ * Cache for the sources of JavaScript functions {@link MongoTemplate} loads from resources for map-reduce and group
+ * operations. Entries are keyed by the resource location so that a resource is only read once. With change detection
+ * enabled, the last modification date of the resource is checked on every lookup and the resource is read again if it
+ * changed.
+ * 
+ * @since 1.3
+ */
+public class FunctionCache {
+
+	private final boolean detectChanges;
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	/**
+	 * Creates a new {@link FunctionCache} without change detection.
+	 */
+	public FunctionCache() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new {@link FunctionCache}.
+	 * 
+	 * @param detectChanges whether to read resources again if they were modified since they were cached.
+	 */
+	public FunctionCache(boolean detectChanges) {
+		this.detectChanges = detectChanges;
+	}
+
+	/**
+	 * Returns the source of the function stored in the resource with the given location, reading it through the given
+	 * {@link ResourceLoader} if it is not cached yet or has been modified since.
+	 * 
+	 * @param location must not be {@literal null} or empty.
+	 * @param resourceLoader must not be {@literal null}.
+	 * @return
+	 * @throws InvalidDataAccessApiUsageException if the resource does not exist or cannot be read.
+	 */
+	public String getSource(String location, ResourceLoader resourceLoader) {
+
+		Assert.hasText(location, "Location must not be null or empty!");
+		Assert.notNull(resourceLoader, "ResourceLoader must not be null!");
+
+		Entry entry = entries.get(location);
+
+		if (entry != null && !detectChanges) {
+			return entry.source;
+		}
+
+		Resource resource = resourceLoader.getResource(location);
+
+		if (!resource.exists()) {
+			throw new InvalidDataAccessApiUsageException(String.format("Resource %s not found!", location));
+		}
+
+		long lastModified = detectChanges ? getLastModified(resource) : -1;
+
+		if (entry != null && lastModified != -1 && entry.lastModified == lastModified) {
+			return entry.source;
+		}
+
+		entry = new Entry(read(location, resource), lastModified);
+		entries.put(location, entry);
+
+		return entry.source;
+	}
+
+	/**
+	 * Evicts the cached source of the resource with the given location.
+	 * 
+	 * @param location must not be {@literal null}.
+	 */
+	public void evict(String location) {
+		entries.remove(location);
+	}
+
+	/**
+	 * Evicts all cached sources.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of sources currently cached.
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private static long getLastModified(Resource resource) {
+
+		try {
+			return resource.lastModified();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static String read(String location, Resource resource) {
+
+		InputStream stream = null;
+
+		try {
+			stream = resource.getInputStream();
+			return new Scanner(stream).useDelimiter("\\A").next();
+		} catch (IOException e) {
+			throw new InvalidDataAccessApiUsageException(String.format("Cannot read map-reduce file %s!", location), e);
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * A cached function source along with the last modification date of the resource it was read from.
+	 */
+	private static class Entry {
+
+		private final String source;
+		private final long lastModified;
+
+		public Entry(String source, long lastModified) {
+			this.source = source;
+			this.lastModified = lastModified;
+		}
+	}
+}
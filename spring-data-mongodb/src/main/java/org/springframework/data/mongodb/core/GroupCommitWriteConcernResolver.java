@@ -0,0 +1,226 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.CommandResult;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
+
+/**
+ * {@link WriteConcernResolver} to confirm the durability of writes issued by many threads with a single
+ * {@code getlasterror} command per group of writes. Writes are only acknowledged by the server individually, which
+ * still reports errors like duplicate keys for every single write but avoids waiting for the journal or the data files
+ * to be flushed. Instead, every write joins the current group once acknowledged and waits for the group to be committed,
+ * which happens once the group window has elapsed or the maximum group size is reached. The first write of a group
+ * issues a {@code getlasterror} command waiting for the journal commit or fsync covering all writes of the group and
+ * failures of that command are reported to every write in the group.
+ * <p>
+ * As {@code getlasterror} only tracks replication per connection, only journaling and fsync can be confirmed for a
+ * group. The {@code w} and {@code wtimeout} settings of the durable {@link WriteConcern} are applied to every write.
+ * 
+ * @see MongoTemplate#setWriteConcernResolver(WriteConcernResolver)
+ * @since 1.3
+ */
+public class GroupCommitWriteConcernResolver implements WriteConcernResolver {
+
+	private final WriteConcern acknowledged;
+	private final DBObject commitCommand;
+	private final long window;
+	private final int maxGroupSize;
+
+	private final AtomicLong commits = new AtomicLong();
+	private final AtomicLong writes = new AtomicLong();
+
+	private Group current;
+
+	/**
+	 * Creates a new {@link GroupCommitWriteConcernResolver} confirming the given {@link WriteConcern} for groups of
+	 * writes collected for the given window and of the given maximum size.
+	 * 
+	 * @param durable must not be {@literal null} and require either journaling or fsync, as {@code getlasterror} rejects
+	 *          requests for both.
+	 * @param window must not be negative.
+	 * @param unit must not be {@literal null}.
+	 * @param maxGroupSize must be greater than zero.
+	 */
+	public GroupCommitWriteConcernResolver(WriteConcern durable, long window, TimeUnit unit, int maxGroupSize) {
+
+		Assert.notNull(durable, "WriteConcern must not be null!");
+		Assert.isTrue(durable.getJ() != durable.getFsync(),
+				"Group commit requires a WriteConcern using either journal or fsync!");
+		Assert.isTrue(window >= 0, "Window must not be negative!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+		Assert.isTrue(maxGroupSize > 0, "Maximum group size must be greater than zero!");
+
+		Object w = durable.getWObject();
+
+		this.acknowledged = w instanceof String ? new WriteConcern((String) w, durable.getWtimeout(), false, false)
+				: new WriteConcern(Math.max(durable.getW(), 1), durable.getWtimeout(), false, false);
+		this.commitCommand = new BasicDBObject("getlasterror", 1).append("j", durable.getJ()).append("fsync",
+				durable.getFsync());
+		this.window = unit.toNanos(window);
+		this.maxGroupSize = maxGroupSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.WriteConcernResolver#resolve(org.springframework.data.mongodb.core.MongoAction)
+	 */
+	public WriteConcern resolve(MongoAction action) {
+		return acknowledged;
+	}
+
+	/**
+	 * Joins the current group of writes and waits for it to be committed. Called by {@link MongoTemplate} for every
+	 * successfully acknowledged write.
+	 * 
+	 * @param db must not be {@literal null}.
+	 * @throws UncategorizedMongoDbException in case committing the group failed.
+	 */
+	public void awaitCommit(DB db) {
+
+		Assert.notNull(db, "DB must not be null!");
+
+		Group group;
+		boolean leader = false;
+
+		synchronized (this) {
+
+			if (current == null) {
+				current = new Group();
+				leader = true;
+			}
+
+			group = current;
+
+			if (++group.size >= maxGroupSize) {
+				current = null;
+				group.close();
+			}
+		}
+
+		writes.incrementAndGet();
+
+		if (leader) {
+
+			group.awaitClosed(System.nanoTime() + window);
+
+			synchronized (this) {
+				if (current == group) {
+					current = null;
+				}
+			}
+
+			try {
+				CommandResult result = db.command(commitCommand);
+				result.throwOnError();
+				group.complete(null);
+			} catch (RuntimeException e) {
+				group.complete(new UncategorizedMongoDbException(String.format("Group commit of %s writes failed!",
+						group.size), e));
+			} finally {
+				commits.incrementAndGet();
+			}
+		}
+
+		group.await();
+	}
+
+	/**
+	 * Returns the number of group commits issued.
+	 * 
+	 * @return
+	 */
+	public long getCommitCount() {
+		return commits.get();
+	}
+
+	/**
+	 * Returns the number of writes confirmed through group commits.
+	 * 
+	 * @return
+	 */
+	public long getWriteCount() {
+		return writes.get();
+	}
+
+	/**
+	 * A group of writes to be confirmed by a single commit.
+	 */
+	private static class Group {
+
+		private int size;
+		private boolean closed;
+		private boolean done;
+		private RuntimeException failure;
+
+		public synchronized void close() {
+			closed = true;
+			notifyAll();
+		}
+
+		public synchronized void awaitClosed(long deadline) {
+
+			long remaining = deadline - System.nanoTime();
+
+			while (!closed && remaining > 0) {
+
+				try {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+
+				remaining = deadline - System.nanoTime();
+			}
+
+			closed = true;
+		}
+
+		public synchronized void complete(RuntimeException failure) {
+
+			this.failure = failure;
+			this.done = true;
+			notifyAll();
+		}
+
+		public synchronized void await() {
+
+			while (!done) {
+
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new UncategorizedMongoDbException("Interrupted while waiting for group commit!", e);
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+}
@@ -16,10 +16,18 @@
 package org.springframework.data.mongodb.core;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.geo.GeoPage;
 import org.springframework.data.mongodb.core.geo.GeoResult;
 import org.springframework.data.mongodb.core.geo.GeoResults;
 import org.springframework.data.mongodb.core.mapreduce.GroupBy;
@@ -28,6 +36,8 @@ import org.springframework.data.mongodb.core.mapreduce.MapReduceOptions;
 import org.springframework.data.mongodb.core.mapreduce.MapReduceResults;
 import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.KeysetResults;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.core.query.NearQuery;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -92,6 +102,99 @@ public interface MongoOperations {
 	 */
 	void executeQuery(Query query, String collectionName, DocumentCallbackHandler dch);
 
+	/**
+	 * Execute a MongoDB query and hand the query results to the given {@link DocumentCallbackHandler} on the given
+	 * number of worker threads obtained from the given {@link Executor}, so that the work done by the handler does not
+	 * stall the cursor. The number of documents queued or in progress is bounded, documents are processed in no
+	 * particular order. The method returns once all documents have been processed. If the handler fails, the cursor is
+	 * closed, the remaining documents are discarded and the failure is rethrown. Each worker occupies a thread of the
+	 * {@link Executor} for the whole operation, so it has to provide at least {@code concurrency} free threads other
+	 * than the calling one. The operation fails if the workers are not running within 10 seconds.
+	 * 
+	 * @param query the query class that specifies the criteria used to find a record and also an optional fields
+	 *          specification, must not be {@literal null}.
+	 * @param collectionName name of the collection to retrieve the objects from
+	 * @param dch the handler that will extract results, must not be {@literal null} and must be thread-safe.
+	 * @param executor the {@link Executor} to run the workers on, must not be {@literal null} and must provide a free
+	 *          thread for each worker.
+	 * @param concurrency the number of workers, must be greater than zero.
+	 */
+	void executeQuery(Query query, String collectionName, DocumentCallbackHandler dch, Executor executor, int concurrency);
+
+	/**
+	 * Execute a MongoDB query and hand the query results to the given {@link DocumentCallbackHandler} on the given
+	 * number of worker threads like {@link #executeQuery(Query, String, DocumentCallbackHandler, Executor, int)}, but
+	 * process documents with the same value for the given ordering key one after another in the order they were read.
+	 * 
+	 * @param query the query class that specifies the criteria used to find a record and also an optional fields
+	 *          specification, must not be {@literal null}.
+	 * @param collectionName name of the collection to retrieve the objects from
+	 * @param dch the handler that will extract results, must not be {@literal null} and must be thread-safe.
+	 * @param executor the {@link Executor} to run the workers on, must not be {@literal null} and must provide a free
+	 *          thread for each worker.
+	 * @param concurrency the number of workers, must be greater than zero.
+	 * @param orderingKey the (dot-separated) field to keep the order of documents by, can be {@literal null} to not
+	 *          keep any order.
+	 */
+	void executeQuery(Query query, String collectionName, DocumentCallbackHandler dch, Executor executor,
+			int concurrency, String orderingKey);
+
+	/**
+	 * Tails the capped collection for the entity class, i.e. hands every document matching the given {@link Query}
+	 * inserted into the collection to the given {@link EntityCallbackHandler} until the returned {@link Subscription}
+	 * is cancelled.
+	 * 
+	 * @param query the query selecting the documents to hand out, must not be {@literal null}.
+	 * @param entityClass the type to convert the documents into, must not be {@literal null}.
+	 * @param handler must not be {@literal null}.
+	 * @return the {@link Subscription} to cancel tailing the collection with.
+	 */
+	<T> Subscription tail(Query query, Class<T> entityClass, EntityCallbackHandler<T> handler);
+
+	/**
+	 * Tails the given capped collection, i.e. hands every document matching the given {@link Query} inserted into the
+	 * collection to the given {@link EntityCallbackHandler} until the returned {@link Subscription} is cancelled. The
+	 * documents are read through a tailable, await-data cursor in natural order. If the cursor dies, tailing resumes
+	 * after the last document read, which is looked up by its {@code _id} in natural order, so the {@code _id} must not
+	 * be excluded from the fields to read. If the handler throws an exception, the subscription is cancelled. Sort, skip
+	 * and limit of the query are ignored.
+	 * 
+	 * @param query the query selecting the documents to hand out, must not be {@literal null}.
+	 * @param entityClass the type to convert the documents into, must not be {@literal null}.
+	 * @param collectionName the name of a capped collection, must not be {@literal null} or empty.
+	 * @param handler must not be {@literal null}.
+	 * @return the {@link Subscription} to cancel tailing the collection with.
+	 */
+	<T> Subscription tail(Query query, Class<T> entityClass, String collectionName, EntityCallbackHandler<T> handler);
+
+	/**
+	 * Reads all documents of the collection for the entity class matching the given {@link Query} in parallel and hands
+	 * the converted entities to the given {@link EntityCallbackHandler}.
+	 * 
+	 * @param query the query selecting the documents to read, must not be {@literal null}.
+	 * @param entityClass the type to convert the documents into, must not be {@literal null}.
+	 * @param partitions the number of {@code _id} ranges to read concurrently, must be greater than zero.
+	 * @param handler must not be {@literal null} and must be thread-safe.
+	 * @see #parallelScan(Query, Class, String, int, EntityCallbackHandler)
+	 */
+	<T> void parallelScan(Query query, Class<T> entityClass, int partitions, EntityCallbackHandler<T> handler);
+
+	/**
+	 * Reads all documents of the given collection matching the given {@link Query} in parallel and hands the converted
+	 * entities to the given {@link EntityCallbackHandler}. The collection is split into the given number of contiguous
+	 * {@code _id} ranges, each of them read through a cursor of its own. The handler is invoked concurrently by the
+	 * threads reading the ranges and documents are handed out in no particular order. The method returns once all
+	 * ranges have been read. Sort of the query is ignored, skip and limit are not supported.
+	 * 
+	 * @param query the query selecting the documents to read, must not be {@literal null}.
+	 * @param entityClass the type to convert the documents into, must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param partitions the number of {@code _id} ranges to read concurrently, must be greater than zero.
+	 * @param handler must not be {@literal null} and must be thread-safe.
+	 */
+	<T> void parallelScan(Query query, Class<T> entityClass, String collectionName, int partitions,
+			EntityCallbackHandler<T> handler);
+
 	/**
 	 * Executes a {@link DbCallback} translating any exceptions as necessary.
 	 * <p/>
@@ -301,6 +404,54 @@ public interface MongoOperations {
 	 */
 	<T> GroupByResults<T> group(Criteria criteria, String inputCollectionName, GroupBy groupBy, Class<T> entityClass);
 
+	/**
+	 * Installs the given JavaScript function into the {@value StoredFunctions#COLLECTION_NAME} collection under the given
+	 * name, replacing a function of the same name. Returns a function invoking the stored one by name, which can be
+	 * handed to map-reduce and group operations in place of the actual function to not ship its full source with every
+	 * command.
+	 * 
+	 * @param name must be a valid JavaScript identifier.
+	 * @param function the function source or the location of a resource containing it, must not be {@literal null} or
+	 *          empty.
+	 * @return the function invoking the stored one.
+	 * @see StoredFunctions#reference(String)
+	 */
+	String installFunction(String name, String function);
+
+	/**
+	 * Executes the given {@link Aggregation} on the collection of its input type and maps the results to the given
+	 * output type.
+	 * 
+	 * @param aggregation must not be {@literal null} and have an input type.
+	 * @param outputType the parameterized type of the returned results, must not be {@literal null}.
+	 * @return the results of the aggregation.
+	 */
+	<T> AggregationResults<T> aggregate(Aggregation aggregation, Class<T> outputType);
+
+	/**
+	 * Executes the given {@link Aggregation} on the given collection and maps the results to the given output type.
+	 * 
+	 * @param aggregation must not be {@literal null}.
+	 * @param collectionName the collection to run the aggregation on, must not be {@literal null} or empty.
+	 * @param outputType the parameterized type of the returned results, must not be {@literal null}.
+	 * @return the results of the aggregation.
+	 */
+	<T> AggregationResults<T> aggregate(Aggregation aggregation, String collectionName, Class<T> outputType);
+
+	/**
+	 * Executes the given {@link Aggregation} on the given collection and returns an {@link Iterator} mapping the results
+	 * to the given output type one at a time as they are consumed. Prefer this over
+	 * {@link #aggregate(Aggregation, String, Class)} for large outputs to not hold all mapped results in memory at once.
+	 * Note that the aggregate command returns all raw results in a single reply, so they are not streamed from the
+	 * server but only released as they are consumed.
+	 * 
+	 * @param aggregation must not be {@literal null}.
+	 * @param collectionName the collection to run the aggregation on, must not be {@literal null} or empty.
+	 * @param outputType the parameterized type of the returned results, must not be {@literal null}.
+	 * @return
+	 */
+	<T> Iterator<T> aggregateIterator(Aggregation aggregation, String collectionName, Class<T> outputType);
+
 	/**
 	 * Execute a map-reduce operation. The map-reduce operation will be formed with an output type of INLINE
 	 * 
@@ -377,6 +528,21 @@ public interface MongoOperations {
 	 */
 	<T> GeoResults<T> geoNear(NearQuery near, Class<T> entityClass, String collectionName);
 
+	/**
+	 * Returns a {@link GeoPage} of the {@link GeoResult}s for all entities matching the given {@link NearQuery}. The
+	 * total number of results is determined by executing the given count {@link Query}, concurrently with the
+	 * {@link NearQuery} if a count executor is configured.
+	 * 
+	 * @param near must not be {@literal null}.
+	 * @param countQuery the query to determine the total number of results, must not be {@literal null}.
+	 * @param pageable the page requested, can be {@literal null}.
+	 * @param entityClass must not be {@literal null}.
+	 * @param collectionName the collection to trigger the query against.
+	 * @return
+	 */
+	<T> GeoPage<T> geoNear(NearQuery near, Query countQuery, Pageable pageable, Class<T> entityClass,
+			String collectionName);
+
 	/**
 	 * Map the results of an ad-hoc query on the collection for the entity class to a single instance of an object of the
 	 * specified type.
@@ -412,6 +578,19 @@ public interface MongoOperations {
 	 */
 	<T> T findOne(Query query, Class<T> entityClass, String collectionName);
 
+	/**
+	 * Map the results of an ad-hoc query on the given collection to a single instance of the given projection type. The
+	 * projection type can either be a class or an interface exposing a subset of the properties of the entity class. If
+	 * the query does not define a field specification, only the properties of the projection type are read.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the entity class the query is defined against.
+	 * @param projectionType the type to return.
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @return the converted object.
+	 */
+	<T> T findOne(Query query, Class<?> entityClass, Class<T> projectionType, String collectionName);
+
 	boolean exists(Query query, String collectionName);
 
 	boolean exists(Query query, Class<?> entityClass);
@@ -451,6 +630,99 @@ public interface MongoOperations {
 	 */
 	<T> List<T> find(Query query, Class<T> entityClass, String collectionName);
 
+	/**
+	 * Map the results of an ad-hoc query on the collection for the entity class to a List of the given projection type.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the entity class the query is defined against.
+	 * @param projectionType the type of the elements of the returned list.
+	 * @return the List of converted objects.
+	 * @see #find(Query, Class, Class, String)
+	 */
+	<T> List<T> find(Query query, Class<?> entityClass, Class<T> projectionType);
+
+	/**
+	 * Map the results of an ad-hoc query on the given collection to a List of the given projection type. The projection
+	 * type can either be a class or an interface exposing a subset of the properties of the entity class. Interfaces are
+	 * backed by a proxy reading the properties from the entity. If the query does not define a field specification, only
+	 * the properties of the projection type are read. These are resolved once per projection type.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the entity class the query is defined against.
+	 * @param projectionType the type of the elements of the returned list.
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @return the List of converted objects.
+	 */
+	<T> List<T> find(Query query, Class<?> entityClass, Class<T> projectionType, String collectionName);
+
+	/**
+	 * Returns the {@link Page} of documents described by the given {@link Pageable} out of the ones matching the given
+	 * {@link Query}. The total number of matching documents is counted concurrently with reading the page content if a
+	 * count executor is configured. Counts might be served from a count cache, if configured.
+	 * 
+	 * @param query the query class that specifies the criteria used to find a record and also an optional fields
+	 *          specification, must not be {@literal null}. Will get the {@link Pageable} applied.
+	 * @param pageable the page requested, can be {@literal null}.
+	 * @param entityClass the parameterized type of the returned page.
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @return
+	 */
+	<T> Page<T> findPage(Query query, Pageable pageable, Class<T> entityClass, String collectionName);
+
+	/**
+	 * Returns the {@link Page} of documents described by the given {@link Pageable} out of the ones matching the given
+	 * {@link Query} with its content read into the given projection type.
+	 * 
+	 * @param query must not be {@literal null}. Will get the {@link Pageable} applied.
+	 * @param pageable the page requested, can be {@literal null}.
+	 * @param entityClass the entity class the query is defined against.
+	 * @param projectionType the parameterized type of the returned page.
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @return
+	 * @see #find(Query, Class, Class, String)
+	 */
+	<T> Page<T> findPage(Query query, Pageable pageable, Class<?> entityClass, Class<T> projectionType,
+			String collectionName);
+
+	/**
+	 * Reads the window of documents described by the given keyset {@link Query} from the collection for the entity
+	 * class. The query has to be configured using {@link Query#withKeyset(KeysetToken)} and define a limit which
+	 * determines the size of the window.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the parameterized type of the returned results.
+	 * @return the window of results along with the {@link KeysetToken} to read the next one.
+	 */
+	<T> KeysetResults<T> findWithKeyset(Query query, Class<T> entityClass);
+
+	/**
+	 * Reads the window of documents described by the given keyset {@link Query} from the given collection. The query has
+	 * to be configured using {@link Query#withKeyset(KeysetToken)} and define a limit which determines the size of the
+	 * window. The documents read have to contain the sort keys of the query so the field specification must not exclude
+	 * them.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the parameterized type of the returned results.
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @return the window of results along with the {@link KeysetToken} to read the next one.
+	 */
+	<T> KeysetResults<T> findWithKeyset(Query query, Class<T> entityClass, String collectionName);
+
+	/**
+	 * Reads the window of documents described by the given keyset {@link Query} from the given collection like
+	 * {@link #findWithKeyset(Query, Class, String)} but returns the results as the given projection type, reading only
+	 * the properties exposed by it along with the sort keys.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the entity type to map the query against, must not be {@literal null}.
+	 * @param projectionType the type of the returned results, must not be {@literal null}.
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @return the window of results along with the {@link KeysetToken} to read the next one.
+	 * @see #find(Query, Class, Class, String)
+	 */
+	<T> KeysetResults<T> findWithKeyset(Query query, Class<?> entityClass, Class<T> projectionType,
+			String collectionName);
+
 	/**
 	 * Returns a document with the given id mapped onto the given class. The collection the query is ran against will be
 	 * derived from the given target class as well.
@@ -473,6 +745,41 @@ public interface MongoOperations {
 	 */
 	<T> T findById(Object id, Class<T> entityClass, String collectionName);
 
+	/**
+	 * Returns the documents with the given ids mapped onto the given class. The collection the query is ran against will
+	 * be derived from the given target class as well. The ids are looked up in chunks of bounded size and the result is
+	 * returned in the order of the given ids. Ids no document can be found for are skipped.
+	 * 
+	 * @param ids the ids of the documents to return, must not be {@literal null}.
+	 * @param entityClass the type the documents shall be converted into.
+	 * @return the documents with the given ids in the order of the given ids.
+	 */
+	<T> List<T> findAllById(Collection<?> ids, Class<T> entityClass);
+
+	/**
+	 * Returns the documents with the given ids from the given collection mapped onto the given target class. The ids are
+	 * looked up in chunks of bounded size and the result is returned in the order of the given ids. Ids no document can
+	 * be found for are skipped.
+	 * 
+	 * @param ids the ids of the documents to return, must not be {@literal null}.
+	 * @param entityClass the type to convert the documents to.
+	 * @param collectionName the collection to query for the documents.
+	 * @return the documents with the given ids in the order of the given ids.
+	 */
+	<T> List<T> findAllById(Collection<?> ids, Class<T> entityClass, String collectionName);
+
+	/**
+	 * Returns the documents with the given ids from the given collection mapped onto the given target class and keyed by
+	 * the given ids. The {@link Map} iterates in the order of the given ids and does not contain entries for ids no
+	 * document can be found for.
+	 * 
+	 * @param ids the ids of the documents to return, must not be {@literal null}.
+	 * @param entityClass the type to convert the documents to.
+	 * @param collectionName the collection to query for the documents.
+	 * @return
+	 */
+	<ID, T> Map<ID, T> findAllByIdAsMap(Collection<ID> ids, Class<T> entityClass, String collectionName);
+
 	<T> T findAndModify(Query query, Update update, Class<T> entityClass);
 
 	<T> T findAndModify(Query query, Update update, Class<T> entityClass, String collectionName);
@@ -517,6 +824,28 @@ public interface MongoOperations {
 	 */
 	<T> T findAndRemove(Query query, Class<T> entityClass, String collectionName);
 
+	/**
+	 * Removes all documents matching the given {@link Query} from the collection of the given entity class and returns
+	 * them converted into the given type.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the parameterized type of the returned list.
+	 * @return the removed objects.
+	 */
+	<T> List<T> findAllAndRemove(Query query, Class<T> entityClass);
+
+	/**
+	 * Removes all documents matching the given {@link Query} from the given collection and returns them converted into
+	 * the given type. The matching documents are read first and then removed by their ids in a single operation, so that
+	 * exactly the returned documents are removed.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the parameterized type of the returned list.
+	 * @param collectionName name of the collection to remove the objects from.
+	 * @return the removed objects.
+	 */
+	<T> List<T> findAllAndRemove(Query query, Class<T> entityClass, String collectionName);
+
 	/**
 	 * Returns the number of documents for the given {@link Query} by querying the collection of the given entity class.
 	 * 
@@ -696,6 +1025,19 @@ public interface MongoOperations {
 	 */
 	WriteResult updateMulti(Query query, Update update, String collectionName);
 
+	/**
+	 * Updates all objects that are found in the specified collection that matches the query document criteria with the
+	 * provided updated document. The entity class is used to map the query and the update.
+	 * 
+	 * @param query the query document that specifies the criteria used to select a record to be updated
+	 * @param update the update document that contains the updated object or $ operators to manipulate the existing
+	 *          object.
+	 * @param entityClass class of the pojo to be operated on
+	 * @param collectionName name of the collection to update the object in
+	 * @return the WriteResult which lets you access the results of the previous write.
+	 */
+	WriteResult updateMulti(Query query, Update update, Class<?> entityClass, String collectionName);
+
 	/**
 	 * Remove the given object from the collection by id.
 	 * 
@@ -731,6 +1073,38 @@ public interface MongoOperations {
 	 */
 	void remove(Query query, String collectionName);
 
+	/**
+	 * Removes all documents matching the given {@link Query} from the collection used to store the entity class like
+	 * {@link #remove(Query, Class)} but returns the {@link WriteResult} of the operation, e.g. to find out about the
+	 * number of documents removed.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass
+	 * @return the {@link WriteResult} of the remove operation.
+	 */
+	WriteResult removeAll(Query query, Class<?> entityClass);
+
+	/**
+	 * Removes all documents matching the given {@link Query} from the given collection like
+	 * {@link #remove(Query, Class, String)} but returns the {@link WriteResult} of the operation.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the type to map the query against, can be {@literal null}.
+	 * @param collectionName name of the collection where the objects will removed
+	 * @return the {@link WriteResult} of the remove operation.
+	 */
+	WriteResult removeAll(Query query, Class<?> entityClass, String collectionName);
+
+	/**
+	 * Removes all documents matching the given {@link Query} from the given collection like
+	 * {@link #remove(Query, String)} but returns the {@link WriteResult} of the operation.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param collectionName name of the collection where the objects will removed
+	 * @return the {@link WriteResult} of the remove operation.
+	 */
+	WriteResult removeAll(Query query, String collectionName);
+
 	/**
 	 * Returns the underlying {@link MongoConverter}.
 	 * 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+import static org.springframework.data.mongodb.core.query.Query.*;
+
+import org.bson.types.BSONTimestamp;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+import com.mongodb.DBObject;
+
+/**
+ * {@link ResumeTokenStore} keeping a document per feed in a collection.
+ * 
+ * @since 1.3
+ */
+public class MongoResumeTokenStore implements ResumeTokenStore {
+
+	public static final String DEFAULT_COLLECTION_NAME = "resumeTokens";
+
+	private static final String TIMESTAMP_FIELD = "ts";
+
+	private final MongoOperations operations;
+	private final String collectionName;
+
+	/**
+	 * Creates a new {@link MongoResumeTokenStore} keeping the tokens in the {@value #DEFAULT_COLLECTION_NAME}
+	 * collection.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 */
+	public MongoResumeTokenStore(MongoOperations operations) {
+		this(operations, DEFAULT_COLLECTION_NAME);
+	}
+
+	/**
+	 * Creates a new {@link MongoResumeTokenStore} keeping the tokens in the collection with the given name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 */
+	public MongoResumeTokenStore(MongoOperations operations, String collectionName) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+
+		this.operations = operations;
+		this.collectionName = collectionName;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.ResumeTokenStore#load(java.lang.String)
+	 */
+	public BSONTimestamp load(String feedName) {
+
+		DBObject token = operations.findById(feedName, DBObject.class, collectionName);
+		Object timestamp = token == null ? null : token.get(TIMESTAMP_FIELD);
+
+		return timestamp instanceof BSONTimestamp ? (BSONTimestamp) timestamp : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.ResumeTokenStore#save(java.lang.String, org.bson.types.BSONTimestamp)
+	 */
+	public void save(String feedName, BSONTimestamp timestamp) {
+		operations.upsert(query(where("_id").is(feedName)), new Update().set(TIMESTAMP_FIELD, timestamp), collectionName);
+	}
+}
@@ -20,16 +20,32 @@ import static org.springframework.data.mongodb.core.query.SerializationUtils.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.types.Code;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,26 +60,37 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.authentication.UserCredentials;
 import org.springframework.data.convert.EntityReader;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.mapping.model.BeanWrapper;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoWriter;
 import org.springframework.data.mongodb.core.convert.QueryMapper;
 import org.springframework.data.mongodb.core.convert.UpdateMapper;
 import org.springframework.data.mongodb.core.geo.Distance;
+import org.springframework.data.mongodb.core.geo.GeoPage;
 import org.springframework.data.mongodb.core.geo.GeoResult;
 import org.springframework.data.mongodb.core.geo.GeoResults;
 import org.springframework.data.mongodb.core.geo.Metric;
 import org.springframework.data.mongodb.core.index.MongoMappingEventPublisher;
 import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexCreator;
+import org.springframework.data.mongodb.core.mapping.GeneratedValue;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
@@ -80,7 +107,10 @@ import org.springframework.data.mongodb.core.mapreduce.GroupBy;
 import org.springframework.data.mongodb.core.mapreduce.GroupByResults;
 import org.springframework.data.mongodb.core.mapreduce.MapReduceOptions;
 import org.springframework.data.mongodb.core.mapreduce.MapReduceResults;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.KeysetResults;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.core.query.NearQuery;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -96,7 +126,6 @@ import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.MapReduceCommand;
-import com.mongodb.MapReduceOutput;
 import com.mongodb.Mongo;
 import com.mongodb.MongoException;
 import com.mongodb.ReadPreference;
@@ -118,8 +147,11 @@ import com.mongodb.util.JSONParseException;
 public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(MongoTemplate.class);
+	private static final String IDENTITY_MAP_FUNCTION = "function() { emit(this._id, this.value); }";
+	private static final String TEMPORARY_MAP_REDUCE_COLLECTION_PREFIX = "springdata.mr.";
 	private static final String ID_FIELD = "_id";
 	private static final WriteResultChecking DEFAULT_WRITE_RESULT_CHECKING = WriteResultChecking.NONE;
+	private static final int DEFAULT_ID_BATCH_SIZE = 1000;
 	private static final Collection<String> ITERABLE_CLASSES;
 
 	static {
@@ -138,6 +170,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 	private final MongoExceptionTranslator exceptionTranslator = new MongoExceptionTranslator();
 	private final QueryMapper queryMapper;
 	private final UpdateMapper updateMapper;
+	private final ProjectionFactory projectionFactory;
 
 	private WriteConcern writeConcern;
 	private WriteConcernResolver writeConcernResolver = DefaultWriteConcernResolver.INSTANCE;
@@ -146,6 +179,18 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 	private ApplicationEventPublisher eventPublisher;
 	private ResourceLoader resourceLoader;
 	private MongoPersistentEntityIndexCreator indexCreator;
+	private int idBatchSize = DEFAULT_ID_BATCH_SIZE;
+	private Executor idBatchExecutor;
+	private Executor countExecutor;
+	private CountCache countCache;
+	private FunctionCache functionCache = new FunctionCache();
+	private EntityCache entityCache;
+	private FindByIdCoalescer findByIdCoalescer;
+	private QueryCache queryCache;
+	private SequenceGenerator sequenceGenerator;
+	private Executor tailExecutor;
+	private Executor mapReduceExecutor;
+	private Executor scanExecutor;
 
 	/**
 	 * Constructor used for a basic template configuration
@@ -195,6 +240,8 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 		// We always have a mapping context in the converter, whether it's a simple one or not
 		mappingContext = this.mongoConverter.getMappingContext();
+		this.projectionFactory = new ProjectionFactory(mappingContext, this.mongoConverter.getConversionService());
+		this.sequenceGenerator = new SequenceGenerator(this);
 		// We create indexes based on mapping events
 		if (null != mappingContext && mappingContext instanceof MongoMappingContext) {
 			indexCreator = new MongoPersistentEntityIndexCreator((MongoMappingContext) mappingContext, mongoDbFactory);
@@ -245,6 +292,149 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		this.readPreference = readPreference;
 	}
 
+	/**
+	 * Configures the maximum number of ids to be looked up with a single {@code $in} query by
+	 * {@link #findAllById(Collection, Class, String)}. Larger id collections will be split into multiple queries.
+	 * Defaults to {@value #DEFAULT_ID_BATCH_SIZE}.
+	 * 
+	 * @param idBatchSize must be greater than zero.
+	 */
+	public void setIdBatchSize(int idBatchSize) {
+		Assert.isTrue(idBatchSize > 0, "Id batch size must be greater than zero!");
+		this.idBatchSize = idBatchSize;
+	}
+
+	/**
+	 * Configures the {@link Executor} to run the queries for the individual id chunks of
+	 * {@link #findAllById(Collection, Class, String)} concurrently. If none is configured the chunks will be looked up
+	 * one after another in the calling thread.
+	 * 
+	 * @param idBatchExecutor
+	 */
+	public void setIdBatchExecutor(Executor idBatchExecutor) {
+		this.idBatchExecutor = idBatchExecutor;
+	}
+
+	/**
+	 * Configures the {@link Executor} to run the count query of paged reads on, so that it executes concurrently with
+	 * the query for the actual page content. If none is configured both queries will be executed one after another in
+	 * the calling thread.
+	 * 
+	 * @param countExecutor
+	 */
+	public void setCountExecutor(Executor countExecutor) {
+		this.countExecutor = countExecutor;
+	}
+
+	/**
+	 * Configures the {@link Executor} to hand the entities read by {@link #tail(Query, Class, EntityCallbackHandler)} to
+	 * the handlers with. If none is configured, handlers are invoked by the thread tailing the collection, which
+	 * retains the order of the documents. Note that an {@link Executor} using multiple threads might invoke handlers
+	 * concurrently and out of order. A handler failing on the {@link Executor} cancels the subscription just like a
+	 * failure in the tailing thread, documents handed to the {@link Executor} before are discarded.
+	 * 
+	 * @param tailExecutor
+	 */
+	public void setTailExecutor(Executor tailExecutor) {
+		this.tailExecutor = tailExecutor;
+	}
+
+	/**
+	 * Configures the {@link Executor} to run the map-reduce operations for the individual partitions of a parallel
+	 * map-reduce operation (see {@link MapReduceOptions#parallel(int, String)}) concurrently. If none is configured the
+	 * partitions will be processed one after another in the calling thread.
+	 * 
+	 * @param mapReduceExecutor
+	 */
+	public void setMapReduceExecutor(Executor mapReduceExecutor) {
+		this.mapReduceExecutor = mapReduceExecutor;
+	}
+
+	/**
+	 * Configures the {@link Executor} to read the individual ranges of a parallel scan (see
+	 * {@link #parallelScan(Query, Class, String, int, EntityCallbackHandler)}) concurrently. Use a bounded pool sized to
+	 * the number of cores of the client and the read capacity of the server. If none is configured the ranges will be
+	 * read one after another in the calling thread.
+	 * 
+	 * @param scanExecutor
+	 */
+	public void setScanExecutor(Executor scanExecutor) {
+		this.scanExecutor = scanExecutor;
+	}
+
+	/**
+	 * Configures the {@link CountCache} to keep the results of count queries in. Setting {@literal null} disables
+	 * caching of counts which is the default.
+	 * 
+	 * @param countCache
+	 */
+	public void setCountCache(CountCache countCache) {
+		this.countCache = countCache;
+	}
+
+	/**
+	 * Configures the {@link FunctionCache} to keep the sources of map-reduce and group functions loaded from resources
+	 * in. Defaults to one without change detection. Setting {@literal null} reads resources on every operation.
+	 * 
+	 * @param functionCache
+	 */
+	public void setFunctionCache(FunctionCache functionCache) {
+		this.functionCache = functionCache;
+	}
+
+	/**
+	 * Configures the {@link EntityCache} to keep documents of types annotated with
+	 * {@link org.springframework.data.mongodb.core.mapping.CachedEntity} looked up by id in. Setting {@literal null}
+	 * disables caching of documents which is the default.
+	 * 
+	 * @param entityCache
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+
+	/**
+	 * Configures the {@link QueryCache} to keep the results of {@code find}, {@code findOne} and {@code count} operations
+	 * in. Setting {@literal null} disables caching of query results which is the default.
+	 * 
+	 * @param queryCache
+	 */
+	public void setQueryCache(QueryCache queryCache) {
+		this.queryCache = queryCache;
+	}
+
+	/**
+	 * Configures the {@link SequenceGenerator} to populate id properties annotated with
+	 * {@link org.springframework.data.mongodb.core.mapping.GeneratedValue} from. Defaults to one keeping the sequences
+	 * in the {@value SequenceGenerator#DEFAULT_COLLECTION_NAME} collection of the template's database.
+	 * 
+	 * @param sequenceGenerator must not be {@literal null}.
+	 */
+	public void setSequenceGenerator(SequenceGenerator sequenceGenerator) {
+
+		Assert.notNull(sequenceGenerator, "SequenceGenerator must not be null!");
+		this.sequenceGenerator = sequenceGenerator;
+	}
+
+	/**
+	 * Enables coalescing of concurrent {@link #findById(Object, Class, String)} calls against the same collection into a
+	 * single {@code $in} query. Uncontended lookups read their document right away. Lookups issued while another batch
+	 * of the collection is being read are collected for at most the given window and read once that batch completes, so
+	 * that coalescing only delays lookups that would otherwise compete for connections. A window of zero disables
+	 * coalescing which is the default.
+	 * 
+	 * @param window must not be negative.
+	 * @param unit must not be {@literal null}.
+	 * @param maxBatchSize the maximum number of ids to look up with a single query, must be greater than zero.
+	 */
+	public void setFindByIdBatching(long window, TimeUnit unit, int maxBatchSize) {
+
+		Assert.isTrue(window >= 0, "Window must not be negative!");
+
+		this.findByIdCoalescer = window == 0 ? null : new FindByIdCoalescer(window, unit, maxBatchSize,
+				new CoalescedIdLookup());
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.springframework.context.ApplicationContextAware#setApplicationContext(org.springframework.context.ApplicationContext)
@@ -340,6 +530,179 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		executeQuery(query, collectionName, dch, new QueryCursorPreparer(query));
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#executeQuery(org.springframework.data.mongodb.core.query.Query, java.lang.String, org.springframework.data.mongodb.core.DocumentCallbackHandler, java.util.concurrent.Executor, int)
+	 */
+	public void executeQuery(Query query, String collectionName, DocumentCallbackHandler dch, Executor executor,
+			int concurrency) {
+		executeQuery(query, collectionName, dch, executor, concurrency, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#executeQuery(org.springframework.data.mongodb.core.query.Query, java.lang.String, org.springframework.data.mongodb.core.DocumentCallbackHandler, java.util.concurrent.Executor, int, java.lang.String)
+	 */
+	public void executeQuery(Query query, String collectionName, DocumentCallbackHandler dch, Executor executor,
+			int concurrency, String orderingKey) {
+
+		Assert.notNull(query, "Query must not be null!");
+
+		ConcurrentDocumentCallbackHandler handler = new ConcurrentDocumentCallbackHandler(dch, executor, concurrency,
+				orderingKey).start();
+		boolean completed = false;
+
+		try {
+			executeQuery(query, collectionName, handler);
+			completed = true;
+		} finally {
+			try {
+				handler.finish(!completed);
+			} catch (RuntimeException e) {
+				throw potentiallyConvertRuntimeException(e);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#tail(org.springframework.data.mongodb.core.query.Query, java.lang.Class, org.springframework.data.mongodb.core.EntityCallbackHandler)
+	 */
+	public <T> Subscription tail(Query query, Class<T> entityClass, EntityCallbackHandler<T> handler) {
+		return tail(query, entityClass, determineCollectionName(entityClass), handler);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#tail(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.String, org.springframework.data.mongodb.core.EntityCallbackHandler)
+	 */
+	public <T> Subscription tail(Query query, Class<T> entityClass, final String collectionName,
+			final EntityCallbackHandler<T> handler) {
+
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(entityClass, "Entity class must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.notNull(handler, "EntityCallbackHandler must not be null!");
+
+		if (collectionExists(collectionName) && !getCollection(collectionName).isCapped()) {
+			throw new InvalidDataAccessApiUsageException(String.format(
+					"Cannot tail collection %s as it is not a capped collection!", collectionName));
+		}
+
+		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+		DBObject fieldsObject = query.getFieldsObject();
+		DBObject mappedQuery = queryMapper.getMappedObject(query.getQueryObject(), entity);
+		DBObject mappedFields = fieldsObject == null ? null : queryMapper.getMappedObject(fieldsObject, entity);
+
+		final DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
+		final Executor executor = tailExecutor;
+		final AtomicReference<Subscription> subscription = new AtomicReference<Subscription>();
+
+		DocumentCallbackHandler dispatcher = new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) throws MongoException, DataAccessException {
+
+				final T result = callback.doWith(dbObject);
+
+				if (executor == null) {
+					handler.processEntity(result);
+					return;
+				}
+
+				executor.execute(new Runnable() {
+					public void run() {
+
+						if (!subscription.get().isActive()) {
+							return;
+						}
+
+						// Failures don't reach the tailing thread, so cancel like it would
+						try {
+							handler.processEntity(result);
+						} catch (RuntimeException e) {
+							LOGGER.error("Failed to process entity tailed from collection " + collectionName
+									+ ", cancelling subscription!", e);
+							subscription.get().cancel();
+						}
+					}
+				});
+			}
+		};
+
+		TailingSubscription tailingSubscription = new TailingSubscription(this, collectionName, mappedQuery,
+				mappedFields, dispatcher);
+		subscription.set(tailingSubscription);
+
+		return tailingSubscription.start();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#parallelScan(org.springframework.data.mongodb.core.query.Query, java.lang.Class, int, org.springframework.data.mongodb.core.EntityCallbackHandler)
+	 */
+	public <T> void parallelScan(Query query, Class<T> entityClass, int partitions, EntityCallbackHandler<T> handler) {
+		parallelScan(query, entityClass, determineCollectionName(entityClass), partitions, handler);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#parallelScan(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.String, int, org.springframework.data.mongodb.core.EntityCallbackHandler)
+	 */
+	public <T> void parallelScan(Query query, Class<T> entityClass, final String collectionName, int partitions,
+			final EntityCallbackHandler<T> handler) {
+
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(entityClass, "Entity class must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.isTrue(partitions > 0, "Number of partitions must be greater than zero!");
+		Assert.notNull(handler, "EntityCallbackHandler must not be null!");
+
+		if (query.getSkip() > 0 || query.getLimit() > 0) {
+			throw new InvalidDataAccessApiUsageException("Cannot use skip or limit with parallel scans!");
+		}
+
+		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+		DBObject mappedQueryObject = queryMapper.getMappedObject(query.getQueryObject(), entity);
+		DBObject fieldsObject = query.getFieldsObject();
+		final DBObject mappedFields = fieldsObject == null ? null : queryMapper.getMappedObject(fieldsObject, entity);
+		final CursorPreparer preparer = new QueryCursorPreparer(StringUtils.hasText(query.getHint()) ? new Query()
+				.withHint(query.getHint()) : null);
+
+		final DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
+		final DocumentCallbackHandler dispatcher = new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) throws MongoException, DataAccessException {
+				handler.processEntity(callback.doWith(dbObject));
+			}
+		};
+
+		List<Object> splitPoints = partitions == 1 ? Collections.<Object> emptyList() : getSplitPoints(
+				mappedQueryObject, collectionName, ID_FIELD, partitions);
+		List<Callable<Void>> scans = new ArrayList<Callable<Void>>(splitPoints.size() + 1);
+
+		for (int i = 0; i <= splitPoints.size(); i++) {
+
+			Object lowerBound = i == 0 ? null : splitPoints.get(i - 1);
+			Object upperBound = i == splitPoints.size() ? null : splitPoints.get(i);
+
+			DBObject range = lowerBound == null && upperBound == null ? new BasicDBObject() : getPartitionRange(ID_FIELD,
+					lowerBound, upperBound);
+			final DBObject mappedQuery = withCriteria(mappedQueryObject, range);
+
+			scans.add(new Callable<Void>() {
+				public Void call() {
+
+					if (LOGGER.isDebugEnabled()) {
+						LOGGER.debug("Scanning range " + serializeToJsonSafely(mappedQuery) + " of collection " + collectionName);
+					}
+
+					executeQueryInternal(new FindCallback(mappedQuery, mappedFields), preparer, dispatcher, collectionName);
+					return null;
+				}
+			});
+		}
+
+		invokeAll(scans, scanExecutor);
+	}
+
 	/**
 	 * Execute a MongoDB query and iterate over the query results on a per-document basis with a
 	 * {@link DocumentCallbackHandler} using the provided CursorPreparer.
@@ -452,6 +815,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		execute(collectionName, new CollectionCallback<Void>() {
 			public Void doInCollection(DBCollection collection) throws MongoException, DataAccessException {
 				collection.drop();
+				onCollectionModified(collection.getName());
 				if (LOGGER.isDebugEnabled()) {
 					LOGGER.debug("Dropped collection [" + collection.getFullName() + "]");
 				}
@@ -476,6 +840,10 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 	public <T> T findOne(Query query, Class<T> entityClass, String collectionName) {
 		if (query.getSortObject() == null) {
+			if (queryCache != null) {
+				List<T> results = doFindCached(collectionName, query, entityClass, QueryCache.Kind.FIND_ONE);
+				return results.isEmpty() ? null : results.get(0);
+			}
 			return doFindOne(collectionName, query.getQueryObject(), query.getFieldsObject(), entityClass);
 		} else {
 			query.limit(1);
@@ -484,6 +852,28 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findOne(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.Class, java.lang.String)
+	 */
+	public <T> T findOne(Query query, Class<?> entityClass, Class<T> projectionType, String collectionName) {
+
+		if (query.getSortObject() == null) {
+
+			MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+			DBObject mappedQuery = queryMapper.getMappedObject(query.getQueryObject(), entity);
+			DBObject fields = getProjectionFields(query, entityClass, projectionType);
+			DBObject mappedFields = fields == null ? null : queryMapper.getMappedObject(fields, entity);
+
+			return executeFindOneInternal(new FindOneCallback(mappedQuery, mappedFields),
+					new ProjectingDbObjectCallback<T>(entityClass, projectionType), collectionName);
+		}
+
+		query.limit(1);
+		List<T> results = find(query, entityClass, projectionType, collectionName);
+		return results.isEmpty() ? null : results.get(0);
+	}
+
 	public boolean exists(Query query, Class<?> entityClass) {
 		return exists(query, entityClass, determineCollectionName(entityClass));
 	}
@@ -514,10 +904,104 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 			return findAll(entityClass, collectionName);
 		}
 
+		if (queryCache != null) {
+			return doFindCached(collectionName, query, entityClass, QueryCache.Kind.FIND);
+		}
+
 		return doFind(collectionName, query.getQueryObject(), query.getFieldsObject(), entityClass,
 				new QueryCursorPreparer(query));
 	}
 
+	/**
+	 * Returns the results for the given query from the {@link QueryCache} and only reads them from the collection if
+	 * they are not cached for the current generation of the collection yet. Documents are converted for every call so
+	 * that callers never share mutable entity instances.
+	 * 
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @param query must not be {@literal null}.
+	 * @param entityClass the type to convert the documents into.
+	 * @param kind whether to read all documents or only the first one.
+	 * @return
+	 */
+	private <T> List<T> doFindCached(String collectionName, Query query, Class<T> entityClass, QueryCache.Kind kind) {
+
+		MongoPersistentEntity<?> entity = getPersistentEntity(entityClass);
+		DBObject mappedQuery = queryMapper.getMappedObject(query.getQueryObject(), entity);
+		DBObject fields = query.getFieldsObject();
+		DBObject mappedFields = fields == null ? null : queryMapper.getMappedObject(fields, entity);
+
+		List<DBObject> documents = queryCache.getDocuments(collectionName, entityClass, kind, mappedQuery, mappedFields,
+				query);
+
+		if (documents == null) {
+
+			long generation = queryCache.getGeneration(collectionName);
+
+			if (kind == QueryCache.Kind.FIND_ONE) {
+				DBObject document = executeFindOneInternal(new FindOneCallback(mappedQuery, mappedFields),
+						RawDbObjectCallback.INSTANCE, collectionName);
+				documents = document == null ? Collections.<DBObject> emptyList() : Collections.singletonList(document);
+			} else {
+				documents = executeFindMultiInternal(new FindCallback(mappedQuery, mappedFields), new QueryCursorPreparer(
+						query), RawDbObjectCallback.INSTANCE, collectionName);
+			}
+
+			queryCache.putDocuments(collectionName, entityClass, kind, mappedQuery, mappedFields, query, documents,
+					generation);
+		}
+
+		ReadDbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
+		List<T> result = new ArrayList<T>(documents.size());
+
+		for (DBObject document : documents) {
+			result.add(callback.doWith(document));
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#find(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.Class)
+	 */
+	public <T> List<T> find(Query query, Class<?> entityClass, Class<T> projectionType) {
+		return find(query, entityClass, projectionType, determineCollectionName(entityClass));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#find(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.Class, java.lang.String)
+	 */
+	public <T> List<T> find(Query query, Class<?> entityClass, Class<T> projectionType, String collectionName) {
+
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(entityClass, "Entity class must not be null!");
+		Assert.notNull(projectionType, "Projection type must not be null!");
+
+		return doFind(collectionName, query.getQueryObject(), getProjectionFields(query, entityClass, projectionType),
+				entityClass, new QueryCursorPreparer(query), new ProjectingDbObjectCallback<T>(entityClass, projectionType));
+	}
+
+	/**
+	 * Returns the field specification to use to read the given projection type. Prefers the one defined on the
+	 * {@link Query} over the one derived from the projection type.
+	 * 
+	 * @param query must not be {@literal null}.
+	 * @param entityClass must not be {@literal null}.
+	 * @param projectionType must not be {@literal null}.
+	 * @return
+	 */
+	private DBObject getProjectionFields(Query query, Class<?> entityClass, Class<?> projectionType) {
+
+		DBObject fields = query.getFieldsObject();
+
+		if (fields != null || !projectionFactory.isProjection(entityClass, projectionType)) {
+			return fields;
+		}
+
+		return projectionFactory.getFieldsObject(entityClass, projectionType);
+	}
+
 	public <T> T findById(Object id, Class<T> entityClass) {
 		return findById(id, entityClass, determineCollectionName(entityClass));
 	}
@@ -526,9 +1010,106 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		MongoPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(entityClass);
 		MongoPersistentProperty idProperty = persistentEntity == null ? null : persistentEntity.getIdProperty();
 		String idKey = idProperty == null ? ID_FIELD : idProperty.getName();
+
+		boolean cacheable = entityCache != null && entityCache.isCacheable(entityClass);
+
+		if (cacheable || findByIdCoalescer != null) {
+			return doFindById(collectionName, new BasicDBObject(idKey, id), entityClass, cacheable);
+		}
+
 		return doFindOne(collectionName, new BasicDBObject(idKey, id), null, entityClass);
 	}
 
+	/**
+	 * Looks up the document selected by the given id query in the {@link EntityCache} if cacheable and only reads it from
+	 * the collection if it is not cached yet. Reads are coalesced with concurrent ones if configured. Documents are
+	 * converted for every lookup so that callers never share mutable entity instances.
+	 * 
+	 * @param collectionName name of the collection to retrieve the object from.
+	 * @param query the query selecting the document by id.
+	 * @param entityClass the type to convert the document into.
+	 * @param cacheable whether the document is to be looked up in the {@link EntityCache}.
+	 * @return
+	 */
+	private <T> T doFindById(String collectionName, DBObject query, Class<T> entityClass, boolean cacheable) {
+
+		DBObject mappedQuery = queryMapper.getMappedObject(query, getPersistentEntity(entityClass));
+		Object id = mappedQuery.get(ID_FIELD);
+
+		if (id == null) {
+			return doFindOne(collectionName, query, null, entityClass);
+		}
+
+		DBObject document = cacheable ? entityCache.get(collectionName, id) : null;
+
+		if (document == null) {
+
+			long generation = cacheable ? entityCache.getGeneration(collectionName) : 0;
+			document = findByIdCoalescer != null ? findByIdCoalescer.findById(collectionName, id) : executeFindOneInternal(
+					new FindOneCallback(mappedQuery, null), RawDbObjectCallback.INSTANCE, collectionName);
+
+			if (document == null) {
+				return null;
+			}
+
+			if (cacheable) {
+				entityCache.put(entityClass, collectionName, id, document, generation);
+			}
+		}
+
+		return new ReadDbObjectCallback<T>(mongoConverter, entityClass).doWith(document);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findAllById(java.util.Collection, java.lang.Class)
+	 */
+	public <T> List<T> findAllById(Collection<?> ids, Class<T> entityClass) {
+		return findAllById(ids, entityClass, determineCollectionName(entityClass));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findAllById(java.util.Collection, java.lang.Class, java.lang.String)
+	 */
+	public <T> List<T> findAllById(Collection<?> ids, Class<T> entityClass, String collectionName) {
+
+		Assert.notNull(ids, "Ids must not be null!");
+
+		Map<Object, T> documents = doFindAllById(collectionName, ids, entityClass);
+		List<T> result = new ArrayList<T>(documents.size());
+
+		for (Object id : ids) {
+			T document = id == null ? null : documents.get(queryMapper.convertId(id));
+			if (document != null) {
+				result.add(document);
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findAllByIdAsMap(java.util.Collection, java.lang.Class, java.lang.String)
+	 */
+	public <ID, T> Map<ID, T> findAllByIdAsMap(Collection<ID> ids, Class<T> entityClass, String collectionName) {
+
+		Assert.notNull(ids, "Ids must not be null!");
+
+		Map<Object, T> documents = doFindAllById(collectionName, ids, entityClass);
+		Map<ID, T> result = new LinkedHashMap<ID, T>(documents.size());
+
+		for (ID id : ids) {
+			T document = id == null ? null : documents.get(queryMapper.convertId(id));
+			if (document != null) {
+				result.put(id, document);
+			}
+		}
+
+		return result;
+	}
+
 	public <T> GeoResults<T> geoNear(NearQuery near, Class<T> entityClass) {
 		return geoNear(near, entityClass, determineCollectionName(entityClass));
 	}
@@ -607,14 +1188,213 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 	private long count(Query query, Class<?> entityClass, String collectionName) {
 
 		Assert.hasText(collectionName);
-		final DBObject dbObject = query == null ? null : queryMapper.getMappedObject(query.getQueryObject(),
-				entityClass == null ? null : mappingContext.getPersistentEntity(entityClass));
-
-		return execute(collectionName, new CollectionCallback<Long>() {
-			public Long doInCollection(DBCollection collection) throws MongoException, DataAccessException {
-				return collection.count(dbObject);
-			}
-		});
+		return doCount(collectionName, query == null ? null : query.getQueryObject(), entityClass);
+	}
+
+	/**
+	 * Counts the documents matching the given query in the given collection. Will return a cached count if a
+	 * {@link QueryCache} or {@link CountCache} is configured and holds a count for the given query.
+	 * 
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param query the query document, can be {@literal null}.
+	 * @param entityClass the type to map the query against, can be {@literal null}.
+	 * @return
+	 */
+	protected long doCount(String collectionName, DBObject query, Class<?> entityClass) {
+
+		final DBObject dbObject = query == null ? null : queryMapper.getMappedObject(query,
+				getPersistentEntity(entityClass));
+
+		Long cachedCount = queryCache == null ? null : queryCache.getCount(collectionName, entityClass, dbObject);
+		cachedCount = cachedCount != null || countCache == null ? cachedCount : countCache.get(collectionName, dbObject);
+
+		if (cachedCount != null) {
+			return cachedCount;
+		}
+
+		long generation = queryCache == null ? 0 : queryCache.getGeneration(collectionName);
+		long countGeneration = countCache == null ? 0 : countCache.getGeneration(collectionName);
+
+		long count = execute(collectionName, new CollectionCallback<Long>() {
+			public Long doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+				return collection.count(dbObject);
+			}
+		});
+
+		if (countCache != null) {
+			countCache.put(collectionName, dbObject, count, countGeneration);
+		}
+
+		if (queryCache != null) {
+			queryCache.putCount(collectionName, entityClass, dbObject, count, generation);
+		}
+
+		return count;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findPage(org.springframework.data.mongodb.core.query.Query, org.springframework.data.domain.Pageable, java.lang.Class, java.lang.String)
+	 */
+	public <T> Page<T> findPage(Query query, Pageable pageable, Class<T> entityClass, String collectionName) {
+		return findPage(query, pageable, entityClass, entityClass, collectionName);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findPage(org.springframework.data.mongodb.core.query.Query, org.springframework.data.domain.Pageable, java.lang.Class, java.lang.Class, java.lang.String)
+	 */
+	public <T> Page<T> findPage(Query query, Pageable pageable, Class<?> entityClass, Class<T> projectionType,
+			String collectionName) {
+
+		Assert.notNull(query, "Query must not be null!");
+		FutureTask<Long> count = startCount(collectionName, query, entityClass);
+		List<T> content;
+
+		try {
+			content = find(query.with(pageable), entityClass, projectionType, collectionName);
+		} catch (RuntimeException e) {
+			count.cancel(true);
+			throw e;
+		}
+
+		return new PageImpl<T>(content, pageable, await(count));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findWithKeyset(org.springframework.data.mongodb.core.query.Query, java.lang.Class)
+	 */
+	public <T> KeysetResults<T> findWithKeyset(Query query, Class<T> entityClass) {
+		return findWithKeyset(query, entityClass, determineCollectionName(entityClass));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findWithKeyset(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.String)
+	 */
+	public <T> KeysetResults<T> findWithKeyset(Query query, Class<T> entityClass, String collectionName) {
+		return findWithKeyset(query, entityClass, entityClass, collectionName);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findWithKeyset(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.Class, java.lang.String)
+	 */
+	public <T> KeysetResults<T> findWithKeyset(Query query, Class<?> entityClass, Class<T> projectionType,
+			String collectionName) {
+
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(projectionType, "Projection type must not be null!");
+		Assert.isTrue(query.isKeysetQuery(), "Query must be configured for keyset pagination!");
+		Assert.isTrue(query.getLimit() > 0, "Keyset pagination requires a limit to be set on the query!");
+
+		MongoPersistentEntity<?> entity = getPersistentEntity(entityClass);
+		List<String> sortKeys = new ArrayList<String>(query.getSortObject().keySet());
+		List<String> fieldNames = new ArrayList<String>(sortKeys.size());
+		DBObject mappedSort = new BasicDBObject();
+
+		for (String key : sortKeys) {
+			String fieldName = getMappedFieldName(key, entity);
+			fieldNames.add(fieldName);
+			mappedSort.put(fieldName, query.getSortObject().get(key));
+		}
+
+		// Add the tie breaker only after mapping as a sort on the id property is mapped to _id
+		if (!mappedSort.containsField(ID_FIELD)) {
+			sortKeys.add(ID_FIELD);
+			fieldNames.add(ID_FIELD);
+			mappedSort.put(ID_FIELD, 1);
+		}
+
+		int limit = query.getLimit();
+		KeysetCapturingDbObjectCallback<T> callback = new KeysetCapturingDbObjectCallback<T>(
+				new ProjectingDbObjectCallback<T>(entityClass, projectionType), limit);
+		DBObject fields = query.getFieldsObject();
+
+		if (fields == null && projectionFactory.isProjection(entityClass, projectionType)) {
+
+			fields = getProjectionFields(query, entityClass, projectionType);
+
+			for (String key : sortKeys) {
+				fields.put(key, 1);
+			}
+		}
+
+		List<T> result;
+
+		// Read one more document to find out whether there's a next window
+		query.limit(limit + 1);
+
+		try {
+			result = doFind(collectionName, query.getQueryObject(), fields, entityClass, new QueryCursorPreparer(query,
+					mappedSort), callback);
+		} finally {
+			query.limit(limit);
+		}
+
+		if (result.size() <= limit) {
+			return new KeysetResults<T>(result, null);
+		}
+
+		KeysetToken nextToken = KeysetToken.of(callback.getLastObject(), sortKeys, fieldNames);
+		return new KeysetResults<T>(result.subList(0, limit), nextToken);
+	}
+
+	/**
+	 * Returns the name of the document field the given property path is mapped to, e.g. {@code _id} for the id
+	 * property or the name configured through {@link org.springframework.data.mongodb.core.mapping.Field}.
+	 * 
+	 * @param key must not be {@literal null}.
+	 * @param entity can be {@literal null}.
+	 * @return
+	 */
+	private String getMappedFieldName(String key, MongoPersistentEntity<?> entity) {
+		return queryMapper.getMappedObject(new BasicDBObject(key, 1), entity).keySet().iterator().next();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#geoNear(org.springframework.data.mongodb.core.query.NearQuery, org.springframework.data.mongodb.core.query.Query, org.springframework.data.domain.Pageable, java.lang.Class, java.lang.String)
+	 */
+	public <T> GeoPage<T> geoNear(NearQuery near, Query countQuery, Pageable pageable, Class<T> entityClass,
+			String collectionName) {
+
+		Assert.notNull(countQuery, "Count query must not be null!");
+		FutureTask<Long> count = startCount(collectionName, countQuery, entityClass);
+		GeoResults<T> results;
+
+		try {
+			results = geoNear(near, entityClass, collectionName);
+		} catch (RuntimeException e) {
+			count.cancel(true);
+			throw e;
+		}
+
+		return new GeoPage<T>(results, pageable, await(count));
+	}
+
+	/**
+	 * Starts the count for the given {@link Query} on the configured count {@link Executor} or executes it in the
+	 * calling thread if none is configured.
+	 * 
+	 * @param collectionName
+	 * @param query must not be {@literal null}.
+	 * @param entityClass
+	 * @return
+	 */
+	private FutureTask<Long> startCount(final String collectionName, Query query, final Class<?> entityClass) {
+
+		Assert.hasText(collectionName);
+
+		// Capture the query document eagerly as the Query might get modified by the caller
+		final DBObject queryObject = query.getQueryObject();
+
+		return start(new Callable<Long>() {
+			public Long call() throws Exception {
+				return doCount(collectionName, queryObject, entityClass);
+			}
+		}, countExecutor);
 	}
 
 	/*
@@ -668,6 +1448,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 	protected <T> void doInsert(String collectionName, T objectToSave, MongoWriter<T> writer) {
 
+		generateIdIfNecessary(objectToSave, collectionName);
 		assertUpdateableIdIfNotSet(objectToSave);
 
 		initializeVersionProperty(objectToSave);
@@ -740,6 +1521,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		List<DBObject> dbObjectList = new ArrayList<DBObject>();
 		for (T o : batchToSave) {
 
+			generateIdIfNecessary(o, collectionName);
 			initializeVersionProperty(o);
 			BasicDBObject dbDoc = new BasicDBObject();
 
@@ -821,6 +1603,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 	protected <T> void doSave(String collectionName, T objectToSave, MongoWriter<T> writer) {
 
+		generateIdIfNecessary(objectToSave, collectionName);
 		assertUpdateableIdIfNotSet(objectToSave);
 
 		DBObject dbDoc = new BasicDBObject();
@@ -855,6 +1638,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 				WriteConcern writeConcernToUse = prepareWriteConcern(mongoAction);
 				WriteResult writeResult = writeConcernToUse == null ? collection.insert(dbDoc) : collection.insert(dbDoc,
 						writeConcernToUse);
+				onDocumentModified(collectionName, dbDoc.get(ID_FIELD));
 				handleAnyWriteResultErrors(writeResult, dbDoc, MongoActionOperation.INSERT);
 				return dbDoc.get(ID_FIELD);
 			}
@@ -876,6 +1660,9 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 				WriteConcern writeConcernToUse = prepareWriteConcern(mongoAction);
 				WriteResult writeResult = writeConcernToUse == null ? collection.insert(dbDocList) : collection.insert(
 						dbDocList.toArray((DBObject[]) new BasicDBObject[dbDocList.size()]), writeConcernToUse);
+				for (DBObject dbDoc : dbDocList) {
+					onDocumentModified(collectionName, dbDoc.get(ID_FIELD));
+				}
 				handleAnyWriteResultErrors(writeResult, null, MongoActionOperation.INSERT_LIST);
 				return null;
 			}
@@ -905,6 +1692,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 				WriteConcern writeConcernToUse = prepareWriteConcern(mongoAction);
 				WriteResult writeResult = writeConcernToUse == null ? collection.save(dbDoc) : collection.save(dbDoc,
 						writeConcernToUse);
+				onDocumentModified(collectionName, dbDoc.get(ID_FIELD));
 				handleAnyWriteResultErrors(writeResult, dbDoc, MongoActionOperation.SAVE);
 				return dbDoc.get(ID_FIELD);
 			}
@@ -935,6 +1723,10 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		return doUpdate(collectionName, query, update, null, false, true);
 	}
 
+	public WriteResult updateMulti(Query query, Update update, Class<?> entityClass, String collectionName) {
+		return doUpdate(collectionName, query, update, entityClass, false, true);
+	}
+
 	protected WriteResult doUpdate(final String collectionName, final Query query, final Update update,
 			final Class<?> entityClass, final boolean upsert, final boolean multi) {
 
@@ -966,6 +1758,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 					}
 				}
 
+				onDocumentsModified(collectionName, queryObj);
 				handleAnyWriteResultErrors(writeResult, queryObj, MongoActionOperation.UPDATE);
 				return writeResult;
 			}
@@ -1017,6 +1810,41 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		return new Query(where(idProp.getFieldName()).is(idProperty));
 	}
 
+	/**
+	 * Populates the id property of the given entity from the {@link SequenceGenerator} if it is annotated with
+	 * {@link GeneratedValue} and not set yet. Primitive ids of value {@literal 0} are considered not set.
+	 * 
+	 * @param entity must not be {@literal null}.
+	 * @param collectionName the collection the entity is written to, used as sequence name by default.
+	 */
+	private void generateIdIfNecessary(Object entity, String collectionName) {
+
+		if (entity instanceof DBObject || entity instanceof String) {
+			return;
+		}
+
+		MongoPersistentProperty idProperty = getIdPropertyFor(entity.getClass());
+		GeneratedValue generatedValue = idProperty == null || idProperty.getField() == null ? null : idProperty.getField()
+				.getAnnotation(GeneratedValue.class);
+
+		if (generatedValue == null) {
+			return;
+		}
+
+		ConversionService service = mongoConverter.getConversionService();
+		BeanWrapper<PersistentEntity<Object, ?>, Object> wrapper = BeanWrapper.create(entity, service);
+		Object idValue = wrapper.getProperty(idProperty, Object.class, true);
+
+		if (idValue != null && !(idProperty.getType().isPrimitive() && ((Number) idValue).longValue() == 0)) {
+			return;
+		}
+
+		String sequence = StringUtils.hasText(generatedValue.sequence()) ? generatedValue.sequence() : collectionName;
+		long id = sequenceGenerator.next(sequence, generatedValue.blockSize());
+
+		wrapper.setProperty(idProperty, service.convert(id, idProperty.getType()));
+	}
+
 	private void assertUpdateableIdIfNotSet(Object entity) {
 
 		MongoPersistentEntity<?> persistentEntity = mappingContext.getPersistentEntity(entity.getClass());
@@ -1048,7 +1876,72 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		doRemove(collectionName, query, entityClass);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#removeAll(org.springframework.data.mongodb.core.query.Query, java.lang.String)
+	 */
+	public WriteResult removeAll(Query query, String collectionName) {
+		return removeAll(query, null, collectionName);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#removeAll(org.springframework.data.mongodb.core.query.Query, java.lang.Class)
+	 */
+	public WriteResult removeAll(Query query, Class<?> entityClass) {
+		return removeAll(query, entityClass, determineCollectionName(entityClass));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#removeAll(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.String)
+	 */
+	public WriteResult removeAll(Query query, Class<?> entityClass, String collectionName) {
+		return doRemoveAll(collectionName, query, entityClass);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findAllAndRemove(org.springframework.data.mongodb.core.query.Query, java.lang.Class)
+	 */
+	public <T> List<T> findAllAndRemove(Query query, Class<T> entityClass) {
+		return findAllAndRemove(query, entityClass, determineCollectionName(entityClass));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#findAllAndRemove(org.springframework.data.mongodb.core.query.Query, java.lang.Class, java.lang.String)
+	 */
+	public <T> List<T> findAllAndRemove(Query query, Class<T> entityClass, String collectionName) {
+
+		Assert.notNull(query, "Query must not be null!");
+
+		Map<Object, T> removed = new LinkedHashMap<Object, T>();
+		doFind(collectionName, query.getQueryObject(), query.getFieldsObject(), entityClass, new QueryCursorPreparer(query),
+				new IdCapturingDbObjectCallback<T>(new ReadDbObjectCallback<T>(mongoConverter, entityClass), removed));
+
+		if (removed.isEmpty()) {
+			return new ArrayList<T>();
+		}
+
+		doRemove(collectionName, new Query(where(ID_FIELD).in(removed.keySet())), entityClass);
+		return new ArrayList<T>(removed.values());
+	}
+
 	protected <T> void doRemove(final String collectionName, final Query query, final Class<T> entityClass) {
+		doRemoveAll(collectionName, query, entityClass);
+	}
+
+	/**
+	 * Removes all documents matching the given {@link Query} from the given collection and returns the
+	 * {@link WriteResult} of the operation.
+	 * 
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param query must not be {@literal null}.
+	 * @param entityClass can be {@literal null}.
+	 * @return
+	 */
+	protected <T> WriteResult doRemoveAll(final String collectionName, final Query query, final Class<T> entityClass) {
 
 		if (query == null) {
 			throw new InvalidDataAccessApiUsageException("Query passed in to remove can't be null!");
@@ -1059,8 +1952,8 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		final DBObject queryObject = query.getQueryObject();
 		final MongoPersistentEntity<?> entity = getPersistentEntity(entityClass);
 
-		execute(collectionName, new CollectionCallback<Void>() {
-			public Void doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+		return execute(collectionName, new CollectionCallback<WriteResult>() {
+			public WriteResult doInCollection(DBCollection collection) throws MongoException, DataAccessException {
 
 				maybeEmitEvent(new BeforeDeleteEvent<T>(queryObject, entityClass));
 
@@ -1076,11 +1969,12 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 				WriteResult wr = writeConcernToUse == null ? collection.remove(dboq) : collection.remove(dboq,
 						writeConcernToUse);
+				onDocumentsModified(collectionName, dboq);
 				handleAnyWriteResultErrors(wr, dboq, MongoActionOperation.REMOVE);
 
 				maybeEmitEvent(new AfterDeleteEvent<T>(queryObject, entityClass));
 
-				return null;
+				return wr;
 			}
 		});
 	}
@@ -1114,6 +2008,30 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 	public <T> MapReduceResults<T> mapReduce(Query query, String inputCollectionName, String mapFunction,
 			String reduceFunction, MapReduceOptions mapReduceOptions, Class<T> entityClass) {
+
+		if (mapReduceOptions.isIncremental()) {
+			return doIncrementalMapReduce(query, inputCollectionName, mapFunction, reduceFunction, mapReduceOptions,
+					entityClass);
+		}
+
+		return doMapReduceMaybeParallel(query, inputCollectionName, mapFunction, reduceFunction, mapReduceOptions,
+				entityClass);
+	}
+
+	private <T> MapReduceResults<T> doMapReduceMaybeParallel(Query query, String inputCollectionName,
+			String mapFunction, String reduceFunction, MapReduceOptions mapReduceOptions, Class<T> entityClass) {
+
+		if (mapReduceOptions.getPartitions() > 1) {
+			return doParallelMapReduce(query, inputCollectionName, mapFunction, reduceFunction, mapReduceOptions,
+					entityClass);
+		}
+
+		return doMapReduce(query, inputCollectionName, mapFunction, reduceFunction, mapReduceOptions, entityClass);
+	}
+
+	private <T> MapReduceResults<T> doMapReduce(Query query, String inputCollectionName, String mapFunction,
+			String reduceFunction, MapReduceOptions mapReduceOptions, Class<T> entityClass) {
+
 		String mapFunc = replaceWithResourceIfNecessary(mapFunction);
 		String reduceFunc = replaceWithResourceIfNecessary(reduceFunction);
 		DBCollection inputCollection = getCollection(inputCollectionName);
@@ -1129,107 +2047,764 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 
 		CommandResult commandResult = command.getOutputType() == MapReduceCommand.OutputType.INLINE ? executeCommand(
 				commandObject, getDb().getOptions()) : executeCommand(commandObject);
+
+		if (command.getOutputType() != MapReduceCommand.OutputType.INLINE) {
+			onCollectionModified(mapReduceOptions.getOutputCollection());
+		}
+
 		handleCommandError(commandResult, commandObject);
 
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("MapReduce command result = [{}]", serializeToJsonSafely(commandObject));
 		}
 
-		MapReduceOutput mapReduceOutput = new MapReduceOutput(inputCollection, commandObject, commandResult);
-		List<T> mappedResults = new ArrayList<T>();
-		DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
-		for (DBObject dbObject : mapReduceOutput.results()) {
-			mappedResults.add(callback.doWith(dbObject));
-		}
-
-		MapReduceResults<T> mapReduceResult = new MapReduceResults<T>(mappedResults, commandResult);
-		return mapReduceResult;
-	}
-
-	public <T> GroupByResults<T> group(String inputCollectionName, GroupBy groupBy, Class<T> entityClass) {
-		return group(null, inputCollectionName, groupBy, entityClass);
+		return createMapReduceResults(commandResult, mapReduceOptions, entityClass);
 	}
 
-	public <T> GroupByResults<T> group(Criteria criteria, String inputCollectionName, GroupBy groupBy,
-			Class<T> entityClass) {
+	/**
+	 * Runs an incremental map-reduce operation for the documents with a watermark greater than the one persisted for the
+	 * job and not greater than the latest one currently found in the input collection, excluding the ones within the
+	 * configured lag. The upper bound is recorded as pending before the operation is executed and only promoted to the
+	 * job's watermark after it succeeded. A pending range found by a subsequent run might or might not have been written
+	 * to the output, e.g. if the job document could not be updated after the operation. Merge output is idempotent, so
+	 * the range is simply processed again. Reduce output is not as the range would be reduced into the output twice, so
+	 * the run is rejected until the job has been resolved manually. A run claims the job atomically when recording the
+	 * pending range, so that concurrent runs of the same job fail instead of processing the same range twice.
+	 */
+	private <T> MapReduceResults<T> doIncrementalMapReduce(Query query, String inputCollectionName, String mapFunction,
+			String reduceFunction, MapReduceOptions mapReduceOptions, Class<T> entityClass) {
 
-		DBObject dbo = groupBy.getGroupByObject();
-		dbo.put("ns", inputCollectionName);
+		MapReduceCommand.OutputType outputType = mapReduceOptions.getOutputType();
 
-		if (criteria == null) {
-			dbo.put("cond", null);
-		} else {
-			dbo.put("cond", queryMapper.getMappedObject(criteria.getCriteriaObject(), null));
+		if (outputType != MapReduceCommand.OutputType.REDUCE && outputType != MapReduceCommand.OutputType.MERGE) {
+			throw new InvalidDataAccessApiUsageException(
+					"Incremental map reduce operations require reduce or merge output but got " + outputType);
 		}
-		// If initial document was a JavaScript string, potentially loaded by Spring's Resource abstraction, load it and
-		// convert to DBObject
 
-		if (dbo.containsField("initial")) {
-			Object initialObj = dbo.get("initial");
-			if (initialObj instanceof String) {
-				String initialAsString = replaceWithResourceIfNecessary((String) initialObj);
-				dbo.put("initial", JSON.parse(initialAsString));
-			}
+		if (query != null && query.getLimit() > 0) {
+			throw new InvalidDataAccessApiUsageException("Can not use limit with incremental map reduce operations");
 		}
 
-		if (dbo.containsField("$reduce")) {
-			dbo.put("$reduce", replaceWithResourceIfNecessary(dbo.get("$reduce").toString()));
-		}
-		if (dbo.containsField("$keyf")) {
-			dbo.put("$keyf", replaceWithResourceIfNecessary(dbo.get("$keyf").toString()));
-		}
-		if (dbo.containsField("finalize")) {
-			dbo.put("finalize", replaceWithResourceIfNecessary(dbo.get("finalize").toString()));
-		}
+		String jobCollection = mapReduceOptions.getJobCollection();
+		String watermarkField = mapReduceOptions.getWatermarkField();
+		Query jobQuery = new Query(where("_id").is(mapReduceOptions.getJobName()));
 
-		DBObject commandObject = new BasicDBObject("group", dbo);
+		DBObject job = doFindOne(jobCollection, jobQuery.getQueryObject(), null, DBObject.class);
+		Object watermark = job == null ? null : job.get("watermark");
+		Object pending = job == null ? null : job.get("pending");
 
-		if (LOGGER.isDebugEnabled()) {
-			LOGGER.debug("Executing Group with DBObject [{}]", serializeToJsonSafely(commandObject));
+		if (pending != null && outputType == MapReduceCommand.OutputType.REDUCE) {
+			throw new IncorrectUpdateSemanticsDataAccessException(String.format(
+					"Previous run of incremental MapReduce job %s up to %s did not record its completion and reduce output "
+							+ "cannot be retried safely! Set the job's watermark to the pending value in collection %s if the "
+							+ "run was applied to the output, otherwise remove the pending value.", mapReduceOptions.getJobName(),
+					pending, jobCollection));
 		}
 
-		CommandResult commandResult = executeCommand(commandObject, getDb().getOptions());
-		handleCommandError(commandResult, commandObject);
-
-		if (LOGGER.isDebugEnabled()) {
-			LOGGER.debug("Group command result = [{}]", commandResult);
+		if (pending == null) {
+			pending = findLatestWatermark(query, inputCollectionName, watermarkField, watermark,
+					mapReduceOptions.getWatermarkLag());
 		}
 
-		@SuppressWarnings("unchecked")
-		Iterable<DBObject> resultSet = (Iterable<DBObject>) commandResult.get("retval");
+		if (pending == null) {
 
-		List<T> mappedResults = new ArrayList<T>();
-		DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
-		for (DBObject dbObject : resultSet) {
-			mappedResults.add(callback.doWith(dbObject));
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("No new documents for incremental MapReduce job [{}] beyond watermark [{}]",
+						mapReduceOptions.getJobName(), watermark);
+			}
+
+			return createMapReduceResults(getUnchangedMapReduceResult(mapReduceOptions), mapReduceOptions, entityClass);
 		}
-		GroupByResults<T> groupByResult = new GroupByResults<T>(mappedResults, commandResult);
-		return groupByResult;
 
-	}
+		claimIncrementalRun(jobCollection, mapReduceOptions.getJobName(), watermark, job == null ? null
+				: job.get("pending"), pending);
 
-	protected String replaceWithResourceIfNecessary(String function) {
+		Query rangeQuery = new BasicQuery(withCriteria(query, getWatermarkRange(watermarkField, watermark, pending)));
+		MapReduceResults<T> results = doMapReduceMaybeParallel(rangeQuery, inputCollectionName, mapFunction,
+				reduceFunction, mapReduceOptions, entityClass);
 
-		String func = function;
+		upsert(jobQuery, Update.update("watermark", pending).set("completed", new Date()).unset("pending"),
+				jobCollection);
 
-		if (this.resourceLoader != null && ResourceUtils.isUrl(function)) {
+		return results;
+	}
 
-			Resource functionResource = resourceLoader.getResource(func);
+	/**
+	 * Records the given pending watermark for the incremental map-reduce job with the given name, provided the job is
+	 * still in the state read before, i.e. has the given watermark and pending value. Relies on the unique {@code _id}
+	 * index to detect a concurrent run creating the job document.
+	 * 
+	 * @throws OptimisticLockingFailureException if another run claimed the job concurrently.
+	 */
+	private void claimIncrementalRun(String jobCollection, String jobName, Object watermark, Object previousPending,
+			Object pending) {
 
-			if (!functionResource.exists()) {
-				throw new InvalidDataAccessApiUsageException(String.format("Resource %s not found!", function));
-			}
+		final DBObject criteria = new BasicDBObject("_id", jobName);
+		criteria.put("watermark", watermark == null ? new BasicDBObject("$exists", false) : watermark);
+		criteria.put("pending", previousPending == null ? new BasicDBObject("$exists", false) : previousPending);
 
-			try {
-				return new Scanner(functionResource.getInputStream()).useDelimiter("\\A").next();
-			} catch (IOException e) {
-				throw new InvalidDataAccessApiUsageException(String.format("Cannot read map-reduce file %s!", function), e);
+		final DBObject update = new BasicDBObject("$set", new BasicDBObject("pending", pending).append("started",
+				new Date()));
+
+		WriteResult result = execute(jobCollection, new CollectionCallback<WriteResult>() {
+			public WriteResult doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+				try {
+					return collection.update(criteria, update, true, false, WriteConcern.SAFE);
+				} catch (MongoException.DuplicateKey e) {
+					return null;
+				}
+			}
+		});
+
+		if (result == null || result.getN() == 0) {
+			throw new OptimisticLockingFailureException(String.format(
+					"Incremental MapReduce job %s was claimed by a concurrent run!", jobName));
+		}
+	}
+
+	/**
+	 * Returns the greatest watermark above the given one. If a lag is given, only watermarks older than the lag are
+	 * considered, which requires {@link ObjectId} or {@link Date} watermarks.
+	 */
+	private Object findLatestWatermark(Query query, String collectionName, String watermarkField, Object watermark,
+			long lag) {
+
+		Object latest = findLatestWatermark(query, collectionName, watermarkField,
+				getWatermarkRange(watermarkField, watermark, null));
+
+		if (latest == null || lag <= 0) {
+			return latest;
+		}
+
+		Date cutoff = new Date(System.currentTimeMillis() - lag);
+		DBObject range = getWatermarkRange(watermarkField, watermark, null);
+
+		if (latest instanceof ObjectId) {
+			((DBObject) range.get(watermarkField)).put("$lt", new ObjectId(cutoff, 0, 0));
+		} else if (latest instanceof Date) {
+			((DBObject) range.get(watermarkField)).put("$lt", cutoff);
+		} else {
+			throw new InvalidDataAccessApiUsageException(String.format(
+					"Watermark lag requires ObjectId or Date watermarks but got %s!", latest.getClass().getName()));
+		}
+
+		return findLatestWatermark(query, collectionName, watermarkField, range);
+	}
+
+	private Object findLatestWatermark(Query query, String collectionName, String watermarkField, DBObject range) {
+
+		BasicQuery latest = new BasicQuery(withCriteria(query, range), new BasicDBObject(watermarkField, 1));
+		latest.setSortObject(new BasicDBObject(watermarkField, -1));
+		latest.limit(1);
+
+		List<DBObject> result = doFind(collectionName, latest.getQueryObject(), latest.getFieldsObject(),
+				DBObject.class, new QueryCursorPreparer(latest));
+
+		return result.isEmpty() ? null : getFieldValue(result.get(0), watermarkField);
+	}
+
+	/**
+	 * Runs a map-reduce operation by splitting the input into ranges on the configured split field and reducing each
+	 * range into a shared temporary collection concurrently. The server folds the partial results of the ranges into
+	 * that collection with the reduce function, so only a single final pass applying the finalize function and writing
+	 * to the configured output is needed.
+	 */
+	private <T> MapReduceResults<T> doParallelMapReduce(Query query, final String inputCollectionName,
+			String mapFunction, String reduceFunction, MapReduceOptions mapReduceOptions, Class<T> entityClass) {
+
+		if (query != null && query.getLimit() > 0) {
+			throw new InvalidDataAccessApiUsageException("Can not use limit with parallel map reduce operations");
+		}
+
+		final String mapFunc = replaceWithResourceIfNecessary(mapFunction);
+		final String reduceFunc = replaceWithResourceIfNecessary(reduceFunction);
+		String splitField = mapReduceOptions.getSplitField();
+		List<Object> splitPoints = getSplitPoints(query == null ? null : query.getQueryObject(), inputCollectionName,
+				splitField, mapReduceOptions.getPartitions());
+
+		if (splitPoints.isEmpty()) {
+			return doMapReduce(query, inputCollectionName, mapFunc, reduceFunc, mapReduceOptions, entityClass);
+		}
+
+		String stagingCollection = String.format("%s%s.%s", TEMPORARY_MAP_REDUCE_COLLECTION_PREFIX, inputCollectionName,
+				new ObjectId());
+		final MapReduceOptions partitionOptions = createPartitionOptions(mapReduceOptions, stagingCollection);
+		List<Callable<MapReduceResults<Object>>> partitions = new ArrayList<Callable<MapReduceResults<Object>>>();
+
+		for (int i = 0; i <= splitPoints.size(); i++) {
+
+			Object lowerBound = i == 0 ? null : splitPoints.get(i - 1);
+			Object upperBound = i == splitPoints.size() ? null : splitPoints.get(i);
+
+			final Query partitionQuery = new BasicQuery(withCriteria(query,
+					getPartitionRange(splitField, lowerBound, upperBound)));
+
+			partitions.add(new Callable<MapReduceResults<Object>>() {
+				public MapReduceResults<Object> call() throws Exception {
+					return doMapReduce(partitionQuery, inputCollectionName, mapFunc, reduceFunc, partitionOptions,
+							Object.class);
+				}
+			});
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Executing MapReduce on collection [{}] in {} partitions split by [{}]", new Object[] {
+					inputCollectionName, partitions.size(), splitField });
+		}
+
+		try {
+
+			long inputCount = 0;
+			long emitCount = 0;
+			List<DBObject> partitionResults = new ArrayList<DBObject>();
+
+			for (MapReduceResults<Object> partitionResult : invokeAllToCompletion(partitions, mapReduceExecutor)) {
+				inputCount += partitionResult.getCounts().getInputCount();
+				emitCount += partitionResult.getCounts().getEmitCount();
+				partitionResults.add(partitionResult.getRawResults());
+			}
+
+			MapReduceResults<T> results = doMapReduce(null, stagingCollection, IDENTITY_MAP_FUNCTION, reduceFunc,
+					mapReduceOptions, entityClass);
+
+			DBObject rawResults = new BasicDBObject();
+			rawResults.putAll(results.getRawResults());
+			rawResults.removeField("timing");
+			rawResults.put("counts", new BasicDBObject("input", inputCount).append("emit", emitCount).append("output",
+					results.getCounts().getOutputCount()));
+			rawResults.put("partitions", partitionResults);
+
+			return createMapReduceResults(rawResults, mapReduceOptions, entityClass);
+
+		} finally {
+
+			try {
+				dropCollection(stagingCollection);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Could not drop temporary MapReduce collection " + stagingCollection, e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the values of the given field splitting the documents matching the given query into the given number of
+	 * ranges. Uses the {@code splitVector} command and falls back to bisecting the range between the smallest and
+	 * largest value if it is not available, e.g. because there is no index on the field or the server is a
+	 * {@code mongos}. Bisection only applies to {@link ObjectId}s, other values are split by sampling the collection.
+	 * The query object has to be mapped already.
+	 */
+	private List<Object> getSplitPoints(DBObject queryObject, String collectionName, String splitField,
+			int partitions) {
+
+		List<Object> splitPoints = getSplitVector(collectionName, splitField, partitions);
+
+		if (splitPoints == null) {
+			splitPoints = bisectObjectIds(queryObject, collectionName, splitField, partitions);
+		}
+
+		if (splitPoints == null) {
+			splitPoints = sampleSplitPoints(queryObject, collectionName, splitField, partitions);
+		}
+
+		return splitPoints;
+	}
+
+	private List<Object> getSplitVector(String collectionName, final String splitField, final int partitions) {
+
+		return execute(collectionName, new CollectionCallback<List<Object>>() {
+			public List<Object> doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+
+				CommandResult stats = collection.getStats();
+				Object size = stats.get("size");
+
+				if (!stats.ok() || !(size instanceof Number) || ((Number) size).longValue() == 0) {
+					return null;
+				}
+
+				DBObject command = new BasicDBObject("splitVector", collection.getFullName());
+				command.put("keyPattern", new BasicDBObject(splitField, 1));
+				command.put("maxChunkSizeBytes", Math.max(1, ((Number) size).longValue() / partitions));
+
+				CommandResult result = collection.getDB().command(command);
+
+				if (!result.ok() || !(result.get("splitKeys") instanceof List)) {
+					LOGGER.debug("splitVector not available, sampling split points: {}", result.getErrorMessage());
+					return null;
+				}
+
+				List<?> splitKeys = (List<?>) result.get("splitKeys");
+				List<Object> splitPoints = new ArrayList<Object>();
+
+				for (int i = 1; i < partitions; i++) {
+
+					int index = i * (splitKeys.size() + 1) / partitions - 1;
+
+					if (index >= 0) {
+						addSplitPoint(splitPoints, ((DBObject) splitKeys.get(index)).get(splitField));
+					}
+				}
+
+				return splitPoints;
+			}
+		});
+	}
+
+	/**
+	 * Splits the range between the smallest and largest {@link ObjectId} of the given field into ranges covering equal
+	 * periods of time, assuming documents were inserted at a roughly constant rate. Returns {@literal null} if the
+	 * field does not contain {@link ObjectId}s or all of them were created within the same second.
+	 */
+	private List<Object> bisectObjectIds(DBObject queryObject, String collectionName, String splitField,
+			int partitions) {
+
+		Object min = getBoundary(queryObject, collectionName, splitField, 1);
+		Object max = getBoundary(queryObject, collectionName, splitField, -1);
+
+		if (!(min instanceof ObjectId) || !(max instanceof ObjectId)) {
+			return null;
+		}
+
+		long lower = ((ObjectId) min).getTime();
+		long upper = ((ObjectId) max).getTime();
+
+		if (upper / 1000 <= lower / 1000) {
+			return null;
+		}
+
+		List<Object> splitPoints = new ArrayList<Object>();
+
+		for (int i = 1; i < partitions; i++) {
+			addSplitPoint(splitPoints, new ObjectId(new Date(lower + (upper - lower) * i / partitions), 0, 0));
+		}
+
+		return splitPoints;
+	}
+
+	private Object getBoundary(DBObject queryObject, String collectionName, String field, int direction) {
+
+		BasicQuery boundary = new BasicQuery(withCriteria(queryObject, new BasicDBObject(field, new BasicDBObject(
+				"$exists", true))), new BasicDBObject(field, 1));
+		boundary.setSortObject(new BasicDBObject(field, direction));
+		boundary.limit(1);
+
+		List<DBObject> result = doFind(collectionName, boundary.getQueryObject(), boundary.getFieldsObject(),
+				DBObject.class, new QueryCursorPreparer(boundary));
+
+		return result.isEmpty() ? null : getFieldValue(result.get(0), field);
+	}
+
+	private List<Object> sampleSplitPoints(DBObject queryObject, String collectionName, String splitField,
+			int partitions) {
+
+		DBObject sampleQuery = withCriteria(queryObject,
+				new BasicDBObject(splitField, new BasicDBObject("$exists", true)));
+		long count = getCollection(collectionName).count(sampleQuery);
+		List<Object> splitPoints = new ArrayList<Object>();
+
+		for (int i = 1; i < partitions && count > 0; i++) {
+
+			BasicQuery sample = new BasicQuery(sampleQuery, new BasicDBObject(splitField, 1));
+			sample.setSortObject(new BasicDBObject(splitField, 1));
+			sample.skip((int) (count * i / partitions)).limit(1);
+
+			List<DBObject> result = doFind(collectionName, sample.getQueryObject(), sample.getFieldsObject(),
+					DBObject.class, new QueryCursorPreparer(sample));
+
+			if (!result.isEmpty()) {
+				addSplitPoint(splitPoints, getFieldValue(result.get(0), splitField));
+			}
+		}
+
+		return splitPoints;
+	}
+
+	private static void addSplitPoint(List<Object> splitPoints, Object splitPoint) {
+
+		if (splitPoint != null && (splitPoints.isEmpty() || !splitPoint.equals(splitPoints.get(splitPoints.size() - 1)))) {
+			splitPoints.add(splitPoint);
+		}
+	}
+
+	private static DBObject getPartitionRange(String splitField, Object lowerBound, Object upperBound) {
+
+		if (lowerBound == null) {
+			return new BasicDBObject(splitField, new BasicDBObject("$not", new BasicDBObject("$gte", upperBound)));
+		}
+
+		DBObject range = new BasicDBObject("$gte", lowerBound);
+
+		if (upperBound != null) {
+			range.put("$lt", upperBound);
+		}
+
+		return new BasicDBObject(splitField, range);
+	}
+
+	/**
+	 * Creates the {@link MapReduceOptions} to reduce a single partition of a parallel map-reduce operation into the
+	 * given temporary collection shared by all partitions. Does not apply the finalize function as it must only be
+	 * applied to the combined results.
+	 */
+	private static MapReduceOptions createPartitionOptions(MapReduceOptions mapReduceOptions, String outputCollection) {
+
+		MapReduceOptions options = new MapReduceOptions().outputCollection(outputCollection).outputTypeReduce()
+				.fetchResults(false).scopeVariables(mapReduceOptions.getScopeVariables());
+
+		if (mapReduceOptions.getJavaScriptMode() != null) {
+			options.javaScriptMode(mapReduceOptions.getJavaScriptMode());
+		}
+
+		for (Map.Entry<String, Object> entry : mapReduceOptions.getExtraOptions().entrySet()) {
+			options.extraOption(entry.getKey(), entry.getValue());
+		}
+
+		return options;
+	}
+
+	private static Object getFieldValue(DBObject document, String field) {
+
+		Object value = document;
+
+		for (String segment : StringUtils.delimitedListToStringArray(field, ".")) {
+			value = value instanceof DBObject ? ((DBObject) value).get(segment) : null;
+		}
+
+		return value;
+	}
+
+	private static DBObject getWatermarkRange(String watermarkField, Object lowerBound, Object upperBound) {
+
+		DBObject range = new BasicDBObject("$exists", true);
+
+		if (lowerBound != null) {
+			range.put("$gt", lowerBound);
+		}
+
+		if (upperBound != null) {
+			range.put("$lte", upperBound);
+		}
+
+		return new BasicDBObject(watermarkField, range);
+	}
+
+	private static DBObject withCriteria(Query query, DBObject criteria) {
+		return withCriteria(query == null ? null : query.getQueryObject(), criteria);
+	}
+
+	private static DBObject withCriteria(DBObject queryObject, DBObject criteria) {
+
+		if (queryObject == null || queryObject.keySet().isEmpty()) {
+			return criteria;
+		}
+
+		return new BasicDBObject("$and", Arrays.asList(queryObject, criteria));
+	}
+
+	/**
+	 * Returns a raw map-reduce result for an incremental run that found no new documents to process, reporting the
+	 * output collection as it is.
+	 */
+	private DBObject getUnchangedMapReduceResult(MapReduceOptions mapReduceOptions) {
+
+		String outputCollection = mapReduceOptions.getOutputCollection();
+		String outputDatabase = mapReduceOptions.getOutputDatabase();
+
+		DB db = outputDatabase == null ? getDb() : getDb().getSisterDB(outputDatabase);
+		long outputCount = db.getCollection(outputCollection).count();
+
+		DBObject counts = new BasicDBObject("input", 0).append("emit", 0).append("output", outputCount);
+		Object result = outputDatabase == null ? outputCollection : new BasicDBObject("collection", outputCollection)
+				.append("db", outputDatabase);
+
+		return new BasicDBObject("result", result).append("counts", counts).append("ok", 1);
+	}
+
+	private <T> MapReduceResults<T> createMapReduceResults(DBObject rawResults, MapReduceOptions mapReduceOptions,
+			Class<T> entityClass) {
+
+		DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
+		Iterable<T> mappedResults;
+
+		if (mapReduceOptions.getOutputType() == MapReduceCommand.OutputType.INLINE) {
+			mappedResults = new ConvertingIterable<T>(getInlineMapReduceResults(rawResults), callback);
+		} else if (!mapReduceOptions.isFetchResults()) {
+			mappedResults = Collections.emptyList();
+		} else {
+
+			Query resultQuery = mapReduceOptions.getResultQuery();
+			MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+
+			DBObject queryObject = resultQuery == null ? new BasicDBObject() : queryMapper.getMappedObject(
+					resultQuery.getQueryObject(), entity);
+			DBObject fieldsObject = resultQuery == null || resultQuery.getFieldsObject() == null ? null : queryMapper
+					.getMappedObject(resultQuery.getFieldsObject(), entity);
+
+			CursorIterable<T> cursorIterable = new CursorIterable<T>(getMapReduceOutputCollection(rawResults),
+					new FindCallback(queryObject, fieldsObject), new QueryCursorPreparer(resultQuery), callback);
+
+			if (mapReduceOptions.isLazyResults()) {
+				mappedResults = cursorIterable;
+			} else {
+
+				List<T> results = new ArrayList<T>();
+
+				for (T result : cursorIterable) {
+					results.add(result);
+				}
+
+				mappedResults = results;
+			}
+		}
+
+		return new MapReduceResults<T>(mappedResults, rawResults);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Iterable<DBObject> getInlineMapReduceResults(DBObject rawResults) {
+
+		Object results = rawResults.get("results");
+		return results == null ? Collections.<DBObject> emptyList() : (Iterable<DBObject>) results;
+	}
+
+	/**
+	 * Returns the {@link DBCollection} the given raw map-reduce result reports as output collection, which might reside
+	 * in a different database.
+	 * 
+	 * @param rawResults must not be {@literal null}.
+	 * @return
+	 */
+	private DBCollection getMapReduceOutputCollection(DBObject rawResults) {
+
+		Object result = rawResults.get("result");
+
+		Assert.notNull(result, String.format("Map-reduce result %s does not name an output collection!", rawResults));
+
+		if (!(result instanceof DBObject)) {
+			return getAndPrepareCollection(getDb(), result.toString());
+		}
+
+		DBObject output = (DBObject) result;
+		String collectionName = output.get("collection").toString();
+		Object databaseName = output.get("db");
+
+		DB db = databaseName == null ? getDb() : getDb().getSisterDB(databaseName.toString());
+		return getAndPrepareCollection(db, collectionName);
+	}
+
+	public <T> GroupByResults<T> group(String inputCollectionName, GroupBy groupBy, Class<T> entityClass) {
+		return group(null, inputCollectionName, groupBy, entityClass);
+	}
+
+	public <T> GroupByResults<T> group(Criteria criteria, String inputCollectionName, GroupBy groupBy,
+			Class<T> entityClass) {
+
+		DBObject dbo = groupBy.getGroupByObject();
+		dbo.put("ns", inputCollectionName);
+
+		if (criteria == null) {
+			dbo.put("cond", null);
+		} else {
+			dbo.put("cond", queryMapper.getMappedObject(criteria.getCriteriaObject(), null));
+		}
+		// If initial document was a JavaScript string, potentially loaded by Spring's Resource abstraction, load it and
+		// convert to DBObject
+
+		if (dbo.containsField("initial")) {
+			Object initialObj = dbo.get("initial");
+			if (initialObj instanceof String) {
+				String initialAsString = replaceWithResourceIfNecessary((String) initialObj);
+				dbo.put("initial", JSON.parse(initialAsString));
+			}
+		}
+
+		if (dbo.containsField("$reduce")) {
+			dbo.put("$reduce", replaceWithResourceIfNecessary(dbo.get("$reduce").toString()));
+		}
+		if (dbo.containsField("$keyf")) {
+			dbo.put("$keyf", replaceWithResourceIfNecessary(dbo.get("$keyf").toString()));
+		}
+		if (dbo.containsField("finalize")) {
+			dbo.put("finalize", replaceWithResourceIfNecessary(dbo.get("finalize").toString()));
+		}
+
+		DBObject commandObject = new BasicDBObject("group", dbo);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Executing Group with DBObject [{}]", serializeToJsonSafely(commandObject));
+		}
+
+		CommandResult commandResult = executeCommand(commandObject, getDb().getOptions());
+		handleCommandError(commandResult, commandObject);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Group command result = [{}]", commandResult);
+		}
+
+		@SuppressWarnings("unchecked")
+		Iterable<DBObject> resultSet = (Iterable<DBObject>) commandResult.get("retval");
+
+		List<T> mappedResults = new ArrayList<T>();
+		DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, entityClass);
+		for (DBObject dbObject : resultSet) {
+			mappedResults.add(callback.doWith(dbObject));
+		}
+		GroupByResults<T> groupByResult = new GroupByResults<T>(mappedResults, commandResult);
+		return groupByResult;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#aggregate(org.springframework.data.mongodb.core.aggregation.Aggregation, java.lang.Class)
+	 */
+	public <T> AggregationResults<T> aggregate(Aggregation aggregation, Class<T> outputType) {
+
+		Assert.notNull(aggregation, "Aggregation must not be null!");
+		Assert.notNull(aggregation.getInputType(), "Aggregation must have an input type to derive the collection from!");
+
+		return aggregate(aggregation, determineCollectionName(aggregation.getInputType()), outputType);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#aggregate(org.springframework.data.mongodb.core.aggregation.Aggregation, java.lang.String, java.lang.Class)
+	 */
+	public <T> AggregationResults<T> aggregate(Aggregation aggregation, String collectionName, Class<T> outputType) {
+
+		CommandResult commandResult = doAggregate(aggregation, collectionName, outputType);
+
+		List<T> mappedResults = new ArrayList<T>();
+		DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, outputType);
+
+		for (DBObject dbObject : getAggregationResults(commandResult)) {
+			mappedResults.add(callback.doWith(dbObject));
+		}
+
+		return new AggregationResults<T>(mappedResults, commandResult);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#aggregateIterator(org.springframework.data.mongodb.core.aggregation.Aggregation, java.lang.String, java.lang.Class)
+	 */
+	public <T> Iterator<T> aggregateIterator(Aggregation aggregation, String collectionName, Class<T> outputType) {
+
+		CommandResult commandResult = doAggregate(aggregation, collectionName, outputType);
+
+		final List<DBObject> results = getAggregationResults(commandResult);
+		final DbObjectCallback<T> callback = new ReadDbObjectCallback<T>(mongoConverter, outputType);
+
+		return new Iterator<T>() {
+
+			private int index = 0;
+
+			public boolean hasNext() {
+				return index < results.size();
+			}
+
+			public T next() {
+
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				// release the raw document once mapped without shifting the remaining ones
+				return callback.doWith(results.set(index++, null));
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private CommandResult doAggregate(Aggregation aggregation, String collectionName, Class<?> outputType) {
+
+		Assert.notNull(aggregation, "Aggregation must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.notNull(outputType, "Output type must not be null!");
+
+		Class<?> inputType = aggregation.getInputType();
+		AggregationOperationContext context = inputType == null ? Aggregation.DEFAULT_CONTEXT
+				: new TypeBasedAggregationOperationContext(inputType, mappingContext, queryMapper);
+		DBObject commandObject = aggregation.toDbObject(collectionName, context);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Executing aggregation: {}", serializeToJsonSafely(commandObject));
+		}
+
+		CommandResult commandResult = executeCommand(commandObject, getDb().getOptions());
+		handleCommandError(commandResult, commandObject);
+
+		return commandResult;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<DBObject> getAggregationResults(CommandResult commandResult) {
+
+		Object results = commandResult.get("result");
+		return results == null ? new ArrayList<DBObject>() : (List<DBObject>) results;
+	}
+
+	protected String replaceWithResourceIfNecessary(String function) {
+
+		String func = function;
+
+		if (this.resourceLoader != null && ResourceUtils.isUrl(function)) {
+
+			if (functionCache != null) {
+				return functionCache.getSource(function, resourceLoader);
+			}
+
+			Resource functionResource = resourceLoader.getResource(func);
+
+			if (!functionResource.exists()) {
+				throw new InvalidDataAccessApiUsageException(String.format("Resource %s not found!", function));
+			}
+
+			try {
+				return new Scanner(functionResource.getInputStream()).useDelimiter("\\A").next();
+			} catch (IOException e) {
+				throw new InvalidDataAccessApiUsageException(String.format("Cannot read map-reduce file %s!", function), e);
 			}
 		}
 
 		return func;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.MongoOperations#installFunction(java.lang.String, java.lang.String)
+	 */
+	public String installFunction(final String name, String function) {
+
+		String reference = StoredFunctions.reference(name);
+		Assert.hasText(function, "Function must not be null or empty!");
+
+		final Code code = new Code(replaceWithResourceIfNecessary(function));
+
+		execute(StoredFunctions.COLLECTION_NAME, new CollectionCallback<Void>() {
+			public Void doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+
+				DBObject dbDoc = new BasicDBObject(ID_FIELD, name).append("value", code);
+				MongoAction mongoAction = new MongoAction(writeConcern, MongoActionOperation.SAVE,
+						StoredFunctions.COLLECTION_NAME, null, dbDoc, null);
+				WriteConcern writeConcernToUse = prepareWriteConcern(mongoAction);
+				WriteResult writeResult = writeConcernToUse == null ? collection.save(dbDoc) : collection.save(dbDoc,
+						writeConcernToUse);
+				onDocumentModified(StoredFunctions.COLLECTION_NAME, name);
+				handleAnyWriteResultErrors(writeResult, dbDoc, MongoActionOperation.SAVE);
+				return null;
+			}
+		});
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Installed function [" + name + "] into " + StoredFunctions.COLLECTION_NAME);
+		}
+
+		return reference;
+	}
+
 	private DBObject copyQuery(Query query, DBObject copyMapReduceOptions) {
 		if (query != null) {
 			if (query.getSkip() != 0 || query.getFieldsObject() != null) {
@@ -1312,82 +2887,289 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 				}
 				return coll;
 			}
-		});
+		});
+	}
+
+	/**
+	 * Map the results of an ad-hoc query on the default MongoDB collection to an object using the template's converter.
+	 * The query document is specified as a standard {@link DBObject} and so is the fields specification.
+	 * 
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @param query the query document that specifies the criteria used to find a record.
+	 * @param fields the document that specifies the fields to be returned.
+	 * @param entityClass the parameterized type of the returned list.
+	 * @return the {@link List} of converted objects.
+	 */
+	protected <T> T doFindOne(String collectionName, DBObject query, DBObject fields, Class<T> entityClass) {
+
+		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+		DBObject mappedQuery = queryMapper.getMappedObject(query, entity);
+		DBObject mappedFields = fields == null ? null : queryMapper.getMappedObject(fields, entity);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(String.format("findOne using query: %s fields: %s for class: %s in collection: %s",
+					serializeToJsonSafely(query), mappedFields, entityClass, collectionName));
+		}
+
+		return executeFindOneInternal(new FindOneCallback(mappedQuery, mappedFields), new ReadDbObjectCallback<T>(
+				this.mongoConverter, entityClass), collectionName);
+	}
+
+	/**
+	 * Map the results of an ad-hoc query on the default MongoDB collection to a List using the template's converter. The
+	 * query document is specified as a standard DBObject and so is the fields specification.
+	 * 
+	 * @param collectionName name of the collection to retrieve the objects from
+	 * @param query the query document that specifies the criteria used to find a record
+	 * @param fields the document that specifies the fields to be returned
+	 * @param entityClass the parameterized type of the returned list.
+	 * @return the List of converted objects.
+	 */
+	protected <T> List<T> doFind(String collectionName, DBObject query, DBObject fields, Class<T> entityClass) {
+		return doFind(collectionName, query, fields, entityClass, null, new ReadDbObjectCallback<T>(this.mongoConverter,
+				entityClass));
+	}
+
+	/**
+	 * Map the results of an ad-hoc query on the default MongoDB collection to a List of the specified type. The object is
+	 * converted from the MongoDB native representation using an instance of {@see MongoConverter}. The query document is
+	 * specified as a standard DBObject and so is the fields specification.
+	 * 
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @param query the query document that specifies the criteria used to find a record.
+	 * @param fields the document that specifies the fields to be returned.
+	 * @param entityClass the parameterized type of the returned list.
+	 * @param preparer allows for customization of the {@link DBCursor} used when iterating over the result set, (apply
+	 *          limits, skips and so on).
+	 * @return the {@link List} of converted objects.
+	 */
+	protected <T> List<T> doFind(String collectionName, DBObject query, DBObject fields, Class<T> entityClass,
+			CursorPreparer preparer) {
+		return doFind(collectionName, query, fields, entityClass, preparer, new ReadDbObjectCallback<T>(mongoConverter,
+				entityClass));
+	}
+
+	protected <S, T> List<T> doFind(String collectionName, DBObject query, DBObject fields, Class<S> entityClass,
+			CursorPreparer preparer, DbObjectCallback<T> objectCallback) {
+
+		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+		DBObject mappedFields = fields == null ? null : queryMapper.getMappedObject(fields, entity);
+		DBObject mappedQuery = queryMapper.getMappedObject(query, entity);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(String.format("find using query: %s fields: %s for class: %s in collection: %s",
+					serializeToJsonSafely(query), mappedFields, entityClass, collectionName));
+		}
+
+		return executeFindMultiInternal(new FindCallback(mappedQuery, mappedFields), preparer, objectCallback,
+				collectionName);
+	}
+
+	/**
+	 * Looks up the documents with the given ids from the given collection. The ids are split into chunks of at most
+	 * {@link #setIdBatchSize(int)} elements and each chunk is queried using an {@code $in} query. If an
+	 * {@link Executor} is configured through {@link #setIdBatchExecutor(Executor)} the chunks are queried concurrently.
+	 * 
+	 * @param collectionName name of the collection to retrieve the objects from.
+	 * @param ids the ids of the documents to look up, {@literal null} values will be ignored.
+	 * @param entityClass the type to convert the documents into.
+	 * @return the converted objects keyed by the {@code _id} value they were stored with.
+	 */
+	protected <T> Map<Object, T> doFindAllById(final String collectionName, Collection<?> ids, final Class<T> entityClass) {
+
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+
+		Set<Object> mappedIds = new LinkedHashSet<Object>();
+
+		for (Object id : ids) {
+			if (id != null) {
+				mappedIds.add(queryMapper.convertId(id));
+			}
+		}
+
+		final Map<Object, T> result = new ConcurrentHashMap<Object, T>(mappedIds.size());
+		List<Callable<Void>> lookups = new ArrayList<Callable<Void>>();
+		List<Object> chunk = new ArrayList<Object>();
+
+		for (Object id : mappedIds) {
+
+			chunk.add(id);
+
+			if (chunk.size() == idBatchSize) {
+				lookups.add(new IdChunkLookup<T>(collectionName, chunk, entityClass, result));
+				chunk = new ArrayList<Object>();
+			}
+		}
+
+		if (!chunk.isEmpty()) {
+			lookups.add(new IdChunkLookup<T>(collectionName, chunk, entityClass, result));
+		}
+
+		invokeAll(lookups, idBatchExecutor);
+		return result;
+	}
+
+	/**
+	 * Runs the given {@link Callable}s on the given {@link Executor} and waits for all of them to complete. If no
+	 * {@link Executor} is given or there's only a single {@link Callable} they will be run in the calling thread. If one
+	 * of the {@link Callable}s fails, the ones not completed yet will be cancelled and the failure is rethrown.
+	 * 
+	 * @param callables must not be {@literal null}.
+	 * @param executor can be {@literal null}.
+	 * @return the results of the {@link Callable}s in the order of the given {@link Callable}s.
+	 */
+	private <V> List<V> invokeAll(List<? extends Callable<V>> callables, Executor executor) {
+
+		List<FutureTask<V>> tasks = new ArrayList<FutureTask<V>>(callables.size());
+		Executor executorToUse = callables.size() < 2 ? null : executor;
+
+		for (Callable<V> callable : callables) {
+			tasks.add(start(callable, executorToUse));
+		}
+
+		List<V> results = new ArrayList<V>(tasks.size());
+
+		try {
+			for (FutureTask<V> task : tasks) {
+				results.add(await(task));
+			}
+		} catch (RuntimeException e) {
+			cancelAll(tasks);
+			throw e;
+		} catch (Error e) {
+			cancelAll(tasks);
+			throw e;
+		}
+
+		return results;
+	}
+
+	/**
+	 * Runs the given {@link Callable}s like {@link #invokeAll(List, Executor)} but waits for all of them to complete if
+	 * one of them fails instead of cancelling the others, e.g. because they write to a collection that must only be
+	 * dropped once all of them are done. {@link Callable}s not started yet when one of them fails are skipped. The first
+	 * failure is rethrown once all of them completed.
+	 * 
+	 * @param callables must not be {@literal null}.
+	 * @param executor can be {@literal null}.
+	 * @return the results of the {@link Callable}s in the order of the given {@link Callable}s.
+	 */
+	private <V> List<V> invokeAllToCompletion(List<? extends Callable<V>> callables, Executor executor) {
+
+		final AtomicBoolean failed = new AtomicBoolean();
+		List<FutureTask<V>> tasks = new ArrayList<FutureTask<V>>(callables.size());
+		Executor executorToUse = callables.size() < 2 ? null : executor;
+
+		for (final Callable<V> callable : callables) {
+			tasks.add(start(new Callable<V>() {
+				public V call() throws Exception {
+
+					if (failed.get()) {
+						return null;
+					}
+
+					boolean completed = false;
+
+					try {
+						V result = callable.call();
+						completed = true;
+						return result;
+					} finally {
+						if (!completed) {
+							failed.set(true);
+						}
+					}
+				}
+			}, executorToUse));
+		}
+
+		List<V> results = new ArrayList<V>(tasks.size());
+		RuntimeException exception = null;
+		Error error = null;
+
+		for (FutureTask<V> task : tasks) {
+			try {
+				results.add(await(task));
+			} catch (RuntimeException e) {
+				exception = exception == null && error == null ? e : exception;
+			} catch (Error e) {
+				error = exception == null && error == null ? e : error;
+			}
+		}
+
+		if (exception != null) {
+			throw exception;
+		}
+
+		if (error != null) {
+			throw error;
+		}
+
+		return results;
 	}
 
 	/**
-	 * Map the results of an ad-hoc query on the default MongoDB collection to an object using the template's converter.
-	 * The query document is specified as a standard {@link DBObject} and so is the fields specification.
+	 * Starts the given {@link Callable} on the given {@link Executor}. Runs it in the calling thread if no
+	 * {@link Executor} is given or the given one rejects the task.
 	 * 
-	 * @param collectionName name of the collection to retrieve the objects from.
-	 * @param query the query document that specifies the criteria used to find a record.
-	 * @param fields the document that specifies the fields to be returned.
-	 * @param entityClass the parameterized type of the returned list.
-	 * @return the {@link List} of converted objects.
+	 * @param callable must not be {@literal null}.
+	 * @param executor can be {@literal null}.
+	 * @return
 	 */
-	protected <T> T doFindOne(String collectionName, DBObject query, DBObject fields, Class<T> entityClass) {
+	private static <V> FutureTask<V> start(Callable<V> callable, Executor executor) {
 
-		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
-		DBObject mappedQuery = queryMapper.getMappedObject(query, entity);
-		DBObject mappedFields = fields == null ? null : queryMapper.getMappedObject(fields, entity);
+		FutureTask<V> task = new FutureTask<V>(callable);
 
-		if (LOGGER.isDebugEnabled()) {
-			LOGGER.debug(String.format("findOne using query: %s fields: %s for class: %s in collection: %s",
-					serializeToJsonSafely(query), mappedFields, entityClass, collectionName));
+		if (executor == null) {
+			task.run();
+			return task;
 		}
 
-		return executeFindOneInternal(new FindOneCallback(mappedQuery, mappedFields), new ReadDbObjectCallback<T>(
-				this.mongoConverter, entityClass), collectionName);
-	}
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
 
-	/**
-	 * Map the results of an ad-hoc query on the default MongoDB collection to a List using the template's converter. The
-	 * query document is specified as a standard DBObject and so is the fields specification.
-	 * 
-	 * @param collectionName name of the collection to retrieve the objects from
-	 * @param query the query document that specifies the criteria used to find a record
-	 * @param fields the document that specifies the fields to be returned
-	 * @param entityClass the parameterized type of the returned list.
-	 * @return the List of converted objects.
-	 */
-	protected <T> List<T> doFind(String collectionName, DBObject query, DBObject fields, Class<T> entityClass) {
-		return doFind(collectionName, query, fields, entityClass, null, new ReadDbObjectCallback<T>(this.mongoConverter,
-				entityClass));
+		return task;
 	}
 
 	/**
-	 * Map the results of an ad-hoc query on the default MongoDB collection to a List of the specified type. The object is
-	 * converted from the MongoDB native representation using an instance of {@see MongoConverter}. The query document is
-	 * specified as a standard DBObject and so is the fields specification.
+	 * Waits for the given {@link Future} to complete and returns its result. Rethrows failures of the underlying
+	 * computation translating them into {@link DataAccessException}s if possible.
 	 * 
-	 * @param collectionName name of the collection to retrieve the objects from.
-	 * @param query the query document that specifies the criteria used to find a record.
-	 * @param fields the document that specifies the fields to be returned.
-	 * @param entityClass the parameterized type of the returned list.
-	 * @param preparer allows for customization of the {@link DBCursor} used when iterating over the result set, (apply
-	 *          limits, skips and so on).
-	 * @return the {@link List} of converted objects.
+	 * @param future must not be {@literal null}.
+	 * @return
 	 */
-	protected <T> List<T> doFind(String collectionName, DBObject query, DBObject fields, Class<T> entityClass,
-			CursorPreparer preparer) {
-		return doFind(collectionName, query, fields, entityClass, preparer, new ReadDbObjectCallback<T>(mongoConverter,
-				entityClass));
-	}
+	private <V> V await(Future<V> future) {
 
-	protected <S, T> List<T> doFind(String collectionName, DBObject query, DBObject fields, Class<S> entityClass,
-			CursorPreparer preparer, DbObjectCallback<T> objectCallback) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			throw new UncategorizedMongoDbException("Interrupted while waiting for concurrent operation!", e);
+		} catch (ExecutionException e) {
 
-		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
-		DBObject mappedFields = fields == null ? null : queryMapper.getMappedObject(fields, entity);
-		DBObject mappedQuery = queryMapper.getMappedObject(query, entity);
+			Throwable cause = e.getCause();
 
-		if (LOGGER.isDebugEnabled()) {
-			LOGGER.debug(String.format("find using query: %s fields: %s for class: %s in collection: %s",
-					serializeToJsonSafely(query), mappedFields, entityClass, collectionName));
+			if (cause instanceof RuntimeException) {
+				throw potentiallyConvertRuntimeException((RuntimeException) cause);
+			}
+
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new UncategorizedMongoDbException(cause.getMessage(), cause);
 		}
+	}
 
-		return executeFindMultiInternal(new FindCallback(mappedQuery, mappedFields), preparer, objectCallback,
-				collectionName);
+	private static void cancelAll(List<? extends Future<?>> futures) {
+
+		for (Future<?> future : futures) {
+			future.cancel(true);
+		}
 	}
 
 	protected DBObject convertToDbObject(CollectionOptions collectionOptions) {
@@ -1425,8 +3207,11 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 					+ entityClass + " in collection: " + collectionName);
 		}
 		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
-		return executeFindOneInternal(new FindAndRemoveCallback(queryMapper.getMappedObject(query, entity), fields, sort),
-				new ReadDbObjectCallback<T>(readerToUse, entityClass), collectionName);
+		T result = executeFindOneInternal(new FindAndRemoveCallback(queryMapper.getMappedObject(query, entity), fields,
+				sort), new ReadDbObjectCallback<T>(readerToUse, entityClass), collectionName);
+
+		onCollectionModified(collectionName);
+		return result;
 	}
 
 	protected <T> T doFindAndModify(String collectionName, DBObject query, DBObject fields, DBObject sort,
@@ -1448,8 +3233,11 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 					+ " for class: " + entityClass + " and update: " + mappedUpdate + " in collection: " + collectionName);
 		}
 
-		return executeFindOneInternal(new FindAndModifyCallback(mappedQuery, fields, sort, mappedUpdate, options),
+		T result = executeFindOneInternal(new FindAndModifyCallback(mappedQuery, fields, sort, mappedUpdate, options),
 				new ReadDbObjectCallback<T>(readerToUse, entityClass), collectionName);
+
+		onCollectionModified(collectionName);
+		return result;
 	}
 
 	/**
@@ -1607,6 +3395,74 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		}
 	}
 
+	/**
+	 * Callback for every write issued against the collection with the given name. Evicts state cached for the
+	 * collection.
+	 * 
+	 * @param collectionName
+	 */
+	private void onCollectionModified(String collectionName) {
+
+		if (countCache != null && collectionName != null) {
+			countCache.evict(collectionName);
+		}
+
+		if (entityCache != null && collectionName != null) {
+			entityCache.evict(collectionName);
+		}
+
+		if (queryCache != null && collectionName != null) {
+			queryCache.invalidate(collectionName);
+		}
+	}
+
+	/**
+	 * Callback for a write of the document with the given id issued against the collection with the given name. Evicts
+	 * counts and query results cached for the collection and the document cached for the id.
+	 * 
+	 * @param collectionName
+	 * @param id the mapped id of the document written, can be {@literal null}.
+	 */
+	private void onDocumentModified(String collectionName, Object id) {
+
+		if (countCache != null && collectionName != null) {
+			countCache.evict(collectionName);
+		}
+
+		if (entityCache != null && collectionName != null) {
+			entityCache.evict(collectionName, id);
+		}
+
+		if (queryCache != null && collectionName != null) {
+			queryCache.invalidate(collectionName);
+		}
+	}
+
+	/**
+	 * Callback for a write of the documents selected by the given mapped query. Only evicts the cached documents the
+	 * query selects by plain ids, all state cached for the collection if the documents affected cannot be determined.
+	 * 
+	 * @param collectionName
+	 * @param query the mapped query, can be {@literal null}.
+	 */
+	private void onDocumentsModified(String collectionName, DBObject query) {
+
+		Object id = query == null ? null : query.get(ID_FIELD);
+
+		if (id == null) {
+			onCollectionModified(collectionName);
+		} else if (!(id instanceof DBObject)) {
+			onDocumentModified(collectionName, id);
+		} else if (((DBObject) id).keySet().equals(Collections.singleton("$in"))
+				&& ((DBObject) id).get("$in") instanceof Iterable) {
+			for (Object element : (Iterable<?>) ((DBObject) id).get("$in")) {
+				onDocumentModified(collectionName, element);
+			}
+		} else {
+			onCollectionModified(collectionName);
+		}
+	}
+
 	private MongoPersistentEntity<?> getPersistentEntity(Class<?> type) {
 		return type == null ? null : mappingContext.getPersistentEntity(type);
 	}
@@ -1640,7 +3496,9 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 	}
 
 	/**
-	 * Handles {@link WriteResult} errors based on the configured {@link WriteResultChecking}.
+	 * Handles {@link WriteResult} errors based on the configured {@link WriteResultChecking}. Waits for the group commit
+	 * confirming the write if a {@link GroupCommitWriteConcernResolver} is configured. As the write has been applied
+	 * already even if the group commit fails, callers have to invalidate cached documents before.
 	 * 
 	 * @param writeResult
 	 * @param query
@@ -1648,6 +3506,10 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 	 */
 	protected void handleAnyWriteResultErrors(WriteResult writeResult, DBObject query, MongoActionOperation operation) {
 
+		if (writeConcernResolver instanceof GroupCommitWriteConcernResolver && writeResult.getError() == null) {
+			((GroupCommitWriteConcernResolver) writeConcernResolver).awaitCommit(getDb());
+		}
+
 		if (writeResultChecking == WriteResultChecking.NONE) {
 			return;
 		}
@@ -1873,6 +3735,89 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		}
 	}
 
+	/**
+	 * {@link DbObjectCallback} returning the raw {@link DBObject} without any conversion.
+	 */
+	private static enum RawDbObjectCallback implements DbObjectCallback<DBObject> {
+
+		INSTANCE;
+
+		public DBObject doWith(DBObject object) {
+			return object;
+		}
+	}
+
+	/**
+	 * {@link DbObjectCallback} that delegates the conversion of the {@link DBObject} and registers the result with the
+	 * given {@link Map} keyed by the {@code _id} value of the source {@link DBObject}.
+	 */
+	private static class IdCapturingDbObjectCallback<T> implements DbObjectCallback<T> {
+
+		private final DbObjectCallback<T> delegate;
+		private final Map<Object, T> results;
+
+		public IdCapturingDbObjectCallback(DbObjectCallback<T> delegate, Map<Object, T> results) {
+
+			Assert.notNull(delegate);
+			Assert.notNull(results);
+
+			this.delegate = delegate;
+			this.results = results;
+		}
+
+		public T doWith(DBObject object) {
+
+			T result = delegate.doWith(object);
+
+			if (object != null && result != null) {
+				results.put(object.get(ID_FIELD), result);
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * {@link Callable} to look up a single chunk of ids using an {@code $in} query.
+	 */
+	private class IdChunkLookup<T> implements Callable<Void> {
+
+		private final String collectionName;
+		private final List<Object> ids;
+		private final Class<T> entityClass;
+		private final Map<Object, T> results;
+
+		public IdChunkLookup(String collectionName, List<Object> ids, Class<T> entityClass, Map<Object, T> results) {
+
+			this.collectionName = collectionName;
+			this.ids = ids;
+			this.entityClass = entityClass;
+			this.results = results;
+		}
+
+		public Void call() {
+
+			DBObject query = new BasicDBObject(ID_FIELD, new BasicDBObject("$in", ids));
+			DbObjectCallback<T> callback = new IdCapturingDbObjectCallback<T>(new ReadDbObjectCallback<T>(mongoConverter,
+					entityClass), results);
+
+			doFind(collectionName, query, null, entityClass, null, callback);
+			return null;
+		}
+	}
+
+	/**
+	 * {@link FindByIdCoalescer.DocumentLoader} reading the raw documents with the given ids using an {@code $in} query.
+	 */
+	private class CoalescedIdLookup implements FindByIdCoalescer.DocumentLoader {
+
+		public List<DBObject> load(String collectionName, List<Object> ids) {
+
+			DBObject query = new BasicDBObject(ID_FIELD, new BasicDBObject("$in", ids));
+			return executeFindMultiInternal(new FindCallback(query), null, RawDbObjectCallback.INSTANCE, collectionName);
+		}
+	}
+
 	private enum DefaultWriteConcernResolver implements WriteConcernResolver {
 
 		INSTANCE;
@@ -1882,12 +3827,82 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		}
 	}
 
+	/**
+	 * {@link DbObjectCallback} reading the {@link DBObject} into the entity or the projection type and turning it into a
+	 * projection if necessary.
+	 */
+	private class ProjectingDbObjectCallback<T> implements DbObjectCallback<T> {
+
+		private final DbObjectCallback<?> delegate;
+		private final Class<?> entityClass;
+		private final Class<T> projectionType;
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public ProjectingDbObjectCallback(Class<?> entityClass, Class<T> projectionType) {
+
+			this.delegate = new ReadDbObjectCallback(mongoConverter, projectionFactory.getTypeToRead(entityClass,
+					projectionType));
+			this.entityClass = entityClass;
+			this.projectionType = projectionType;
+		}
+
+		public T doWith(DBObject object) {
+
+			DBObject source = object == null ? null : projectionFactory.getProjectionDocument(object, entityClass,
+					projectionType);
+			return projectionFactory.createProjection(projectionType, delegate.doWith(source));
+		}
+	}
+
+	/**
+	 * {@link DbObjectCallback} delegating to another one and capturing the raw {@link DBObject} at a given position to
+	 * create a {@link KeysetToken} from it.
+	 */
+	private static class KeysetCapturingDbObjectCallback<T> implements DbObjectCallback<T> {
+
+		private final DbObjectCallback<T> delegate;
+		private final int position;
+		private int count;
+		private DBObject lastObject;
+
+		public KeysetCapturingDbObjectCallback(DbObjectCallback<T> delegate, int position) {
+			this.delegate = delegate;
+			this.position = position;
+		}
+
+		public T doWith(DBObject object) {
+
+			if (++count == position) {
+				this.lastObject = object;
+			}
+
+			return delegate.doWith(object);
+		}
+
+		public DBObject getLastObject() {
+			return lastObject;
+		}
+	}
+
 	class QueryCursorPreparer implements CursorPreparer {
 
 		private final Query query;
+		private final DBObject sortObject;
 
 		public QueryCursorPreparer(Query query) {
+			this(query, query == null ? null : query.getSortObject());
+		}
+
+		/**
+		 * Creates a new {@link QueryCursorPreparer} for the given {@link Query} sorting by the given, already mapped sort
+		 * specification instead of the one of the query.
+		 * 
+		 * @param query can be {@literal null}.
+		 * @param sortObject can be {@literal null}.
+		 */
+		public QueryCursorPreparer(Query query, DBObject sortObject) {
 			this.query = query;
+			this.sortObject = sortObject;
 		}
 
 		/*
@@ -1900,7 +3915,7 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 				return cursor;
 			}
 
-			if (query.getSkip() <= 0 && query.getLimit() <= 0 && query.getSortObject() == null
+			if (query.getSkip() <= 0 && query.getLimit() <= 0 && sortObject == null
 					&& !StringUtils.hasText(query.getHint())) {
 				return cursor;
 			}
@@ -1914,8 +3929,8 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 				if (query.getLimit() > 0) {
 					cursorToUse = cursorToUse.limit(query.getLimit());
 				}
-				if (query.getSortObject() != null) {
-					cursorToUse = cursorToUse.sort(query.getSortObject());
+				if (sortObject != null) {
+					cursorToUse = cursorToUse.sort(sortObject);
 				}
 				if (StringUtils.hasText(query.getHint())) {
 					cursorToUse = cursorToUse.hint(query.getHint());
@@ -1928,6 +3943,116 @@ public class MongoTemplate implements MongoOperations, ApplicationContextAware {
 		}
 	}
 
+	/**
+	 * {@link Iterable} converting the given {@link DBObject}s as they are consumed.
+	 */
+	private static class ConvertingIterable<T> implements Iterable<T> {
+
+		private final Iterable<DBObject> source;
+		private final DbObjectCallback<T> callback;
+
+		public ConvertingIterable(Iterable<DBObject> source, DbObjectCallback<T> callback) {
+			this.source = source;
+			this.callback = callback;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Iterable#iterator()
+		 */
+		public Iterator<T> iterator() {
+
+			final Iterator<DBObject> iterator = source.iterator();
+
+			return new Iterator<T>() {
+
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				public T next() {
+					return callback.doWith(iterator.next());
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+
+	/**
+	 * {@link Iterable} reading documents from a {@link DBCollection} lazily. Every {@link Iterator} opens a new
+	 * {@link DBCursor}, converts the documents as they are consumed and closes the cursor once exhausted. Cursors of
+	 * iterators not consumed completely are reclaimed by the server after its cursor timeout.
+	 */
+	private class CursorIterable<T> implements Iterable<T> {
+
+		private final DBCollection collection;
+		private final CollectionCallback<DBCursor> collectionCallback;
+		private final CursorPreparer preparer;
+		private final DbObjectCallback<T> callback;
+
+		public CursorIterable(DBCollection collection, CollectionCallback<DBCursor> collectionCallback,
+				CursorPreparer preparer, DbObjectCallback<T> callback) {
+
+			this.collection = collection;
+			this.collectionCallback = collectionCallback;
+			this.preparer = preparer;
+			this.callback = callback;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Iterable#iterator()
+		 */
+		public Iterator<T> iterator() {
+
+			final DBCursor cursor;
+
+			try {
+				cursor = preparer.prepare(collectionCallback.doInCollection(collection));
+			} catch (RuntimeException e) {
+				throw potentiallyConvertRuntimeException(e);
+			}
+
+			return new Iterator<T>() {
+
+				public boolean hasNext() {
+
+					try {
+
+						boolean hasNext = cursor.hasNext();
+
+						if (!hasNext) {
+							cursor.close();
+						}
+
+						return hasNext;
+
+					} catch (RuntimeException e) {
+						cursor.close();
+						throw potentiallyConvertRuntimeException(e);
+					}
+				}
+
+				public T next() {
+
+					try {
+						return callback.doWith(cursor.next());
+					} catch (RuntimeException e) {
+						cursor.close();
+						throw potentiallyConvertRuntimeException(e);
+					}
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+
 	/**
 	 * {@link DbObjectCallback} that assumes a {@link GeoResult} to be created, delegates actual content unmarshalling to
 	 * a delegate and creates a {@link GeoResult} from the result.
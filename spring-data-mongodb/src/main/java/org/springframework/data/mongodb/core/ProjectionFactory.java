@@ -0,0 +1,351 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.beans.Introspector;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mapping.model.BeanWrapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Support class to read documents into projections of an entity, i.e. DTO classes or interfaces exposing a subset of
+ * the entity's properties. Derives the field specification to restrict the documents read to the properties of the
+ * projection and backs interface projections by a proxy reading the properties from the entity.
+ */
+class ProjectionFactory {
+
+	private final MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext;
+	private final ConversionService conversionService;
+	private final ConcurrentMap<Class<?>, List<String>> properties = new ConcurrentHashMap<Class<?>, List<String>>();
+	private final ConcurrentMap<List<Class<?>>, Map<String, String>> fieldNames =
+			new ConcurrentHashMap<List<Class<?>>, Map<String, String>>();
+
+	/**
+	 * Creates a new {@link ProjectionFactory} using the given {@link MappingContext} and {@link ConversionService}.
+	 * 
+	 * @param mappingContext must not be {@literal null}.
+	 * @param conversionService must not be {@literal null}.
+	 */
+	public ProjectionFactory(MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+			ConversionService conversionService) {
+
+		Assert.notNull(mappingContext, "MappingContext must not be null!");
+		Assert.notNull(conversionService, "ConversionService must not be null!");
+
+		this.mappingContext = mappingContext;
+		this.conversionService = conversionService;
+	}
+
+	/**
+	 * Returns whether the given type is a projection of the given entity type, i.e. documents of the entity have to be
+	 * read partially.
+	 * 
+	 * @param entityClass must not be {@literal null}.
+	 * @param projectionType must not be {@literal null}.
+	 * @return
+	 */
+	public boolean isProjection(Class<?> entityClass, Class<?> projectionType) {
+		return !projectionType.isAssignableFrom(entityClass);
+	}
+
+	/**
+	 * Returns the type to read the documents into before turning them into the given projection.
+	 * 
+	 * @param entityClass must not be {@literal null}.
+	 * @param projectionType must not be {@literal null}.
+	 * @return
+	 */
+	public Class<?> getTypeToRead(Class<?> entityClass, Class<?> projectionType) {
+		return projectionType.isInterface() || !isProjection(entityClass, projectionType) ? entityClass : projectionType;
+	}
+
+	/**
+	 * Returns the field specification including all properties of the given projection type. Properties of the entity
+	 * are referred to by their name so that they get mapped against the entity like any other field specification.
+	 * Properties of DTO projections not present on the entity are referred to by the field name they are read from.
+	 * 
+	 * @param entityClass must not be {@literal null}.
+	 * @param projectionType must not be {@literal null}.
+	 * @return
+	 */
+	public DBObject getFieldsObject(Class<?> entityClass, Class<?> projectionType) {
+
+		Field field = new Field();
+
+		if (projectionType.isInterface()) {
+
+			for (String property : getProperties(projectionType)) {
+				field.include(property);
+			}
+
+			return field.getFieldsObject();
+		}
+
+		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+		MongoPersistentEntity<?> projection = mappingContext.getPersistentEntity(projectionType);
+
+		for (String property : getProperties(projectionType)) {
+			boolean entityProperty = entity.getPersistentProperty(property) != null;
+			field.include(entityProperty ? property : projection.getPersistentProperty(property).getFieldName());
+		}
+
+		return field.getFieldsObject();
+	}
+
+	/**
+	 * Returns a copy of the given document of the given entity type with the fields renamed to the ones the given DTO
+	 * projection type reads its properties from. Properties of the DTO are matched to the ones of the entity by name, so
+	 * that properties mapped to a custom field name on the entity are read from that field. Returns the given document
+	 * as is if the projection type is not a DTO projection of the entity.
+	 * 
+	 * @param source must not be {@literal null}.
+	 * @param entityClass must not be {@literal null}.
+	 * @param projectionType must not be {@literal null}.
+	 * @return
+	 */
+	public DBObject getProjectionDocument(DBObject source, Class<?> entityClass, Class<?> projectionType) {
+
+		if (projectionType.isInterface() || !isProjection(entityClass, projectionType)) {
+			return source;
+		}
+
+		DBObject result = new BasicDBObject();
+
+		for (Map.Entry<String, String> entry : getFieldNames(entityClass, projectionType).entrySet()) {
+
+			String projectionField = entry.getKey();
+			String sourceField = source.containsField(entry.getValue()) ? entry.getValue() : projectionField;
+
+			if (source.containsField(sourceField)) {
+				result.put(projectionField, source.get(sourceField));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Turns the given source object into the given projection type. Returns the source object as is if it is already an
+	 * instance of the projection type and creates a proxy reading the properties from the source object for interface
+	 * projections.
+	 * 
+	 * @param projectionType must not be {@literal null}.
+	 * @param source can be {@literal null}.
+	 * @return
+	 */
+	public <T> T createProjection(Class<T> projectionType, Object source) {
+
+		if (source == null || projectionType.isInstance(source)) {
+			return projectionType.cast(source);
+		}
+
+		Assert.isTrue(projectionType.isInterface(), String.format("Cannot project %s onto %s!", source, projectionType));
+
+		MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(source.getClass());
+		InvocationHandler handler = new ProjectingInvocationHandler(source, entity, conversionService);
+
+		return projectionType.cast(Proxy.newProxyInstance(projectionType.getClassLoader(),
+				new Class<?>[] { projectionType }, handler));
+	}
+
+	/**
+	 * Returns the names of the fields the given DTO projection type reads its properties from mapped to the names of
+	 * the fields the entity stores the properties of the same name in. Falls back to the field name of the DTO property
+	 * if the entity does not have a property of the same name.
+	 */
+	private Map<String, String> getFieldNames(Class<?> entityClass, Class<?> projectionType) {
+
+		List<Class<?>> key = Arrays.<Class<?>> asList(entityClass, projectionType);
+		Map<String, String> result = fieldNames.get(key);
+
+		if (result != null) {
+			return result;
+		}
+
+		final MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+		final Map<String, String> names = new LinkedHashMap<String, String>();
+
+		MongoPersistentEntity<?> projection = mappingContext.getPersistentEntity(projectionType);
+
+		projection.doWithProperties(new PropertyHandler<MongoPersistentProperty>() {
+			public void doWithPersistentProperty(MongoPersistentProperty property) {
+				names.put(property.getFieldName(), getSourceFieldName(entity, property));
+			}
+		});
+
+		projection.doWithAssociations(new AssociationHandler<MongoPersistentProperty>() {
+			public void doWithAssociation(Association<MongoPersistentProperty> association) {
+				MongoPersistentProperty property = association.getInverse();
+				names.put(property.getFieldName(), getSourceFieldName(entity, property));
+			}
+		});
+
+		result = Collections.unmodifiableMap(names);
+		Map<String, String> existing = fieldNames.putIfAbsent(key, result);
+
+		return existing == null ? result : existing;
+	}
+
+	private static String getSourceFieldName(MongoPersistentEntity<?> entity, MongoPersistentProperty property) {
+
+		MongoPersistentProperty entityProperty = entity.getPersistentProperty(property.getName());
+		return entityProperty == null ? property.getFieldName() : entityProperty.getFieldName();
+	}
+
+	private List<String> getProperties(Class<?> projectionType) {
+
+		List<String> result = properties.get(projectionType);
+
+		if (result != null) {
+			return result;
+		}
+
+		final Set<String> names = new LinkedHashSet<String>();
+
+		if (projectionType.isInterface()) {
+
+			for (Method method : projectionType.getMethods()) {
+
+				String name = getPropertyName(method);
+
+				if (name != null) {
+					names.add(name);
+				}
+			}
+
+		} else {
+
+			MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(projectionType);
+
+			entity.doWithProperties(new PropertyHandler<MongoPersistentProperty>() {
+				public void doWithPersistentProperty(MongoPersistentProperty property) {
+					names.add(property.getName());
+				}
+			});
+
+			entity.doWithAssociations(new AssociationHandler<MongoPersistentProperty>() {
+				public void doWithAssociation(Association<MongoPersistentProperty> association) {
+					names.add(association.getInverse().getName());
+				}
+			});
+		}
+
+		result = Collections.unmodifiableList(new ArrayList<String>(names));
+		List<String> existing = properties.putIfAbsent(projectionType, result);
+
+		return existing == null ? result : existing;
+	}
+
+	/**
+	 * Returns the name of the property the given accessor method reads or {@literal null} if the method is not a getter.
+	 * 
+	 * @param method must not be {@literal null}.
+	 * @return
+	 */
+	private static String getPropertyName(Method method) {
+
+		if (method.getParameterTypes().length != 0 || void.class.equals(method.getReturnType())) {
+			return null;
+		}
+
+		String name = method.getName();
+
+		if (name.startsWith("get") && name.length() > 3) {
+			return Introspector.decapitalize(name.substring(3));
+		}
+
+		boolean isBoolean = boolean.class.equals(method.getReturnType()) || Boolean.class.equals(method.getReturnType());
+
+		if (isBoolean && name.startsWith("is") && name.length() > 2) {
+			return Introspector.decapitalize(name.substring(2));
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@link InvocationHandler} to back interface projections. Reads the properties from the underlying entity.
+	 */
+	private static class ProjectingInvocationHandler implements InvocationHandler {
+
+		private final Object target;
+		private final MongoPersistentEntity<?> entity;
+		private final ConversionService conversionService;
+
+		public ProjectingInvocationHandler(Object target, MongoPersistentEntity<?> entity,
+				ConversionService conversionService) {
+
+			this.target = target;
+			this.entity = entity;
+			this.conversionService = conversionService;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
+		 */
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			if (ReflectionUtils.isEqualsMethod(method)) {
+				return proxy == args[0];
+			} else if (ReflectionUtils.isHashCodeMethod(method)) {
+				return System.identityHashCode(proxy);
+			} else if (ReflectionUtils.isToStringMethod(method)) {
+				return String.format("Projection of %s", target);
+			}
+
+			String name = getPropertyName(method);
+
+			if (name == null) {
+				throw new UnsupportedOperationException(String.format("Projection method %s is not a property accessor!",
+						method));
+			}
+
+			MongoPersistentProperty property = entity.getPersistentProperty(name);
+
+			if (property == null) {
+				throw new IllegalStateException(String.format("No property %s found on %s!", name, entity.getType()));
+			}
+
+			return BeanWrapper.create(target, conversionService).getProperty(property, method.getReturnType(), true);
+		}
+	}
+}
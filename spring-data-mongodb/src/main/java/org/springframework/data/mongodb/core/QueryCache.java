@@ -0,0 +1,323 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import com.mongodb.DBObject;
+import com.mongodb.util.JSON;
+
+/**
+ * Cache for the results of {@code find}, {@code findOne} and {@code count} operations issued through
+ * {@link MongoTemplate}. Entries are keyed by the collection name, the entity type and the query, i.e. the mapped
+ * criteria and fields, the sort, skip, limit and hint. Instead of evicting entries on writes, every write issued through
+ * the template increments the generation of the collection written to, which renders all entries cached for older
+ * generations invalid. The cache is bounded by the number of entries and the total number of documents held and
+ * evicts the least recently used entries first.
+ * 
+ * @since 1.3
+ */
+public class QueryCache {
+
+	private final int maxEntries;
+	private final int maxDocuments;
+	private final Map<Key, Entry> entries;
+	private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+
+	private int documents;
+
+	/**
+	 * Creates a new {@link QueryCache} holding at most the given number of entries and documents.
+	 * 
+	 * @param maxEntries must be greater than zero.
+	 * @param maxDocuments the maximum number of documents held over all entries, must be greater than zero. Results
+	 *          containing more documents are not cached at all.
+	 */
+	public QueryCache(int maxEntries, int maxDocuments) {
+
+		Assert.isTrue(maxEntries > 0, "Maximum number of entries must be greater than zero!");
+		Assert.isTrue(maxDocuments > 0, "Maximum number of documents must be greater than zero!");
+
+		this.maxEntries = maxEntries;
+		this.maxDocuments = maxDocuments;
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the current generation of the given collection. Obtain the generation before reading the results to be
+	 * cached so that writes happening concurrently invalidate them.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @return
+	 */
+	public long getGeneration(String collectionName) {
+		return getGenerationCounter(collectionName).get();
+	}
+
+	/**
+	 * Invalidates all results cached for the given collection by incrementing its generation.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 */
+	public void invalidate(String collectionName) {
+		getGenerationCounter(collectionName).incrementAndGet();
+	}
+
+	/**
+	 * Evicts all cached results.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		documents = 0;
+	}
+
+	/**
+	 * Returns the number of entries currently held by the cache, including invalidated ones not evicted yet.
+	 * 
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the cached documents for the given query.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param type can be {@literal null}.
+	 * @param kind must not be {@literal null}.
+	 * @param mappedQuery can be {@literal null}.
+	 * @param mappedFields can be {@literal null}.
+	 * @param query can be {@literal null}.
+	 * @return the documents or {@literal null} if none are cached for the current generation of the collection.
+	 */
+	@SuppressWarnings("unchecked")
+	List<DBObject> getDocuments(String collectionName, Class<?> type, Kind kind, DBObject mappedQuery,
+			DBObject mappedFields, Query query) {
+		return (List<DBObject>) get(new Key(collectionName, type, kind, mappedQuery, mappedFields, query));
+	}
+
+	/**
+	 * Caches the given documents for the given query if they were read for the current generation of the collection.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param type can be {@literal null}.
+	 * @param kind must not be {@literal null}.
+	 * @param mappedQuery can be {@literal null}.
+	 * @param mappedFields can be {@literal null}.
+	 * @param query can be {@literal null}.
+	 * @param documents must not be {@literal null}.
+	 * @param generation the generation of the collection obtained before the documents were read.
+	 */
+	void putDocuments(String collectionName, Class<?> type, Kind kind, DBObject mappedQuery, DBObject mappedFields,
+			Query query, List<DBObject> documents, long generation) {
+
+		Assert.notNull(documents, "Documents must not be null!");
+
+		put(new Key(collectionName, type, kind, mappedQuery, mappedFields, query),
+				Collections.unmodifiableList(new ArrayList<DBObject>(documents)), documents.size(), generation);
+	}
+
+	/**
+	 * Returns the cached count for the given query.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param type can be {@literal null}.
+	 * @param mappedQuery can be {@literal null}.
+	 * @return the count or {@literal null} if none is cached for the current generation of the collection.
+	 */
+	Long getCount(String collectionName, Class<?> type, DBObject mappedQuery) {
+		return (Long) get(new Key(collectionName, type, Kind.COUNT, mappedQuery, null, null));
+	}
+
+	/**
+	 * Caches the given count for the given query if it was read for the current generation of the collection.
+	 * 
+	 * @param collectionName must not be {@literal null}.
+	 * @param type can be {@literal null}.
+	 * @param mappedQuery can be {@literal null}.
+	 * @param count
+	 * @param generation the generation of the collection obtained before the count was read.
+	 */
+	void putCount(String collectionName, Class<?> type, DBObject mappedQuery, long count, long generation) {
+		put(new Key(collectionName, type, Kind.COUNT, mappedQuery, null, null), count, 0, generation);
+	}
+
+	private synchronized Object get(Key key) {
+
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			return null;
+		}
+
+		if (entry.generation != getGeneration(key.collectionName)) {
+			remove(key);
+			return null;
+		}
+
+		return entry.value;
+	}
+
+	private synchronized void put(Key key, Object value, int weight, long generation) {
+
+		if (weight > maxDocuments || generation != getGeneration(key.collectionName)) {
+			return;
+		}
+
+		remove(key);
+		entries.put(key, new Entry(value, weight, generation));
+		documents += weight;
+
+		Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+
+		while (entries.size() > maxEntries || documents > maxDocuments) {
+			documents -= iterator.next().getValue().weight;
+			iterator.remove();
+		}
+	}
+
+	private void remove(Key key) {
+
+		Entry removed = entries.remove(key);
+
+		if (removed != null) {
+			documents -= removed.weight;
+		}
+	}
+
+	private AtomicLong getGenerationCounter(String collectionName) {
+
+		Assert.notNull(collectionName, "Collection name must not be null!");
+
+		AtomicLong generation = generations.get(collectionName);
+
+		if (generation == null) {
+			AtomicLong newGeneration = new AtomicLong();
+			generation = generations.putIfAbsent(collectionName, newGeneration);
+			generation = generation == null ? newGeneration : generation;
+		}
+
+		return generation;
+	}
+
+	/**
+	 * The kind of operation a result was cached for.
+	 */
+	static enum Kind {
+		FIND, FIND_ONE, COUNT;
+	}
+
+	/**
+	 * Cache key consisting of the collection name, the entity type, the kind of operation and the JSON representation of
+	 * the query. Using the JSON representation keeps the key stable in case the {@link Query} is modified after the
+	 * results have been cached.
+	 */
+	private static class Key {
+
+		private final String collectionName;
+		private final Class<?> type;
+		private final Kind kind;
+		private final String query;
+
+		public Key(String collectionName, Class<?> type, Kind kind, DBObject mappedQuery, DBObject mappedFields,
+				Query query) {
+
+			Assert.notNull(collectionName);
+			Assert.notNull(kind);
+
+			this.collectionName = collectionName;
+			this.type = type;
+			this.kind = kind;
+
+			StringBuilder builder = new StringBuilder();
+			builder.append(mappedQuery == null ? "{ }" : JSON.serialize(mappedQuery));
+			builder.append(mappedFields == null ? "{ }" : JSON.serialize(mappedFields));
+
+			if (query != null) {
+				builder.append(query.getSortObject() == null ? "{ }" : JSON.serialize(query.getSortObject()));
+				builder.append(query.getSkip()).append(',').append(query.getLimit()).append(',').append(query.getHint());
+			}
+
+			this.query = builder.toString();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key that = (Key) obj;
+			return this.collectionName.equals(that.collectionName) && ObjectUtils.nullSafeEquals(this.type, that.type)
+					&& this.kind == that.kind && this.query.equals(that.query);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+
+			int result = 17;
+
+			result += 31 * collectionName.hashCode();
+			result += 31 * ObjectUtils.nullSafeHashCode(type);
+			result += 31 * kind.hashCode();
+			result += 31 * query.hashCode();
+
+			return result;
+		}
+	}
+
+	/**
+	 * A cached result along with its weight and the generation of the collection it was read for.
+	 */
+	private static class Entry {
+
+		private final Object value;
+		private final int weight;
+		private final long generation;
+
+		public Entry(Object value, int weight, long generation) {
+			this.value = value;
+			this.weight = weight;
+			this.generation = generation;
+		}
+	}
+}
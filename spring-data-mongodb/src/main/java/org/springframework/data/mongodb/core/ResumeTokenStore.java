@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import org.bson.types.BSONTimestamp;
+
+/**
+ * Stores the position a {@link ChangeFeed} has read the oplog up to, so that the feed can resume from there after a
+ * restart.
+ * 
+ * @since 1.3
+ */
+public interface ResumeTokenStore {
+
+	/**
+	 * Returns the oplog timestamp stored for the feed with the given name.
+	 * 
+	 * @param feedName will never be {@literal null}.
+	 * @return the timestamp or {@literal null} if none was stored yet.
+	 */
+	BSONTimestamp load(String feedName);
+
+	/**
+	 * Stores the given oplog timestamp for the feed with the given name.
+	 * 
+	 * @param feedName will never be {@literal null}.
+	 * @param timestamp will never be {@literal null}.
+	 */
+	void save(String feedName, BSONTimestamp timestamp);
+}
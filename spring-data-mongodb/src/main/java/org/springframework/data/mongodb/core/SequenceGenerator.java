@@ -0,0 +1,224 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * Hands out ids from named sequences stored as counter documents in a dedicated collection. Ids are reserved in blocks
+ * by incrementing the counter document by the block size with a single {@code findAndModify} (the hi/lo algorithm) and
+ * then handed out from memory without locking. Only the thread exhausting a block reserves the next one while
+ * threads racing with it retry against the fresh block. Ids of blocks not used up before shutdown are lost, so
+ * sequences are unique but not gapless.
+ * 
+ * @see org.springframework.data.mongodb.core.mapping.GeneratedValue
+ * @since 1.3
+ */
+@ManagedResource(description = "Sequence Generator")
+public class SequenceGenerator {
+
+	public static final String DEFAULT_COLLECTION_NAME = "sequences";
+
+	private static final String VALUE_FIELD = "value";
+
+	private final MongoOperations operations;
+	private final String collectionName;
+	private final ConcurrentMap<String, Sequence> sequences = new ConcurrentHashMap<String, Sequence>();
+	private final AtomicLong generated = new AtomicLong();
+	private final AtomicLong reservations = new AtomicLong();
+
+	/**
+	 * Creates a new {@link SequenceGenerator} keeping the sequences in the {@value #DEFAULT_COLLECTION_NAME} collection.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 */
+	public SequenceGenerator(MongoOperations operations) {
+		this(operations, DEFAULT_COLLECTION_NAME);
+	}
+
+	/**
+	 * Creates a new {@link SequenceGenerator} keeping the sequences in the collection with the given name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 */
+	public SequenceGenerator(MongoOperations operations, String collectionName) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+
+		this.operations = operations;
+		this.collectionName = collectionName;
+	}
+
+	/**
+	 * Returns the next id of the sequence with the given name. Reserves a new block of the given size if the current
+	 * block is exhausted. Sequences start with {@literal 1}.
+	 * 
+	 * @param sequenceName must not be {@literal null} or empty.
+	 * @param blockSize must be greater than zero.
+	 * @return
+	 */
+	public long next(String sequenceName, int blockSize) {
+
+		Assert.hasText(sequenceName, "Sequence name must not be null or empty!");
+		Assert.isTrue(blockSize > 0, "Block size must be greater than zero!");
+
+		Sequence sequence = sequences.get(sequenceName);
+
+		if (sequence == null) {
+			Sequence existing = sequences.putIfAbsent(sequenceName, sequence = new Sequence(sequenceName));
+			sequence = existing == null ? sequence : existing;
+		}
+
+		generated.incrementAndGet();
+		return sequence.next(blockSize);
+	}
+
+	/**
+	 * Returns the name of the collection the sequences are kept in.
+	 * 
+	 * @return
+	 */
+	public String getCollectionName() {
+		return collectionName;
+	}
+
+	/**
+	 * Returns the number of ids handed out so far.
+	 * 
+	 * @return
+	 */
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Generated ids")
+	public long getGeneratedCount() {
+		return generated.get();
+	}
+
+	/**
+	 * Returns the number of blocks reserved so far.
+	 * 
+	 * @return
+	 */
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Reserved blocks")
+	public long getReservationCount() {
+		return reservations.get();
+	}
+
+	/**
+	 * Reserves the next block of the given size for the sequence with the given name.
+	 * 
+	 * @param sequenceName
+	 * @param blockSize
+	 * @return the highest id of the reserved block.
+	 */
+	private long reserve(final String sequenceName, final int blockSize) {
+
+		DBObject counter = operations.execute(collectionName, new CollectionCallback<DBObject>() {
+			public DBObject doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+				return collection.findAndModify(new BasicDBObject("_id", sequenceName), null, null, false,
+						new BasicDBObject("$inc", new BasicDBObject(VALUE_FIELD, blockSize)), true, true);
+			}
+		});
+
+		Object value = counter == null ? null : counter.get(VALUE_FIELD);
+
+		if (!(value instanceof Number)) {
+			throw new DataRetrievalFailureException(String.format("Could not reserve ids for sequence %s in %s!",
+					sequenceName, collectionName));
+		}
+
+		reservations.incrementAndGet();
+		return ((Number) value).longValue();
+	}
+
+	/**
+	 * A named sequence handing out ids from the block currently reserved.
+	 */
+	private class Sequence {
+
+		private final String name;
+		private volatile Block block = Block.EXHAUSTED;
+
+		public Sequence(String name) {
+			this.name = name;
+		}
+
+		public long next(int blockSize) {
+
+			while (true) {
+
+				Block current = block;
+				long id = current.next();
+
+				if (id != -1) {
+					return id;
+				}
+
+				synchronized (this) {
+					if (block == current) {
+						long hi = reserve(name, blockSize);
+						block = new Block(hi - blockSize + 1, hi);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A block of reserved ids.
+	 */
+	private static class Block {
+
+		static final Block EXHAUSTED = new Block(1, 0);
+
+		private final AtomicLong next;
+		private final long limit;
+
+		public Block(long first, long limit) {
+			this.next = new AtomicLong(first);
+			this.limit = limit;
+		}
+
+		/**
+		 * Returns the next id of the block or {@literal -1} if the block is exhausted.
+		 * 
+		 * @return
+		 */
+		public long next() {
+
+			if (next.get() > limit) {
+				return -1;
+			}
+
+			long id = next.getAndIncrement();
+			return id > limit ? -1 : id;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link Future} completed explicitly through {@link #set(Object)} or {@link #setException(Throwable)} by the component
+ * performing the work rather than by running a task. Such futures cannot be cancelled.
+ * 
+ * @since 1.3
+ */
+class SettableFuture<T> implements Future<T> {
+
+	private boolean done;
+	private T value;
+	private Throwable failure;
+
+	/**
+	 * Completes the {@link Future} with the given value unless already completed.
+	 * 
+	 * @param value can be {@literal null}.
+	 * @return whether the {@link Future} was completed by this call.
+	 */
+	public synchronized boolean set(T value) {
+
+		if (done) {
+			return false;
+		}
+
+		this.value = value;
+		this.done = true;
+		notifyAll();
+
+		return true;
+	}
+
+	/**
+	 * Completes the {@link Future} with the given failure unless already completed.
+	 * 
+	 * @param failure must not be {@literal null}.
+	 * @return whether the {@link Future} was completed by this call.
+	 */
+	public synchronized boolean setException(Throwable failure) {
+
+		if (done) {
+			return false;
+		}
+
+		this.failure = failure;
+		this.done = true;
+		notifyAll();
+
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#cancel(boolean)
+	 */
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#isCancelled()
+	 */
+	public boolean isCancelled() {
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#isDone()
+	 */
+	public synchronized boolean isDone() {
+		return done;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#get()
+	 */
+	public synchronized T get() throws InterruptedException, ExecutionException {
+
+		while (!done) {
+			wait();
+		}
+
+		return getResult();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+	 */
+	public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+			TimeoutException {
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+		while (!done) {
+
+			long remaining = deadline - System.nanoTime();
+
+			if (remaining <= 0) {
+				throw new TimeoutException();
+			}
+
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+
+		return getResult();
+	}
+
+	private T getResult() throws ExecutionException {
+
+		if (failure != null) {
+			throw new ExecutionException(failure);
+		}
+
+		return value;
+	}
+}
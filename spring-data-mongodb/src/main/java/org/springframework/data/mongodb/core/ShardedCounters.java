@@ -0,0 +1,270 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+import static org.springframework.data.mongodb.core.query.Query.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+import com.mongodb.DBObject;
+
+/**
+ * Counters spreading their value across a number of shard documents to avoid all writers contending for the lock of a
+ * single document. Increments are applied to a single shard through an upsert with {@code $inc} while reads sum up
+ * the values of all shards. The shard of counter {@code name} with index {@code i} is stored as
+ * {@code { _id : "name#i", value : … }}. Totals read can optionally be cached for a short amount of time, trading
+ * accuracy for fewer queries against frequently read counters.
+ * <p>
+ * As the shards of a counter are looked up by their ids, the number of shards configured for a counter must never be
+ * decreased, otherwise the values of the surplus shards are not read anymore.
+ * 
+ * @since 1.3
+ */
+public class ShardedCounters {
+
+	public static final String DEFAULT_COLLECTION_NAME = "counters";
+	public static final int DEFAULT_SHARDS = 16;
+
+	private static final String VALUE_FIELD = "value";
+	private static final String SHARD_SEPARATOR = "#";
+
+	/**
+	 * Strategy to select the shard an increment is applied to.
+	 */
+	public static enum ShardSelection {
+
+		/**
+		 * Selects a random shard for every increment.
+		 */
+		RANDOM,
+
+		/**
+		 * Selects the shard by the id of the current thread so that a thread always increments the same shard.
+		 */
+		THREAD_AFFINE;
+	}
+
+	private final MongoOperations operations;
+	private final String collectionName;
+	private final ConcurrentMap<String, Integer> shards = new ConcurrentHashMap<String, Integer>();
+	private final ConcurrentMap<String, CachedTotal> totals = new ConcurrentHashMap<String, CachedTotal>();
+	private final Random random = new Random();
+
+	private int defaultShards = DEFAULT_SHARDS;
+	private ShardSelection shardSelection = ShardSelection.THREAD_AFFINE;
+	private long totalTimeToLive;
+
+	/**
+	 * Creates a new {@link ShardedCounters} instance keeping the counters in the {@value #DEFAULT_COLLECTION_NAME}
+	 * collection.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 */
+	public ShardedCounters(MongoOperations operations) {
+		this(operations, DEFAULT_COLLECTION_NAME);
+	}
+
+	/**
+	 * Creates a new {@link ShardedCounters} instance keeping the counters in the collection with the given name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 */
+	public ShardedCounters(MongoOperations operations, String collectionName) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+
+		this.operations = operations;
+		this.collectionName = collectionName;
+	}
+
+	/**
+	 * Configures the number of shards to use for counters no dedicated number of shards was configured for. Defaults to
+	 * {@value #DEFAULT_SHARDS}.
+	 * 
+	 * @param defaultShards must be greater than zero.
+	 */
+	public void setDefaultShards(int defaultShards) {
+
+		Assert.isTrue(defaultShards > 0, "Number of shards must be greater than zero!");
+		this.defaultShards = defaultShards;
+	}
+
+	/**
+	 * Configures the number of shards to spread the counter with the given name across.
+	 * 
+	 * @param counter must not be {@literal null} or empty.
+	 * @param shards must be greater than zero.
+	 */
+	public void setShards(String counter, int shards) {
+
+		Assert.hasText(counter, "Counter name must not be null or empty!");
+		Assert.isTrue(shards > 0, "Number of shards must be greater than zero!");
+
+		this.shards.put(counter, shards);
+	}
+
+	/**
+	 * Configures the {@link ShardSelection} to pick the shard to increment with. Defaults to
+	 * {@link ShardSelection#THREAD_AFFINE}.
+	 * 
+	 * @param shardSelection must not be {@literal null}.
+	 */
+	public void setShardSelection(ShardSelection shardSelection) {
+
+		Assert.notNull(shardSelection, "ShardSelection must not be null!");
+		this.shardSelection = shardSelection;
+	}
+
+	/**
+	 * Configures the time totals read are cached for. A value of zero disables caching which is the default. Cached
+	 * totals do not reflect increments applied in the meantime, not even the ones applied through this instance.
+	 * 
+	 * @param timeToLive must not be negative.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setTotalCacheTime(long timeToLive, TimeUnit unit) {
+
+		Assert.isTrue(timeToLive >= 0, "Time to live must not be negative!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.totalTimeToLive = unit.toMillis(timeToLive);
+		this.totals.clear();
+	}
+
+	/**
+	 * Increments the counter with the given name by one.
+	 * 
+	 * @param counter must not be {@literal null} or empty.
+	 */
+	public void increment(String counter) {
+		increment(counter, 1);
+	}
+
+	/**
+	 * Increments the counter with the given name by the given delta.
+	 * 
+	 * @param counter must not be {@literal null} or empty.
+	 * @param delta
+	 */
+	public void increment(String counter, long delta) {
+
+		Assert.hasText(counter, "Counter name must not be null or empty!");
+
+		int shardCount = getShards(counter);
+		int shard = shardSelection == ShardSelection.RANDOM ? random.nextInt(shardCount) : (int) (Thread.currentThread()
+				.getId() % shardCount);
+
+		operations.upsert(query(where("_id").is(getShardId(counter, shard))), new Update().inc(VALUE_FIELD, delta),
+				collectionName);
+	}
+
+	/**
+	 * Returns the current value of the counter with the given name, i.e. the sum of the values of all its shards. Might
+	 * return a cached total if caching totals is enabled.
+	 * 
+	 * @param counter must not be {@literal null} or empty.
+	 * @return
+	 */
+	public long get(String counter) {
+
+		Assert.hasText(counter, "Counter name must not be null or empty!");
+
+		long now = System.currentTimeMillis();
+		CachedTotal cached = totals.get(counter);
+
+		if (cached != null && now < cached.expiresAt) {
+			return cached.total;
+		}
+
+		long total = 0;
+
+		for (DBObject shard : operations.find(getShardsQuery(counter), DBObject.class, collectionName)) {
+
+			Object value = shard.get(VALUE_FIELD);
+			total += value instanceof Number ? ((Number) value).longValue() : 0;
+		}
+
+		if (totalTimeToLive > 0) {
+			totals.put(counter, new CachedTotal(total, now + totalTimeToLive));
+		}
+
+		return total;
+	}
+
+	/**
+	 * Removes all shards of the counter with the given name, i.e. resets it to zero.
+	 * 
+	 * @param counter must not be {@literal null} or empty.
+	 */
+	public void reset(String counter) {
+
+		Assert.hasText(counter, "Counter name must not be null or empty!");
+
+		operations.remove(getShardsQuery(counter), collectionName);
+		totals.remove(counter);
+	}
+
+	private int getShards(String counter) {
+
+		Integer result = shards.get(counter);
+		return result == null ? defaultShards : result;
+	}
+
+	private Query getShardsQuery(String counter) {
+
+		int shardCount = getShards(counter);
+		List<String> ids = new ArrayList<String>(shardCount);
+
+		for (int i = 0; i < shardCount; i++) {
+			ids.add(getShardId(counter, i));
+		}
+
+		Query query = query(where("_id").in(ids));
+		query.fields().include(VALUE_FIELD);
+
+		return query;
+	}
+
+	private static String getShardId(String counter, int shard) {
+		return counter + SHARD_SEPARATOR + shard;
+	}
+
+	/**
+	 * A total read along with its expiry timestamp.
+	 */
+	private static class CachedTotal {
+
+		private final long total;
+		private final long expiresAt;
+
+		public CachedTotal(long total, long expiresAt) {
+			this.total = total;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * Installs named JavaScript functions into the {@value #COLLECTION_NAME} collection of the database on startup, so
+ * that map-reduce and group operations can reference them by name instead of shipping their full source with every
+ * command. Use {@link #reference(String)} to obtain a function to be handed to
+ * {@link MongoOperations#mapReduce(String, String, String, Class)} and friends in place of the actual one:
+ * 
+ * <pre>
+ * operations.mapReduce(&quot;orders&quot;, reference(&quot;mapOrders&quot;), reference(&quot;sumTotals&quot;), Total.class);
+ * </pre>
+ * 
+ * @see MongoOperations#installFunction(String, String)
+ * @since 1.3
+ */
+public class StoredFunctions implements InitializingBean {
+
+	/**
+	 * The name of the collection server-side JavaScript functions are stored in.
+	 */
+	public static final String COLLECTION_NAME = "system.js";
+
+	private static final Pattern FUNCTION_NAME = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+	private final MongoOperations operations;
+	private Map<String, String> functions = new HashMap<String, String>();
+
+	/**
+	 * Creates a new {@link StoredFunctions} installing functions through the given {@link MongoOperations}.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 */
+	public StoredFunctions(MongoOperations operations) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		this.operations = operations;
+	}
+
+	/**
+	 * Configures the functions to install keyed by their names. Values can either be the source of the function or the
+	 * location of a resource containing it.
+	 * 
+	 * @param functions must not be {@literal null}.
+	 */
+	public void setFunctions(Map<String, String> functions) {
+
+		Assert.notNull(functions, "Functions must not be null!");
+		this.functions = functions;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+	 */
+	public void afterPropertiesSet() {
+
+		for (Map.Entry<String, String> entry : functions.entrySet()) {
+			operations.installFunction(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Returns a function invoking the stored function with the given name, passing on the {@code this} reference and
+	 * all arguments. It can be used as map, reduce or finalize function.
+	 * 
+	 * @param name must be a valid JavaScript identifier.
+	 * @return
+	 */
+	public static String reference(String name) {
+
+		Assert.isTrue(name != null && FUNCTION_NAME.matcher(name).matches(),
+				String.format("Invalid function name %s! Must be a valid JavaScript identifier.", name));
+
+		return String.format("function() { return %s.apply(this, arguments); }", name);
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+/**
+ * Handle to a long running subscription to documents, e.g. the one created by tailing a capped collection.
+ * 
+ * @see MongoOperations#tail(org.springframework.data.mongodb.core.query.Query, Class, EntityCallbackHandler)
+ * @since 1.3
+ */
+public interface Subscription {
+
+	/**
+	 * Returns whether the subscription is still active, i.e. has neither been cancelled nor stopped because the handler
+	 * failed to process a document.
+	 * 
+	 * @return
+	 */
+	boolean isActive();
+
+	/**
+	 * Cancels the subscription. Documents already read might still be handed out while the subscription shuts down.
+	 */
+	void cancel();
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.Bytes;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * {@link Subscription} reading the documents inserted into a capped collection through a tailable, await-data cursor
+ * on a dedicated daemon thread. Every document read is handed to a {@link DocumentCallbackHandler}. If the cursor dies,
+ * e.g. because the collection was empty or the connection was lost, the subscription resumes right after the last
+ * document read. By default it does so by reading the collection in natural, i.e. insertion, order again and skipping
+ * the documents up to the {@code _id} of the last one read, as ids do not necessarily increase in insertion order. If a
+ * position field is given, it has to increase monotonically in insertion order, like the {@code ts} field of an oplog,
+ * and the subscription resumes with a range query on it instead. If the handler throws an exception, the
+ * subscription is cancelled so that no document is silently skipped.
+ * 
+ * @since 1.3
+ */
+class TailingSubscription implements Subscription, Runnable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TailingSubscription.class);
+	private static final String ID_FIELD = "_id";
+	private static final String OPLOG_TIMESTAMP_FIELD = "ts";
+	private static final long RESUME_DELAY = 100;
+
+	private final MongoOperations operations;
+	private final String collectionName;
+	private final DBObject query;
+	private final DBObject fields;
+	private final DocumentCallbackHandler handler;
+	private final String positionField;
+
+	private volatile boolean active = true;
+	private volatile Thread thread;
+	private Object lastPosition;
+	private Object lastId;
+
+	/**
+	 * Creates a new {@link TailingSubscription} for the documents matching the given query in the given collection.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param query the mapped query, must not be {@literal null}.
+	 * @param fields the mapped field specification, can be {@literal null}.
+	 * @param handler must not be {@literal null}.
+	 */
+	public TailingSubscription(MongoOperations operations, String collectionName, DBObject query, DBObject fields,
+			DocumentCallbackHandler handler) {
+		this(operations, collectionName, query, fields, handler, null, null);
+	}
+
+	/**
+	 * Creates a new {@link TailingSubscription} for the documents matching the given query in the given collection
+	 * tracking the position by the given field. The values of the field have to increase monotonically in insertion
+	 * order. Tailing starts after the given position if one is given. Tracking the position by the {@code ts} field of
+	 * an oplog makes the subscription use the oplog replay option to efficiently skip to the position when reopening the
+	 * cursor.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param query the mapped query, must not be {@literal null}.
+	 * @param fields the mapped field specification, can be {@literal null}.
+	 * @param handler must not be {@literal null}.
+	 * @param positionField the monotonically increasing field to track the position by, {@literal null} to resume
+	 *          after the last {@code _id} read in natural order.
+	 * @param position the position to start after, can be {@literal null}.
+	 */
+	public TailingSubscription(MongoOperations operations, String collectionName, DBObject query, DBObject fields,
+			DocumentCallbackHandler handler, String positionField, Object position) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.notNull(query, "Query must not be null!");
+		Assert.notNull(handler, "DocumentCallbackHandler must not be null!");
+		Assert.isTrue(positionField == null || positionField.length() > 0, "Position field must not be empty!");
+
+		this.operations = operations;
+		this.collectionName = collectionName;
+		this.query = query;
+		this.fields = fields;
+		this.handler = handler;
+		this.positionField = positionField;
+		this.lastPosition = position;
+	}
+
+	/**
+	 * Starts tailing the collection on a new daemon thread.
+	 * 
+	 * @return the subscription itself.
+	 */
+	public TailingSubscription start() {
+
+		Thread thread = new DaemonThreadFactory("mongo-tail-" + collectionName).newThread(this);
+		this.thread = thread;
+		thread.start();
+
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.Subscription#isActive()
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.Subscription#cancel()
+	 */
+	public void cancel() {
+
+		active = false;
+		Thread thread = this.thread;
+
+		if (thread != null && thread != Thread.currentThread()) {
+			thread.interrupt();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	public void run() {
+
+		while (active) {
+
+			DBCursor cursor = null;
+
+			try {
+
+				boolean skipping = isSkipToLastIdRequired();
+				cursor = open();
+
+				while (active) {
+
+					DBObject document = cursor.tryNext();
+
+					if (document == null) {
+
+						if (skipping) {
+							LOGGER.warn(String.format("Document %s of collection %s to resume after is gone, resuming with the "
+									+ "documents read since!", lastId, collectionName));
+							skipping = false;
+						}
+
+						// Dead cursor, e.g. on an empty collection -> reopen
+						if (cursor.getCursorId() == 0) {
+							break;
+						}
+
+						continue;
+					}
+
+					if (skipping) {
+						skipping = !ObjectUtils.nullSafeEquals(lastId, document.get(ID_FIELD));
+						continue;
+					}
+
+					lastId = document.get(ID_FIELD);
+					lastPosition = positionField == null ? null : document.get(positionField);
+					dispatch(document);
+				}
+
+			} catch (RuntimeException e) {
+
+				if (active) {
+					LOGGER.warn(String.format("Lost tailable cursor on collection %s, resuming after %s!", collectionName,
+							positionField == null ? lastId : lastPosition), e);
+				}
+
+			} finally {
+
+				if (cursor != null) {
+					cursor.close();
+				}
+			}
+
+			try {
+				TimeUnit.MILLISECONDS.sleep(RESUME_DELAY);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		active = false;
+
+		try {
+			onStop();
+		} catch (RuntimeException e) {
+			LOGGER.error(String.format("Failed to stop subscription to collection %s!", collectionName), e);
+		}
+	}
+
+	/**
+	 * Callback invoked on the tailing thread once the subscription has stopped, either because it was cancelled or
+	 * because the handler failed. No documents are handed to the handler afterwards.
+	 */
+	protected void onStop() {}
+
+	private DBCursor open() {
+
+		final DBObject resumeQuery = getResumeQuery();
+		final boolean oplogReplay = lastPosition != null && OPLOG_TIMESTAMP_FIELD.equals(positionField);
+
+		return operations.execute(collectionName, new CollectionCallback<DBCursor>() {
+			public DBCursor doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+
+				DBCursor cursor = collection.find(resumeQuery, fields).sort(new BasicDBObject("$natural", 1))
+						.addOption(Bytes.QUERYOPTION_TAILABLE).addOption(Bytes.QUERYOPTION_AWAITDATA);
+
+				return oplogReplay ? cursor.addOption(Bytes.QUERYOPTION_OPLOGREPLAY) : cursor;
+			}
+		});
+	}
+
+	/**
+	 * Returns whether the documents up to the last one read have to be skipped after reopening the cursor. That's the
+	 * case if the position is not tracked by a monotonic field and the last document read is still in the collection.
+	 * If it is not, all documents still in the collection were inserted after it, as capped collections drop documents
+	 * in insertion order.
+	 * 
+	 * @return
+	 */
+	private boolean isSkipToLastIdRequired() {
+
+		if (positionField != null || lastId == null) {
+			return false;
+		}
+
+		final DBObject lastDocumentQuery = new BasicDBObject("$and", Arrays.asList(query, new BasicDBObject(ID_FIELD,
+				lastId)));
+
+		return operations.execute(collectionName, new CollectionCallback<Boolean>() {
+			public Boolean doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+				return collection.findOne(lastDocumentQuery, new BasicDBObject(ID_FIELD, 1)) != null;
+			}
+		});
+	}
+
+	/**
+	 * Returns the query restricted to the documents after the last position read. Adds the range predicate to the top
+	 * level of the query if possible as the oplog replay option requires it there.
+	 * 
+	 * @return
+	 */
+	private DBObject getResumeQuery() {
+
+		if (positionField == null || lastPosition == null) {
+			return query;
+		}
+
+		DBObject range = new BasicDBObject("$gt", lastPosition);
+
+		if (query.containsField(positionField)) {
+			return new BasicDBObject("$and", Arrays.asList(query, new BasicDBObject(positionField, range)));
+		}
+
+		DBObject result = new BasicDBObject(query.toMap());
+		result.put(positionField, range);
+
+		return result;
+	}
+
+	/**
+	 * Hands the given document to the handler and cancels the subscription if the handler fails.
+	 * 
+	 * @param document
+	 */
+	private void dispatch(DBObject document) {
+
+		try {
+			handler.processDocument(document);
+		} catch (RuntimeException e) {
+			LOGGER.error(String.format("Failed to process document %s tailed from collection %s, cancelling subscription!",
+					lastId, collectionName), e);
+			active = false;
+		}
+	}
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Coalesces updates of single documents identified by id issued through a {@link MongoTemplate}. Updates only using
+ * {@code $inc}, {@code $set} and {@code $addToSet} are merged per document, summing up increments, letting the last
+ * {@code $set} win and collecting the values added to sets, so that only a single merged update per document is
+ * written when flushing. Flushes happen periodically, once the configured number of documents has pending updates or
+ * when {@link #flush()} is called explicitly. Updates that cannot be merged flush the pending update of the document
+ * and are written right away to retain the order of updates per document. Every update returns a {@link Future}
+ * completed once the merged update containing it has been written or failed, so that failures of background flushes
+ * can be detected by callers. Updates are rejected once the coalescer has been {@link #destroy() destroyed}.
+ * 
+ * @since 1.3
+ */
+@ManagedResource(description = "Coalesced updates")
+public class UpdateCoalescer implements DisposableBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UpdateCoalescer.class);
+	private static final String ID_FIELD = "_id";
+	private static final Collection<String> MERGEABLE_OPERATORS = Arrays.asList("$inc", "$set", "$addToSet");
+
+	private final MongoTemplate template;
+	private final int maxPending;
+	private final ScheduledExecutorService scheduler;
+	private final Object[] locks = new Object[64];
+
+	private final AtomicLong receivedUpdates = new AtomicLong();
+	private final AtomicLong writtenUpdates = new AtomicLong();
+
+	private final Map<Key, PendingUpdate> pending = new LinkedHashMap<Key, PendingUpdate>();
+	private boolean destroyed;
+
+	/**
+	 * Creates a new {@link UpdateCoalescer} writing updates through the given {@link MongoTemplate}.
+	 * 
+	 * @param template must not be {@literal null}.
+	 * @param maxPending the number of documents with pending updates to trigger a flush, must be greater than zero.
+	 * @param window the interval to flush pending updates in, must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 */
+	public UpdateCoalescer(MongoTemplate template, int maxPending, long window, TimeUnit unit) {
+
+		Assert.notNull(template, "MongoTemplate must not be null!");
+		Assert.isTrue(maxPending > 0, "Maximum number of pending documents must be greater than zero!");
+		Assert.isTrue(window > 0, "Window must be greater than zero!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.template = template;
+		this.maxPending = maxPending;
+
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("mongo-update-coalescer"));
+
+		this.scheduler.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					flush();
+				} catch (RuntimeException e) {
+					LOGGER.error("Failed to flush coalesced updates!", e);
+				}
+			}
+		}, window, window, unit);
+	}
+
+	/**
+	 * Updates the document with the given id in the collection of the given type.
+	 * 
+	 * @param id must not be {@literal null}.
+	 * @param update must not be {@literal null}.
+	 * @param entityClass must not be {@literal null}.
+	 * @return a {@link Future} completed once the update has been written.
+	 */
+	public Future<Void> update(Object id, Update update, Class<?> entityClass) {
+
+		Assert.notNull(entityClass, "Entity class must not be null!");
+		return update(id, update, entityClass, template.getCollectionName(entityClass));
+	}
+
+	/**
+	 * Updates the document with the given id in the given collection.
+	 * 
+	 * @param id must not be {@literal null}.
+	 * @param update must not be {@literal null}.
+	 * @param entityClass the type to map the update against, can be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @return a {@link Future} completed once the update has been written.
+	 * @throws IllegalStateException if the coalescer has already been destroyed.
+	 */
+	public Future<Void> update(Object id, Update update, Class<?> entityClass, String collectionName) {
+
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(update, "Update must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+
+		Key key = new Key(collectionName, id);
+		DBObject updateObject = update.getUpdateObject();
+		SettableFuture<Void> future = new SettableFuture<Void>();
+		boolean flushAll = false;
+
+		synchronized (this) {
+
+			Assert.state(!destroyed, "Update coalescer has already been destroyed!");
+			receivedUpdates.incrementAndGet();
+
+			PendingUpdate existing = pending.get(key);
+
+			if (isMergeable(updateObject) && (existing == null || existing.canMerge(updateObject))) {
+
+				if (existing == null) {
+					existing = new PendingUpdate(entityClass, updateObject);
+					pending.put(key, existing);
+				} else {
+					existing.merge(updateObject);
+				}
+
+				existing.futures.add(future);
+				flushAll = pending.size() >= maxPending;
+				updateObject = null;
+			}
+		}
+
+		if (updateObject != null) {
+
+			PendingUpdate current = new PendingUpdate(entityClass, updateObject);
+			current.futures.add(future);
+
+			synchronized (getLock(key)) {
+
+				try {
+					write(key, removePending(key));
+				} catch (RuntimeException e) {
+					current.fail(e);
+					throw e;
+				}
+
+				write(key, current);
+			}
+		}
+
+		if (flushAll) {
+			flush();
+		}
+
+		return future;
+	}
+
+	/**
+	 * Writes all pending updates. Updates failing to be written fail the {@link Future}s returned for them.
+	 */
+	@ManagedOperation(description = "Writes all pending updates")
+	public void flush() {
+
+		List<Key> keys;
+
+		synchronized (this) {
+
+			if (pending.isEmpty()) {
+				return;
+			}
+
+			keys = new ArrayList<Key>(pending.keySet());
+		}
+
+		RuntimeException failure = null;
+
+		for (Key key : keys) {
+
+			synchronized (getLock(key)) {
+				try {
+					write(key, removePending(key));
+				} catch (RuntimeException e) {
+					LOGGER.error(String.format("Failed to write coalesced update for %s!", key), e);
+					failure = failure == null ? e : failure;
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Rejects further updates, writes all pending updates and stops the periodic flushing.
+	 * 
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public void destroy() {
+
+		synchronized (this) {
+			destroyed = true;
+		}
+
+		scheduler.shutdown();
+		flush();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Number of updates received")
+	public long getReceivedCount() {
+		return receivedUpdates.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Number of updates written")
+	public long getWrittenCount() {
+		return writtenUpdates.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Number of documents with pending updates")
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Number of updates received per update written")
+	public double getMergeRatio() {
+
+		long written = writtenUpdates.get();
+		return written == 0 ? 0 : (double) receivedUpdates.get() / written;
+	}
+
+	/**
+	 * Returns the lock to hold while taking the pending update of the document with the given {@link Key} and writing
+	 * it, so that updates of a single document are written in order.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private Object getLock(Key key) {
+		return locks[(key.hashCode() & Integer.MAX_VALUE) % locks.length];
+	}
+
+	private synchronized PendingUpdate removePending(Key key) {
+		return pending.remove(key);
+	}
+
+	/**
+	 * Writes the given update and completes its {@link Future}s. Must be called holding the lock of the given
+	 * {@link Key}.
+	 * 
+	 * @param key
+	 * @param update can be {@literal null}.
+	 */
+	private void write(Key key, PendingUpdate update) {
+
+		if (update == null) {
+			return;
+		}
+
+		Query query = new Query(where(ID_FIELD).is(key.id));
+
+		try {
+			template.doUpdate(key.collectionName, query, Update.fromDBObject(update.toDBObject()), update.entityClass, false,
+					false);
+		} catch (RuntimeException e) {
+			update.fail(e);
+			throw e;
+		}
+
+		writtenUpdates.incrementAndGet();
+		update.complete();
+	}
+
+	/**
+	 * Returns whether the given update only uses mergeable operators with each field being modified by a single operator
+	 * only.
+	 * 
+	 * @param updateObject
+	 * @return
+	 */
+	private static boolean isMergeable(DBObject updateObject) {
+
+		if (updateObject.keySet().isEmpty() || !MERGEABLE_OPERATORS.containsAll(updateObject.keySet())) {
+			return false;
+		}
+
+		List<String> fields = new ArrayList<String>();
+
+		for (String operator : updateObject.keySet()) {
+
+			Object operands = updateObject.get(operator);
+
+			if (!(operands instanceof DBObject)) {
+				return false;
+			}
+
+			for (String field : ((DBObject) operands).keySet()) {
+
+				if ("$inc".equals(operator) && !(((DBObject) operands).get(field) instanceof Number)) {
+					return false;
+				}
+
+				for (String other : fields) {
+					if (field.equals(other) || isNested(field, other)) {
+						return false;
+					}
+				}
+
+				fields.add(field);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns whether one of the given field paths points into the other one.
+	 * 
+	 * @param left
+	 * @param right
+	 * @return
+	 */
+	private static boolean isNested(String left, String right) {
+		return left.startsWith(right + ".") || right.startsWith(left + ".");
+	}
+
+	private static Number add(Number left, Number right) {
+
+		if (left instanceof Double || left instanceof Float || right instanceof Double || right instanceof Float) {
+			return left.doubleValue() + right.doubleValue();
+		}
+
+		long sum = left.longValue() + right.longValue();
+		boolean integers = !(left instanceof Long) && !(right instanceof Long);
+
+		return integers && sum >= Integer.MIN_VALUE && sum <= Integer.MAX_VALUE ? Integer.valueOf((int) sum) : Long
+				.valueOf(sum);
+	}
+
+	/**
+	 * Identifies a document by collection name and id.
+	 */
+	private static class Key {
+
+		private final String collectionName;
+		private final Object id;
+
+		public Key(String collectionName, Object id) {
+			this.collectionName = collectionName;
+			this.id = id;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key that = (Key) obj;
+			return this.collectionName.equals(that.collectionName) && ObjectUtils.nullSafeEquals(this.id, that.id);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+
+			int result = 17;
+
+			result += 31 * collectionName.hashCode();
+			result += 31 * ObjectUtils.nullSafeHashCode(id);
+
+			return result;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return String.format("%s in collection %s", id, collectionName);
+		}
+	}
+
+	/**
+	 * The update pending for a single document, merged from all updates received for it since the last flush.
+	 */
+	private static class PendingUpdate {
+
+		private final Class<?> entityClass;
+		private final Map<String, Number> increments = new LinkedHashMap<String, Number>();
+		private final Map<String, Object> sets = new LinkedHashMap<String, Object>();
+		private final Map<String, List<Object>> additions = new LinkedHashMap<String, List<Object>>();
+		private final DBObject updateObject;
+		private final List<SettableFuture<Void>> futures = new ArrayList<SettableFuture<Void>>();
+
+		/**
+		 * Creates a new {@link PendingUpdate} for the given update. Updates that cannot be merged are kept as is.
+		 * 
+		 * @param entityClass
+		 * @param updateObject
+		 */
+		public PendingUpdate(Class<?> entityClass, DBObject updateObject) {
+
+			this.entityClass = entityClass;
+
+			if (isMergeable(updateObject)) {
+				this.updateObject = null;
+				merge(updateObject);
+			} else {
+				this.updateObject = updateObject;
+			}
+		}
+
+		/**
+		 * Returns whether the given mergeable update can be merged into the current one. A {@code $set} can replace a
+		 * pending {@code $inc}, an {@code $inc} can be applied to a pending numeric {@code $set}, but {@code $addToSet}
+		 * cannot be combined with any other operator on the same field. Fields pointing into each other are never merged.
+		 * 
+		 * @param updateObject
+		 * @return
+		 */
+		public boolean canMerge(DBObject updateObject) {
+
+			for (String key : getOperands(updateObject, "$inc").keySet()) {
+				if (additions.containsKey(key) || (sets.containsKey(key) && !(sets.get(key) instanceof Number))) {
+					return false;
+				}
+			}
+
+			for (String key : getOperands(updateObject, "$set").keySet()) {
+				if (additions.containsKey(key)) {
+					return false;
+				}
+			}
+
+			for (String key : getOperands(updateObject, "$addToSet").keySet()) {
+				if (increments.containsKey(key) || sets.containsKey(key)) {
+					return false;
+				}
+			}
+
+			for (String operator : updateObject.keySet()) {
+				for (String key : getOperands(updateObject, operator).keySet()) {
+					for (String pendingKey : getPendingKeys()) {
+						if (isNested(key, pendingKey)) {
+							return false;
+						}
+					}
+				}
+			}
+
+			return true;
+		}
+
+		public void merge(DBObject updateObject) {
+
+			DBObject set = getOperands(updateObject, "$set");
+
+			for (String key : set.keySet()) {
+				increments.remove(key);
+				sets.put(key, set.get(key));
+			}
+
+			DBObject inc = getOperands(updateObject, "$inc");
+
+			for (String key : inc.keySet()) {
+
+				Number value = (Number) inc.get(key);
+
+				if (sets.containsKey(key)) {
+					sets.put(key, add((Number) sets.get(key), value));
+				} else {
+					increments.put(key, increments.containsKey(key) ? add(increments.get(key), value) : value);
+				}
+			}
+
+			DBObject addToSet = getOperands(updateObject, "$addToSet");
+
+			for (String key : addToSet.keySet()) {
+
+				List<Object> values = additions.get(key);
+
+				if (values == null) {
+					values = new ArrayList<Object>();
+					additions.put(key, values);
+				}
+
+				for (Object value : getValuesToAdd(addToSet.get(key))) {
+					if (!values.contains(value)) {
+						values.add(value);
+					}
+				}
+			}
+		}
+
+		public void complete() {
+
+			for (SettableFuture<Void> future : futures) {
+				future.set(null);
+			}
+		}
+
+		public void fail(Throwable cause) {
+
+			for (SettableFuture<Void> future : futures) {
+				future.setException(cause);
+			}
+		}
+
+		public DBObject toDBObject() {
+
+			if (updateObject != null) {
+				return updateObject;
+			}
+
+			DBObject result = new BasicDBObject();
+
+			if (!increments.isEmpty()) {
+				result.put("$inc", new BasicDBObject(increments));
+			}
+
+			if (!sets.isEmpty()) {
+				result.put("$set", new BasicDBObject(sets));
+			}
+
+			if (!additions.isEmpty()) {
+
+				DBObject addToSet = new BasicDBObject();
+
+				for (Map.Entry<String, List<Object>> entry : additions.entrySet()) {
+
+					List<Object> values = entry.getValue();
+
+					if (values.size() == 1) {
+						addToSet.put(entry.getKey(), values.get(0));
+					} else {
+						BasicDBList each = new BasicDBList();
+						each.addAll(values);
+						addToSet.put(entry.getKey(), new BasicDBObject("$each", each));
+					}
+				}
+
+				result.put("$addToSet", addToSet);
+			}
+
+			return result;
+		}
+
+		private List<String> getPendingKeys() {
+
+			List<String> result = new ArrayList<String>(increments.keySet());
+			result.addAll(sets.keySet());
+			result.addAll(additions.keySet());
+
+			return result;
+		}
+
+		private static DBObject getOperands(DBObject updateObject, String operator) {
+
+			Object operands = updateObject.get(operator);
+			return operands instanceof DBObject ? (DBObject) operands : new BasicDBObject();
+		}
+
+		private static Collection<?> getValuesToAdd(Object value) {
+
+			if (value instanceof DBObject && ((DBObject) value).containsField("$each")) {
+
+				Object each = ((DBObject) value).get("$each");
+
+				if (each instanceof Collection) {
+					return (Collection<?>) each;
+				}
+
+				if (each instanceof Object[]) {
+					return Arrays.asList((Object[]) each);
+				}
+			}
+
+			return Arrays.asList(value);
+		}
+	}
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+import static org.springframework.data.mongodb.core.query.Query.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jmx.export.annotation.ManagedMetric;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.support.MetricType;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Work queue keeping jobs in a collection and claiming them in batches. A claim selects the ids of up to
+ * {@code batchSize} available jobs ordered by priority, marks them with a unique claim token and a lease through a
+ * single {@code updateMulti} restricted to those ids and still available jobs, and reads back the jobs carrying the
+ * token. Thus concurrent workers never claim the same job while each worker only needs three round trips per batch.
+ * Jobs not completed before their lease expires become available again and are re-delivered.
+ * <p>
+ * Claimed jobs are buffered locally. {@link #poll(long, TimeUnit)} triggers claiming the next batch in the background
+ * once the buffer runs low so that workers do not have to wait for the round trips. Jobs whose lease expired while
+ * they were buffered are discarded as they might have been re-delivered to another worker already.
+ * 
+ * @since 1.3
+ */
+@ManagedResource(description = "Work queue")
+public class WorkQueue<T> implements DisposableBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WorkQueue.class);
+
+	static final String ID_FIELD = "_id";
+	static final String PRIORITY_FIELD = "priority";
+	static final String LEASE_FIELD = "leaseUntil";
+	static final String TOKEN_FIELD = "token";
+	static final String ATTEMPTS_FIELD = "attempts";
+	static final String PAYLOAD_FIELD = "payload";
+
+	private static final Date AVAILABLE = new Date(0);
+	private static final long IDLE_INTERVAL = 100;
+
+	private final MongoOperations operations;
+	private final Class<T> type;
+	private final String collectionName;
+	private final int batchSize;
+	private final long lease;
+	private final ExecutorService executor;
+	private final BlockingQueue<Job<T>> buffer = new LinkedBlockingQueue<Job<T>>();
+	private final AtomicBoolean claiming = new AtomicBoolean();
+
+	private final AtomicLong claims = new AtomicLong();
+	private final AtomicLong claimed = new AtomicLong();
+	private final AtomicLong expired = new AtomicLong();
+
+	private int prefetchThreshold;
+	private volatile long idleUntil;
+
+	/**
+	 * Creates a new {@link WorkQueue} for jobs with payloads of the given type kept in the collection with the given
+	 * name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param type the type of the jobs' payloads, must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param batchSize the maximum number of jobs to claim with a single round trip, must be greater than zero.
+	 * @param lease the time a worker owns claimed jobs for, must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 */
+	public WorkQueue(MongoOperations operations, Class<T> type, String collectionName, int batchSize, long lease,
+			TimeUnit unit) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than zero!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+		Assert.isTrue(unit.toMillis(lease) > 0, "Lease must be at least one millisecond!");
+
+		this.operations = operations;
+		this.type = type;
+		this.collectionName = collectionName;
+		this.batchSize = batchSize;
+		this.lease = unit.toMillis(lease);
+		this.prefetchThreshold = batchSize / 2;
+		this.executor = Executors.newSingleThreadExecutor(new DaemonThreadFactory("mongo-work-queue"));
+	}
+
+	/**
+	 * Configures the number of buffered jobs below which the next batch is claimed in the background. Defaults to half
+	 * the batch size.
+	 * 
+	 * @param prefetchThreshold must not be negative.
+	 */
+	public void setPrefetchThreshold(int prefetchThreshold) {
+
+		Assert.isTrue(prefetchThreshold >= 0, "Prefetch threshold must not be negative!");
+		this.prefetchThreshold = prefetchThreshold;
+	}
+
+	/**
+	 * Creates the index on priority and lease the claims rely on. Priority leads the index so that it provides the sort
+	 * order of the claim query while the range on the lease is checked on the index keys.
+	 */
+	public void ensureIndex() {
+		operations.indexOps(collectionName).ensureIndex(
+				new Index().on(PRIORITY_FIELD, Direction.DESC).on(LEASE_FIELD, Direction.ASC));
+	}
+
+	/**
+	 * Adds a job with the given payload and a priority of zero to the queue.
+	 * 
+	 * @param payload must not be {@literal null}.
+	 */
+	public void enqueue(T payload) {
+		enqueue(payload, 0);
+	}
+
+	/**
+	 * Adds a job with the given payload and priority to the queue. Jobs with higher priority are claimed first.
+	 * 
+	 * @param payload must not be {@literal null}.
+	 * @param priority
+	 */
+	public void enqueue(T payload, int priority) {
+
+		Assert.notNull(payload, "Payload must not be null!");
+
+		DBObject job = new BasicDBObject(PRIORITY_FIELD, priority).append(LEASE_FIELD, AVAILABLE)
+				.append(ATTEMPTS_FIELD, 0).append(PAYLOAD_FIELD, operations.getConverter().convertToMongoType(payload));
+
+		operations.insert(job, collectionName);
+	}
+
+	/**
+	 * Returns the next claimed job, waiting up to the given time for jobs to become available.
+	 * 
+	 * @param timeout
+	 * @param unit must not be {@literal null}.
+	 * @return the next job or {@literal null} if no job became available in time.
+	 * @throws InterruptedException
+	 */
+	public Job<T> poll(long timeout, TimeUnit unit) throws InterruptedException {
+
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+		while (true) {
+
+			prefetchIfNecessary();
+
+			long remaining = deadline - System.nanoTime();
+			Job<T> job = buffer.poll(Math.max(0, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_INTERVAL))),
+					TimeUnit.NANOSECONDS);
+
+			if (job != null) {
+
+				if (!job.isExpired()) {
+					return job;
+				}
+
+				expired.incrementAndGet();
+				continue;
+			}
+
+			if (deadline - System.nanoTime() <= 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Claims up to {@code batchSize} available jobs right away, bypassing the local buffer.
+	 * 
+	 * @return the claimed jobs, will never be {@literal null}.
+	 */
+	public List<Job<T>> claim() {
+
+		Date now = new Date();
+
+		Query candidates = query(where(LEASE_FIELD).lt(now)).with(new Sort(Direction.DESC, PRIORITY_FIELD)).limit(
+				batchSize);
+		candidates.fields().include(ID_FIELD);
+
+		List<Object> ids = new ArrayList<Object>();
+
+		for (DBObject candidate : operations.find(candidates, DBObject.class, collectionName)) {
+			ids.add(candidate.get(ID_FIELD));
+		}
+
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		String token = UUID.randomUUID().toString();
+		Date leaseUntil = new Date(now.getTime() + lease);
+
+		Update update = new Update().set(TOKEN_FIELD, token).set(LEASE_FIELD, leaseUntil).inc(ATTEMPTS_FIELD, 1);
+		operations.updateMulti(query(where(ID_FIELD).in(ids).and(LEASE_FIELD).lt(now)), update, collectionName);
+		claims.incrementAndGet();
+
+		Query query = query(where(TOKEN_FIELD).is(token)).with(new Sort(Direction.DESC, PRIORITY_FIELD));
+		List<Job<T>> jobs = new ArrayList<Job<T>>();
+		MongoConverter converter = operations.getConverter();
+
+		for (DBObject document : operations.find(query, DBObject.class, collectionName)) {
+
+			Object payload = document.get(PAYLOAD_FIELD);
+			T value = payload instanceof DBObject ? converter.read(type, (DBObject) payload) : converter
+					.getConversionService().convert(payload, type);
+
+			jobs.add(new Job<T>(document.get(ID_FIELD), value, token, leaseUntil, ((Number) document.get(ATTEMPTS_FIELD))
+					.intValue()));
+		}
+
+		claimed.addAndGet(jobs.size());
+		return jobs;
+	}
+
+	/**
+	 * Removes the given job from the queue after it was processed.
+	 * 
+	 * @param job must not be {@literal null}.
+	 * @return whether the job was still owned by the caller, {@literal false} if the lease had expired and the job was
+	 *         claimed by another worker.
+	 */
+	public boolean complete(Job<T> job) {
+
+		Assert.notNull(job, "Job must not be null!");
+		return operations.removeAll(getOwnedJobQuery(job), collectionName).getN() == 1;
+	}
+
+	/**
+	 * Gives up the lease of the given job so that it becomes available again right away.
+	 * 
+	 * @param job must not be {@literal null}.
+	 * @return whether the job was still owned by the caller.
+	 */
+	public boolean release(Job<T> job) {
+
+		Assert.notNull(job, "Job must not be null!");
+
+		Update update = new Update().set(LEASE_FIELD, AVAILABLE).unset(TOKEN_FIELD);
+		return operations.updateFirst(getOwnedJobQuery(job), update, collectionName).getN() == 1;
+	}
+
+	@ManagedMetric(metricType = MetricType.GAUGE, displayName = "Buffered jobs")
+	public int getBufferedCount() {
+		return buffer.size();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Claims")
+	public long getClaimCount() {
+		return claims.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Claimed jobs")
+	public long getClaimedCount() {
+		return claimed.get();
+	}
+
+	@ManagedMetric(metricType = MetricType.COUNTER, displayName = "Jobs expired while buffered")
+	public long getExpiredCount() {
+		return expired.get();
+	}
+
+	/**
+	 * Stops claiming jobs in the background. Buffered jobs are not released but re-delivered once their lease expired.
+	 * 
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private void prefetchIfNecessary() {
+
+		if (buffer.size() > prefetchThreshold || System.currentTimeMillis() < idleUntil || executor.isShutdown()
+				|| !claiming.compareAndSet(false, true)) {
+			return;
+		}
+
+		executor.execute(new Runnable() {
+			public void run() {
+
+				try {
+
+					List<Job<T>> jobs = claim();
+
+					if (jobs.isEmpty()) {
+						idleUntil = System.currentTimeMillis() + IDLE_INTERVAL;
+					}
+
+					buffer.addAll(jobs);
+
+				} catch (RuntimeException e) {
+					idleUntil = System.currentTimeMillis() + IDLE_INTERVAL;
+					LOGGER.error(String.format("Failed to claim jobs from collection %s!", collectionName), e);
+				} finally {
+					claiming.set(false);
+				}
+			}
+		});
+	}
+
+	private static Query getOwnedJobQuery(Job<?> job) {
+		return query(where(ID_FIELD).is(job.getId()).and(TOKEN_FIELD).is(job.getToken()));
+	}
+
+	/**
+	 * A job claimed from a {@link WorkQueue}.
+	 */
+	public static class Job<T> {
+
+		private final Object id;
+		private final T payload;
+		private final String token;
+		private final Date leaseUntil;
+		private final int attempts;
+
+		Job(Object id, T payload, String token, Date leaseUntil, int attempts) {
+
+			this.id = id;
+			this.payload = payload;
+			this.token = token;
+			this.leaseUntil = leaseUntil;
+			this.attempts = attempts;
+		}
+
+		/**
+		 * Returns the id of the job document.
+		 * 
+		 * @return
+		 */
+		public Object getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the payload of the job.
+		 * 
+		 * @return
+		 */
+		public T getPayload() {
+			return payload;
+		}
+
+		/**
+		 * Returns the token the job was claimed with.
+		 * 
+		 * @return
+		 */
+		public String getToken() {
+			return token;
+		}
+
+		/**
+		 * Returns the time the lease of the job expires at.
+		 * 
+		 * @return
+		 */
+		public Date getLeaseUntil() {
+			return leaseUntil;
+		}
+
+		/**
+		 * Returns how often the job was claimed including the current claim.
+		 * 
+		 * @return
+		 */
+		public int getAttempts() {
+			return attempts;
+		}
+
+		/**
+		 * Returns whether the lease of the job has expired.
+		 * 
+		 * @return
+		 */
+		public boolean isExpired() {
+			return System.currentTimeMillis() >= leaseUntil.getTime();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return String.format("Job %s (attempt %s, leased until %s): %s", id, attempts, leaseUntil, payload);
+		}
+	}
+}
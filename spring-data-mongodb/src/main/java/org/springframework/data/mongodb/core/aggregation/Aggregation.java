@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * An aggregation pipeline consisting of {@link AggregationOperation}s. Use the static factory methods to build a
+ * pipeline:
+ * 
+ * <pre>
+ * newAggregation(Order.class, match(where(&quot;status&quot;).is(&quot;A&quot;)), group(&quot;customerId&quot;).sum(&quot;amount&quot;).as(&quot;total&quot;),
+ * 		sort(Direction.DESC, &quot;total&quot;), limit(10));
+ * </pre>
+ * 
+ * If an input type is given, field references of the stages are mapped to the document fields the properties of the
+ * type are stored in until the first {@code $group} or {@code $project} stage. As these reshape the documents, the
+ * following stages have to reference the fields exposed by them.
+ * 
+ * @since 1.3
+ */
+public class Aggregation {
+
+	/**
+	 * {@link AggregationOperationContext} using field references as they are.
+	 */
+	public static final AggregationOperationContext DEFAULT_CONTEXT = new AggregationOperationContext() {
+
+		public String getMappedField(String field) {
+			return field;
+		}
+
+		public DBObject getMappedObject(DBObject criteria) {
+			return criteria;
+		}
+	};
+
+	private final Class<?> inputType;
+	private final List<AggregationOperation> operations;
+
+	private Aggregation(Class<?> inputType, List<AggregationOperation> operations) {
+
+		Assert.notEmpty(operations, "At least one operation is required!");
+
+		this.inputType = inputType;
+		this.operations = Collections.unmodifiableList(new ArrayList<AggregationOperation>(operations));
+	}
+
+	/**
+	 * Creates a new {@link Aggregation} from the given operations using field references as they are.
+	 * 
+	 * @param operations must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static Aggregation newAggregation(AggregationOperation... operations) {
+		return new Aggregation(null, Arrays.asList(operations));
+	}
+
+	/**
+	 * Creates a new {@link Aggregation} from the given operations mapping field references against the given input
+	 * type.
+	 * 
+	 * @param inputType must not be {@literal null}.
+	 * @param operations must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static Aggregation newAggregation(Class<?> inputType, AggregationOperation... operations) {
+
+		Assert.notNull(inputType, "Input type must not be null!");
+		return new Aggregation(inputType, Arrays.asList(operations));
+	}
+
+	/**
+	 * Creates a {@code $match} stage filtering the documents by the given {@link Criteria}.
+	 * 
+	 * @param criteria must not be {@literal null}.
+	 * @return
+	 */
+	public static MatchOperation match(Criteria criteria) {
+		return new MatchOperation(criteria);
+	}
+
+	/**
+	 * Creates a {@code $project} stage including the given fields.
+	 * 
+	 * @param fields must not be {@literal null}.
+	 * @return
+	 */
+	public static ProjectionOperation project(String... fields) {
+		return new ProjectionOperation(fields);
+	}
+
+	/**
+	 * Creates a {@code $group} stage grouping by the given fields.
+	 * 
+	 * @param fields must not be {@literal null}.
+	 * @return
+	 */
+	public static GroupOperation group(String... fields) {
+		return new GroupOperation(fields);
+	}
+
+	/**
+	 * Creates a {@code $sort} stage ordering the documents by the given {@link Sort}.
+	 * 
+	 * @param sort must not be {@literal null}.
+	 * @return
+	 */
+	public static SortOperation sort(Sort sort) {
+		return new SortOperation(sort);
+	}
+
+	/**
+	 * Creates a {@code $sort} stage ordering the documents by the given fields in the given {@link Direction}.
+	 * 
+	 * @param direction must not be {@literal null}.
+	 * @param fields must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static SortOperation sort(Direction direction, String... fields) {
+		return new SortOperation(new Sort(direction, fields));
+	}
+
+	/**
+	 * Creates a {@code $limit} stage passing on at most the given number of documents.
+	 * 
+	 * @param limit must be greater than zero.
+	 * @return
+	 */
+	public static LimitOperation limit(int limit) {
+		return new LimitOperation(limit);
+	}
+
+	/**
+	 * Creates a {@code $skip} stage skipping the given number of documents.
+	 * 
+	 * @param skip must not be negative.
+	 * @return
+	 */
+	public static SkipOperation skip(int skip) {
+		return new SkipOperation(skip);
+	}
+
+	/**
+	 * Creates an {@code $unwind} stage for the given array field.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static UnwindOperation unwind(String field) {
+		return new UnwindOperation(field);
+	}
+
+	/**
+	 * Returns the type the field references of the pipeline are mapped against.
+	 * 
+	 * @return the input type or {@literal null} if field references are used as they are.
+	 */
+	public Class<?> getInputType() {
+		return inputType;
+	}
+
+	/**
+	 * Renders the pipeline using the given {@link AggregationOperationContext} for the stages before the documents are
+	 * reshaped by a {@code $group} or {@code $project} stage.
+	 * 
+	 * @param context must not be {@literal null}.
+	 * @return
+	 */
+	public List<DBObject> toPipeline(AggregationOperationContext context) {
+
+		Assert.notNull(context, "AggregationOperationContext must not be null!");
+
+		List<DBObject> pipeline = new ArrayList<DBObject>(operations.size());
+		AggregationOperationContext current = context;
+
+		for (AggregationOperation operation : operations) {
+
+			pipeline.add(operation.toDBObject(current));
+
+			if (operation instanceof GroupOperation || operation instanceof ProjectionOperation) {
+				current = DEFAULT_CONTEXT;
+			}
+		}
+
+		return pipeline;
+	}
+
+	/**
+	 * Renders the {@code aggregate} command running the pipeline on the given collection.
+	 * 
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param context must not be {@literal null}.
+	 * @return
+	 */
+	public DBObject toDbObject(String collectionName, AggregationOperationContext context) {
+
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		return new BasicDBObject("aggregate", collectionName).append("pipeline", toPipeline(context));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return toPipeline(DEFAULT_CONTEXT).toString();
+	}
+}
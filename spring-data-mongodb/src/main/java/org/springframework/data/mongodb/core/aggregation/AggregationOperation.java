@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import com.mongodb.DBObject;
+
+/**
+ * A single stage of an aggregation pipeline.
+ * 
+ * @see Aggregation
+ * @since 1.3
+ */
+public interface AggregationOperation {
+
+	/**
+	 * Renders the stage into its {@link DBObject} representation, mapping field references using the given
+	 * {@link AggregationOperationContext}.
+	 * 
+	 * @param context will never be {@literal null}.
+	 * @return
+	 */
+	DBObject toDBObject(AggregationOperationContext context);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import com.mongodb.DBObject;
+
+/**
+ * Context to map the field references and criteria of {@link AggregationOperation}s to the names of the fields in the
+ * documents flowing through the pipeline.
+ * 
+ * @since 1.3
+ */
+public interface AggregationOperationContext {
+
+	/**
+	 * Returns the name of the document field the given field reference resolves to.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	String getMappedField(String field);
+
+	/**
+	 * Maps the keys and values of the given criteria document.
+	 * 
+	 * @param criteria must not be {@literal null}.
+	 * @return
+	 */
+	DBObject getMappedObject(DBObject criteria);
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+import com.mongodb.DBObject;
+
+/**
+ * Collects the results of executing an {@link Aggregation}.
+ * 
+ * @since 1.3
+ */
+public class AggregationResults<T> implements Iterable<T> {
+
+	private final List<T> mappedResults;
+	private final DBObject rawResults;
+	private final String serverUsed;
+
+	/**
+	 * Creates a new {@link AggregationResults} for the given mapped results and the raw command result.
+	 * 
+	 * @param mappedResults must not be {@literal null}.
+	 * @param rawResults must not be {@literal null}.
+	 */
+	public AggregationResults(List<T> mappedResults, DBObject rawResults) {
+
+		Assert.notNull(mappedResults, "Mapped results must not be null!");
+		Assert.notNull(rawResults, "Raw results must not be null!");
+
+		this.mappedResults = Collections.unmodifiableList(mappedResults);
+		this.rawResults = rawResults;
+
+		Object serverUsed = rawResults.get("serverUsed");
+		this.serverUsed = serverUsed instanceof String ? (String) serverUsed : null;
+	}
+
+	/**
+	 * Returns the results mapped to the output type.
+	 * 
+	 * @return
+	 */
+	public List<T> getMappedResults() {
+		return mappedResults;
+	}
+
+	/**
+	 * Returns the single result of the aggregation.
+	 * 
+	 * @return the result or {@literal null} if the aggregation did not produce any.
+	 * @throws IllegalArgumentException in case the aggregation produced more than one result.
+	 */
+	public T getUniqueMappedResult() {
+
+		Assert.isTrue(mappedResults.size() < 2, "Expected unique result or null, but got more than one!");
+		return mappedResults.isEmpty() ? null : mappedResults.get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	public Iterator<T> iterator() {
+		return mappedResults.iterator();
+	}
+
+	/**
+	 * Returns the server the aggregation was executed on.
+	 * 
+	 * @return
+	 */
+	public String getServerUsed() {
+		return serverUsed;
+	}
+
+	/**
+	 * Returns the raw result of the {@code aggregate} command.
+	 * 
+	 * @return
+	 */
+	public DBObject getRawResults() {
+		return rawResults;
+	}
+}
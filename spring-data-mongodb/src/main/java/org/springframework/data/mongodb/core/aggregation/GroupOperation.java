@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * {@code $group} stage grouping the documents by the given fields and computing accumulated values per group. A group
+ * by a single field exposes the field's value as {@code _id}, a group by multiple fields exposes a document keyed by
+ * the given field references.
+ * 
+ * @since 1.3
+ */
+public class GroupOperation implements AggregationOperation {
+
+	private final List<String> fields;
+	private final List<Accumulator> accumulators;
+
+	/**
+	 * Creates a new {@link GroupOperation} grouping by the given fields. Groups all documents into a single group if no
+	 * field is given.
+	 * 
+	 * @param fields must not be {@literal null}.
+	 */
+	public GroupOperation(String... fields) {
+
+		Assert.notNull(fields, "Fields must not be null!");
+
+		this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+		this.accumulators = Collections.emptyList();
+	}
+
+	private GroupOperation(GroupOperation source, Accumulator accumulator) {
+
+		List<Accumulator> accumulators = new ArrayList<Accumulator>(source.accumulators);
+		accumulators.add(accumulator);
+
+		this.fields = source.fields;
+		this.accumulators = Collections.unmodifiableList(accumulators);
+	}
+
+	/**
+	 * Counts the documents per group.
+	 * 
+	 * @return
+	 */
+	public GroupOperationBuilder count() {
+		return new GroupOperationBuilder(this, "$sum", null);
+	}
+
+	/**
+	 * Sums up the values of the given field per group.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder sum(String field) {
+		return newBuilder("$sum", field);
+	}
+
+	/**
+	 * Computes the average of the values of the given field per group.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder avg(String field) {
+		return newBuilder("$avg", field);
+	}
+
+	/**
+	 * Selects the minimum value of the given field per group.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder min(String field) {
+		return newBuilder("$min", field);
+	}
+
+	/**
+	 * Selects the maximum value of the given field per group.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder max(String field) {
+		return newBuilder("$max", field);
+	}
+
+	/**
+	 * Selects the value of the given field of the first document per group.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder first(String field) {
+		return newBuilder("$first", field);
+	}
+
+	/**
+	 * Selects the value of the given field of the last document per group.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder last(String field) {
+		return newBuilder("$last", field);
+	}
+
+	/**
+	 * Collects the values of the given field per group into an array.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder push(String field) {
+		return newBuilder("$push", field);
+	}
+
+	/**
+	 * Collects the distinct values of the given field per group into an array.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public GroupOperationBuilder addToSet(String field) {
+		return newBuilder("$addToSet", field);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperation#toDBObject(org.springframework.data.mongodb.core.aggregation.AggregationOperationContext)
+	 */
+	public DBObject toDBObject(AggregationOperationContext context) {
+
+		Object id;
+
+		if (fields.isEmpty()) {
+			id = null;
+		} else if (fields.size() == 1) {
+			id = "$" + context.getMappedField(fields.get(0));
+		} else {
+
+			DBObject compoundId = new BasicDBObject();
+
+			for (String field : fields) {
+				compoundId.put(field, "$" + context.getMappedField(field));
+			}
+
+			id = compoundId;
+		}
+
+		DBObject group = new BasicDBObject("_id", id);
+
+		for (Accumulator accumulator : accumulators) {
+
+			Object value = accumulator.field == null ? 1 : "$" + context.getMappedField(accumulator.field);
+			group.put(accumulator.alias, new BasicDBObject(accumulator.operator, value));
+		}
+
+		return new BasicDBObject("$group", group);
+	}
+
+	private GroupOperationBuilder newBuilder(String operator, String field) {
+
+		Assert.hasText(field, "Field must not be null or empty!");
+		return new GroupOperationBuilder(this, operator, field);
+	}
+
+	/**
+	 * Builder to expose an accumulated value under an alias.
+	 */
+	public static class GroupOperationBuilder {
+
+		private final GroupOperation operation;
+		private final String operator;
+		private final String field;
+
+		GroupOperationBuilder(GroupOperation operation, String operator, String field) {
+
+			this.operation = operation;
+			this.operator = operator;
+			this.field = field;
+		}
+
+		/**
+		 * Exposes the accumulated value under the given alias.
+		 * 
+		 * @param alias must not be {@literal null} or empty.
+		 * @return
+		 */
+		public GroupOperation as(String alias) {
+
+			Assert.hasText(alias, "Alias must not be null or empty!");
+			return new GroupOperation(operation, new Accumulator(operator, field, alias));
+		}
+	}
+
+	private static class Accumulator {
+
+		private final String operator;
+		private final String field;
+		private final String alias;
+
+		public Accumulator(String operator, String field, String alias) {
+
+			this.operator = operator;
+			this.field = field;
+			this.alias = alias;
+		}
+	}
+}
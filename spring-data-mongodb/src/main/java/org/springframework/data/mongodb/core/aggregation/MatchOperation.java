@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * {@code $match} stage filtering the documents by {@link Criteria}.
+ * 
+ * @since 1.3
+ */
+public class MatchOperation implements AggregationOperation {
+
+	private final Criteria criteria;
+
+	/**
+	 * Creates a new {@link MatchOperation} for the given {@link Criteria}.
+	 * 
+	 * @param criteria must not be {@literal null}.
+	 */
+	public MatchOperation(Criteria criteria) {
+
+		Assert.notNull(criteria, "Criteria must not be null!");
+		this.criteria = criteria;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperation#toDBObject(org.springframework.data.mongodb.core.aggregation.AggregationOperationContext)
+	 */
+	public DBObject toDBObject(AggregationOperationContext context) {
+		return new BasicDBObject("$match", context.getMappedObject(criteria.getCriteriaObject()));
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * {@code $project} stage reshaping the documents by including, excluding and renaming fields. Included fields keep
+ * the name they are stored with so that the documents can still be read into the input type, renamed fields are
+ * exposed under their alias.
+ * 
+ * @since 1.3
+ */
+public class ProjectionOperation implements AggregationOperation {
+
+	private final List<Projection> projections;
+
+	/**
+	 * Creates a new {@link ProjectionOperation} including the given fields.
+	 * 
+	 * @param fields must not be {@literal null}.
+	 */
+	public ProjectionOperation(String... fields) {
+
+		Assert.notNull(fields, "Fields must not be null!");
+
+		List<Projection> projections = new ArrayList<Projection>(fields.length);
+
+		for (String field : fields) {
+			projections.add(new Projection(field, null, true));
+		}
+
+		this.projections = Collections.unmodifiableList(projections);
+	}
+
+	private ProjectionOperation(List<Projection> projections, Projection projection) {
+
+		List<Projection> result = new ArrayList<Projection>(projections);
+		result.add(projection);
+
+		this.projections = Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Includes the given fields in the projection.
+	 * 
+	 * @param fields must not be {@literal null}.
+	 * @return
+	 */
+	public ProjectionOperation andInclude(String... fields) {
+
+		ProjectionOperation result = this;
+
+		for (String field : fields) {
+			result = new ProjectionOperation(result.projections, new Projection(field, null, true));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Excludes the given field from the projection. MongoDB only allows to exclude the {@code _id} field.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public ProjectionOperation andExclude(String field) {
+		return new ProjectionOperation(projections, new Projection(field, null, false));
+	}
+
+	/**
+	 * Starts exposing the given field under an alias.
+	 * 
+	 * @param field must not be {@literal null} or empty.
+	 * @return
+	 */
+	public ProjectionOperationBuilder and(String field) {
+		return new ProjectionOperationBuilder(this, field);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperation#toDBObject(org.springframework.data.mongodb.core.aggregation.AggregationOperationContext)
+	 */
+	public DBObject toDBObject(AggregationOperationContext context) {
+
+		DBObject projection = new BasicDBObject();
+
+		for (Projection element : projections) {
+
+			String field = context.getMappedField(element.field);
+
+			if (element.alias != null) {
+				projection.put(element.alias, "$" + field);
+			} else {
+				projection.put(field, element.include ? 1 : 0);
+			}
+		}
+
+		return new BasicDBObject("$project", projection);
+	}
+
+	/**
+	 * Builder to expose a field under an alias.
+	 */
+	public static class ProjectionOperationBuilder {
+
+		private final ProjectionOperation operation;
+		private final String field;
+
+		ProjectionOperationBuilder(ProjectionOperation operation, String field) {
+
+			Assert.hasText(field, "Field must not be null or empty!");
+
+			this.operation = operation;
+			this.field = field;
+		}
+
+		/**
+		 * Exposes the field under the given alias.
+		 * 
+		 * @param alias must not be {@literal null} or empty.
+		 * @return
+		 */
+		public ProjectionOperation as(String alias) {
+
+			Assert.hasText(alias, "Alias must not be null or empty!");
+			return new ProjectionOperation(operation.projections, new Projection(field, alias, true));
+		}
+	}
+
+	private static class Projection {
+
+		private final String field;
+		private final String alias;
+		private final boolean include;
+
+		public Projection(String field, String alias, boolean include) {
+
+			Assert.hasText(field, "Field must not be null or empty!");
+
+			this.field = field;
+			this.alias = alias;
+			this.include = include;
+		}
+	}
+}
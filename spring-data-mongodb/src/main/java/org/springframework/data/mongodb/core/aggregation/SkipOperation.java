@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * {@code $skip} stage skipping the given number of documents.
+ * 
+ * @since 1.3
+ */
+public class SkipOperation implements AggregationOperation {
+
+	private final int skip;
+
+	/**
+	 * Creates a new {@link SkipOperation} for the given number of documents to skip.
+	 * 
+	 * @param skip must not be negative.
+	 */
+	public SkipOperation(int skip) {
+
+		Assert.isTrue(skip >= 0, "Skip must not be negative!");
+		this.skip = skip;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperation#toDBObject(org.springframework.data.mongodb.core.aggregation.AggregationOperationContext)
+	 */
+	public DBObject toDBObject(AggregationOperationContext context) {
+		return new BasicDBObject("$skip", skip);
+	}
+}
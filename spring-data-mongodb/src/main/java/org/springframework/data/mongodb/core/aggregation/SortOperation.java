@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * {@code $sort} stage ordering the documents by a {@link Sort}.
+ * 
+ * @since 1.3
+ */
+public class SortOperation implements AggregationOperation {
+
+	private final Sort sort;
+
+	/**
+	 * Creates a new {@link SortOperation} for the given {@link Sort}.
+	 * 
+	 * @param sort must not be {@literal null}.
+	 */
+	public SortOperation(Sort sort) {
+
+		Assert.notNull(sort, "Sort must not be null!");
+		this.sort = sort;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperation#toDBObject(org.springframework.data.mongodb.core.aggregation.AggregationOperationContext)
+	 */
+	public DBObject toDBObject(AggregationOperationContext context) {
+
+		DBObject sortObject = new BasicDBObject();
+
+		for (Order order : sort) {
+			sortObject.put(context.getMappedField(order.getProperty()), order.getDirection() == Direction.ASC ? 1 : -1);
+		}
+
+		return new BasicDBObject("$sort", sortObject);
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * {@link AggregationOperationContext} mapping property references of a domain type to the document fields they are
+ * stored in and converting criteria values using a {@link QueryMapper}.
+ * 
+ * @since 1.3
+ */
+public class TypeBasedAggregationOperationContext implements AggregationOperationContext {
+
+	private final MongoPersistentEntity<?> entity;
+	private final QueryMapper mapper;
+
+	/**
+	 * Creates a new {@link TypeBasedAggregationOperationContext} for the given type.
+	 * 
+	 * @param type must not be {@literal null}.
+	 * @param mappingContext must not be {@literal null}.
+	 * @param mapper must not be {@literal null}.
+	 */
+	public TypeBasedAggregationOperationContext(Class<?> type,
+			MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext, QueryMapper mapper) {
+
+		Assert.notNull(type, "Type must not be null!");
+		Assert.notNull(mappingContext, "MappingContext must not be null!");
+		Assert.notNull(mapper, "QueryMapper must not be null!");
+
+		this.entity = mappingContext.getPersistentEntity(type);
+		this.mapper = mapper;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperationContext#getMappedField(java.lang.String)
+	 */
+	public String getMappedField(String field) {
+
+		Assert.hasText(field, "Field must not be null or empty!");
+
+		DBObject mapped = mapper.getMappedObject(new BasicDBObject(field, 1), entity);
+		return mapped.keySet().iterator().next();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.core.aggregation.AggregationOperationContext#getMappedObject(com.mongodb.DBObject)
+	 */
+	public DBObject getMappedObject(DBObject criteria) {
+
+		Assert.notNull(criteria, "Criteria must not be null!");
+		return mapper.getMappedObject(criteria, entity);
+	}
+}
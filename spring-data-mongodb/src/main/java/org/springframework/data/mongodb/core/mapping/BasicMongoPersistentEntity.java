@@ -16,6 +16,9 @@
 package org.springframework.data.mongodb.core.mapping;
 
 import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,6 +41,7 @@ import org.springframework.expression.ParserContext;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -52,6 +56,8 @@ public class BasicMongoPersistentEntity<T> extends BasicPersistentEntity<T, Mong
 		MongoPersistentEntity<T>, ApplicationContextAware {
 
 	private static final String AMBIGUOUS_FIELD_MAPPING = "Ambiguous field mapping detected! Both %s and %s map to the same field name %s! Disambiguate using @Field annotation!";
+	private static final Collection<Class<?>> GENERATED_ID_TYPES = Arrays.<Class<?>> asList(Long.class, Integer.class,
+			BigInteger.class);
 	private final String collection;
 	private final SpelExpressionParser parser;
 	private final StandardEvaluationContext context;
@@ -111,6 +117,28 @@ public class BasicMongoPersistentEntity<T> extends BasicPersistentEntity<T, Mong
 
 		doWithProperties(handler);
 		doWithAssociations(handler);
+
+		assertGeneratedIdType();
+	}
+
+	/**
+	 * Verifies that an id property annotated with {@link GeneratedValue} is of a numeric type sequence values can be
+	 * assigned to.
+	 */
+	private void assertGeneratedIdType() {
+
+		MongoPersistentProperty idProperty = getIdProperty();
+
+		if (idProperty == null || idProperty.getField() == null
+				|| !idProperty.getField().isAnnotationPresent(GeneratedValue.class)) {
+			return;
+		}
+
+		if (!GENERATED_ID_TYPES.contains(ClassUtils.resolvePrimitiveIfNecessary(idProperty.getType()))) {
+			throw new MappingException(String.format(
+					"Id property %s annotated with @GeneratedValue must be of type Long, Integer or BigInteger but is %s!",
+					idProperty.getField(), idProperty.getType().getName()));
+		}
 	}
 
 	/**
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks a domain type whose documents shall be kept in the {@link org.springframework.data.mongodb.core.EntityCache}
+ * of a {@link org.springframework.data.mongodb.core.MongoTemplate} when looked up by id. Only use this for rarely
+ * changing types, as writes not issued through the template will not be reflected until the cached entries expire.
+ * 
+ * @since 1.3
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE })
+public @interface CachedEntity {
+
+	/**
+	 * The maximum number of documents to keep per collection. The least recently used documents are evicted first.
+	 * 
+	 * @return
+	 */
+	int maxEntries() default 1000;
+
+	/**
+	 * The time a cached document is considered valid for.
+	 * 
+	 * @return
+	 */
+	long timeToLive() default 60;
+
+	/**
+	 * The {@link TimeUnit} of {@link #timeToLive()}.
+	 * 
+	 * @return
+	 */
+	TimeUnit unit() default TimeUnit.SECONDS;
+}
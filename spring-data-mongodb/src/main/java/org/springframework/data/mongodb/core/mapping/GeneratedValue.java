@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapping;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a numeric id property to be populated from a sequence maintained by the
+ * {@link org.springframework.data.mongodb.core.SequenceGenerator} of a
+ * {@link org.springframework.data.mongodb.core.MongoTemplate} when an entity without an id is inserted or saved. Ids
+ * are reserved in blocks of {@link #blockSize()} so that only every n-th id requires a round trip to the database.
+ * Thus ids are unique but not necessarily gapless or strictly ordered across multiple application instances. The id
+ * property has to be of type {@link Long}, {@link Integer} or {@link java.math.BigInteger} (or a primitive
+ * counterpart), which is verified when the mapping metadata is built.
+ * 
+ * @since 1.3
+ */
+@Documented
+@Target({ FIELD })
+@Retention(RUNTIME)
+public @interface GeneratedValue {
+
+	/**
+	 * The name of the sequence to draw ids from. Defaults to the name of the collection the entity is stored in.
+	 * 
+	 * @return
+	 */
+	String sequence() default "";
+
+	/**
+	 * The number of ids to reserve with a single round trip to the database.
+	 * 
+	 * @return
+	 */
+	int blockSize() default 50;
+}
@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
+import org.bson.types.BSONTimestamp;
 import org.bson.types.Binary;
 import org.bson.types.CodeWScope;
 import org.bson.types.ObjectId;
@@ -53,6 +54,7 @@ public abstract class MongoSimpleTypes {
 		simpleTypes.add(DBObject.class);
 		simpleTypes.add(Pattern.class);
 		simpleTypes.add(Binary.class);
+		simpleTypes.add(BSONTimestamp.class);
 		simpleTypes.add(UUID.class);
 		MONGO_SIMPLE_TYPES = Collections.unmodifiableSet(simpleTypes);
 	}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapreduce;
+
+/**
+ * Collects the key-value pairs emitted by a {@link Mapper}.
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 1.3
+ */
+public interface Emitter<K, V> {
+
+	/**
+	 * Emits the given value for the given key.
+	 * 
+	 * @param key must not be {@literal null}.
+	 * @param value
+	 */
+	void emit(K key, V value);
+}
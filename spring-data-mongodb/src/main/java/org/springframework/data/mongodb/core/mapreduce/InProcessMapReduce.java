@@ -0,0 +1,642 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapreduce;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.DocumentCallbackHandler;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * Map-reduce operation executed in the JVM instead of the JavaScript engine of the server. The documents matching a
+ * query are streamed through a cursor, converted into the input type and handed to the {@link Mapper} in batches
+ * processed concurrently on an {@link Executor}. The values emitted per batch are combined using the {@link Reducer}
+ * before they are merged into hash partitions of the key space, so that threads only contend for the partitions of
+ * the keys they emitted.
+ * <p>
+ * Results are either returned as {@link Map} or written to an output collection in batches as documents of the form
+ * {@code { _id : key, value : value }}, just like the ones written by server-side map-reduce operations. In the latter
+ * case, the results are written to a temporary collection replacing the output collection once the operation
+ * completed. Partial results are spilled to it as soon as the number of distinct keys held in memory exceeds
+ * {@link #setMaxKeysInMemory(int)} and are merged with the values already written using the {@link Reducer}.
+ * Progress and spills are reported to an optional {@link MapReduceProgressListener}.
+ * 
+ * @param <T> the type the input documents are converted into
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 1.3
+ */
+public class InProcessMapReduce<T, K, V> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InProcessMapReduce.class);
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+	private static final String TEMPORARY_COLLECTION_PREFIX = "springdata.mr.";
+
+	private final MongoOperations operations;
+	private final Mapper<T, K, V> mapper;
+	private final Reducer<K, V> reducer;
+
+	private Executor executor;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int maxKeysInMemory = Integer.MAX_VALUE;
+	private MapReduceProgressListener listener;
+
+	/**
+	 * Creates a new {@link InProcessMapReduce} using the given {@link Mapper} and {@link Reducer}.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param mapper must not be {@literal null}.
+	 * @param reducer must not be {@literal null}.
+	 */
+	public InProcessMapReduce(MongoOperations operations, Mapper<T, K, V> mapper, Reducer<K, V> reducer) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.notNull(mapper, "Mapper must not be null!");
+		Assert.notNull(reducer, "Reducer must not be null!");
+
+		this.operations = operations;
+		this.mapper = mapper;
+		this.reducer = reducer;
+	}
+
+	/**
+	 * Configures the {@link Executor} to map and combine the batches of input documents on. If none is configured, a
+	 * thread pool of {@link #setParallelism(int)} threads is created for every operation.
+	 * 
+	 * @param executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Configures the number of partitions to split the key space into, which is also the maximum number of batches
+	 * processed concurrently. Defaults to the number of available processors.
+	 * 
+	 * @param parallelism must be greater than zero.
+	 */
+	public void setParallelism(int parallelism) {
+
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than zero!");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Configures the number of input documents mapped as a batch and the number of results written to the output
+	 * collection at once. Defaults to {@value #DEFAULT_BATCH_SIZE}.
+	 * 
+	 * @param batchSize must be greater than zero.
+	 */
+	public void setBatchSize(int batchSize) {
+
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than zero!");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Configures the number of distinct keys to hold in memory at most. If exceeded, operations writing to an output
+	 * collection spill the partial results to it, operations returning the results in memory fail. Unbounded by
+	 * default.
+	 * 
+	 * @param maxKeysInMemory must be greater than zero.
+	 */
+	public void setMaxKeysInMemory(int maxKeysInMemory) {
+
+		Assert.isTrue(maxKeysInMemory > 0, "Maximum number of keys in memory must be greater than zero!");
+		this.maxKeysInMemory = maxKeysInMemory;
+	}
+
+	/**
+	 * Configures the {@link MapReduceProgressListener} to report progress and spills to.
+	 * 
+	 * @param listener
+	 */
+	public void setProgressListener(MapReduceProgressListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Runs the map-reduce operation on the documents of the given collection matching the given {@link Query} and
+	 * returns the results.
+	 * 
+	 * @param query can be {@literal null} to process all documents.
+	 * @param inputCollectionName must not be {@literal null} or empty.
+	 * @param inputType the type to convert the input documents into, must not be {@literal null}.
+	 * @return the reduced values keyed by their keys.
+	 * @throws InvalidDataAccessApiUsageException if the number of keys exceeds {@link #setMaxKeysInMemory(int)}.
+	 */
+	public Map<K, V> execute(Query query, String inputCollectionName, Class<T> inputType) {
+
+		Execution execution = new Execution(inputType, null, null);
+		execution.run(query, inputCollectionName);
+
+		Map<K, V> result = new HashMap<K, V>();
+
+		for (Partition partition : execution.partitions) {
+			result.putAll(partition.drain());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Runs the map-reduce operation on the documents of the given collection matching the given {@link Query} and writes
+	 * the results to the given output collection, replacing its current content. The results are written to a temporary
+	 * collection renamed to the output collection once the operation completed, so that readers never see partial
+	 * results and a failed operation leaves the output collection untouched.
+	 * 
+	 * @param query can be {@literal null} to process all documents.
+	 * @param inputCollectionName must not be {@literal null} or empty.
+	 * @param inputType the type to convert the input documents into, must not be {@literal null}.
+	 * @param outputCollectionName must not be {@literal null} or empty.
+	 * @param valueType the type to read values already written to the output collection into, must not be
+	 *          {@literal null}.
+	 * @return the counts of the operation.
+	 */
+	public MapReduceCounts execute(Query query, String inputCollectionName, Class<T> inputType,
+			String outputCollectionName, Class<V> valueType) {
+
+		Assert.hasText(outputCollectionName, "Output collection name must not be null or empty!");
+		Assert.notNull(valueType, "Value type must not be null!");
+
+		String temporaryCollectionName = String.format("%s%s.%s", TEMPORARY_COLLECTION_PREFIX, outputCollectionName,
+				new ObjectId());
+		operations.createCollection(temporaryCollectionName);
+		boolean renamed = false;
+
+		try {
+
+			Execution execution = new Execution(inputType, temporaryCollectionName, valueType);
+			execution.run(query, inputCollectionName);
+
+			rename(temporaryCollectionName, outputCollectionName);
+			renamed = true;
+
+			return new MapReduceCounts(execution.documentsRead.get(), execution.valuesEmitted.get(), operations
+					.getCollection(outputCollectionName).count());
+
+		} finally {
+
+			if (!renamed) {
+				try {
+					operations.dropCollection(temporaryCollectionName);
+				} catch (RuntimeException e) {
+					LOGGER.warn("Could not drop temporary map-reduce collection " + temporaryCollectionName, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renames the given collection to the given target, replacing the target collection atomically.
+	 */
+	private void rename(String collectionName, final String targetCollectionName) {
+
+		operations.execute(collectionName, new CollectionCallback<Void>() {
+			public Void doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+				collection.rename(targetCollectionName, true);
+				return null;
+			}
+		});
+	}
+
+	private V combine(K key, V first, V second) {
+
+		List<V> values = new ArrayList<V>(2);
+		values.add(first);
+		values.add(second);
+
+		return reducer.reduce(key, values);
+	}
+
+	/**
+	 * The state of a single run of the map-reduce operation.
+	 */
+	private class Execution {
+
+		private final Class<T> inputType;
+		private final String outputCollectionName;
+		private final Class<V> valueType;
+		private final List<Partition> partitions;
+		private final Semaphore pendingTasks;
+
+		private final AtomicLong documentsRead = new AtomicLong();
+		private final AtomicLong valuesEmitted = new AtomicLong();
+		private final AtomicInteger keysInMemory = new AtomicInteger();
+		private final AtomicBoolean spilling = new AtomicBoolean();
+		private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		public Execution(Class<T> inputType, String outputCollectionName, Class<V> valueType) {
+
+			Assert.notNull(inputType, "Input type must not be null!");
+
+			this.inputType = inputType;
+			this.outputCollectionName = outputCollectionName;
+			this.valueType = valueType;
+			this.partitions = new ArrayList<Partition>(parallelism);
+			this.pendingTasks = new Semaphore(parallelism * 2);
+
+			for (int i = 0; i < parallelism; i++) {
+				partitions.add(new Partition());
+			}
+		}
+
+		public void run(Query query, String inputCollectionName) {
+
+			Assert.hasText(inputCollectionName, "Input collection name must not be null or empty!");
+
+			ExecutorService ownExecutor = executor == null ? Executors.newFixedThreadPool(parallelism) : null;
+			final Executor executorToUse = executor == null ? ownExecutor : executor;
+
+			try {
+
+				BatchingCallbackHandler handler = new BatchingCallbackHandler(executorToUse);
+				operations.executeQuery(query == null ? new Query() : query, inputCollectionName, handler);
+				handler.submitRemaining();
+
+				awaitTasks();
+
+				if (outputCollectionName != null) {
+
+					for (final Partition partition : partitions) {
+						submit(new Runnable() {
+							public void run() {
+								flush(partition);
+							}
+						}, executorToUse);
+					}
+
+					awaitTasks();
+				}
+
+			} finally {
+
+				if (ownExecutor != null) {
+					ownExecutor.shutdownNow();
+				}
+			}
+		}
+
+		/**
+		 * {@link DocumentCallbackHandler} collecting the documents read into batches handed to the {@link Executor}.
+		 */
+		private class BatchingCallbackHandler implements DocumentCallbackHandler {
+
+			private final Executor executor;
+			private List<DBObject> batch = new ArrayList<DBObject>(batchSize);
+
+			public BatchingCallbackHandler(Executor executor) {
+				this.executor = executor;
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see org.springframework.data.mongodb.core.DocumentCallbackHandler#processDocument(com.mongodb.DBObject)
+			 */
+			public void processDocument(DBObject dbObject) throws MongoException, DataAccessException {
+
+				batch.add(dbObject);
+
+				if (batch.size() == batchSize) {
+					submitRemaining();
+				}
+			}
+
+			public void submitRemaining() {
+
+				if (batch.isEmpty()) {
+					return;
+				}
+
+				final List<DBObject> documents = batch;
+				batch = new ArrayList<DBObject>(batchSize);
+
+				submit(new Runnable() {
+					public void run() {
+						process(documents);
+					}
+				}, executor);
+			}
+		}
+
+		/**
+		 * Runs the given work on the given {@link Executor}, blocking while the maximum number of tasks is pending. Runs
+		 * the work in the calling thread if the {@link Executor} rejects it.
+		 */
+		private void submit(final Runnable work, Executor executor) {
+
+			rethrowFailure();
+
+			try {
+				pendingTasks.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new UncategorizedMongoDbException("Interrupted while waiting for map-reduce batches!", e);
+			}
+
+			Runnable task = new Runnable() {
+				public void run() {
+					try {
+						if (failure.get() == null) {
+							work.run();
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						pendingTasks.release();
+					}
+				}
+			};
+
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				task.run();
+			}
+		}
+
+		private void awaitTasks() {
+
+			int permits = parallelism * 2;
+
+			try {
+				pendingTasks.acquire(permits);
+				pendingTasks.release(permits);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new UncategorizedMongoDbException("Interrupted while waiting for map-reduce batches!", e);
+			}
+
+			rethrowFailure();
+		}
+
+		private void rethrowFailure() {
+
+			Throwable cause = failure.get();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else if (cause != null) {
+				throw new UncategorizedMongoDbException(cause.getMessage(), cause);
+			}
+		}
+
+		/**
+		 * Maps the given batch of documents, combines the emitted values per key and merges them into the partitions.
+		 */
+		private void process(List<DBObject> batch) {
+
+			MongoConverter converter = operations.getConverter();
+			CombiningEmitter emitter = new CombiningEmitter();
+
+			for (DBObject document : batch) {
+				mapper.map(converter.read(inputType, document), emitter);
+			}
+
+			long documents = documentsRead.addAndGet(batch.size());
+			long values = valuesEmitted.addAndGet(emitter.count);
+			int newKeys = 0;
+
+			for (Map.Entry<K, V> entry : emitter.values.entrySet()) {
+
+				K key = entry.getKey();
+				Partition partition = partitions.get((key.hashCode() & Integer.MAX_VALUE) % partitions.size());
+				newKeys += partition.add(key, entry.getValue());
+			}
+
+			int keys = keysInMemory.addAndGet(newKeys);
+
+			if (listener != null) {
+				listener.onProgress(documents, values, keys);
+			}
+
+			if (keys > maxKeysInMemory) {
+				spill();
+			}
+		}
+
+		private void spill() {
+
+			if (outputCollectionName == null) {
+				throw new InvalidDataAccessApiUsageException(String.format(
+						"Map-reduce exceeded the limit of %s keys held in memory! "
+								+ "Write the results to an output collection to allow spilling.", maxKeysInMemory));
+			}
+
+			if (!spilling.compareAndSet(false, true)) {
+				return;
+			}
+
+			try {
+
+				int spilled = 0;
+
+				for (Partition partition : partitions) {
+					spilled += flush(partition);
+				}
+
+				if (listener != null) {
+					listener.onSpill(spilled);
+				}
+
+			} finally {
+				spilling.set(false);
+			}
+		}
+
+		/**
+		 * Writes the values currently held by the given {@link Partition} to the output collection in batches, merging
+		 * them with the ones written by previous flushes.
+		 */
+		private int flush(Partition partition) {
+
+			synchronized (partition.writeLock) {
+
+				Map<K, V> values = partition.drain();
+				keysInMemory.addAndGet(-values.size());
+
+				List<K> keys = new ArrayList<K>(values.keySet());
+
+				for (int from = 0; from < keys.size(); from += batchSize) {
+					write(keys.subList(from, Math.min(keys.size(), from + batchSize)), values, partition.flushed);
+				}
+
+				partition.flushed = true;
+				return values.size();
+			}
+		}
+
+		/**
+		 * Writes the values of the given keys to the output collection. Values already written for some of the keys are
+		 * merged and replaced by removing the existing documents and inserting the merged ones along with the new keys,
+		 * which takes a fixed number of round trips per batch. This is safe as the output is a temporary collection not
+		 * read by anyone else until the operation completed.
+		 */
+		private void write(final List<K> keys, final Map<K, V> values, final boolean merge) {
+
+			final MongoConverter converter = operations.getConverter();
+
+			operations.execute(outputCollectionName, new CollectionCallback<Void>() {
+				public Void doInCollection(DBCollection collection) throws MongoException, DataAccessException {
+
+					Map<Object, K> keysById = new HashMap<Object, K>(keys.size());
+
+					for (K key : keys) {
+						keysById.put(converter.convertToMongoType(key), key);
+					}
+
+					List<DBObject> documents = new ArrayList<DBObject>(keysById.size());
+
+					if (merge) {
+
+						List<Object> existingIds = new ArrayList<Object>();
+						DBObject query = new BasicDBObject("_id", new BasicDBObject("$in", new ArrayList<Object>(keysById
+								.keySet())));
+						DBCursor cursor = collection.find(query);
+
+						try {
+							while (cursor.hasNext()) {
+
+								DBObject document = cursor.next();
+								Object id = document.get("_id");
+								K key = keysById.remove(id);
+
+								if (key != null) {
+									V value = combine(key, readValue(document.get("value")), values.get(key));
+									documents.add(new BasicDBObject("_id", id).append("value",
+											converter.convertToMongoType(value)));
+									existingIds.add(id);
+								}
+							}
+						} finally {
+							cursor.close();
+						}
+
+						if (!existingIds.isEmpty()) {
+							collection.remove(new BasicDBObject("_id", new BasicDBObject("$in", existingIds)));
+						}
+					}
+
+					for (Map.Entry<Object, K> entry : keysById.entrySet()) {
+						Object value = converter.convertToMongoType(values.get(entry.getValue()));
+						documents.add(new BasicDBObject("_id", entry.getKey()).append("value", value));
+					}
+
+					if (!documents.isEmpty()) {
+						collection.insert(documents);
+					}
+
+					return null;
+				}
+			});
+		}
+
+		private V readValue(Object source) {
+
+			MongoConverter converter = operations.getConverter();
+
+			if (source instanceof DBObject && !valueType.isInstance(source)) {
+				return converter.read(valueType, (DBObject) source);
+			}
+
+			return converter.getConversionService().convert(source, valueType);
+		}
+	}
+
+	/**
+	 * A partition of the key space holding the values combined so far.
+	 */
+	private class Partition {
+
+		private final Object writeLock = new Object();
+		private Map<K, V> values = new HashMap<K, V>();
+		private boolean flushed;
+
+		/**
+		 * Combines the given value with the one held for the given key.
+		 * 
+		 * @return 1 if the key was not held before, 0 otherwise.
+		 */
+		public synchronized int add(K key, V value) {
+
+			V existing = values.get(key);
+			values.put(key, existing == null ? value : combine(key, existing, value));
+
+			return existing == null ? 1 : 0;
+		}
+
+		public synchronized Map<K, V> drain() {
+
+			Map<K, V> result = values;
+			values = new HashMap<K, V>();
+			return result;
+		}
+	}
+
+	/**
+	 * {@link Emitter} combining the values emitted for the same key right away.
+	 */
+	private class CombiningEmitter implements Emitter<K, V> {
+
+		private final Map<K, V> values = new HashMap<K, V>();
+		private long count;
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.core.mapreduce.Emitter#emit(java.lang.Object, java.lang.Object)
+		 */
+		public void emit(K key, V value) {
+
+			Assert.notNull(key, "Key must not be null!");
+			Assert.notNull(value, "Value must not be null!");
+
+			V existing = values.get(key);
+			values.put(key, existing == null ? value : combine(key, existing, value));
+			count++;
+		}
+	}
+}
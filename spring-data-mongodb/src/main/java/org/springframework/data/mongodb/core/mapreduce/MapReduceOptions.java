@@ -17,6 +17,10 @@ package org.springframework.data.mongodb.core.mapreduce;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
@@ -24,6 +28,11 @@ import com.mongodb.MapReduceCommand;
 
 public class MapReduceOptions {
 
+	/**
+	 * The default name of the collection to keep the state of incremental map-reduce jobs in.
+	 */
+	public static final String DEFAULT_JOB_COLLECTION = "mapReduceJobs";
+
 	private String outputCollection;
 
 	private String outputDatabase;
@@ -42,6 +51,24 @@ public class MapReduceOptions {
 
 	private Map<String, Object> extraOptions = new HashMap<String, Object>();
 
+	private Query resultQuery;
+
+	private boolean fetchResults = true;
+
+	private boolean lazyResults;
+
+	private String jobName;
+
+	private String watermarkField;
+
+	private long watermarkLag;
+
+	private String jobCollection = DEFAULT_JOB_COLLECTION;
+
+	private int partitions = 1;
+
+	private String splitField = "_id";
+
 	/**
 	 * Static factory method to create a MapReduceOptions instance
 	 * 
@@ -203,6 +230,156 @@ public class MapReduceOptions {
 		return this;
 	}
 
+	/**
+	 * Restricts the results read back from the output collection to the ones matching the given {@link Query}, applying
+	 * its sort, skip, limit and field specification. Has no effect for inline output.
+	 * 
+	 * @param resultQuery the {@link Query} to read the output collection with, {@literal null} to read all results.
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions resultQuery(Query resultQuery) {
+		this.resultQuery = resultQuery;
+		return this;
+	}
+
+	/**
+	 * Flag to configure whether the results written to the output collection are read back through the
+	 * {@link MapReduceResults}. Disable it if only the output collection name, the counts or the timing of the operation
+	 * are needed. Has no effect for inline output. Defaults to {@literal true}.
+	 * 
+	 * @param fetchResults
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions fetchResults(boolean fetchResults) {
+		this.fetchResults = fetchResults;
+		return this;
+	}
+
+	/**
+	 * Flag to configure whether the results written to the output collection are read lazily. By default they are read
+	 * and converted completely once the operation finished. Lazy results query the output collection anew for every
+	 * {@link java.util.Iterator} and convert the documents as they are consumed, so they reflect the state of the output
+	 * collection at that time, and iterators not consumed completely keep their cursor open until the server times it
+	 * out. Has no effect for inline output. Defaults to {@literal false}.
+	 * 
+	 * @param lazyResults
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions lazyResults(boolean lazyResults) {
+		this.lazyResults = lazyResults;
+		return this;
+	}
+
+	/**
+	 * Runs the map-reduce operation incrementally. A watermark, i.e. the greatest value of the given field processed so
+	 * far, is persisted for the job with the given name and subsequent runs only process the documents with a greater
+	 * value, folding their results into the existing output collection. The field has to increase monotonically for
+	 * newly inserted documents in the order they become visible. Documents showing up with a value below the watermark
+	 * later on are skipped for good. That happens to {@link org.bson.types.ObjectId}s or timestamps generated by
+	 * multiple clients with skewed clocks or inserted concurrently, so configure a {@link #watermarkLag(long, TimeUnit)}
+	 * covering both for such fields. Incremental runs require {@link #outputTypeReduce()} or
+	 * {@link #outputTypeMerge()} output, the default {@link #outputTypeReplace()} is switched to
+	 * {@link #outputTypeReduce()}.
+	 * <p>
+	 * The range of a run is recorded before the operation is executed and marked completed afterwards. If a run fails in
+	 * between, it is unknown whether its results were written. With merge output the next run processes the very same
+	 * range again, which is idempotent. Reduce output is not idempotent, so the next run fails until the job document
+	 * has been resolved manually. Each run claims the job atomically, a run started concurrently with another one of the
+	 * same job fails with an {@link org.springframework.dao.OptimisticLockingFailureException}.
+	 * 
+	 * @param jobName the name to persist the watermark under, must not be {@literal null} or empty.
+	 * @param watermarkField the field to track the progress of the job by, must not be {@literal null} or empty.
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions incremental(String jobName, String watermarkField) {
+
+		Assert.hasText(jobName, "Job name must not be null or empty!");
+		Assert.hasText(watermarkField, "Watermark field must not be null or empty!");
+
+		this.jobName = jobName;
+		this.watermarkField = watermarkField;
+
+		if (outputType == MapReduceCommand.OutputType.REPLACE) {
+			this.outputType = MapReduceCommand.OutputType.REDUCE;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Excludes documents with a watermark younger than the given lag from incremental runs, so that documents inserted
+	 * concurrently or by clients with skewed clocks are visible before the watermark moves past them. Requires
+	 * {@link org.bson.types.ObjectId} or {@link java.util.Date} watermarks. Defaults to no lag.
+	 * 
+	 * @param lag must not be negative.
+	 * @param unit must not be {@literal null}.
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions watermarkLag(long lag, TimeUnit unit) {
+
+		Assert.isTrue(lag >= 0, "Lag must not be negative!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+
+		this.watermarkLag = unit.toMillis(lag);
+		return this;
+	}
+
+	/**
+	 * The collection to keep the state of incremental map-reduce jobs in. Defaults to {@value #DEFAULT_JOB_COLLECTION}.
+	 * 
+	 * @param jobCollection must not be {@literal null} or empty.
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions jobCollection(String jobCollection) {
+
+		Assert.hasText(jobCollection, "Job collection must not be null or empty!");
+
+		this.jobCollection = jobCollection;
+		return this;
+	}
+
+	/**
+	 * Runs the map-reduce operation in parallel by splitting the input into the given number of ranges on {@code _id}.
+	 * 
+	 * @param partitions the number of ranges to split the input into, must be greater than zero.
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @see #parallel(int, String)
+	 * @since 1.3
+	 */
+	public MapReduceOptions parallel(int partitions) {
+		return parallel(partitions, "_id");
+	}
+
+	/**
+	 * Runs the map-reduce operation in parallel by splitting the input into the given number of ranges on the given
+	 * field, which should be indexed. Split points are obtained from the {@code splitVector} command or, if it is not
+	 * available, by sampling the input. Each range is reduced into a shared temporary collection by a map-reduce
+	 * operation of its own, which run concurrently on the {@link java.util.concurrent.Executor} configured on the
+	 * {@link org.springframework.data.mongodb.core.MongoTemplate}. A final pass applies the finalize function to the
+	 * combined results and writes them to the configured output. The reduce function thus has to be
+	 * associative and commutative as required for re-reduce anyway.
+	 * 
+	 * @param partitions the number of ranges to split the input into, must be greater than zero.
+	 * @param splitField the field to split the input by, must not be {@literal null} or empty.
+	 * @return MapReduceOptions so that methods can be chained in a fluent API style
+	 * @since 1.3
+	 */
+	public MapReduceOptions parallel(int partitions, String splitField) {
+
+		Assert.isTrue(partitions > 0, "Number of partitions must be greater than zero!");
+		Assert.hasText(splitField, "Split field must not be null or empty!");
+
+		this.partitions = partitions;
+		this.splitField = splitField;
+		return this;
+	}
+
 	public Map<String, Object> getExtraOptions() {
 		return extraOptions;
 	}
@@ -235,6 +412,51 @@ public class MapReduceOptions {
 		return this.scopeVariables;
 	}
 
+	public Query getResultQuery() {
+		return this.resultQuery;
+	}
+
+	public boolean isFetchResults() {
+		return this.fetchResults;
+	}
+
+	public boolean isLazyResults() {
+		return this.lazyResults;
+	}
+
+	public boolean isIncremental() {
+		return this.jobName != null;
+	}
+
+	public String getJobName() {
+		return this.jobName;
+	}
+
+	public String getWatermarkField() {
+		return this.watermarkField;
+	}
+
+	/**
+	 * Returns the watermark lag in milliseconds.
+	 * 
+	 * @return
+	 */
+	public long getWatermarkLag() {
+		return this.watermarkLag;
+	}
+
+	public String getJobCollection() {
+		return this.jobCollection;
+	}
+
+	public int getPartitions() {
+		return this.partitions;
+	}
+
+	public String getSplitField() {
+		return this.splitField;
+	}
+
 	public DBObject getOptionsObject() {
 		BasicDBObject cmd = new BasicDBObject();
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapreduce;
+
+/**
+ * Callback interface to get notified about the progress of an {@link InProcessMapReduce} operation. Implementations
+ * are invoked concurrently and must be thread-safe.
+ * 
+ * @since 1.3
+ */
+public interface MapReduceProgressListener {
+
+	/**
+	 * Invoked after each batch of input documents has been mapped and combined.
+	 * 
+	 * @param documentsRead the number of input documents processed so far.
+	 * @param valuesEmitted the number of values emitted so far.
+	 * @param keysInMemory the number of distinct keys currently held in memory.
+	 */
+	void onProgress(long documentsRead, long valuesEmitted, int keysInMemory);
+
+	/**
+	 * Invoked after the partial results held in memory exceeded the configured threshold and have been written to the
+	 * output collection.
+	 * 
+	 * @param keysSpilled the number of keys written.
+	 */
+	void onSpill(int keysSpilled);
+}
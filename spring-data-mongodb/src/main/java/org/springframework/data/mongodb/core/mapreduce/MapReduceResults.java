@@ -31,7 +31,7 @@ import com.mongodb.DBObject;
  */
 public class MapReduceResults<T> implements Iterable<T> {
 
-	private final List<T> mappedResults;
+	private final Iterable<T> mappedResults;
 	private final DBObject rawResults;
 	private final String outputCollection;
 	private final MapReduceTiming mapReduceTiming;
@@ -44,6 +44,19 @@ public class MapReduceResults<T> implements Iterable<T> {
 	 * @param rawResults must not be {@literal null}.
 	 */
 	public MapReduceResults(List<T> mappedResults, DBObject rawResults) {
+		this((Iterable<T>) mappedResults, rawResults);
+	}
+
+	/**
+	 * Creates a new {@link MapReduceResults} from the given {@link Iterable} of mapped results and the raw one. The
+	 * {@link Iterable} might read and convert the results lazily, e.g. from the output collection of the map-reduce
+	 * operation.
+	 * 
+	 * @param mappedResults must not be {@literal null}.
+	 * @param rawResults must not be {@literal null}.
+	 * @since 1.3
+	 */
+	public MapReduceResults(Iterable<T> mappedResults, DBObject rawResults) {
 
 		Assert.notNull(mappedResults);
 		Assert.notNull(rawResults);
@@ -55,8 +68,11 @@ public class MapReduceResults<T> implements Iterable<T> {
 		this.outputCollection = parseOutputCollection(rawResults);
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Returns an {@link Iterator} over the mapped results. For map-reduce operations writing to an output collection and
+	 * configured to read results lazily, the results are read from that collection and converted as they are consumed.
+	 * Each call then opens a new cursor that is closed once the {@link Iterator} is exhausted.
+	 * 
 	 * @see java.lang.Iterable#iterator()
 	 */
 	public Iterator<T> iterator() {
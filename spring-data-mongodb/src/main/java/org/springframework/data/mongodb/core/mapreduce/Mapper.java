@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapreduce;
+
+/**
+ * Map function of an {@link InProcessMapReduce} operation, emitting any number of key-value pairs per input document.
+ * Implementations are invoked concurrently and must be thread-safe.
+ * 
+ * @param <T> the type the input documents are converted into
+ * @param <K> the type of the emitted keys
+ * @param <V> the type of the emitted values
+ * @since 1.3
+ */
+public interface Mapper<T, K, V> {
+
+	/**
+	 * Maps the given input document into key-value pairs handed to the given {@link Emitter}.
+	 * 
+	 * @param input will never be {@literal null}.
+	 * @param emitter will never be {@literal null}.
+	 */
+	void map(T input, Emitter<K, V> emitter);
+}
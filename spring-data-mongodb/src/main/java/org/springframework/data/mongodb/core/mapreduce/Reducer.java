@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapreduce;
+
+import java.util.List;
+
+/**
+ * Reduce function of an {@link InProcessMapReduce} operation, combining the values emitted for a key. The function is
+ * also used to combine partial results, so it has to be associative and commutative and its result has to be of the
+ * same type as the values, just like the reduce function of a server-side map-reduce operation. Implementations are
+ * invoked concurrently and must be thread-safe.
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 1.3
+ */
+public interface Reducer<K, V> {
+
+	/**
+	 * Combines the given values emitted for the given key into a single one.
+	 * 
+	 * @param key will never be {@literal null}.
+	 * @param values will never be {@literal null} or empty.
+	 * @return
+	 */
+	V reduce(K key, List<V> values);
+}
@@ -57,7 +57,7 @@ public class BasicQuery extends Query {
 
 	@Override
 	public DBObject getQueryObject() {
-		return this.queryObject;
+		return applyKeyset(this.queryObject);
 	}
 
 	@Override
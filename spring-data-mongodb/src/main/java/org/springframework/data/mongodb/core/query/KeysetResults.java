@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.query;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * A window of results read through keyset pagination along with the {@link KeysetToken} to read the next window. The
+ * type implements {@link List} so that repository query methods taking a
+ * {@link org.springframework.data.domain.Pageable} can return it.
+ * 
+ * @see Query#withKeyset(KeysetToken)
+ */
+public class KeysetResults<T> extends AbstractList<T> implements Serializable {
+
+	private static final long serialVersionUID = -1473584093470582475L;
+
+	private final List<T> content;
+	private final KeysetToken nextToken;
+
+	/**
+	 * Creates a new {@link KeysetResults} for the given content and {@link KeysetToken}.
+	 * 
+	 * @param content must not be {@literal null}.
+	 * @param nextToken the token to read the next window with or {@literal null} if there are no more results.
+	 */
+	public KeysetResults(List<T> content, KeysetToken nextToken) {
+
+		Assert.notNull(content, "Content must not be null!");
+
+		this.content = new ArrayList<T>(content);
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * Returns the actual content of the window.
+	 * 
+	 * @return
+	 */
+	public List<T> getContent() {
+		return Collections.unmodifiableList(content);
+	}
+
+	/**
+	 * Returns whether there are more results after the current window.
+	 * 
+	 * @return
+	 */
+	public boolean hasNext() {
+		return nextToken != null;
+	}
+
+	/**
+	 * Returns the {@link KeysetToken} to read the next window with.
+	 * 
+	 * @return the token or {@literal null} if there are no more results.
+	 */
+	public KeysetToken getNextToken() {
+		return nextToken;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		return content.get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return content.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("KeysetResults: %s, next token: %s", content, nextToken);
+	}
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.BSON;
+import org.bson.BSONObject;
+import org.springframework.data.mongodb.InvalidMongoDbApiUsageException;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Opaque token pointing to the position after the last document of a window read through keyset pagination. The
+ * token captures the values of the sort keys (including the {@code _id} tie breaker) of that document and allows to
+ * continue reading right after it by a range predicate instead of skipping all documents read before. Use
+ * {@link #toString()} to obtain the token's external representation and {@link #parse(String)} to turn it back into a
+ * {@link KeysetToken}.
+ * 
+ * @see Query#withKeyset(KeysetToken)
+ */
+public final class KeysetToken implements Serializable {
+
+	private static final long serialVersionUID = 4392530466378627345L;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final String ID_KEY = "_id";
+
+	private final List<String> keys;
+	private final List<Object> values;
+	private final String token;
+
+	private KeysetToken(List<String> keys, List<Object> values, String token) {
+
+		this.keys = Collections.unmodifiableList(keys);
+		this.values = Collections.unmodifiableList(values);
+		this.token = token;
+	}
+
+	/**
+	 * Creates a new {@link KeysetToken} capturing the values of the given keys from the given document. Keys can be
+	 * dot-separated paths into nested documents.
+	 * 
+	 * @param document must not be {@literal null}.
+	 * @param keys must not be {@literal null}.
+	 * @return
+	 * @throws InvalidMongoDbApiUsageException in case the document does not contain a value for one of the keys.
+	 */
+	public static KeysetToken of(DBObject document, Iterable<String> keys) {
+
+		Assert.notNull(keys, "Keys must not be null!");
+
+		List<String> keyList = new ArrayList<String>();
+
+		for (String key : keys) {
+			keyList.add(key);
+		}
+
+		return of(document, keyList, keyList);
+	}
+
+	/**
+	 * Creates a new {@link KeysetToken} for the given keys capturing their values from the fields with the given names
+	 * of the given document, e.g. the property names used in the sort of a query and the names of the fields they are
+	 * mapped to.
+	 * 
+	 * @param document must not be {@literal null}.
+	 * @param keys must not be {@literal null}.
+	 * @param fieldNames the names of the document fields to read the values of the keys from, must not be
+	 *          {@literal null} and contain a field name for every key.
+	 * @return
+	 * @throws InvalidMongoDbApiUsageException in case the document does not contain a value for one of the keys.
+	 */
+	public static KeysetToken of(DBObject document, List<String> keys, List<String> fieldNames) {
+
+		Assert.notNull(document, "Document must not be null!");
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.notNull(fieldNames, "Field names must not be null!");
+		Assert.isTrue(!keys.isEmpty(), "At least one key is required!");
+		Assert.isTrue(keys.size() == fieldNames.size(), "A field name is required for every key!");
+
+		BasicDBList keyList = new BasicDBList();
+		BasicDBList valueList = new BasicDBList();
+
+		for (int i = 0; i < keys.size(); i++) {
+
+			Object value = getValue(document, fieldNames.get(i));
+
+			if (value == null) {
+				throw new InvalidMongoDbApiUsageException(String.format(
+						"Cannot create keyset token as document %s does not contain a value for sort key %s!", document,
+						keys.get(i)));
+			}
+
+			keyList.add(keys.get(i));
+			valueList.add(value);
+		}
+
+		DBObject token = new BasicDBObject("k", keyList).append("v", valueList);
+		return new KeysetToken(toStrings(keyList), valueList, toHex(BSON.encode(token)));
+	}
+
+	/**
+	 * Parses the given token obtained from {@link #toString()} into a {@link KeysetToken}.
+	 * 
+	 * @param token must not be {@literal null} or empty.
+	 * @return
+	 * @throws InvalidMongoDbApiUsageException in case the given token is malformed.
+	 */
+	public static KeysetToken parse(String token) {
+
+		Assert.hasText(token, "Token must not be null or empty!");
+
+		try {
+
+			BSONObject object = BSON.decode(fromHex(token));
+			List<?> keys = (List<?>) object.get("k");
+			List<?> values = (List<?>) object.get("v");
+
+			if (keys == null || values == null || keys.isEmpty() || keys.size() != values.size()) {
+				throw new IllegalArgumentException("Inconsistent keys and values!");
+			}
+
+			return new KeysetToken(toStrings(keys), new ArrayList<Object>(values), token.toLowerCase());
+
+		} catch (RuntimeException e) {
+			throw new InvalidMongoDbApiUsageException(String.format("Invalid keyset token '%s'!", token), e);
+		}
+	}
+
+	/**
+	 * Returns the keys the token captured values for.
+	 * 
+	 * @return
+	 */
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	/**
+	 * Returns the value captured for the given key.
+	 * 
+	 * @param key
+	 * @return the value or {@literal null} if the token does not contain a value for the given key.
+	 */
+	public Object getValue(String key) {
+
+		int index = keys.indexOf(key);
+		return index == -1 ? null : values.get(index);
+	}
+
+	/**
+	 * Returns the criteria selecting all documents sorting after the one the token was created for according to the
+	 * given sort specification. For a sort on {@code a, b, _id} this results in
+	 * {@code $or : [ { a : { $gt : …} }, { a : …, b : { $gt : …} }, { a : …, b : …, _id : { $gt : …} } ]} with
+	 * {@code $lt} used for descending sort keys. The keys of the token have to match the sort keys, optionally followed
+	 * by an ascending {@code _id} tie breaker not contained in the sort.
+	 * 
+	 * @param sortObject must not be {@literal null}.
+	 * @return
+	 * @throws InvalidMongoDbApiUsageException in case the sort keys do not match the keys of the token.
+	 */
+	DBObject getCriteriaObject(DBObject sortObject) {
+
+		Assert.notNull(sortObject, "Sort must not be null!");
+
+		List<String> sortKeys = new ArrayList<String>(sortObject.keySet());
+
+		if (sortKeys.size() == keys.size() - 1 && ID_KEY.equals(keys.get(sortKeys.size()))) {
+			sortKeys.add(ID_KEY);
+		}
+
+		if (!sortKeys.equals(keys)) {
+			throw new InvalidMongoDbApiUsageException(String.format(
+					"Keyset token created for sort keys %s cannot be applied to a query sorted by %s!", keys, sortKeys));
+		}
+
+		BasicDBList clauses = new BasicDBList();
+
+		for (int i = 0; i < keys.size(); i++) {
+
+			DBObject clause = new BasicDBObject();
+
+			for (int j = 0; j < i; j++) {
+				clause.put(keys.get(j), values.get(j));
+			}
+
+			String key = keys.get(i);
+			Object direction = sortObject.get(key);
+			boolean ascending = direction == null || ((Number) direction).intValue() >= 0;
+			clause.put(key, new BasicDBObject(ascending ? "$gt" : "$lt", values.get(i)));
+
+			clauses.add(clause);
+		}
+
+		return new BasicDBObject("$or", clauses);
+	}
+
+	/**
+	 * Returns the opaque external representation of the token.
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return token;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof KeysetToken)) {
+			return false;
+		}
+
+		return this.token.equals(((KeysetToken) obj).token);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return token.hashCode();
+	}
+
+	private static Object getValue(DBObject document, String key) {
+
+		Object current = document;
+
+		for (String segment : StringUtils.delimitedListToStringArray(key, ".")) {
+
+			if (!(current instanceof DBObject)) {
+				return null;
+			}
+
+			current = ((DBObject) current).get(segment);
+		}
+
+		return current;
+	}
+
+	private static List<String> toStrings(List<?> source) {
+
+		List<String> result = new ArrayList<String>(source.size());
+
+		for (Object element : source) {
+			result.add(element.toString());
+		}
+
+		return result;
+	}
+
+	private static String toHex(byte[] bytes) {
+
+		char[] result = new char[bytes.length * 2];
+
+		for (int i = 0; i < bytes.length; i++) {
+			result[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			result[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+
+		return new String(result);
+	}
+
+	private static byte[] fromHex(String hex) {
+
+		if (hex.length() % 2 != 0) {
+			throw new IllegalArgumentException("Odd number of hex digits!");
+		}
+
+		byte[] result = new byte[hex.length() / 2];
+
+		for (int i = 0; i < result.length; i++) {
+
+			int high = Character.digit(hex.charAt(2 * i), 16);
+			int low = Character.digit(hex.charAt(2 * i + 1), 16);
+
+			if (high == -1 || low == -1) {
+				throw new IllegalArgumentException("Invalid hex digit!");
+			}
+
+			result[i] = (byte) ((high << 4) | low);
+		}
+
+		return result;
+	}
+}
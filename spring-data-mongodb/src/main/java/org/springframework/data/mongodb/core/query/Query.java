@@ -28,6 +28,7 @@ import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.mongodb.InvalidMongoDbApiUsageException;
 import org.springframework.util.Assert;
 
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 
@@ -37,12 +38,15 @@ import com.mongodb.DBObject;
  */
 public class Query {
 
+
 	private LinkedHashMap<String, Criteria> criteria = new LinkedHashMap<String, Criteria>();
 	private Field fieldSpec;
 	private Sort sort;
 	private int skip;
 	private int limit;
 	private String hint;
+	private boolean keyset;
+	private KeysetToken keysetToken;
 
 	/**
 	 * Static factory method to create a {@link Query} using the provided {@link Criteria}.
@@ -161,6 +165,46 @@ public class Query {
 		return this;
 	}
 
+	/**
+	 * Configures the {@link Query} for keyset pagination. Instead of skipping the documents of previous pages the query
+	 * will select the documents sorting after the one the given {@link KeysetToken} was created for using a range
+	 * predicate on the sort keys. Thus reading a window deep into the result costs the same as reading the first one,
+	 * given an index on the sort keys. An {@code _id} sort is added as tie breaker by
+	 * {@link org.springframework.data.mongodb.core.MongoOperations#findWithKeyset(Query, Class)} unless one of the sort
+	 * keys is mapped to it already.
+	 * 
+	 * @param token the token pointing to the end of the previous window or {@literal null} to read the first window.
+	 * @return
+	 * @see KeysetToken
+	 */
+	public Query withKeyset(KeysetToken token) {
+
+		this.keyset = true;
+		this.keysetToken = token;
+
+		return this;
+	}
+
+	/**
+	 * Returns whether the {@link Query} is configured for keyset pagination.
+	 * 
+	 * @return
+	 * @see #withKeyset(KeysetToken)
+	 */
+	public boolean isKeysetQuery() {
+		return keyset;
+	}
+
+	/**
+	 * Returns the {@link KeysetToken} the query continues after.
+	 * 
+	 * @return the token or {@literal null} if the query is not configured for keyset pagination or reads the first
+	 *         window.
+	 */
+	public KeysetToken getKeysetToken() {
+		return keysetToken;
+	}
+
 	public DBObject getQueryObject() {
 		DBObject dbo = new BasicDBObject();
 		for (String k : criteria.keySet()) {
@@ -168,7 +212,7 @@ public class Query {
 			DBObject cl = c.getCriteriaObject();
 			dbo.putAll(cl);
 		}
-		return dbo;
+		return applyKeyset(dbo);
 	}
 
 	public DBObject getFieldsObject() {
@@ -180,7 +224,7 @@ public class Query {
 
 	public DBObject getSortObject() {
 
-		if (this.sort == null && this.sort == null) {
+		if (this.sort == null && !this.keyset) {
 			return null;
 		}
 
@@ -207,6 +251,39 @@ public class Query {
 		return hint;
 	}
 
+	/**
+	 * Combines the given query object with the range predicate of the {@link KeysetToken} configured, if any.
+	 * 
+	 * @param queryObject can be {@literal null}.
+	 * @return
+	 */
+	protected DBObject applyKeyset(DBObject queryObject) {
+
+		if (this.keysetToken == null) {
+			return queryObject;
+		}
+
+		DBObject keysetObject = keysetToken.getCriteriaObject(getSortObject());
+
+		if (queryObject == null || queryObject.keySet().isEmpty()) {
+			return keysetObject;
+		}
+
+		if (!queryObject.containsField("$or")) {
+
+			DBObject result = new BasicDBObject();
+			result.putAll(queryObject);
+			result.putAll(keysetObject);
+			return result;
+		}
+
+		BasicDBList clauses = new BasicDBList();
+		clauses.add(queryObject);
+		clauses.add(keysetObject);
+
+		return new BasicDBObject("$and", clauses);
+	}
+
 	protected List<Criteria> getCriteria() {
 		return new ArrayList<Criteria>(this.criteria.values());
 	}
@@ -244,8 +321,9 @@ public class Query {
 		boolean hintEqual = this.hint == null ? that.hint == null : this.hint.equals(that.hint);
 		boolean skipEqual = this.skip == that.skip;
 		boolean limitEqual = this.limit == that.limit;
+		boolean keysetEqual = this.keyset == that.keyset && nullSafeEquals(this.keysetToken, that.keysetToken);
 
-		return criteriaEqual && fieldsEqual && sortEqual && hintEqual && skipEqual && limitEqual;
+		return criteriaEqual && fieldsEqual && sortEqual && hintEqual && skipEqual && limitEqual && keysetEqual;
 	}
 
 	/* 
@@ -263,6 +341,8 @@ public class Query {
 		result += 31 * nullSafeHashCode(hint);
 		result += 31 * skip;
 		result += 31 * limit;
+		result += 31 * (keyset ? 1 : 0);
+		result += 31 * nullSafeHashCode(keysetToken);
 
 		return result;
 	}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.timeseries;
+
+import java.util.Date;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Value object capturing a single value of a time series along with the time it was measured at.
+ * 
+ * @since 1.3
+ */
+public class Measurement<T> {
+
+	private final Date timestamp;
+	private final T value;
+
+	/**
+	 * Creates a new {@link Measurement} for the given timestamp and value.
+	 * 
+	 * @param timestamp must not be {@literal null}.
+	 * @param value can be {@literal null}.
+	 */
+	public Measurement(Date timestamp, T value) {
+
+		Assert.notNull(timestamp, "Timestamp must not be null!");
+
+		this.timestamp = timestamp;
+		this.value = value;
+	}
+
+	/**
+	 * Returns the time the value was measured at.
+	 * 
+	 * @return
+	 */
+	public Date getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Returns the measured value.
+	 * 
+	 * @return
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof Measurement)) {
+			return false;
+		}
+
+		Measurement<?> that = (Measurement<?>) obj;
+		return this.timestamp.equals(that.timestamp) && ObjectUtils.nullSafeEquals(this.value, that.value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		int result = 17;
+
+		result += 31 * timestamp.hashCode();
+		result += 31 * ObjectUtils.nullSafeHashCode(value);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("Measurement: %s at %s", value, timestamp);
+	}
+}
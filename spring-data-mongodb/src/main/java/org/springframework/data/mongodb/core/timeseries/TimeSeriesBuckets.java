@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.timeseries;
+
+/**
+ * Names of the fields of the bucket documents written by {@link TimeSeriesWriter} and read by
+ * {@link TimeSeriesReader}. A bucket looks like this:
+ * 
+ * <pre>
+ * { series : …, start : ISODate(…), end : ISODate(…), count : 2,
+ *   measurements : [ { t : ISODate(…), v : … }, { t : ISODate(…), v : … } ] }
+ * </pre>
+ * 
+ * @since 1.3
+ */
+abstract class TimeSeriesBuckets {
+
+	static final String SERIES = "series";
+	static final String START = "start";
+	static final String END = "end";
+	static final String COUNT = "count";
+	static final String MEASUREMENTS = "measurements";
+	static final String TIMESTAMP = "t";
+	static final String VALUE = "v";
+
+	private TimeSeriesBuckets() {}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.timeseries;
+
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+import static org.springframework.data.mongodb.core.query.Query.*;
+import static org.springframework.data.mongodb.core.timeseries.TimeSeriesBuckets.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.DocumentCallbackHandler;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * Reads the measurements of time series written by a {@link TimeSeriesWriter}. Buckets overlapping the requested time
+ * range are read one at a time from a cursor and only unpacked when handed to the caller, so that reading a long
+ * range does not require to hold all its measurements in memory.
+ * 
+ * @see TimeSeriesWriter
+ * @since 1.3
+ */
+public class TimeSeriesReader {
+
+	private final MongoOperations operations;
+	private final String collectionName;
+
+	/**
+	 * Creates a new {@link TimeSeriesReader} reading buckets from the collection with the given name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 */
+	public TimeSeriesReader(MongoOperations operations, String collectionName) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+
+		this.operations = operations;
+		this.collectionName = collectionName;
+	}
+
+	/**
+	 * Hands the measurements of the series with the given key taken within the given time range to the given
+	 * {@link MeasurementCallbackHandler} one at a time. Measurements are handed out ordered by the windows of the
+	 * buckets they are stored in and in the order they were appended within a window.
+	 * 
+	 * @param series must not be {@literal null} or empty.
+	 * @param from the start of the time range (inclusive), must not be {@literal null}.
+	 * @param to the end of the time range (exclusive), must not be {@literal null}.
+	 * @param type the type to convert the values to, must not be {@literal null}.
+	 * @param handler must not be {@literal null}.
+	 */
+	public <T> void read(String series, Date from, Date to, Class<T> type, MeasurementCallbackHandler<T> handler) {
+
+		Assert.hasText(series, "Series must not be null or empty!");
+		Assert.notNull(from, "From must not be null!");
+		Assert.notNull(to, "To must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		Assert.notNull(handler, "MeasurementCallbackHandler must not be null!");
+
+		Query query = query(where(SERIES).is(series).and(START).lt(to).and(END).gt(from)).with(
+				new Sort(Direction.ASC, START, "_id"));
+
+		operations.executeQuery(query, collectionName, new UnpackingDocumentCallbackHandler<T>(from, to, type,
+				operations.getConverter(), handler));
+	}
+
+	/**
+	 * Returns the measurements of the series with the given key taken within the given time range.
+	 * 
+	 * @param series must not be {@literal null} or empty.
+	 * @param from the start of the time range (inclusive), must not be {@literal null}.
+	 * @param to the end of the time range (exclusive), must not be {@literal null}.
+	 * @param type the type to convert the values to, must not be {@literal null}.
+	 * @return
+	 * @see #read(String, Date, Date, Class, MeasurementCallbackHandler)
+	 */
+	public <T> List<Measurement<T>> find(String series, Date from, Date to, Class<T> type) {
+
+		final List<Measurement<T>> result = new ArrayList<Measurement<T>>();
+
+		read(series, from, to, type, new MeasurementCallbackHandler<T>() {
+			public void processMeasurement(Measurement<T> measurement) {
+				result.add(measurement);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * {@link DocumentCallbackHandler} unpacking the measurements of a bucket within the requested time range.
+	 */
+	private static class UnpackingDocumentCallbackHandler<T> implements DocumentCallbackHandler {
+
+		private final Date from;
+		private final Date to;
+		private final Class<T> type;
+		private final MongoConverter converter;
+		private final MeasurementCallbackHandler<T> delegate;
+
+		public UnpackingDocumentCallbackHandler(Date from, Date to, Class<T> type, MongoConverter converter,
+				MeasurementCallbackHandler<T> delegate) {
+
+			this.from = from;
+			this.to = to;
+			this.type = type;
+			this.converter = converter;
+			this.delegate = delegate;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.core.DocumentCallbackHandler#processDocument(com.mongodb.DBObject)
+		 */
+		public void processDocument(DBObject bucket) throws MongoException, DataAccessException {
+
+			Object measurements = bucket.get(MEASUREMENTS);
+
+			if (!(measurements instanceof List)) {
+				return;
+			}
+
+			for (Object element : (List<?>) measurements) {
+
+				DBObject measurement = (DBObject) element;
+				Date timestamp = (Date) measurement.get(TIMESTAMP);
+
+				if (timestamp.before(from) || !timestamp.before(to)) {
+					continue;
+				}
+
+				delegate.processMeasurement(new Measurement<T>(timestamp, convert(measurement.get(VALUE))));
+			}
+		}
+
+		private T convert(Object value) {
+
+			if (value == null || type.isInstance(value)) {
+				return type.cast(value);
+			}
+
+			if (value instanceof DBObject) {
+				return converter.read(type, (DBObject) value);
+			}
+
+			ConversionService conversionService = converter.getConversionService();
+			return conversionService.convert(value, type);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.timeseries;
+
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+import static org.springframework.data.mongodb.core.query.Query.*;
+import static org.springframework.data.mongodb.core.timeseries.TimeSeriesBuckets.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+import com.mongodb.BasicDBObject;
+
+/**
+ * Appends measurements of time series to bucket documents instead of storing a document per measurement. A bucket
+ * holds the measurements of a single series within a fixed time window. Every measurement is appended with a single
+ * upsert pushing it to the bucket of its window and incrementing the bucket's counter. Once a bucket holds the
+ * configured maximum number of measurements, the upsert does not match it anymore and a new bucket for the same
+ * window is created.
+ * 
+ * @see TimeSeriesReader
+ * @since 1.3
+ */
+public class TimeSeriesWriter {
+
+	public static final int DEFAULT_MAX_BUCKET_SIZE = 200;
+
+	private final MongoOperations operations;
+	private final String collectionName;
+	private final long window;
+	private final int maxBucketSize;
+
+	/**
+	 * Creates a new {@link TimeSeriesWriter} writing buckets spanning the given time window holding at most
+	 * {@value #DEFAULT_MAX_BUCKET_SIZE} measurements to the collection with the given name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param window must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 */
+	public TimeSeriesWriter(MongoOperations operations, String collectionName, long window, TimeUnit unit) {
+		this(operations, collectionName, window, unit, DEFAULT_MAX_BUCKET_SIZE);
+	}
+
+	/**
+	 * Creates a new {@link TimeSeriesWriter} writing buckets spanning the given time window holding at most the given
+	 * number of measurements to the collection with the given name.
+	 * 
+	 * @param operations must not be {@literal null}.
+	 * @param collectionName must not be {@literal null} or empty.
+	 * @param window must be greater than zero.
+	 * @param unit must not be {@literal null}.
+	 * @param maxBucketSize must be greater than zero.
+	 */
+	public TimeSeriesWriter(MongoOperations operations, String collectionName, long window, TimeUnit unit,
+			int maxBucketSize) {
+
+		Assert.notNull(operations, "MongoOperations must not be null!");
+		Assert.hasText(collectionName, "Collection name must not be null or empty!");
+		Assert.notNull(unit, "TimeUnit must not be null!");
+		Assert.isTrue(unit.toMillis(window) > 0, "Window must be at least one millisecond!");
+		Assert.isTrue(maxBucketSize > 0, "Maximum bucket size must be greater than zero!");
+
+		this.operations = operations;
+		this.collectionName = collectionName;
+		this.window = unit.toMillis(window);
+		this.maxBucketSize = maxBucketSize;
+	}
+
+	/**
+	 * Creates the index on series and window start the appends and reads of time series rely on.
+	 */
+	public void ensureIndex() {
+		operations.indexOps(collectionName).ensureIndex(
+				new Index().on(SERIES, Direction.ASC).on(START, Direction.ASC).on(COUNT, Direction.ASC));
+	}
+
+	/**
+	 * Appends the given value measured now to the series with the given key.
+	 * 
+	 * @param series must not be {@literal null} or empty.
+	 * @param value can be {@literal null}.
+	 */
+	public void append(String series, Object value) {
+		append(series, new Date(), value);
+	}
+
+	/**
+	 * Appends the given value measured at the given time to the series with the given key. The value has to be either
+	 * of a type natively supported by MongoDB or an object the template's converter can write.
+	 * 
+	 * @param series must not be {@literal null} or empty.
+	 * @param timestamp must not be {@literal null}.
+	 * @param value can be {@literal null}.
+	 */
+	public void append(String series, Date timestamp, Object value) {
+
+		Assert.hasText(series, "Series must not be null or empty!");
+		Assert.notNull(timestamp, "Timestamp must not be null!");
+
+		long time = timestamp.getTime();
+		long start = time - (time % window + window) % window;
+
+		Query query = query(where(SERIES).is(series).and(START).is(new Date(start)).and(END).is(new Date(start + window))
+				.and(COUNT).lt(maxBucketSize));
+		Update update = new Update().push(MEASUREMENTS, new BasicDBObject(TIMESTAMP, timestamp).append(VALUE, value))
+				.inc(COUNT, 1);
+
+		operations.upsert(query, update, collectionName);
+	}
+}
@@ -55,4 +55,12 @@ public @interface Query {
 	 * @return
 	 */
 	boolean count() default false;
+
+	/**
+	 * Returns whether the documents matching the query defined shall be removed instead of being returned.
+	 * 
+	 * @since 1.3
+	 * @return
+	 */
+	boolean delete() default false;
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A chunk of results for a {@link Pageable} that, unlike a {@link Page}, does not know about the total number of
+ * results. It only knows whether there's a next slice available which allows executing it without a count query.
+ * Query methods returning a {@link Slice} read one element more than requested to find out about a next slice.
+ * <p/>
+ * A {@link Slice} is a {@link List} of its content so that it can be used as return type of query methods taking a
+ * {@link Pageable}.
+ * 
+ * @since 1.3
+ */
+public interface Slice<T> extends List<T> {
+
+	/**
+	 * Returns the number of the current slice. Is always non-negative.
+	 * 
+	 * @return
+	 */
+	int getNumber();
+
+	/**
+	 * Returns the size of the slice as requested.
+	 * 
+	 * @return
+	 */
+	int getSize();
+
+	/**
+	 * Returns the number of elements currently in this slice.
+	 * 
+	 * @return
+	 */
+	int getNumberOfElements();
+
+	/**
+	 * Returns the {@link Sort} the slice was requested with.
+	 * 
+	 * @return
+	 */
+	Sort getSort();
+
+	/**
+	 * Returns whether there's a slice preceding the current one.
+	 * 
+	 * @return
+	 */
+	boolean hasPreviousSlice();
+
+	/**
+	 * Returns whether there's a slice following the current one.
+	 * 
+	 * @return
+	 */
+	boolean hasNextSlice();
+
+	/**
+	 * Returns the {@link Pageable} to request the next slice or {@literal null} if there's no next slice.
+	 * 
+	 * @return
+	 */
+	Pageable nextPageable();
+
+	/**
+	 * Returns the {@link Pageable} to request the previous slice or {@literal null} if the current slice is the first
+	 * one.
+	 * 
+	 * @return
+	 */
+	Pageable previousPageable();
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.repository;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementation of {@link Slice}.
+ * 
+ * @since 1.3
+ */
+public class SliceImpl<T> extends AbstractList<T> implements Slice<T>, Serializable {
+
+	private static final long serialVersionUID = 867755909294344406L;
+
+	private final List<T> content;
+	private final Pageable pageable;
+	private final boolean hasNext;
+
+	/**
+	 * Creates a new {@link SliceImpl} from the given content, {@link Pageable} and the information whether there's a
+	 * next slice available.
+	 * 
+	 * @param content must not be {@literal null}.
+	 * @param pageable must not be {@literal null}.
+	 * @param hasNext
+	 */
+	public SliceImpl(List<T> content, Pageable pageable, boolean hasNext) {
+
+		Assert.notNull(content, "Content must not be null!");
+		Assert.notNull(pageable, "Pageable must not be null!");
+
+		this.content = new ArrayList<T>(content);
+		this.pageable = pageable;
+		this.hasNext = hasNext;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		return content.get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return content.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#getNumber()
+	 */
+	public int getNumber() {
+		return pageable.getPageNumber();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#getSize()
+	 */
+	public int getSize() {
+		return pageable.getPageSize();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#getNumberOfElements()
+	 */
+	public int getNumberOfElements() {
+		return content.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#getSort()
+	 */
+	public Sort getSort() {
+		return pageable.getSort();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#hasPreviousSlice()
+	 */
+	public boolean hasPreviousSlice() {
+		return getNumber() > 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#hasNextSlice()
+	 */
+	public boolean hasNextSlice() {
+		return hasNext;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#nextPageable()
+	 */
+	public Pageable nextPageable() {
+		return hasNext ? new PageRequest(getNumber() + 1, getSize(), getSort()) : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.Slice#previousPageable()
+	 */
+	public Pageable previousPageable() {
+		return hasPreviousSlice() ? new PageRequest(getNumber() - 1, getSize(), getSort()) : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("Slice %s containing %s instances, has next: %s", getNumber(), content.size(), hasNext);
+	}
+}
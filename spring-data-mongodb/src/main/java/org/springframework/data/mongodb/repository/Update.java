@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to declare an update to be applied to all documents matching the {@link Query} declared on the same
+ * repository method. The update is executed as a single multi-document update and the method can return the number
+ * of documents affected. Allows using a placeholder notation of {@code ?0}, {@code ?1} and so on.
+ * 
+ * @since 1.3
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface Update {
+
+	/**
+	 * Takes a MongoDB JSON string defining the update to apply, e.g. {@code { '$set' : { 'firstname' : ?1 } } }.
+	 * 
+	 * @return
+	 */
+	String value();
+}
@@ -19,21 +19,26 @@ import java.util.List;
 
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.geo.Distance;
-import org.springframework.data.mongodb.core.geo.GeoPage;
 import org.springframework.data.mongodb.core.geo.GeoResult;
 import org.springframework.data.mongodb.core.geo.GeoResults;
 import org.springframework.data.mongodb.core.geo.Point;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.core.query.NearQuery;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.Slice;
+import org.springframework.data.mongodb.repository.SliceImpl;
 import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.util.TypeInformation;
 import org.springframework.util.Assert;
 
+import com.mongodb.WriteResult;
+
 /**
  * Base class for {@link RepositoryQuery} implementations for Mongo.
  * 
@@ -76,9 +81,15 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 	public Object execute(Object[] parameters) {
 
 		MongoParameterAccessor accessor = new MongoParametersParameterAccessor(method, parameters);
-		Query query = createQuery(new ConvertingParameterAccessor(operations.getConverter(), accessor));
+		ConvertingParameterAccessor convertingAccessor = new ConvertingParameterAccessor(operations.getConverter(),
+				accessor);
+		Query query = createQuery(convertingAccessor);
 
-		if (method.isGeoNearQuery() && method.isPageQuery()) {
+		if (method.isDeleteQuery()) {
+			return convertResult(new DeleteExecution(accessor.getPageable()).execute(query));
+		} else if (method.isUpdateQuery()) {
+			return convertResult(new UpdateExecution(createUpdate(convertingAccessor)).execute(query));
+		} else if (method.isGeoNearQuery() && method.isPageQuery()) {
 
 			MongoParameterAccessor countAccessor = new MongoParametersParameterAccessor(method, parameters);
 			Query countQuery = createCountQuery(new ConvertingParameterAccessor(operations.getConverter(), countAccessor));
@@ -86,20 +97,33 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 			return new GeoNearExecution(accessor).execute(query, countQuery);
 		} else if (method.isGeoNearQuery()) {
 			return new GeoNearExecution(accessor).execute(query);
+		} else if (method.isKeysetQuery()) {
+			return new KeysetExecution(accessor.getPageable(), accessor.getKeysetToken()).execute(query);
+		} else if (method.isSliceQuery()) {
+			return new SlicedExecution(accessor.getPageable()).execute(query);
 		} else if (method.isCollectionQuery()) {
 			return new CollectionExecution(accessor.getPageable()).execute(query);
 		} else if (method.isPageQuery()) {
 			return new PagedExecution(accessor.getPageable()).execute(query);
 		}
 
-		Object result = new SingleEntityExecution(isCountQuery()).execute(query);
+		return convertResult(new SingleEntityExecution(isCountQuery()).execute(query));
+	}
 
-		if (result == null) {
-			return result;
-		}
+	/**
+	 * Converts the given result into the return type of the query method if necessary.
+	 * 
+	 * @param result can be {@literal null}.
+	 * @return
+	 */
+	private Object convertResult(Object result) {
 
 		Class<?> expectedReturnType = method.getReturnType().getType();
 
+		if (result == null || void.class.equals(expectedReturnType)) {
+			return null;
+		}
+
 		if (expectedReturnType.isAssignableFrom(result.getClass())) {
 			return result;
 		}
@@ -127,6 +151,17 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 	 */
 	protected abstract Query createQuery(ConvertingParameterAccessor accessor);
 
+	/**
+	 * Creates the {@link Update} to apply to the documents matching the query of an update query method. Returns
+	 * {@literal null} by default.
+	 * 
+	 * @param accessor must not be {@literal null}.
+	 * @return
+	 */
+	protected Update createUpdate(ConvertingParameterAccessor accessor) {
+		return null;
+	}
+
 	/**
 	 * Returns whether the query should get a count projection applied.
 	 * 
@@ -143,6 +178,11 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 			MongoEntityMetadata<?> metadata = method.getEntityInformation();
 
 			String collectionName = metadata.getCollectionName();
+
+			if (method.isProjectionQuery()) {
+				return operations.find(query, method.getManagedType(), method.getProjectionType(), collectionName);
+			}
+
 			return operations.find(query, metadata.getJavaType(), collectionName);
 		}
 	}
@@ -195,15 +235,171 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 		 * @see org.springframework.data.mongodb.repository.AbstractMongoQuery.Execution#execute(org.springframework.data.mongodb.core.query.Query)
 		 */
 		@Override
+		Object execute(Query query) {
+
+			MongoEntityMetadata<?> metadata = method.getEntityInformation();
+
+			if (method.isProjectionQuery()) {
+				return operations.findPage(query, pageable, method.getManagedType(), method.getProjectionType(),
+						metadata.getCollectionName());
+			}
+
+			return operations.findPage(query, pageable, metadata.getJavaType(), metadata.getCollectionName());
+		}
+	}
+
+	/**
+	 * {@link Execution} for {@link Slice} queries. Reads one element more than requested to find out whether there's a
+	 * next {@link Slice} instead of issuing a count query.
+	 */
+	class SlicedExecution extends Execution {
+
+		private final Pageable pageable;
+
+		/**
+		 * Creates a new {@link SlicedExecution}.
+		 * 
+		 * @param pageable must not be {@literal null}.
+		 */
+		public SlicedExecution(Pageable pageable) {
+
+			Assert.notNull(pageable, "Slice queries require a Pageable parameter!");
+			this.pageable = pageable;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.repository.query.AbstractMongoQuery.Execution#execute(org.springframework.data.mongodb.core.query.Query)
+		 */
+		@Override
 		@SuppressWarnings({ "rawtypes", "unchecked" })
+		Object execute(Query query) {
+
+			int pageSize = pageable.getPageSize();
+			List<?> result = readCollection(query.with(pageable).limit(pageSize + 1));
+
+			boolean hasNext = result.size() > pageSize;
+			return new SliceImpl(hasNext ? result.subList(0, pageSize) : result, pageable, hasNext);
+		}
+	}
+
+	/**
+	 * {@link Execution} for keyset paginated queries. Applies the {@link Sort} and the page size of the given
+	 * {@link Pageable} but ignores its page number as the position to continue reading from is given by the
+	 * {@link KeysetToken}.
+	 */
+	class KeysetExecution extends Execution {
+
+		private final Pageable pageable;
+		private final KeysetToken token;
+
+		/**
+		 * Creates a new {@link KeysetExecution}.
+		 * 
+		 * @param pageable must not be {@literal null}.
+		 * @param token can be {@literal null}.
+		 */
+		public KeysetExecution(Pageable pageable, KeysetToken token) {
+
+			Assert.notNull(pageable, "Keyset queries require a Pageable parameter!");
+
+			this.pageable = pageable;
+			this.token = token;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.repository.query.AbstractMongoQuery.Execution#execute(org.springframework.data.mongodb.core.query.Query)
+		 */
+		@Override
 		Object execute(Query query) {
 
 			MongoEntityMetadata<?> metadata = method.getEntityInformation();
-			long count = operations.count(query, metadata.getCollectionName());
+			query.with(pageable.getSort()).limit(pageable.getPageSize()).withKeyset(token);
+
+			if (method.isProjectionQuery()) {
+				return operations.findWithKeyset(query, method.getManagedType(), method.getProjectionType(),
+						metadata.getCollectionName());
+			}
+
+			return operations.findWithKeyset(query, metadata.getJavaType(), metadata.getCollectionName());
+		}
+	}
 
-			List<?> result = operations.find(query.with(pageable), metadata.getJavaType(), metadata.getCollectionName());
+	/**
+	 * {@link Execution} removing the documents matching the query. Returns the removed entities if the query method
+	 * returns entities and the number of documents removed otherwise. Query methods returning a single entity remove all
+	 * matching documents as well and return the first one removed.
+	 */
+	class DeleteExecution extends Execution {
+
+		private final Pageable pageable;
+
+		/**
+		 * Creates a new {@link DeleteExecution}.
+		 * 
+		 * @param pageable can be {@literal null}.
+		 */
+		public DeleteExecution(Pageable pageable) {
+			this.pageable = pageable;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.repository.query.AbstractMongoQuery.Execution#execute(org.springframework.data.mongodb.core.query.Query)
+		 */
+		@Override
+		Object execute(Query query) {
+
+			MongoEntityMetadata<?> metadata = method.getEntityInformation();
+			Class<?> type = metadata.getJavaType();
+			String collectionName = metadata.getCollectionName();
+
+			if (method.isCollectionQuery()) {
+				return operations.findAllAndRemove(query.with(pageable), type, collectionName);
+			}
+
+			if (type.isAssignableFrom(method.getReturnedObjectType())) {
+				List<?> removed = operations.findAllAndRemove(query, type, collectionName);
+				return removed.isEmpty() ? null : removed.get(0);
+			}
 
-			return new PageImpl(result, pageable, count);
+			WriteResult result = operations.removeAll(query, type, collectionName);
+			return result == null ? 0L : (long) result.getN();
+		}
+	}
+
+	/**
+	 * {@link Execution} applying an {@link Update} to all documents matching the query. Returns the number of documents
+	 * updated.
+	 */
+	class UpdateExecution extends Execution {
+
+		private final Update update;
+
+		/**
+		 * Creates a new {@link UpdateExecution}.
+		 * 
+		 * @param update must not be {@literal null}.
+		 */
+		public UpdateExecution(Update update) {
+
+			Assert.notNull(update, "Update must not be null!");
+			this.update = update;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.data.mongodb.repository.query.AbstractMongoQuery.Execution#execute(org.springframework.data.mongodb.core.query.Query)
+		 */
+		@Override
+		Object execute(Query query) {
+
+			MongoEntityMetadata<?> metadata = method.getEntityInformation();
+			WriteResult result = operations.updateMulti(query, update, metadata.getJavaType(),
+					metadata.getCollectionName());
+
+			return result == null ? 0L : (long) result.getN();
 		}
 	}
 
@@ -228,6 +424,12 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 		Object execute(Query query) {
 
 			MongoEntityMetadata<?> metadata = method.getEntityInformation();
+
+			if (!countProjection && method.isProjectionQuery()) {
+				return operations.findOne(query, method.getManagedType(), method.getProjectionType(),
+						metadata.getCollectionName());
+			}
+
 			return countProjection ? operations.count(query, metadata.getJavaType()) : operations.findOne(query,
 					metadata.getJavaType());
 		}
@@ -264,17 +466,24 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 		 * @param countQuery must not be {@literal null}.
 		 * @return
 		 */
+		@SuppressWarnings("unchecked")
 		Object execute(Query query, Query countQuery) {
 
 			MongoEntityMetadata<?> metadata = method.getEntityInformation();
-			long count = operations.count(countQuery, metadata.getCollectionName());
-
-			return new GeoPage<Object>(doExecuteQuery(query), accessor.getPageable(), count);
+			return operations.geoNear(createNearQuery(query), countQuery, accessor.getPageable(),
+					(Class<Object>) metadata.getJavaType(), metadata.getCollectionName());
 		}
 
 		@SuppressWarnings("unchecked")
 		private GeoResults<Object> doExecuteQuery(Query query) {
 
+			MongoEntityMetadata<?> metadata = method.getEntityInformation();
+			return (GeoResults<Object>) operations.geoNear(createNearQuery(query), metadata.getJavaType(),
+					metadata.getCollectionName());
+		}
+
+		private NearQuery createNearQuery(Query query) {
+
 			Point nearLocation = accessor.getGeoNearLocation();
 			NearQuery nearQuery = NearQuery.near(nearLocation);
 
@@ -287,8 +496,7 @@ public abstract class AbstractMongoQuery implements RepositoryQuery {
 				nearQuery.maxDistance(maxDistance).in(maxDistance.getMetric());
 			}
 
-			MongoEntityMetadata<?> metadata = method.getEntityInformation();
-			return (GeoResults<Object>) operations.geoNear(nearQuery, metadata.getJavaType(), metadata.getCollectionName());
+			return nearQuery;
 		}
 
 		private boolean isListOfGeoResult() {
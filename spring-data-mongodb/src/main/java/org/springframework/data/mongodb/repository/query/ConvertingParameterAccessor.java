@@ -27,6 +27,7 @@ import org.springframework.data.mongodb.core.convert.MongoWriter;
 import org.springframework.data.mongodb.core.geo.Distance;
 import org.springframework.data.mongodb.core.geo.Point;
 import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.util.TypeInformation;
 import org.springframework.util.Assert;
@@ -110,6 +111,14 @@ public class ConvertingParameterAccessor implements MongoParameterAccessor {
 		return delegate.getGeoNearLocation();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.query.MongoParameterAccessor#getKeysetToken()
+	 */
+	public KeysetToken getKeysetToken() {
+		return delegate.getKeysetToken();
+	}
+
 	/**
 	 * Converts the given value with the underlying {@link MongoWriter}.
 	 * 
@@ -17,6 +17,7 @@ package org.springframework.data.mongodb.repository.query;
 
 import org.springframework.data.mongodb.core.geo.Distance;
 import org.springframework.data.mongodb.core.geo.Point;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.repository.query.ParameterAccessor;
 
 /**
@@ -40,4 +41,12 @@ public interface MongoParameterAccessor extends ParameterAccessor {
 	 * @return
 	 */
 	Point getGeoNearLocation();
+
+	/**
+	 * Returns the {@link KeysetToken} to continue a keyset paginated query after.
+	 * 
+	 * @return the token or {@literal null} if there's no {@link KeysetToken} parameter at all or the given value for it
+	 *         was {@literal null}.
+	 */
+	KeysetToken getKeysetToken();
 }
@@ -17,6 +17,7 @@ package org.springframework.data.mongodb.repository.query;
 
 import org.springframework.data.mongodb.core.geo.Distance;
 import org.springframework.data.mongodb.core.geo.Point;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 
 /**
@@ -77,4 +78,13 @@ public class MongoParametersParameterAccessor extends ParametersParameterAccesso
 
 		return (Point) value;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.query.MongoParameterAccessor#getKeysetToken()
+	 */
+	public KeysetToken getKeysetToken() {
+		int index = method.getParameters().getKeysetTokenIndex();
+		return index == -1 ? null : (KeysetToken) getValue(index);
+	}
 }
@@ -17,7 +17,10 @@ package org.springframework.data.mongodb.repository.query;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.data.mapping.context.MappingContext;
@@ -26,13 +29,18 @@ import org.springframework.data.mongodb.core.geo.GeoResult;
 import org.springframework.data.mongodb.core.geo.GeoResults;
 import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.mapping.MongoSimpleTypes;
+import org.springframework.data.mongodb.core.query.KeysetResults;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Slice;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.util.ClassTypeInformation;
 import org.springframework.data.util.TypeInformation;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -46,9 +54,13 @@ public class MongoQueryMethod extends QueryMethod {
 	private static final List<Class<?>> GEO_NEAR_RESULTS = Arrays
 			.asList(GeoResult.class, GeoResults.class, GeoPage.class);
 
+	static final Pattern DELETE_PREFIX = Pattern.compile("^(delete|remove)((\\p{Lu}.*?))??By");
+
 	private final Method method;
 	private final MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext;
 
+	private final Class<?> projectionType;
+
 	private MongoEntityMetadata<?> metadata;
 
 	/**
@@ -65,6 +77,48 @@ public class MongoQueryMethod extends QueryMethod {
 
 		this.method = method;
 		this.mappingContext = mappingContext;
+
+		if (isUpdateQuery() && (!hasAnnotatedQuery() || isDeleteQuery())) {
+			throw new IllegalStateException(String.format(
+					"@Update is only allowed in combination with a non-deleting @Query on method %s!", method));
+		}
+
+		Class<?> returnType = method.getReturnType();
+
+		if (isUpdateQuery() && !void.class.equals(returnType) && !ClassUtils.isAssignable(Number.class, returnType)) {
+			throw new IllegalStateException(String.format(
+					"Method %s using @Update must either return void or the number of documents updated!", method));
+		}
+
+		this.projectionType = detectProjectionType();
+	}
+
+	/**
+	 * Returns the projection type, i.e. the type that does not belong to the domain class hierarchy but is to be returned
+	 * from the query method with only the properties exposed by it being read.
+	 * 
+	 * @return
+	 */
+	private Class<?> detectProjectionType() {
+
+		if (isGeoNearQuery() || isDeleteQuery() || isUpdateQuery()) {
+			return null;
+		}
+
+		Class<?> returnedType = getReturnedObjectType();
+		Class<?> domainClass = getDomainClass();
+
+		if (returnedType.isAssignableFrom(domainClass) || domainClass.isAssignableFrom(returnedType)) {
+			return null;
+		}
+
+		if (returnedType.isPrimitive() || returnedType.isArray() || returnedType.isEnum()
+				|| MongoSimpleTypes.HOLDER.isSimpleType(returnedType) || Map.class.isAssignableFrom(returnedType)
+				|| Collection.class.isAssignableFrom(returnedType)) {
+			return null;
+		}
+
+		return returnedType;
 	}
 
 	/*
@@ -121,8 +175,10 @@ public class MongoQueryMethod extends QueryMethod {
 			Class<?> returnedObjectType = getReturnedObjectType();
 			Class<?> domainClass = getDomainClass();
 
-			MongoPersistentEntity<?> returnedEntity = mappingContext.getPersistentEntity(getReturnedObjectType());
 			MongoPersistentEntity<?> managedEntity = mappingContext.getPersistentEntity(domainClass);
+			boolean interfaceProjection = projectionType != null && projectionType.isInterface();
+			MongoPersistentEntity<?> returnedEntity = interfaceProjection ? managedEntity : mappingContext
+					.getPersistentEntity(returnedObjectType);
 			returnedEntity = returnedEntity == null ? managedEntity : returnedEntity;
 			MongoPersistentEntity<?> collectionEntity = domainClass.isAssignableFrom(returnedObjectType) ? returnedEntity
 					: managedEntity;
@@ -143,6 +199,87 @@ public class MongoQueryMethod extends QueryMethod {
 		return (MongoParameters) super.getParameters();
 	}
 
+	/**
+	 * Returns whether the query method returns a projection of the domain class, i.e. a DTO class or an interface
+	 * exposing a subset of the properties of the domain class.
+	 * 
+	 * @return
+	 */
+	public boolean isProjectionQuery() {
+		return projectionType != null;
+	}
+
+	/**
+	 * Returns the projection type returned by the query method. The projection type is determined once per method.
+	 * 
+	 * @return the projection type or {@literal null} if the method does not return a projection.
+	 * @see #isProjectionQuery()
+	 */
+	public Class<?> getProjectionType() {
+		return projectionType;
+	}
+
+	/**
+	 * Returns the domain class managed by the repository the query method is declared in.
+	 * 
+	 * @return
+	 */
+	Class<?> getManagedType() {
+		return getDomainClass();
+	}
+
+	/**
+	 * Returns whether the query method returns a {@link Slice}, i.e. a chunk of results without information about the
+	 * total number of results.
+	 * 
+	 * @return
+	 */
+	public boolean isSliceQuery() {
+		return Slice.class.isAssignableFrom(method.getReturnType());
+	}
+
+	/**
+	 * Returns whether the query method returns {@link KeysetResults}, i.e. reads a window of results using keyset
+	 * pagination.
+	 * 
+	 * @return
+	 */
+	public boolean isKeysetQuery() {
+		return KeysetResults.class.isAssignableFrom(method.getReturnType());
+	}
+
+	/**
+	 * Returns whether the query method removes the documents matching the query, either as it's a derived query method
+	 * starting with {@code deleteBy} or {@code removeBy} or as the annotated {@link Query} is flagged to delete.
+	 * 
+	 * @return
+	 */
+	public boolean isDeleteQuery() {
+
+		Query annotation = getQueryAnnotation();
+		return annotation == null ? DELETE_PREFIX.matcher(method.getName()).find() : annotation.delete();
+	}
+
+	/**
+	 * Returns whether the query method applies an {@link Update} to the documents matching the query.
+	 * 
+	 * @return
+	 */
+	public boolean isUpdateQuery() {
+		return getAnnotatedUpdate() != null;
+	}
+
+	/**
+	 * Returns the update string declared in an {@link Update} annotation or {@literal null} if none found.
+	 * 
+	 * @return
+	 */
+	String getAnnotatedUpdate() {
+
+		Update annotation = method.getAnnotation(Update.class);
+		return annotation == null || !StringUtils.hasText(annotation.value()) ? null : annotation.value();
+	}
+
 	/**
 	 * Returns whether te query is a geo near query.
 	 * 
@@ -15,6 +15,8 @@
  */
 package org.springframework.data.mongodb.repository.query;
 
+import java.util.regex.Matcher;
+
 import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -44,11 +46,24 @@ public class PartTreeMongoQuery extends AbstractMongoQuery {
 	public PartTreeMongoQuery(MongoQueryMethod method, MongoOperations mongoOperations) {
 
 		super(method, mongoOperations);
-		this.tree = new PartTree(method.getName(), method.getEntityInformation().getJavaType());
+		this.tree = new PartTree(getFinderName(method.getName()), method.getEntityInformation().getJavaType());
 		this.isGeoNearQuery = method.isGeoNearQuery();
 		this.context = mongoOperations.getConverter().getMappingContext();
 	}
 
+	/**
+	 * Returns the name to derive the {@link PartTree} from. Turns the {@code deleteBy…} and {@code removeBy…} prefixes of
+	 * deleting query methods into {@code findBy…} as the {@link PartTree} only understands finder prefixes.
+	 * 
+	 * @param methodName must not be {@literal null}.
+	 * @return
+	 */
+	private static String getFinderName(String methodName) {
+
+		Matcher matcher = MongoQueryMethod.DELETE_PREFIX.matcher(methodName);
+		return matcher.find() ? "find" + methodName.substring(matcher.end(1)) : methodName;
+	}
+
 	/**
 	 * Return the {@link PartTree} backing the query.
 	 * 
@@ -23,7 +23,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import com.mongodb.DBObject;
 import com.mongodb.util.JSON;
 
 /**
@@ -38,6 +40,7 @@ public class StringBasedMongoQuery extends AbstractMongoQuery {
 
 	private final String query;
 	private final String fieldSpec;
+	private final String update;
 	private final boolean isCountQuery;
 
 	/**
@@ -52,6 +55,7 @@ public class StringBasedMongoQuery extends AbstractMongoQuery {
 
 		this.query = query;
 		this.fieldSpec = method.getFieldSpecification();
+		this.update = method.getAnnotatedUpdate();
 		this.isCountQuery = method.hasAnnotatedQuery() ? method.getQueryAnnotation().count() : false;
 	}
 
@@ -86,6 +90,26 @@ public class StringBasedMongoQuery extends AbstractMongoQuery {
 		return query;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.query.AbstractMongoQuery#createUpdate(org.springframework.data.mongodb.repository.query.ConvertingParameterAccessor)
+	 */
+	@Override
+	protected Update createUpdate(ConvertingParameterAccessor accessor) {
+
+		if (update == null) {
+			return null;
+		}
+
+		DBObject updateObject = (DBObject) JSON.parse(replacePlaceholders(update, accessor));
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(String.format("Created update %s", updateObject));
+		}
+
+		return Update.fromDBObject(updateObject);
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see org.springframework.data.mongodb.repository.query.AbstractMongoQuery#isCountQuery()
@@ -20,12 +20,9 @@ import static org.springframework.data.mongodb.core.query.Criteria.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
@@ -180,12 +177,15 @@ public class SimpleMongoRepository<T, ID extends Serializable> implements MongoR
 	 */
 	public Iterable<T> findAll(Iterable<ID> ids) {
 
-		Set<ID> parameters = new HashSet<ID>();
+		Assert.notNull(ids, "The given Iterable of ids must not be null!");
+
+		List<ID> parameters = new ArrayList<ID>();
 		for (ID id : ids) {
 			parameters.add(id);
 		}
 
-		return findAll(new Query(new Criteria(entityInformation.getIdAttribute()).in(parameters)));
+		return mongoOperations.findAllById(parameters, entityInformation.getJavaType(),
+				entityInformation.getCollectionName());
 	}
 
 	/*
@@ -193,11 +193,8 @@ public class SimpleMongoRepository<T, ID extends Serializable> implements MongoR
 	 * @see org.springframework.data.repository.PagingAndSortingRepository#findAll(org.springframework.data.domain.Pageable)
 	 */
 	public Page<T> findAll(final Pageable pageable) {
-
-		Long count = count();
-		List<T> list = findAll(new Query().with(pageable));
-
-		return new PageImpl<T>(list, pageable, count);
+		return mongoOperations.findPage(new Query(), pageable, entityInformation.getJavaType(),
+				entityInformation.getCollectionName());
 	}
 
 	/*
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.mongodb.core.BufferedMongoOperations.OverflowPolicy;
+
+/**
+ * Unit tests for {@link BufferedMongoOperations}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BufferedMongoOperationsUnitTests {
+
+	@Mock MongoTemplate template;
+
+	BufferedMongoOperations operations;
+	BlockingAnswer blockingAnswer = new BlockingAnswer();
+
+	@After
+	public void tearDown() {
+
+		blockingAnswer.release.countDown();
+
+		if (operations != null) {
+			operations.destroy();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsCapacitySmallerThanBatchSize() {
+		new BufferedMongoOperations(template, 10, 5, 1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void insertsBatchOnceBatchSizeIsReached() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 2, 10, 1, TimeUnit.HOURS);
+
+		Future<String> first = operations.insert("first", "collection");
+		Future<String> second = operations.insert("second", "collection");
+
+		assertThat(first.get(5, TimeUnit.SECONDS), is("first"));
+		assertThat(second.get(5, TimeUnit.SECONDS), is("second"));
+
+		verify(template).insert(Arrays.asList((Object) "first", "second"), "collection");
+		assertThat(operations.getFlushCount(), is(1L));
+		assertThat(operations.getFlushedCount(), is(2L));
+		assertThat(operations.getQueueDepth(), is(0));
+	}
+
+	@Test
+	public void insertsQueuedEntitiesOnExplicitFlush() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 10, 10, 1, TimeUnit.HOURS);
+
+		Future<String> future = operations.insert("first", "collection");
+
+		assertThat(future.isDone(), is(false));
+		assertThat(operations.getQueueDepth(), is(1));
+
+		operations.flush();
+
+		assertThat(future.get(), is("first"));
+		verify(template).insert(Arrays.asList((Object) "first"), "collection");
+	}
+
+	@Test
+	public void insertsQueuedEntitiesAfterLingerTime() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 10, 10, 10, TimeUnit.MILLISECONDS);
+
+		assertThat(operations.insert("first", "collection").get(5, TimeUnit.SECONDS), is("first"));
+	}
+
+	@Test
+	public void dropsEntitiesIfFull() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 2, 2, 1, TimeUnit.HOURS);
+		operations.setOverflowPolicy(OverflowPolicy.DROP);
+		doAnswer(blockingAnswer).when(template).insert(anyCollection(), anyString());
+
+		Future<String> first = operations.insert("first", "collection");
+		Future<String> second = operations.insert("second", "collection");
+		blockingAnswer.writing.await();
+
+		Future<String> third = operations.insert("third", "collection");
+
+		assertThat(operations.getDroppedCount(), is(1L));
+		assertThat(first.isDone(), is(false));
+		assertThat(third.isDone(), is(true));
+
+		try {
+			third.get();
+			fail("Expected ExecutionException!");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(instanceOf(TransientDataAccessResourceException.class)));
+		}
+
+		blockingAnswer.release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS), is("first"));
+		assertThat(second.get(5, TimeUnit.SECONDS), is("second"));
+		assertThat(operations.getQueueDepth(), is(0));
+	}
+
+	@Test(expected = TransientDataAccessResourceException.class)
+	public void rejectsEntitiesIfFull() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 2, 2, 1, TimeUnit.HOURS);
+		operations.setOverflowPolicy(OverflowPolicy.FAIL);
+		doAnswer(blockingAnswer).when(template).insert(anyCollection(), anyString());
+
+		operations.insert("first", "collection");
+		operations.insert("second", "collection");
+		blockingAnswer.writing.await();
+
+		operations.insert("third", "collection");
+	}
+
+	@Test
+	public void flushesQueuedEntitiesOnDestroy() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 10, 10, 1, TimeUnit.HOURS);
+
+		Future<String> future = operations.insert("first", "collection");
+		operations.destroy();
+
+		assertThat(future.get(), is("first"));
+		verify(template).insert(Arrays.asList((Object) "first"), "collection");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsInsertsOnceDestroyed() {
+
+		operations = new BufferedMongoOperations(template, 10, 10, 1, TimeUnit.HOURS);
+		operations.destroy();
+
+		operations.insert("first", "collection");
+	}
+
+	@Test
+	public void failsFuturesIfInsertFails() throws Exception {
+
+		operations = new BufferedMongoOperations(template, 10, 10, 1, TimeUnit.HOURS);
+		doThrow(new DataAccessResourceFailureException("Boom")).when(template).insert(anyCollection(), anyString());
+
+		Future<String> future = operations.insert("first", "collection");
+		operations.flush();
+
+		try {
+			future.get();
+			fail("Expected ExecutionException!");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(instanceOf(DataAccessResourceFailureException.class)));
+		}
+
+		assertThat(operations.getFailedCount(), is(1L));
+	}
+
+	/**
+	 * {@link Answer} blocking the background flush until released so that the buffer stays full.
+	 */
+	static class BlockingAnswer implements Answer<Void> {
+
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		public Void answer(InvocationOnMock invocation) throws Throwable {
+
+			writing.countDown();
+			release.await();
+			return null;
+		}
+	}
+}
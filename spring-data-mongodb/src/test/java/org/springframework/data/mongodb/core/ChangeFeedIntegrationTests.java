@@ -0,0 +1,232 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.BSONTimestamp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ChangeEvent.Operation;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+
+/**
+ * Integration tests for {@link ChangeFeed} using a capped collection as stand-in for the oplog.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:infrastructure.xml")
+public class ChangeFeedIntegrationTests {
+
+	static final String OPLOG = "oplog.test";
+	static final String NAMESPACE = "database.person";
+
+	@Autowired MongoTemplate template;
+
+	DBCollection oplog;
+	BlockingQueue<ChangeEvent<Person>> events = new LinkedBlockingQueue<ChangeEvent<Person>>();
+	EntityCallbackHandler<ChangeEvent<Person>> handler = new EntityCallbackHandler<ChangeEvent<Person>>() {
+		public void processEntity(ChangeEvent<Person> entity) {
+			events.add(entity);
+		}
+	};
+
+	@Before
+	public void setUp() {
+
+		cleanUp();
+		oplog = template.createCollection(OPLOG, new CollectionOptions(100000, 1000, true));
+	}
+
+	@After
+	public void cleanUp() {
+		template.dropCollection(OPLOG);
+		template.dropCollection(MongoResumeTokenStore.DEFAULT_COLLECTION_NAME);
+	}
+
+	@Test
+	public void notifiesAboutChangesHappeningAfterSubscription() throws Exception {
+
+		appendEntry(1, "i", NAMESPACE, new BasicDBObject("_id", "before").append("firstName", "Before"), null);
+
+		Subscription subscription = new ChangeFeed(template, OPLOG).subscribe(NAMESPACE, Person.class, handler);
+
+		try {
+
+			appendEntry(2, "i", NAMESPACE, new BasicDBObject("_id", "dave").append("firstName", "Dave"), null);
+			appendEntry(3, "i", "database.other", new BasicDBObject("_id", "other"), null);
+			appendEntry(4, "u", NAMESPACE, new BasicDBObject("$set", new BasicDBObject("age", 42)), new BasicDBObject(
+					"_id", "dave"));
+			appendEntry(5, "d", NAMESPACE, new BasicDBObject("_id", "dave"), null);
+
+			ChangeEvent<Person> insert = events.poll(5, TimeUnit.SECONDS);
+			assertThat(insert.getOperation(), is(Operation.INSERT));
+			assertThat(insert.getId(), is((Object) "dave"));
+			assertThat(insert.getDocument().getFirstName(), is("Dave"));
+
+			ChangeEvent<Person> update = events.poll(5, TimeUnit.SECONDS);
+			assertThat(update.getOperation(), is(Operation.UPDATE));
+			assertThat(update.getId(), is((Object) "dave"));
+			assertThat(update.getDocument(), is(nullValue()));
+
+			ChangeEvent<Person> delete = events.poll(5, TimeUnit.SECONDS);
+			assertThat(delete.getOperation(), is(Operation.DELETE));
+			assertThat(delete.getTimestamp(), is(new BSONTimestamp(5, 0)));
+
+		} finally {
+			subscription.cancel();
+		}
+
+		assertThat(events.poll(200, TimeUnit.MILLISECONDS), is(nullValue()));
+	}
+
+	@Test
+	public void resumesFromStoredTimestamp() throws Exception {
+
+		ResumeTokenStore store = new MongoResumeTokenStore(template);
+		store.save("cache:" + NAMESPACE, new BSONTimestamp(1, 0));
+
+		appendEntry(1, "i", NAMESPACE, new BasicDBObject("_id", "dave"), null);
+		appendEntry(2, "i", NAMESPACE, new BasicDBObject("_id", "carter"), null);
+
+		ChangeFeed feed = new ChangeFeed(template, OPLOG);
+		feed.setOperationTypes(Operation.INSERT);
+		feed.setResumeTokenStore(store, "cache");
+		feed.setCheckpointInterval(0, TimeUnit.MILLISECONDS);
+
+		Subscription subscription = feed.subscribe(NAMESPACE, Person.class, handler);
+
+		try {
+			assertThat(events.poll(5, TimeUnit.SECONDS).getId(), is((Object) "carter"));
+		} finally {
+			subscription.cancel();
+		}
+
+		assertThat(store.load("cache:" + NAMESPACE), is(new BSONTimestamp(2, 0)));
+	}
+
+	@Test
+	public void doesNotStorePositionOfChangeFailedToBeProcessed() throws Exception {
+
+		ResumeTokenStore store = new MongoResumeTokenStore(template);
+		store.save("cache:" + NAMESPACE, new BSONTimestamp(1, 0));
+
+		appendEntry(2, "i", NAMESPACE, new BasicDBObject("_id", "carter"), null);
+		appendEntry(3, "i", NAMESPACE, new BasicDBObject("_id", "failing"), null);
+		appendEntry(4, "i", NAMESPACE, new BasicDBObject("_id", "dave"), null);
+
+		ChangeFeed feed = new ChangeFeed(template, OPLOG);
+		feed.setResumeTokenStore(store, "cache");
+		feed.setCheckpointInterval(0, TimeUnit.MILLISECONDS);
+
+		Subscription subscription = feed.subscribe(NAMESPACE, Person.class,
+				new EntityCallbackHandler<ChangeEvent<Person>>() {
+					public void processEntity(ChangeEvent<Person> event) {
+
+						if ("failing".equals(event.getId())) {
+							throw new IllegalStateException();
+						}
+
+						events.add(event);
+					}
+				});
+
+		try {
+			assertThat(events.poll(5, TimeUnit.SECONDS).getId(), is((Object) "carter"));
+			awaitInactive(subscription);
+		} finally {
+			subscription.cancel();
+		}
+
+		assertThat(events.isEmpty(), is(true));
+		assertThat(store.load("cache:" + NAMESPACE), is(new BSONTimestamp(2, 0)));
+
+		subscription = feed.subscribe(NAMESPACE, Person.class, handler);
+
+		try {
+			assertThat(events.poll(5, TimeUnit.SECONDS).getId(), is((Object) "failing"));
+			assertThat(events.poll(5, TimeUnit.SECONDS).getId(), is((Object) "dave"));
+		} finally {
+			subscription.cancel();
+		}
+	}
+
+	@Test
+	public void storesPositionOfLastChangeProcessedOnCancel() throws Exception {
+
+		ResumeTokenStore store = new MongoResumeTokenStore(template);
+		store.save("cache:" + NAMESPACE, new BSONTimestamp(1, 0));
+
+		appendEntry(2, "i", NAMESPACE, new BasicDBObject("_id", "carter"), null);
+		appendEntry(3, "i", NAMESPACE, new BasicDBObject("_id", "dave"), null);
+
+		ChangeFeed feed = new ChangeFeed(template, OPLOG);
+		feed.setResumeTokenStore(store, "cache");
+		feed.setCheckpointInterval(1, TimeUnit.HOURS);
+
+		Subscription subscription = feed.subscribe(NAMESPACE, Person.class, handler);
+
+		try {
+			assertThat(events.poll(5, TimeUnit.SECONDS).getId(), is((Object) "carter"));
+			assertThat(events.poll(5, TimeUnit.SECONDS).getId(), is((Object) "dave"));
+		} finally {
+			subscription.cancel();
+		}
+
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+		while (!new BSONTimestamp(3, 0).equals(store.load("cache:" + NAMESPACE))
+				&& System.currentTimeMillis() < deadline) {
+			Thread.yield();
+		}
+
+		assertThat(store.load("cache:" + NAMESPACE), is(new BSONTimestamp(3, 0)));
+	}
+
+	private static void awaitInactive(Subscription subscription) {
+
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+		while (subscription.isActive() && System.currentTimeMillis() < deadline) {
+			Thread.yield();
+		}
+
+		assertThat(subscription.isActive(), is(false));
+	}
+
+	private void appendEntry(int time, String operation, String namespace, BasicDBObject object, BasicDBObject criteria) {
+
+		BasicDBObject entry = new BasicDBObject("ts", new BSONTimestamp(time, 0)).append("op", operation)
+				.append("ns", namespace).append("o", object);
+
+		if (criteria != null) {
+			entry.append("o2", criteria);
+		}
+
+		oplog.insert(entry);
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+/**
+ * Unit tests for {@link ConcurrentDocumentCallbackHandler}.
+ */
+public class ConcurrentDocumentCallbackHandlerUnitTests {
+
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void handsAllDocumentsToDelegate() {
+
+		final AtomicInteger processed = new AtomicInteger();
+		ConcurrentDocumentCallbackHandler handler = new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {
+				processed.incrementAndGet();
+			}
+		}, executor, 4, null).start();
+
+		for (int i = 0; i < 100; i++) {
+			handler.processDocument(new BasicDBObject("_id", i));
+		}
+
+		handler.finish(false);
+
+		assertThat(processed.get(), is(100));
+	}
+
+	@Test
+	public void keepsOrderOfDocumentsWithSameKey() {
+
+		final List<Integer> first = Collections.synchronizedList(new ArrayList<Integer>());
+		final List<Integer> second = Collections.synchronizedList(new ArrayList<Integer>());
+
+		ConcurrentDocumentCallbackHandler handler = new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {
+				DBObject account = (DBObject) dbObject.get("account");
+				("first".equals(account.get("name")) ? first : second).add((Integer) dbObject.get("_id"));
+			}
+		}, executor, 4, "account.name").start();
+
+		List<Integer> expectedFirst = new ArrayList<Integer>();
+		List<Integer> expectedSecond = new ArrayList<Integer>();
+
+		for (int i = 0; i < 200; i++) {
+
+			String name = i % 3 == 0 ? "first" : "second";
+			(i % 3 == 0 ? expectedFirst : expectedSecond).add(i);
+
+			handler.processDocument(new BasicDBObject("_id", i).append("account", new BasicDBObject("name", name)));
+		}
+
+		handler.finish(false);
+
+		assertThat(first, is(expectedFirst));
+		assertThat(second, is(expectedSecond));
+	}
+
+	@Test
+	public void rethrowsFailureOfDelegate() {
+
+		final AtomicInteger processed = new AtomicInteger();
+		ConcurrentDocumentCallbackHandler handler = new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {
+				if (processed.incrementAndGet() == 10) {
+					throw new MongoException("Failed!");
+				}
+			}
+		}, executor, 2, null).start();
+
+		try {
+
+			for (int i = 0; i < 1000; i++) {
+				handler.processDocument(new BasicDBObject("_id", i));
+			}
+
+			handler.finish(false);
+			fail("Expected MongoException!");
+
+		} catch (MongoException e) {
+			assertThat(e.getMessage(), is("Failed!"));
+		}
+	}
+
+	@Test
+	public void discardsRemainingDocumentsOnAbort() {
+
+		ConcurrentDocumentCallbackHandler handler = new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {
+				throw new MongoException("Failed!");
+			}
+		}, executor, 2, null).start();
+
+		handler.processDocument(new BasicDBObject("_id", 1));
+		handler.finish(true);
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void rejectsExecutorRunningWorkersInCallingThread() {
+
+		new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {}
+		}, new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		}, 2, null).start();
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class, timeout = 10000)
+	public void rejectsExecutorNotRunningAllWorkers() {
+
+		ConcurrentDocumentCallbackHandler handler = new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {}
+		}, executor, 5, "_id");
+		handler.setStartTimeout(100, TimeUnit.MILLISECONDS);
+
+		handler.start();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveConcurrency() {
+		new ConcurrentDocumentCallbackHandler(new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {}
+		}, executor, 0, null);
+	}
+}
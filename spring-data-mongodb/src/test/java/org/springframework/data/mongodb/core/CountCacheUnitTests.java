@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link CountCache}.
+ */
+public class CountCacheUnitTests {
+
+	DBObject query = new BasicDBObject("firstname", "Dave");
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveMaxEntries() {
+		new CountCache(0, 1, TimeUnit.MINUTES);
+	}
+
+	@Test
+	public void returnsCachedCountForEqualQuery() {
+
+		CountCache cache = new CountCache(10, 1, TimeUnit.MINUTES);
+		cache.put("person", query, 42, 0);
+
+		assertThat(cache.get("person", new BasicDBObject("firstname", "Dave")), is(42L));
+		assertThat(cache.get("person", new BasicDBObject("firstname", "Carter")), is(nullValue()));
+		assertThat(cache.get("contact", query), is(nullValue()));
+	}
+
+	@Test
+	public void cachesCountForNullQuery() {
+
+		CountCache cache = new CountCache(10, 1, TimeUnit.MINUTES);
+		cache.put("person", null, 4711, 0);
+
+		assertThat(cache.get("person", null), is(4711L));
+	}
+
+	@Test
+	public void doesNotReturnExpiredCounts() throws Exception {
+
+		CountCache cache = new CountCache(10, 1, TimeUnit.MILLISECONDS);
+		cache.put("person", query, 42, 0);
+
+		Thread.sleep(10);
+
+		assertThat(cache.get("person", query), is(nullValue()));
+		assertThat(cache.size(), is(0));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedEntryIfFull() {
+
+		CountCache cache = new CountCache(2, 1, TimeUnit.MINUTES);
+		cache.put("first", query, 1, 0);
+		cache.put("second", query, 2, 0);
+		cache.get("first", query);
+		cache.put("third", query, 3, 0);
+
+		assertThat(cache.size(), is(2));
+		assertThat(cache.get("first", query), is(1L));
+		assertThat(cache.get("second", query), is(nullValue()));
+		assertThat(cache.get("third", query), is(3L));
+	}
+
+	@Test
+	public void evictsEntriesForCollection() {
+
+		CountCache cache = new CountCache(10, 1, TimeUnit.MINUTES);
+		cache.put("person", query, 1, 0);
+		cache.put("person", new BasicDBObject(), 2, 0);
+		cache.put("contact", query, 3, 0);
+
+		cache.evict("person");
+
+		assertThat(cache.size(), is(1));
+		assertThat(cache.get("contact", query), is(3L));
+	}
+
+	@Test
+	public void doesNotCacheCountReadBeforeEviction() {
+
+		CountCache cache = new CountCache(10, 1, TimeUnit.MINUTES);
+		long generation = cache.getGeneration("person");
+
+		cache.evict("person");
+		cache.put("person", query, 42, generation);
+
+		assertThat(cache.get("person", query), is(nullValue()));
+
+		cache.put("person", query, 41, cache.getGeneration("person"));
+
+		assertThat(cache.get("person", query), is(41L));
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.data.mongodb.core.mapping.CachedEntity;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link EntityCache}.
+ */
+public class EntityCacheUnitTests {
+
+	EntityCache cache = new EntityCache();
+	DBObject document = new BasicDBObject("_id", 1L).append("name", "Dave");
+
+	@Test
+	public void detectsCacheableTypes() {
+
+		assertThat(cache.isCacheable(Cached.class), is(true));
+		assertThat(cache.isCacheable(Person.class), is(false));
+		assertThat(cache.isCacheable(null), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonCacheableType() {
+		cache.put(Person.class, "person", 1L, document, cache.getGeneration("person"));
+	}
+
+	@Test
+	public void returnsCachedDocumentAndTracksHitsAndMisses() {
+
+		assertThat(cache.get("cached", 1L), is(nullValue()));
+
+		cache.put(Cached.class, "cached", 1L, document, cache.getGeneration("cached"));
+
+		assertThat(cache.get("cached", 1L), is(document));
+		assertThat(cache.get("other", 1L), is(nullValue()));
+		assertThat(cache.getHitCount(), is(1L));
+		assertThat(cache.getMissCount(), is(2L));
+		assertThat(cache.getSize(), is(1));
+	}
+
+	@Test
+	public void doesNotCacheDocumentReadBeforeEviction() {
+
+		long generation = cache.getGeneration("cached");
+		cache.evict("cached", 1L);
+		cache.put(Cached.class, "cached", 1L, document, generation);
+
+		assertThat(cache.get("cached", 1L), is(nullValue()));
+	}
+
+	@Test
+	public void evictsSingleDocumentsAndCollections() {
+
+		cache.put(Cached.class, "cached", 1L, document, cache.getGeneration("cached"));
+		cache.put(Cached.class, "cached", 2L, document, cache.getGeneration("cached"));
+
+		cache.evict("cached", 1L);
+
+		assertThat(cache.get("cached", 1L), is(nullValue()));
+		assertThat(cache.get("cached", 2L), is(document));
+
+		cache.evict("cached");
+
+		assertThat(cache.get("cached", 2L), is(nullValue()));
+		assertThat(cache.getEvictionCount(), is(2L));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedDocumentIfFull() {
+
+		cache.put(Small.class, "small", 1L, document, cache.getGeneration("small"));
+		cache.put(Small.class, "small", 2L, document, cache.getGeneration("small"));
+		cache.get("small", 1L);
+		cache.put(Small.class, "small", 3L, document, cache.getGeneration("small"));
+
+		assertThat(cache.get("small", 1L), is(document));
+		assertThat(cache.get("small", 2L), is(nullValue()));
+		assertThat(cache.get("small", 3L), is(document));
+		assertThat(cache.getEvictionCount(), is(1L));
+	}
+
+	@Test
+	public void doesNotReturnExpiredDocuments() throws Exception {
+
+		cache.put(ShortLived.class, "shortLived", 1L, document, cache.getGeneration("shortLived"));
+
+		Thread.sleep(10);
+
+		assertThat(cache.get("shortLived", 1L), is(nullValue()));
+		assertThat(cache.getSize(), is(0));
+	}
+
+	@CachedEntity
+	static class Cached {}
+
+	@CachedEntity(maxEntries = 2)
+	static class Small {}
+
+	@CachedEntity(timeToLive = 1, unit = TimeUnit.MILLISECONDS)
+	static class ShortLived {}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.FindByIdCoalescer.DocumentLoader;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link FindByIdCoalescer}.
+ */
+public class FindByIdCoalescerUnitTests {
+
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	RecordingLoader loader = new RecordingLoader();
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveWindow() {
+		new FindByIdCoalescer(0, TimeUnit.MILLISECONDS, 10, loader);
+	}
+
+	@Test(timeout = 10000)
+	public void readsUncontendedLookupRightAway() {
+
+		FindByIdCoalescer coalescer = new FindByIdCoalescer(1, TimeUnit.HOURS, 10, loader);
+
+		assertThat(coalescer.findById("collection", 1L).get("_id"), is((Object) 1L));
+		assertThat(loader.queries, hasSize(1));
+	}
+
+	@Test
+	public void coalescesLookupsIssuedWhileBatchIsRead() throws Exception {
+
+		BlockingLoader blockingLoader = new BlockingLoader();
+		FindByIdCoalescer coalescer = new FindByIdCoalescer(1, TimeUnit.HOURS, 3, blockingLoader);
+
+		Future<DBObject> first = executor.submit(lookup(coalescer, 1L));
+		blockingLoader.reading.await();
+
+		Future<DBObject> second = executor.submit(lookup(coalescer, 2L));
+		Future<DBObject> third = executor.submit(lookup(coalescer, 3L));
+		Future<DBObject> fourth = executor.submit(lookup(coalescer, 4L));
+
+		assertThat(second.get().get("_id"), is((Object) 2L));
+		assertThat(third.get().get("_id"), is((Object) 3L));
+		assertThat(fourth.get().get("_id"), is((Object) 4L));
+
+		blockingLoader.release.countDown();
+
+		assertThat(first.get().get("_id"), is((Object) 1L));
+		assertThat(blockingLoader.queries, hasSize(2));
+		assertThat(blockingLoader.queries.get(0), containsInAnyOrder((Object) 2L, 3L, 4L));
+		assertThat(blockingLoader.queries.get(1), contains((Object) 1L));
+	}
+
+	@Test
+	public void closesBatchOnceFull() {
+
+		FindByIdCoalescer coalescer = new FindByIdCoalescer(1, TimeUnit.MINUTES, 1, loader);
+
+		assertThat(coalescer.findById("collection", 1L).get("_id"), is((Object) 1L));
+		assertThat(coalescer.findById("collection", 2L).get("_id"), is((Object) 2L));
+		assertThat(loader.queries, hasSize(2));
+	}
+
+	@Test
+	public void returnsNullForMissingDocument() {
+
+		FindByIdCoalescer coalescer = new FindByIdCoalescer(1, TimeUnit.MILLISECONDS, 10, loader);
+		assertThat(coalescer.findById("collection", -1L), is(nullValue()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void propagatesLoaderFailure() {
+
+		FindByIdCoalescer coalescer = new FindByIdCoalescer(1, TimeUnit.MILLISECONDS, 10, new DocumentLoader() {
+			public List<DBObject> load(String collectionName, List<Object> ids) {
+				throw new IllegalStateException();
+			}
+		});
+
+		coalescer.findById("collection", 1L);
+	}
+
+	private static Callable<DBObject> lookup(final FindByIdCoalescer coalescer, final Object id) {
+
+		return new Callable<DBObject>() {
+			public DBObject call() {
+				return coalescer.findById("collection", id);
+			}
+		};
+	}
+
+	/**
+	 * {@link RecordingLoader} blocking the first query until released.
+	 */
+	static class BlockingLoader extends RecordingLoader {
+
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public List<DBObject> load(String collectionName, List<Object> ids) {
+
+			if (reading.getCount() > 0) {
+
+				reading.countDown();
+
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			return super.load(collectionName, ids);
+		}
+	}
+
+	/**
+	 * {@link DocumentLoader} recording the ids queried and returning a document for every non-negative id.
+	 */
+	static class RecordingLoader implements DocumentLoader {
+
+		List<List<Object>> queries = new CopyOnWriteArrayList<List<Object>>();
+
+		public List<DBObject> load(String collectionName, List<Object> ids) {
+
+			queries.add(ids);
+			List<DBObject> result = new ArrayList<DBObject>();
+
+			for (Object id : ids) {
+				if ((Long) id >= 0) {
+					result.add(new BasicDBObject("_id", id));
+				}
+			}
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+/**
+ * Unit tests for {@link FunctionCache}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FunctionCacheUnitTests {
+
+	static final String LOCATION = "classpath:map.js";
+
+	@Mock
+	ResourceLoader resourceLoader;
+	@Mock
+	Resource resource;
+
+	@Before
+	public void setUp() throws IOException {
+
+		when(resourceLoader.getResource(LOCATION)).thenReturn(resource);
+		when(resource.exists()).thenReturn(true);
+		when(resource.lastModified()).thenReturn(1L);
+		when(resource.getInputStream()).thenReturn(stream("function() {}"), stream("function() { emit(1, 1); }"));
+	}
+
+	@Test
+	public void readsResourceOnlyOnce() throws IOException {
+
+		FunctionCache cache = new FunctionCache();
+
+		assertThat(cache.getSource(LOCATION, resourceLoader), is("function() {}"));
+		assertThat(cache.getSource(LOCATION, resourceLoader), is("function() {}"));
+		assertThat(cache.size(), is(1));
+
+		verify(resourceLoader, times(1)).getResource(LOCATION);
+		verify(resource, times(1)).getInputStream();
+	}
+
+	@Test
+	public void readsResourceAgainIfModified() throws IOException {
+
+		FunctionCache cache = new FunctionCache(true);
+
+		assertThat(cache.getSource(LOCATION, resourceLoader), is("function() {}"));
+		assertThat(cache.getSource(LOCATION, resourceLoader), is("function() {}"));
+
+		when(resource.lastModified()).thenReturn(2L);
+
+		assertThat(cache.getSource(LOCATION, resourceLoader), is("function() { emit(1, 1); }"));
+		verify(resource, times(2)).getInputStream();
+	}
+
+	@Test
+	public void readsResourceAgainAfterEviction() throws IOException {
+
+		FunctionCache cache = new FunctionCache();
+
+		cache.getSource(LOCATION, resourceLoader);
+		cache.evict(LOCATION);
+
+		assertThat(cache.getSource(LOCATION, resourceLoader), is("function() { emit(1, 1); }"));
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void rejectsMissingResource() {
+
+		when(resource.exists()).thenReturn(false);
+		new FunctionCache().getSource(LOCATION, resourceLoader);
+	}
+
+	private static ByteArrayInputStream stream(String source) {
+		return new ByteArrayInputStream(source.getBytes());
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+
+import com.mongodb.CommandResult;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+
+/**
+ * Unit tests for {@link GroupCommitWriteConcernResolver}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class GroupCommitWriteConcernResolverUnitTests {
+
+	@Mock DB db;
+	@Mock CommandResult result;
+
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@Before
+	public void setUp() {
+		when(db.command(any(DBObject.class))).thenReturn(result);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsWriteConcernWithoutJournalOrFsync() {
+		new GroupCommitWriteConcernResolver(WriteConcern.SAFE, 1, TimeUnit.MILLISECONDS, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsWriteConcernWithJournalAndFsync() {
+		new GroupCommitWriteConcernResolver(new WriteConcern(1, 0, true, true), 1, TimeUnit.MILLISECONDS, 10);
+	}
+
+	@Test
+	public void resolvesAcknowledgedWriteConcernWithoutJournal() {
+
+		GroupCommitWriteConcernResolver resolver = new GroupCommitWriteConcernResolver(WriteConcern.JOURNAL_SAFE, 1,
+				TimeUnit.MILLISECONDS, 10);
+		WriteConcern writeConcern = resolver.resolve(null);
+
+		assertThat(writeConcern.getW(), is(1));
+		assertThat(writeConcern.getJ(), is(false));
+		assertThat(writeConcern.getFsync(), is(false));
+	}
+
+	@Test
+	public void confirmsConcurrentWritesWithSingleCommit() throws Exception {
+
+		GroupCommitWriteConcernResolver resolver = new GroupCommitWriteConcernResolver(WriteConcern.JOURNAL_SAFE, 500,
+				TimeUnit.MILLISECONDS, 10);
+
+		for (Future<Void> future : awaitCommits(resolver, 4)) {
+			future.get();
+		}
+
+		ArgumentCaptor<DBObject> captor = ArgumentCaptor.forClass(DBObject.class);
+		verify(db, times(1)).command(captor.capture());
+
+		assertThat(captor.getValue().get("getlasterror"), is((Object) 1));
+		assertThat(captor.getValue().get("j"), is((Object) true));
+		assertThat(resolver.getCommitCount(), is(1L));
+		assertThat(resolver.getWriteCount(), is(4L));
+	}
+
+	@Test
+	public void commitsOnceMaximumGroupSizeIsReached() {
+
+		GroupCommitWriteConcernResolver resolver = new GroupCommitWriteConcernResolver(WriteConcern.FSYNC_SAFE, 1,
+				TimeUnit.HOURS, 1);
+
+		resolver.awaitCommit(db);
+		resolver.awaitCommit(db);
+
+		verify(db, times(2)).command(any(DBObject.class));
+	}
+
+	@Test
+	public void reportsFailedCommitToAllWritesOfGroup() throws Exception {
+
+		doThrow(new MongoException("Boom")).when(result).throwOnError();
+
+		GroupCommitWriteConcernResolver resolver = new GroupCommitWriteConcernResolver(WriteConcern.JOURNAL_SAFE, 500,
+				TimeUnit.MILLISECONDS, 10);
+
+		for (Future<Void> future : awaitCommits(resolver, 3)) {
+			try {
+				future.get();
+				fail("Expected ExecutionException!");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), is(instanceOf(UncategorizedMongoDbException.class)));
+			}
+		}
+	}
+
+	private List<Future<Void>> awaitCommits(final GroupCommitWriteConcernResolver resolver, int writes) {
+
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+		for (int i = 0; i < writes; i++) {
+			futures.add(executor.submit(new Callable<Void>() {
+				public Void call() {
+					resolver.awaitCommit(db);
+					return null;
+				}
+			}));
+		}
+
+		return futures;
+	}
+}
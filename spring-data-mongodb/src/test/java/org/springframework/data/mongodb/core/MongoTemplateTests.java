@@ -24,11 +24,19 @@ import static org.springframework.data.mongodb.core.query.Update.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.bson.types.ObjectId;
 import org.hamcrest.CoreMatchers;
@@ -55,16 +63,22 @@ import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.mongodb.InvalidMongoDbApiUsageException;
 import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.convert.CustomConversions;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.Index.Duplicates;
 import org.springframework.data.mongodb.core.index.IndexField;
 import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.CachedEntity;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.GeneratedValue;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.KeysetResults;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.ContextConfiguration;
@@ -98,6 +112,7 @@ public class MongoTemplateTests {
 	@Autowired MongoDbFactory factory;
 
 	MongoTemplate mappingTemplate;
+	ExecutorService executor = Executors.newFixedThreadPool(4);
 
 	@Rule public ExpectedException thrown = ExpectedException.none();
 
@@ -131,6 +146,7 @@ public class MongoTemplateTests {
 
 	@After
 	public void cleanUp() {
+		executor.shutdownNow();
 		cleanDb();
 	}
 
@@ -156,6 +172,10 @@ public class MongoTemplateTests {
 		template.dropCollection(Document.class);
 		template.dropCollection(ObjectWith3AliasedFields.class);
 		template.dropCollection(ObjectWith3AliasedFieldsAndNestedAddress.class);
+		template.dropCollection(CachedType.class);
+		template.dropCollection(TypeWithGeneratedId.class);
+		template.dropCollection(SequenceGenerator.DEFAULT_COLLECTION_NAME);
+		template.dropCollection("capped");
 	}
 
 	@Test
@@ -1008,6 +1028,470 @@ public class MongoTemplateTests {
 		assertThat(result.getFirstName(), is("Carter"));
 	}
 
+	@Test
+	public void findsAllByIdInRequestOrderAcrossChunks() {
+
+		List<ObjectId> ids = new ArrayList<ObjectId>();
+
+		for (int i = 0; i < 5; i++) {
+			PersonWithIdPropertyOfTypeObjectId person = new PersonWithIdPropertyOfTypeObjectId();
+			person.setId(new ObjectId());
+			person.setFirstName("Person" + i);
+			template.save(person);
+			ids.add(0, person.getId());
+		}
+
+		ids.add(2, new ObjectId());
+
+		MongoTemplate batchingTemplate = new MongoTemplate(factory);
+		batchingTemplate.setIdBatchSize(2);
+		batchingTemplate.setIdBatchExecutor(executor);
+
+		List<PersonWithIdPropertyOfTypeObjectId> result = batchingTemplate.findAllById(ids,
+				PersonWithIdPropertyOfTypeObjectId.class);
+
+		assertThat(result, hasSize(5));
+		assertThat(result.get(0).getFirstName(), is("Person4"));
+		assertThat(result.get(1).getFirstName(), is("Person3"));
+		assertThat(result.get(2).getFirstName(), is("Person2"));
+		assertThat(result.get(4).getFirstName(), is("Person0"));
+	}
+
+	@Test
+	public void readsOnlyPropertiesOfInterfaceProjection() {
+
+		PersonWithIdPropertyOfTypeObjectId person = new PersonWithIdPropertyOfTypeObjectId();
+		person.setFirstName("Dave");
+		person.setAge(42);
+		template.save(person);
+
+		List<FirstNameOnly> result = template.find(new Query(where("age").is(42)),
+				PersonWithIdPropertyOfTypeObjectId.class, FirstNameOnly.class);
+
+		assertThat(result, hasSize(1));
+		assertThat(result.get(0).getFirstName(), is("Dave"));
+
+		FirstNameDto dto = template.findOne(new Query(where("age").is(42)), PersonWithIdPropertyOfTypeObjectId.class,
+				FirstNameDto.class, template.getCollectionName(PersonWithIdPropertyOfTypeObjectId.class));
+		assertThat(dto.firstName, is("Dave"));
+	}
+
+	interface FirstNameOnly {
+
+		String getFirstName();
+	}
+
+	static class FirstNameDto {
+
+		String firstName;
+	}
+
+	@Test
+	public void readsRenamedPropertiesIntoDtoProjection() {
+
+		TypeWithFieldAnnotation entity = new TypeWithFieldAnnotation();
+		entity.emailAddress = "dave@example.com";
+		template.save(entity);
+
+		List<EmailAddressDto> result = template.find(new Query(), TypeWithFieldAnnotation.class, EmailAddressDto.class);
+
+		assertThat(result, hasSize(1));
+		assertThat(result.get(0).id, is(entity.id));
+		assertThat(result.get(0).emailAddress, is("dave@example.com"));
+	}
+
+	@Test
+	public void readsKeysetWindowsIntoProjection() {
+
+		for (String email : Arrays.asList("b@x", "a@x", "c@x")) {
+			TypeWithFieldAnnotation entity = new TypeWithFieldAnnotation();
+			entity.emailAddress = email;
+			template.save(entity);
+		}
+
+		Query query = new Query().with(new Sort("emailAddress")).limit(2).withKeyset(null);
+		KeysetResults<EmailAddressDto> results = template.findWithKeyset(query, TypeWithFieldAnnotation.class,
+				EmailAddressDto.class, template.getCollectionName(TypeWithFieldAnnotation.class));
+
+		assertThat(results, hasSize(2));
+		assertThat(results.get(0).emailAddress, is("a@x"));
+		assertThat(results.hasNext(), is(true));
+
+		results = template.findWithKeyset(query.withKeyset(results.getNextToken()), TypeWithFieldAnnotation.class,
+				EmailAddressDto.class, template.getCollectionName(TypeWithFieldAnnotation.class));
+
+		assertThat(results, hasSize(1));
+		assertThat(results.get(0).emailAddress, is("c@x"));
+	}
+
+	static class EmailAddressDto {
+
+		ObjectId id;
+		String emailAddress;
+	}
+
+	@Test
+	public void findsAllAndRemovesMatchingDocuments() {
+
+		for (int i = 0; i < 4; i++) {
+			PersonWithIdPropertyOfTypeObjectId person = new PersonWithIdPropertyOfTypeObjectId();
+			person.setFirstName("Person" + i);
+			person.setAge(i % 2 == 0 ? 30 : 40);
+			template.save(person);
+		}
+
+		Query query = new Query(where("age").is(30)).with(new Sort("firstName"));
+		List<PersonWithIdPropertyOfTypeObjectId> removed = template.findAllAndRemove(query,
+				PersonWithIdPropertyOfTypeObjectId.class);
+
+		assertThat(removed, hasSize(2));
+		assertThat(removed.get(0).getFirstName(), is("Person0"));
+		assertThat(removed.get(1).getFirstName(), is("Person2"));
+		assertThat(template.count(new Query(), PersonWithIdPropertyOfTypeObjectId.class), is(2L));
+	}
+
+	@Test
+	public void servesFindByIdFromEntityCacheUntilWrittenThroughTemplate() {
+
+		MongoTemplate cachingTemplate = new MongoTemplate(factory);
+		EntityCache entityCache = new EntityCache();
+		cachingTemplate.setEntityCache(entityCache);
+
+		CachedType cached = new CachedType();
+		cached.value = "original";
+		cachingTemplate.save(cached);
+
+		assertThat(cachingTemplate.findById(cached.id, CachedType.class).value, is("original"));
+
+		DBObject direct = new BasicDBObject("$set", new BasicDBObject("value", "direct"));
+		template.getCollection(template.getCollectionName(CachedType.class)).update(
+				new BasicDBObject("_id", new ObjectId(cached.id)), direct);
+
+		assertThat(cachingTemplate.findById(cached.id, CachedType.class).value, is("original"));
+		assertThat(entityCache.getHitCount(), is(1L));
+
+		cachingTemplate.updateFirst(query(where("id").is(cached.id)), update("value", "updated"), CachedType.class);
+
+		assertThat(cachingTemplate.findById(cached.id, CachedType.class).value, is("updated"));
+		assertThat(entityCache.getMissCount(), is(2L));
+	}
+
+	@Test
+	public void servesRepeatedQueriesFromQueryCacheUntilCollectionIsWritten() {
+
+		MongoTemplate cachingTemplate = new MongoTemplate(factory);
+		cachingTemplate.setQueryCache(new QueryCache(10, 100));
+
+		cachingTemplate.save(new Person("Dave"));
+		Query query = query(where("firstName").is("Dave"));
+
+		assertThat(cachingTemplate.find(query, Person.class), hasSize(1));
+		assertThat(cachingTemplate.count(query, Person.class), is(1L));
+
+		template.getCollection(template.getCollectionName(Person.class)).insert(new BasicDBObject("firstName", "Dave"));
+
+		assertThat(cachingTemplate.find(query, Person.class), hasSize(1));
+		assertThat(cachingTemplate.count(query, Person.class), is(1L));
+
+		cachingTemplate.save(new Person("Carter"));
+
+		assertThat(cachingTemplate.find(query, Person.class), hasSize(2));
+		assertThat(cachingTemplate.count(query, Person.class), is(2L));
+	}
+
+	@Test
+	public void readsWindowsUsingKeysetPagination() {
+
+		for (int i = 0; i < 5; i++) {
+			PersonWithIdPropertyOfTypeObjectId person = new PersonWithIdPropertyOfTypeObjectId();
+			person.setFirstName("Person" + i);
+			person.setAge(i < 3 ? 30 : 40);
+			template.save(person);
+		}
+
+		Query query = new Query().with(new Sort(Direction.DESC, "age")).limit(2).withKeyset(null);
+		List<String> names = new ArrayList<String>();
+		KeysetResults<PersonWithIdPropertyOfTypeObjectId> results;
+
+		do {
+			results = template.findWithKeyset(query, PersonWithIdPropertyOfTypeObjectId.class);
+
+			for (PersonWithIdPropertyOfTypeObjectId person : results) {
+				names.add(person.getFirstName());
+			}
+
+			query.withKeyset(results.hasNext() ? KeysetToken.parse(results.getNextToken().toString()) : null);
+
+		} while (results.hasNext());
+
+		assertThat(names, contains("Person3", "Person4", "Person0", "Person1", "Person2"));
+	}
+
+	@Test
+	public void readsWindowsUsingKeysetPaginationByIdDescending() {
+
+		for (int i = 0; i < 5; i++) {
+			PersonWithIdPropertyOfTypeObjectId person = new PersonWithIdPropertyOfTypeObjectId();
+			person.setId(new ObjectId());
+			person.setFirstName("Person" + i);
+			template.save(person);
+		}
+
+		Query query = new Query().with(new Sort(Direction.DESC, "id")).limit(2).withKeyset(null);
+		List<String> names = new ArrayList<String>();
+		KeysetResults<PersonWithIdPropertyOfTypeObjectId> results;
+
+		do {
+			results = template.findWithKeyset(query, PersonWithIdPropertyOfTypeObjectId.class);
+
+			for (PersonWithIdPropertyOfTypeObjectId person : results) {
+				names.add(person.getFirstName());
+			}
+
+			query.withKeyset(results.getNextToken());
+
+		} while (results.hasNext());
+
+		assertThat(names, contains("Person4", "Person3", "Person2", "Person1", "Person0"));
+	}
+
+	@Test
+	public void readsWindowsUsingKeysetPaginationOnRenamedProperties() {
+
+		for (String email : Arrays.asList("d@x", "b@x", "e@x", "a@x", "c@x")) {
+			TypeWithFieldAnnotation entity = new TypeWithFieldAnnotation();
+			entity.emailAddress = email;
+			template.save(entity);
+		}
+
+		Query query = new Query().with(new Sort("emailAddress", "id")).limit(2).withKeyset(null);
+		List<String> emails = new ArrayList<String>();
+		KeysetResults<TypeWithFieldAnnotation> results;
+
+		do {
+			results = template.findWithKeyset(query, TypeWithFieldAnnotation.class);
+
+			for (TypeWithFieldAnnotation entity : results) {
+				emails.add(entity.emailAddress);
+			}
+
+			query.withKeyset(results.getNextToken());
+
+		} while (results.hasNext());
+
+		assertThat(emails, contains("a@x", "b@x", "c@x", "d@x", "e@x"));
+	}
+
+	@Test
+	public void populatesGeneratedIdsFromSequenceOnInsert() {
+
+		TypeWithGeneratedId first = new TypeWithGeneratedId();
+		template.insert(first);
+
+		List<TypeWithGeneratedId> batch = Arrays.asList(new TypeWithGeneratedId(), new TypeWithGeneratedId());
+		template.insert(batch, TypeWithGeneratedId.class);
+
+		TypeWithGeneratedId saved = new TypeWithGeneratedId();
+		template.save(saved);
+
+		assertThat(first.id, is(1L));
+		assertThat(batch.get(0).id, is(2L));
+		assertThat(batch.get(1).id, is(3L));
+		assertThat(saved.id, is(4L));
+		assertThat(template.findById(3L, TypeWithGeneratedId.class), is(notNullValue()));
+
+		DBObject counter = template.getCollection(SequenceGenerator.DEFAULT_COLLECTION_NAME).findOne("orders");
+		assertThat(((Number) counter.get("value")).longValue(), is(6L));
+	}
+
+	@Test
+	public void tailsCappedCollectionAndResumesOnEmptyCollection() throws Exception {
+
+		template.createCollection("capped", new CollectionOptions(100000, 100, true));
+
+		final BlockingQueue<Person> received = new LinkedBlockingQueue<Person>();
+		Subscription subscription = template.tail(query(where("age").gte(18)), Person.class, "capped",
+				new EntityCallbackHandler<Person>() {
+					public void processEntity(Person entity) {
+						received.add(entity);
+					}
+				});
+
+		try {
+
+			template.insert(new Person("Dave", 35), "capped");
+			template.insert(new Person("Oliver", 12), "capped");
+			template.insert(new Person("Carter", 27), "capped");
+
+			assertThat(received.poll(5, TimeUnit.SECONDS).getFirstName(), is("Dave"));
+			assertThat(received.poll(5, TimeUnit.SECONDS).getFirstName(), is("Carter"));
+
+		} finally {
+			subscription.cancel();
+		}
+
+		assertThat(subscription.isActive(), is(false));
+	}
+
+	@Test
+	public void cancelsTailingSubscriptionIfHandlerFails() throws Exception {
+
+		template.createCollection("capped", new CollectionOptions(100000, 100, true));
+
+		final CountDownLatch failed = new CountDownLatch(1);
+		Subscription subscription = template.tail(new Query(), Person.class, "capped", new EntityCallbackHandler<Person>() {
+			public void processEntity(Person entity) {
+				failed.countDown();
+				throw new IllegalStateException();
+			}
+		});
+
+		try {
+
+			template.insert(new Person("Dave", 35), "capped");
+			assertThat(failed.await(5, TimeUnit.SECONDS), is(true));
+
+			long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+			while (subscription.isActive() && System.currentTimeMillis() < deadline) {
+				Thread.yield();
+			}
+
+			assertThat(subscription.isActive(), is(false));
+
+		} finally {
+			subscription.cancel();
+		}
+	}
+
+	@Test
+	public void cancelsTailingSubscriptionIfHandlerFailsOnExecutor() throws Exception {
+
+		template.createCollection("capped", new CollectionOptions(100000, 100, true));
+
+		MongoTemplate tailingTemplate = new MongoTemplate(factory);
+		tailingTemplate.setTailExecutor(executor);
+
+		final CountDownLatch failed = new CountDownLatch(1);
+		Subscription subscription = tailingTemplate.tail(new Query(), Person.class, "capped",
+				new EntityCallbackHandler<Person>() {
+					public void processEntity(Person entity) {
+						failed.countDown();
+						throw new IllegalStateException();
+					}
+				});
+
+		try {
+
+			template.insert(new Person("Dave", 35), "capped");
+			assertThat(failed.await(5, TimeUnit.SECONDS), is(true));
+
+			long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+			while (subscription.isActive() && System.currentTimeMillis() < deadline) {
+				Thread.yield();
+			}
+
+			assertThat(subscription.isActive(), is(false));
+
+		} finally {
+			subscription.cancel();
+		}
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void rejectsTailingUncappedCollection() {
+
+		template.insert(new Person("Dave"));
+		template.tail(new Query(), Person.class, new EntityCallbackHandler<Person>() {
+			public void processEntity(Person entity) {}
+		});
+	}
+
+	@Test
+	public void scansCollectionInParallelRanges() {
+
+		List<Person> people = new ArrayList<Person>();
+
+		for (int i = 0; i < 100; i++) {
+			people.add(new Person("Dave", i));
+		}
+
+		template.insertAll(people);
+
+		MongoTemplate scanningTemplate = new MongoTemplate(factory);
+		scanningTemplate.setScanExecutor(executor);
+
+		final BlockingQueue<Person> received = new LinkedBlockingQueue<Person>();
+		Query query = query(where("age").gte(50));
+		scanningTemplate.parallelScan(query, Person.class, 4, new EntityCallbackHandler<Person>() {
+			public void processEntity(Person entity) {
+				received.add(entity);
+			}
+		});
+
+		assertThat(received.size(), is(50));
+		assertThat(new HashSet<Person>(received).size(), is(50));
+	}
+
+	@Test
+	public void scansCollectionInParallelRangesMatchingMappedQuery() {
+
+		for (int i = 0; i < 100; i++) {
+			TypeWithFieldAnnotation entity = new TypeWithFieldAnnotation();
+			entity.emailAddress = i < 50 ? "dave@dmband.com" : "oliver@gierke.de";
+			template.save(entity);
+		}
+
+		MongoTemplate scanningTemplate = new MongoTemplate(factory);
+		scanningTemplate.setScanExecutor(executor);
+
+		final BlockingQueue<TypeWithFieldAnnotation> received = new LinkedBlockingQueue<TypeWithFieldAnnotation>();
+		Query query = query(where("emailAddress").is("oliver@gierke.de"));
+		scanningTemplate.parallelScan(query, TypeWithFieldAnnotation.class, 4,
+				new EntityCallbackHandler<TypeWithFieldAnnotation>() {
+					public void processEntity(TypeWithFieldAnnotation entity) {
+						received.add(entity);
+					}
+				});
+
+		assertThat(received.size(), is(50));
+
+		for (TypeWithFieldAnnotation entity : received) {
+			assertThat(entity.emailAddress, is("oliver@gierke.de"));
+		}
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void rejectsParallelScanWithLimit() {
+
+		template.parallelScan(new Query().limit(10), Person.class, 2, new EntityCallbackHandler<Person>() {
+			public void processEntity(Person entity) {}
+		});
+	}
+
+	@Test
+	public void findsAllByIdAsMapKeyedByGivenIds() {
+
+		PersonWithIdPropertyOfTypeString first = new PersonWithIdPropertyOfTypeString();
+		first.setId(new ObjectId().toString());
+		first.setFirstName("Dave");
+		template.save(first);
+
+		PersonWithIdPropertyOfTypeString second = new PersonWithIdPropertyOfTypeString();
+		second.setId("4711");
+		second.setFirstName("Carter");
+		template.save(second);
+
+		Map<String, PersonWithIdPropertyOfTypeString> result = template.findAllByIdAsMap(
+				Arrays.asList("4711", "unknown", first.getId()), PersonWithIdPropertyOfTypeString.class,
+				template.getCollectionName(PersonWithIdPropertyOfTypeString.class));
+
+		assertThat(result.size(), is(2));
+		assertThat(result.keySet(), contains("4711", first.getId()));
+		assertThat(result.get(first.getId()).getFirstName(), is("Dave"));
+	}
+
 	@Test
 	public void testWriteConcernResolver() {
 
@@ -1091,6 +1575,34 @@ public class MongoTemplateTests {
 		// template.remove(new Query(), Person.class);
 	}
 
+	@Test
+	public void executesQueryWithDocumentCallbackHandlerOnWorkerThreads() {
+
+		template.insert(new Person("Tom"));
+		template.insert(new Person("Dick"));
+		template.insert(new Person("Harry"));
+
+		final List<String> names = Collections.synchronizedList(new ArrayList<String>());
+		template.executeQuery(new Query(), template.getCollectionName(Person.class), new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {
+				names.add((String) dbObject.get("firstName"));
+			}
+		}, executor, 2, "firstName");
+
+		assertThat(names, containsInAnyOrder("Tom", "Dick", "Harry"));
+	}
+
+	@Test(expected = DataAccessException.class)
+	public void propagatesFailureOfDocumentCallbackHandlerOnWorkerThread() {
+
+		template.insert(new Person("Tom"));
+		template.executeQuery(new Query(), template.getCollectionName(Person.class), new DocumentCallbackHandler() {
+			public void processDocument(DBObject dbObject) {
+				throw new MongoException("Failed!");
+			}
+		}, executor, 2);
+	}
+
 	/**
 	 * @see DATADOC-202
 	 */
@@ -1843,6 +2355,32 @@ public class MongoTemplateTests {
 		assertThat(result.address.state, is(stateValue));
 	}
 
+	@Test
+	public void aggregatesDocumentsThroughPipeline() {
+
+		template.insertAll(Arrays.asList(new Person("Dave", 30), new Person("Dave", 40), new Person("Carter", 20),
+				new Person("Oliver", 10)));
+
+		Aggregation aggregation = Aggregation.newAggregation(Person.class,
+				Aggregation.match(where("age").gte(20)), //
+				Aggregation.group("firstName").sum("age").as("total").count().as("count"), //
+				Aggregation.sort(Direction.DESC, "total"));
+
+		AggregationResults<DBObject> results = template.aggregate(aggregation, DBObject.class);
+
+		assertThat(results.getMappedResults(), hasSize(2));
+		assertThat(results.getMappedResults().get(0).get("_id"), is((Object) "Dave"));
+		assertThat(((Number) results.getMappedResults().get(0).get("total")).intValue(), is(70));
+		assertThat(((Number) results.getMappedResults().get(0).get("count")).intValue(), is(2));
+
+		Iterator<DBObject> iterator = template.aggregateIterator(aggregation, template.getCollectionName(Person.class),
+				DBObject.class);
+
+		assertThat(iterator.next().get("_id"), is((Object) "Dave"));
+		assertThat(iterator.next().get("_id"), is((Object) "Carter"));
+		assertThat(iterator.hasNext(), is(false));
+	}
+
 	static interface Model {
 		String value();
 
@@ -1951,6 +2489,18 @@ public class MongoTemplateTests {
 		@Field("email") String emailAddress;
 	}
 
+	@CachedEntity
+	static class CachedType {
+
+		String id;
+		String value;
+	}
+
+	static class TypeWithGeneratedId {
+
+		@Id @GeneratedValue(sequence = "orders", blockSize = 3) Long id;
+	}
+
 	static class TypeWithDate {
 
 		@Id String id;
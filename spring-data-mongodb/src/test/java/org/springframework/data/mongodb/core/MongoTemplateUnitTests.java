@@ -53,6 +53,8 @@ import com.mongodb.DBCollection;
 import com.mongodb.DBObject;
 import com.mongodb.Mongo;
 import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+import com.mongodb.WriteResult;
 
 /**
  * Unit tests for {@link MongoTemplate}.
@@ -226,6 +228,29 @@ public class MongoTemplateUnitTests extends MongoOperationsUnitTests {
 		assertThat(creator.isIndexCreatorFor(mappingContext), is(true));
 	}
 
+	@Test
+	public void installsFunctionUsingConfiguredWriteConcern() {
+
+		WriteResult writeResult = mock(WriteResult.class);
+		when(collection.save(Mockito.any(DBObject.class), eq(WriteConcern.SAFE))).thenReturn(writeResult);
+
+		template.setWriteConcern(WriteConcern.SAFE);
+		template.installFunction("foo", "function() {}");
+
+		verify(collection).save(Mockito.any(DBObject.class), eq(WriteConcern.SAFE));
+	}
+
+	@Test(expected = MongoDataIntegrityViolationException.class)
+	public void rejectsFailedFunctionInstallation() {
+
+		WriteResult writeResult = mock(WriteResult.class);
+		when(writeResult.getError()).thenReturn("failed");
+		when(collection.save(Mockito.any(DBObject.class))).thenReturn(writeResult);
+
+		template.setWriteResultChecking(WriteResultChecking.EXCEPTION);
+		template.installFunction("foo", "function() {}");
+	}
+
 	class AutogenerateableId {
 
 		@Id
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link ProjectionFactory}.
+ */
+public class ProjectionFactoryUnitTests {
+
+	ProjectionFactory factory;
+
+	@Before
+	public void setUp() {
+		factory = new ProjectionFactory(new MongoMappingContext(), new DefaultConversionService());
+	}
+
+	@Test
+	public void derivesFieldsFromInterfaceAccessors() {
+		assertThat(factory.getFieldsObject(PersonSummary.class),
+				is((DBObject) new BasicDBObject("firstName", 1).append("age", 1)));
+	}
+
+	@Test
+	public void derivesFieldsFromDtoProperties() {
+		assertThat(factory.getFieldsObject(PersonDto.class), is((DBObject) new BasicDBObject("firstName", 1)));
+	}
+
+	@Test
+	public void detectsProjections() {
+
+		assertThat(factory.isProjection(Person.class, PersonSummary.class), is(true));
+		assertThat(factory.isProjection(Person.class, PersonDto.class), is(true));
+		assertThat(factory.isProjection(Person.class, Person.class), is(false));
+		assertThat(factory.isProjection(Person.class, Object.class), is(false));
+	}
+
+	@Test
+	public void readsInterfaceProjectionsAsEntity() {
+
+		assertThat(factory.getTypeToRead(Person.class, PersonSummary.class), is(typeCompatibleWith(Person.class)));
+		assertThat(factory.getTypeToRead(Person.class, PersonDto.class), is(typeCompatibleWith(PersonDto.class)));
+	}
+
+	@Test
+	public void createsProxyReadingPropertiesFromSource() {
+
+		PersonSummary summary = factory.createProjection(PersonSummary.class, new Person("Dave", 42));
+
+		assertThat(summary.getFirstName(), is("Dave"));
+		assertThat(summary.getAge(), is(42L));
+		assertThat(summary.toString(), containsString("Dave"));
+	}
+
+	@Test
+	public void returnsSourceIfAlreadyOfProjectionType() {
+
+		PersonDto dto = new PersonDto();
+		assertThat(factory.createProjection(PersonDto.class, dto), is(sameInstance(dto)));
+	}
+
+	interface PersonSummary {
+
+		String getFirstName();
+
+		long getAge();
+	}
+
+	static class PersonDto {
+
+		String firstName;
+	}
+}
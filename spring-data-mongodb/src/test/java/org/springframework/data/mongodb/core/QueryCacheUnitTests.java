@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.QueryCache.Kind;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link QueryCache}.
+ */
+public class QueryCacheUnitTests {
+
+	DBObject mappedQuery = new BasicDBObject("firstname", "Dave");
+	List<DBObject> documents = Arrays.<DBObject> asList(new BasicDBObject("_id", 1), new BasicDBObject("_id", 2));
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveMaxEntries() {
+		new QueryCache(0, 1);
+	}
+
+	@Test
+	public void returnsCachedDocumentsForEqualQuery() {
+
+		QueryCache cache = new QueryCache(10, 10);
+		Query query = new Query(where("firstname").is("Dave")).limit(5);
+		put(cache, query, documents);
+
+		assertThat(get(cache, new Query(where("firstname").is("Dave")).limit(5)), is(documents));
+		assertThat(get(cache, new Query(where("firstname").is("Dave")).limit(10)), is(nullValue()));
+		assertThat(get(cache, new Query(where("firstname").is("Dave")).with(new Sort("lastname"))), is(nullValue()));
+		assertThat(cache.getDocuments("person", Person.class, Kind.FIND_ONE, mappedQuery, null, query), is(nullValue()));
+		assertThat(cache.getDocuments("person", User.class, Kind.FIND, mappedQuery, null, query), is(nullValue()));
+	}
+
+	@Test
+	public void keepsEntryStableIfQueryIsModifiedAfterwards() {
+
+		QueryCache cache = new QueryCache(10, 10);
+		Query query = new Query(where("firstname").is("Dave"));
+		put(cache, query, documents);
+
+		query.limit(1);
+
+		assertThat(get(cache, new Query(where("firstname").is("Dave"))), is(documents));
+	}
+
+	@Test
+	public void invalidatesEntriesOfCollection() {
+
+		QueryCache cache = new QueryCache(10, 10);
+		Query query = new Query(where("firstname").is("Dave"));
+		put(cache, query, documents);
+		cache.putCount("person", Person.class, mappedQuery, 2, cache.getGeneration("person"));
+
+		cache.invalidate("person");
+
+		assertThat(get(cache, query), is(nullValue()));
+		assertThat(cache.getCount("person", Person.class, mappedQuery), is(nullValue()));
+	}
+
+	@Test
+	public void doesNotCacheResultsReadBeforeInvalidation() {
+
+		QueryCache cache = new QueryCache(10, 10);
+		Query query = new Query(where("firstname").is("Dave"));
+
+		long generation = cache.getGeneration("person");
+		cache.invalidate("person");
+		cache.putDocuments("person", Person.class, Kind.FIND, mappedQuery, null, query, documents, generation);
+
+		assertThat(get(cache, query), is(nullValue()));
+		assertThat(cache.size(), is(0));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedEntriesIfDocumentLimitExceeded() {
+
+		QueryCache cache = new QueryCache(10, 3);
+		Query first = new Query(where("firstname").is("Dave"));
+		Query second = new Query(where("firstname").is("Carter"));
+
+		put(cache, first, documents);
+		put(cache, second, documents);
+
+		assertThat(get(cache, first), is(nullValue()));
+		assertThat(get(cache, second), is(documents));
+	}
+
+	@Test
+	public void doesNotCacheResultsExceedingDocumentLimit() {
+
+		QueryCache cache = new QueryCache(10, 1);
+		Query query = new Query(where("firstname").is("Dave"));
+		put(cache, query, documents);
+
+		assertThat(get(cache, query), is(nullValue()));
+
+		put(cache, query, Collections.<DBObject> emptyList());
+
+		assertThat(get(cache, query), is(empty()));
+	}
+
+	private static List<DBObject> get(QueryCache cache, Query query) {
+		return cache.getDocuments("person", Person.class, Kind.FIND, query.getQueryObject(), null, query);
+	}
+
+	private static void put(QueryCache cache, Query query, List<DBObject> documents) {
+		cache.putDocuments("person", Person.class, Kind.FIND, query.getQueryObject(), null, query, documents,
+				cache.getGeneration("person"));
+	}
+}
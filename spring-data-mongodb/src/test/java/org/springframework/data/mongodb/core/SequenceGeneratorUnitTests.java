@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataRetrievalFailureException;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link SequenceGenerator}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SequenceGeneratorUnitTests {
+
+	@Mock MongoOperations operations;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void handsOutIdsFromReservedBlocks() {
+
+		when(operations.execute(eq("sequences"), any(CollectionCallback.class))).thenReturn(
+				new BasicDBObject("value", 3), new BasicDBObject("value", 6));
+
+		SequenceGenerator generator = new SequenceGenerator(operations);
+
+		for (long i = 1; i <= 4; i++) {
+			assertThat(generator.next("orders", 3), is(i));
+		}
+
+		assertThat(generator.getReservationCount(), is(2L));
+		assertThat(generator.getGeneratedCount(), is(4L));
+		verify(operations, times(2)).execute(eq("sequences"), any(CollectionCallback.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void keepsSequencesApart() {
+
+		when(operations.execute(eq("counters"), any(CollectionCallback.class))).thenReturn(new BasicDBObject("value", 10),
+				new BasicDBObject("value", 20));
+
+		SequenceGenerator generator = new SequenceGenerator(operations, "counters");
+
+		assertThat(generator.next("orders", 10), is(1L));
+		assertThat(generator.next("invoices", 10), is(11L));
+		assertThat(generator.next("orders", 10), is(2L));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void handsOutUniqueIdsToConcurrentCallers() throws Exception {
+
+		final AtomicLong counter = new AtomicLong();
+
+		when(operations.execute(eq("sequences"), any(CollectionCallback.class))).thenAnswer(new Answer<DBObject>() {
+			public DBObject answer(InvocationOnMock invocation) throws Throwable {
+				return new BasicDBObject("value", counter.addAndGet(7));
+			}
+		});
+
+		final SequenceGenerator generator = new SequenceGenerator(operations);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<List<Long>>> futures = new ArrayList<Future<List<Long>>>();
+
+		try {
+
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<List<Long>>() {
+					public List<Long> call() {
+
+						List<Long> ids = new ArrayList<Long>();
+
+						for (int j = 0; j < 100; j++) {
+							ids.add(generator.next("orders", 7));
+						}
+
+						return ids;
+					}
+				}));
+			}
+
+			Set<Long> ids = new HashSet<Long>();
+
+			for (Future<List<Long>> future : futures) {
+				ids.addAll(future.get());
+			}
+
+			assertThat(ids, hasSize(800));
+			assertThat(generator.getReservationCount(), is(counter.get() / 7));
+			assertThat(counter.get(), is(lessThan(800L + 8 * 7)));
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(expected = DataRetrievalFailureException.class)
+	@SuppressWarnings("unchecked")
+	public void rejectsMissingCounterDocument() {
+
+		when(operations.execute(eq("sequences"), any(CollectionCallback.class))).thenReturn(null);
+		new SequenceGenerator(operations).next("orders", 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveBlockSize() {
+		new SequenceGenerator(operations).next("orders", 0);
+	}
+}
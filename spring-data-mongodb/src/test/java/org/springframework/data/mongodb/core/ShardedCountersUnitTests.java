@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.ShardedCounters.ShardSelection;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link ShardedCounters}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ShardedCountersUnitTests {
+
+	@Mock MongoOperations operations;
+
+	ShardedCounters counters;
+
+	@Before
+	public void setUp() {
+		counters = new ShardedCounters(operations);
+	}
+
+	@Test
+	public void incrementsThreadAffineShard() {
+
+		counters.setShards("visits", 4);
+		counters.increment("visits", 5);
+		counters.increment("visits", 5);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(operations, times(2)).upsert(query.capture(), update.capture(), eq("counters"));
+
+		String shardId = "visits#" + Thread.currentThread().getId() % 4;
+
+		for (Query captured : query.getAllValues()) {
+			assertThat(captured.getQueryObject(), is((DBObject) new BasicDBObject("_id", shardId)));
+		}
+
+		assertThat(update.getValue().getUpdateObject(), is((DBObject) new BasicDBObject("$inc", new BasicDBObject(
+				"value", 5L))));
+	}
+
+	@Test
+	public void incrementsRandomShardWithinConfiguredShards() {
+
+		counters.setDefaultShards(3);
+		counters.setShardSelection(ShardSelection.RANDOM);
+
+		for (int i = 0; i < 20; i++) {
+			counters.increment("visits");
+		}
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(operations, times(20)).upsert(query.capture(), any(Update.class), eq("counters"));
+
+		for (Query captured : query.getAllValues()) {
+			assertThat(captured.getQueryObject().get("_id"), isOneOf((Object) "visits#0", "visits#1", "visits#2"));
+		}
+	}
+
+	@Test
+	public void sumsUpValuesOfAllShards() {
+
+		counters.setShards("visits", 2);
+		List<DBObject> shards = Arrays.<DBObject> asList(new BasicDBObject("value", 3), new BasicDBObject("value", 4L));
+		when(operations.find(any(Query.class), eq(DBObject.class), eq("counters"))).thenReturn(shards);
+
+		assertThat(counters.get("visits"), is(7L));
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(operations).find(query.capture(), eq(DBObject.class), eq("counters"));
+
+		DBObject expected = new BasicDBObject("_id", new BasicDBObject("$in", Arrays.asList("visits#0", "visits#1")));
+		assertThat(query.getValue().getQueryObject(), is(expected));
+	}
+
+	@Test
+	public void servesCachedTotalWithinTimeToLive() {
+
+		counters.setTotalCacheTime(1, TimeUnit.MINUTES);
+		when(operations.find(any(Query.class), eq(DBObject.class), eq("counters"))).thenReturn(
+				Arrays.<DBObject> asList(new BasicDBObject("value", 3)));
+
+		assertThat(counters.get("visits"), is(3L));
+		assertThat(counters.get("visits"), is(3L));
+
+		verify(operations, times(1)).find(any(Query.class), eq(DBObject.class), eq("counters"));
+	}
+
+	@Test
+	public void resetRemovesAllShardsAndCachedTotal() {
+
+		counters.setTotalCacheTime(1, TimeUnit.MINUTES);
+		when(operations.find(any(Query.class), eq(DBObject.class), eq("counters"))).thenReturn(
+				Arrays.<DBObject> asList(new BasicDBObject("value", 3)));
+
+		counters.get("visits");
+		counters.reset("visits");
+		counters.get("visits");
+
+		verify(operations).remove(any(Query.class), eq("counters"));
+		verify(operations, times(2)).find(any(Query.class), eq(DBObject.class), eq("counters"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveShardCount() {
+		counters.setShards("visits", 0);
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link UpdateCoalescer}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UpdateCoalescerUnitTests {
+
+	@Mock MongoTemplate template;
+
+	UpdateCoalescer coalescer;
+
+	@After
+	public void tearDown() {
+		if (coalescer != null) {
+			coalescer.destroy();
+		}
+	}
+
+	@Test
+	public void mergesIncrementsAndSetsPerDocument() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().inc("count", 1).set("name", "first"), Person.class, "person");
+		coalescer.update(1, new Update().inc("count", 2L), Person.class, "person");
+		coalescer.update(1, new Update().set("name", "second"), Person.class, "person");
+		coalescer.flush();
+
+		DBObject expected = new BasicDBObject("$inc", new BasicDBObject("count", 3L)).append("$set", new BasicDBObject(
+				"name", "second"));
+
+		assertThat(getWrittenUpdates(1).get(0), is(expected));
+		assertThat(coalescer.getMergeRatio(), is(3.0));
+	}
+
+	@Test
+	public void appliesIncrementToPendingSet() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().set("count", 5), Person.class, "person");
+		coalescer.update(1, new Update().inc("count", 2), Person.class, "person");
+		coalescer.flush();
+
+		assertThat(getWrittenUpdates(1).get(0), is((DBObject) new BasicDBObject("$set", new BasicDBObject("count", 7))));
+	}
+
+	@Test
+	public void collectsValuesAddedToSets() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().addToSet("tags", "a"), Person.class, "person");
+		coalescer.update(1, new Update().addToSet("tags", "b"), Person.class, "person");
+		coalescer.update(1, new Update().addToSet("tags", "a"), Person.class, "person");
+		coalescer.flush();
+
+		DBObject addToSet = (DBObject) getWrittenUpdates(1).get(0).get("$addToSet");
+		assertThat((List<?>) ((DBObject) addToSet.get("tags")).get("$each"), contains((Object) "a", "b"));
+	}
+
+	@Test
+	public void writesOneUpdatePerDocument() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		coalescer.update(2, new Update().inc("count", 1), Person.class, "person");
+		coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		coalescer.flush();
+
+		assertThat(getWrittenUpdates(2), hasSize(2));
+		assertThat(coalescer.getWrittenCount(), is(2L));
+		assertThat(coalescer.getPendingCount(), is(0));
+	}
+
+	@Test
+	public void writesPendingUpdateBeforeUnmergeableOne() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		coalescer.update(1, new Update().push("tags", "a"), Person.class, "person");
+
+		List<DBObject> updates = getWrittenUpdates(2);
+
+		assertThat(updates.get(0).keySet(), contains("$inc"));
+		assertThat(updates.get(1).keySet(), contains("$push"));
+		assertThat(coalescer.getPendingCount(), is(0));
+	}
+
+	@Test
+	public void doesNotMergeConflictingFields() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().set("address", new BasicDBObject("city", "London")), Person.class, "person");
+		coalescer.update(1, new Update().set("address.city", "Dresden"), Person.class, "person");
+
+		List<DBObject> updates = getWrittenUpdates(2);
+
+		assertThat(updates.get(0), is((DBObject) new BasicDBObject("$set", new BasicDBObject("address",
+				new BasicDBObject("city", "London")))));
+		assertThat(updates.get(1), is((DBObject) new BasicDBObject("$set", new BasicDBObject("address.city", "Dresden"))));
+	}
+
+	@Test
+	public void flushesOnceMaximumNumberOfPendingDocumentsIsReached() {
+
+		coalescer = new UpdateCoalescer(template, 2, 1, TimeUnit.HOURS);
+
+		coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		verifyZeroInteractions(template);
+
+		coalescer.update(2, new Update().inc("count", 1), Person.class, "person");
+		assertThat(getWrittenUpdates(2), hasSize(2));
+	}
+
+	@Test
+	public void completesFuturesOfMergedUpdatesOnceWritten() throws Exception {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		Future<Void> first = coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		Future<Void> second = coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+
+		assertThat(first.isDone(), is(false));
+
+		coalescer.flush();
+
+		assertThat(first.isDone(), is(true));
+		assertThat(second.isDone(), is(true));
+	}
+
+	@Test
+	public void failsFuturesOfMergedUpdatesIfWriteFails() throws Exception {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+		doThrow(new DataAccessResourceFailureException("Boom")).when(template).doUpdate(anyString(), any(Query.class),
+				any(Update.class), any(Class.class), anyBoolean(), anyBoolean());
+
+		Future<Void> first = coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		Future<Void> second = coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+
+		try {
+			coalescer.flush();
+			fail("Expected DataAccessResourceFailureException!");
+		} catch (DataAccessResourceFailureException e) {}
+
+		for (Future<Void> future : Arrays.asList(first, second)) {
+			try {
+				future.get();
+				fail("Expected ExecutionException!");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), is(instanceOf(DataAccessResourceFailureException.class)));
+			}
+		}
+	}
+
+	@Test
+	public void writesPendingUpdatesOnDestroy() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+
+		Future<Void> future = coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+		coalescer.destroy();
+
+		assertThat(future.isDone(), is(true));
+		assertThat(getWrittenUpdates(1).get(0).containsField("$inc"), is(true));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsUpdatesOnceDestroyed() {
+
+		coalescer = new UpdateCoalescer(template, 10, 1, TimeUnit.HOURS);
+		coalescer.destroy();
+
+		coalescer.update(1, new Update().inc("count", 1), Person.class, "person");
+	}
+
+	private List<DBObject> getWrittenUpdates(int times) {
+
+		ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+		verify(template, times(times)).doUpdate(eq("person"), any(Query.class), captor.capture(),
+				eq(Person.class), eq(false), eq(false));
+
+		DBObject[] result = new DBObject[times];
+
+		for (int i = 0; i < times; i++) {
+			result[i] = captor.getAllValues().get(i).getUpdateObject();
+		}
+
+		return Arrays.asList(result);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Integration tests for {@link WorkQueue}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:infrastructure.xml")
+public class WorkQueueIntegrationTests {
+
+	static final String COLLECTION_NAME = "jobs";
+
+	@Autowired MongoTemplate template;
+
+	WorkQueue<Person> queue;
+
+	@Before
+	public void setUp() {
+
+		template.dropCollection(COLLECTION_NAME);
+		queue = new WorkQueue<Person>(template, Person.class, COLLECTION_NAME, 2, 1, TimeUnit.MINUTES);
+	}
+
+	@After
+	public void cleanUp() {
+
+		queue.destroy();
+		template.dropCollection(COLLECTION_NAME);
+	}
+
+	@Test
+	public void claimsJobsFromWorkQueueInBatchesByPriority() throws Exception {
+
+		queue.enqueue(new Person("Dave"), 1);
+		queue.enqueue(new Person("Carter"), 5);
+		queue.enqueue(new Person("Boyd"), 3);
+
+		List<WorkQueue.Job<Person>> jobs = queue.claim();
+
+		assertThat(jobs, hasSize(2));
+		assertThat(jobs.get(0).getPayload().getFirstName(), is("Carter"));
+		assertThat(jobs.get(1).getPayload().getFirstName(), is("Boyd"));
+		assertThat(jobs.get(0).getAttempts(), is(1));
+
+		assertThat(queue.complete(jobs.get(0)), is(true));
+		assertThat(queue.release(jobs.get(1)), is(true));
+		assertThat(queue.complete(jobs.get(1)), is(false));
+
+		List<String> names = new ArrayList<String>();
+		WorkQueue.Job<Person> job;
+
+		while ((job = queue.poll(500, TimeUnit.MILLISECONDS)) != null) {
+			names.add(job.getPayload().getFirstName());
+			queue.complete(job);
+		}
+
+		assertThat(names, contains("Boyd", "Dave"));
+		assertThat(template.count(new Query(), COLLECTION_NAME), is(0L));
+	}
+
+	@Test
+	public void createsIndexLeadingWithPriority() {
+
+		queue.ensureIndex();
+
+		for (IndexInfo info : template.indexOps(COLLECTION_NAME).getIndexInfo()) {
+			if (info.getIndexFields().size() == 2) {
+				assertThat(info.getIndexFields(), contains(IndexField.create(WorkQueue.PRIORITY_FIELD, Direction.DESC),
+						IndexField.create(WorkQueue.LEASE_FIELD, Direction.ASC)));
+				return;
+			}
+		}
+
+		fail("Expected index on priority and lease!");
+	}
+}
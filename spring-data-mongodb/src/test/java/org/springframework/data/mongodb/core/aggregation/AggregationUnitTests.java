@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.aggregation;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link Aggregation}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AggregationUnitTests {
+
+	MongoMappingContext context;
+	AggregationOperationContext typedContext;
+
+	@Mock MongoDbFactory factory;
+
+	@Before
+	public void setUp() {
+
+		context = new MongoMappingContext();
+
+		MappingMongoConverter converter = new MappingMongoConverter(factory, context);
+		converter.afterPropertiesSet();
+
+		typedContext = new TypeBasedAggregationOperationContext(Order.class, context, new QueryMapper(converter));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyPipeline() {
+		newAggregation();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsZeroLimit() {
+		limit(0);
+	}
+
+	@Test
+	public void rendersAggregateCommand() {
+
+		Aggregation aggregation = newAggregation(match(where("status").is("A")), unwind("items"), skip(5), limit(10));
+		DBObject command = aggregation.toDbObject("orders", DEFAULT_CONTEXT);
+
+		assertThat(command.get("aggregate"), is((Object) "orders"));
+
+		List<DBObject> pipeline = getPipeline(command);
+		assertThat(pipeline, hasSize(4));
+		assertThat(pipeline.get(0), is((DBObject) new BasicDBObject("$match", new BasicDBObject("status", "A"))));
+		assertThat(pipeline.get(1), is((DBObject) new BasicDBObject("$unwind", "$items")));
+		assertThat(pipeline.get(2), is((DBObject) new BasicDBObject("$skip", 5)));
+		assertThat(pipeline.get(3), is((DBObject) new BasicDBObject("$limit", 10)));
+	}
+
+	@Test
+	public void rendersGroupWithAccumulators() {
+
+		DBObject group = group("customerId").count().as("orders").sum("amount").as("total")
+				.toDBObject(DEFAULT_CONTEXT);
+
+		DBObject expected = new BasicDBObject("_id", "$customerId").append("orders", new BasicDBObject("$sum", 1)).append(
+				"total", new BasicDBObject("$sum", "$amount"));
+
+		assertThat(group, is((DBObject) new BasicDBObject("$group", expected)));
+	}
+
+	@Test
+	public void rendersGroupWithCompoundId() {
+
+		DBObject group = group("customerId", "status").toDBObject(DEFAULT_CONTEXT);
+		DBObject id = (DBObject) ((DBObject) group.get("$group")).get("_id");
+
+		assertThat(id, is((DBObject) new BasicDBObject("customerId", "$customerId").append("status", "$status")));
+	}
+
+	@Test
+	public void mapsFieldReferencesOfInputType() {
+
+		Aggregation aggregation = newAggregation(Order.class, match(where("customerId").is("4711")),
+				sort(Direction.ASC, "amount"), project("customerId").and("amount").as("value"));
+		List<DBObject> pipeline = aggregation.toPipeline(typedContext);
+
+		assertThat(pipeline.get(0), is((DBObject) new BasicDBObject("$match", new BasicDBObject("customer", "4711"))));
+		assertThat(pipeline.get(1), is((DBObject) new BasicDBObject("$sort", new BasicDBObject("amt", 1))));
+		assertThat(pipeline.get(2),
+				is((DBObject) new BasicDBObject("$project", new BasicDBObject("customer", 1).append("value", "$amt"))));
+	}
+
+	@Test
+	public void usesFieldReferencesAsTheyAreAfterGroupStage() {
+
+		Aggregation aggregation = newAggregation(Order.class, group("customerId").sum("amount").as("total"),
+				sort(Direction.DESC, "total"));
+		List<DBObject> pipeline = aggregation.toPipeline(typedContext);
+
+		DBObject group = (DBObject) pipeline.get(0).get("$group");
+
+		assertThat(group.get("_id"), is((Object) "$customer"));
+		assertThat(group.get("total"), is((Object) new BasicDBObject("$sum", "$amt")));
+		assertThat(pipeline.get(1), is((DBObject) new BasicDBObject("$sort", new BasicDBObject("total", -1))));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<DBObject> getPipeline(DBObject command) {
+		return (List<DBObject>) command.get("pipeline");
+	}
+
+	static class Order {
+
+		@Id String id;
+		@Field("customer") String customerId;
+		@Field("amt") double amount;
+		String status;
+	}
+}
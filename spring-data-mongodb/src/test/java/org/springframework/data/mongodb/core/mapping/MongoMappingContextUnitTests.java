@@ -177,6 +177,24 @@ public class MongoMappingContextUnitTests {
 		context.getPersistentEntity(ClassWithMultipleImplicitIds.class);
 	}
 
+	@Test
+	public void rejectsGeneratedValueOnNonNumericId() {
+
+		exception.expect(MappingException.class);
+		exception.expectMessage("GeneratedValue");
+		exception.expectMessage("String");
+
+		MongoMappingContext context = new MongoMappingContext();
+		context.getPersistentEntity(ClassWithGeneratedStringId.class);
+	}
+
+	@Test
+	public void acceptsGeneratedValueOnPrimitiveNumericId() {
+
+		MongoMappingContext context = new MongoMappingContext();
+		assertThat(context.getPersistentEntity(ClassWithGeneratedPrimitiveId.class), is(notNullValue()));
+	}
+
 	public class SampleClass {
 
 		Map<String, SampleClass> children;
@@ -238,4 +256,14 @@ public class MongoMappingContextUnitTests {
 		String _id;
 		String id;
 	}
+
+	class ClassWithGeneratedStringId {
+
+		@Id @GeneratedValue String id;
+	}
+
+	class ClassWithGeneratedPrimitiveId {
+
+		@Id @GeneratedValue long id;
+	}
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.mapreduce;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.DocumentCallbackHandler;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link InProcessMapReduce}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class InProcessMapReduceUnitTests {
+
+	static final Executor SAME_THREAD = new Executor() {
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	@Mock MongoOperations operations;
+	@Mock MongoDbFactory factory;
+	@Mock MapReduceProgressListener listener;
+
+	InProcessMapReduce<DBObject, String, Integer> mapReduce;
+
+	@Before
+	public void setUp() {
+
+		MappingMongoConverter converter = new MappingMongoConverter(factory, new MongoMappingContext());
+		converter.afterPropertiesSet();
+
+		when(operations.getConverter()).thenReturn(converter);
+
+		final List<DBObject> documents = Arrays.<DBObject> asList(new BasicDBObject("x", Arrays.asList("a", "b")),
+				new BasicDBObject("x", Arrays.asList("b", "c")), new BasicDBObject("x", Arrays.asList("c", "d")),
+				new BasicDBObject("x", Arrays.asList("a", "b")), new BasicDBObject("x", Arrays.asList("b", "b")));
+
+		doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+
+				DocumentCallbackHandler handler = (DocumentCallbackHandler) invocation.getArguments()[2];
+
+				for (DBObject document : documents) {
+					handler.processDocument(document);
+				}
+
+				return null;
+			}
+		}).when(operations).executeQuery(any(Query.class), eq("jmr1"), any(DocumentCallbackHandler.class));
+
+		mapReduce = new InProcessMapReduce<DBObject, String, Integer>(operations, new LetterMapper(), new SumReducer());
+		mapReduce.setParallelism(3);
+		mapReduce.setBatchSize(2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNullMapper() {
+		new InProcessMapReduce<DBObject, String, Integer>(operations, null, new SumReducer());
+	}
+
+	@Test
+	public void reducesValuesPerKeyInMemory() {
+
+		Map<String, Integer> result = mapReduce.execute(null, "jmr1", DBObject.class);
+
+		assertEquals(4, result.size());
+		assertEquals(Integer.valueOf(2), result.get("a"));
+		assertEquals(Integer.valueOf(5), result.get("b"));
+		assertEquals(Integer.valueOf(2), result.get("c"));
+		assertEquals(Integer.valueOf(1), result.get("d"));
+	}
+
+	@Test
+	public void reportsProgressPerBatch() {
+
+		mapReduce.setExecutor(SAME_THREAD);
+		mapReduce.setProgressListener(listener);
+		mapReduce.execute(new Query(), "jmr1", DBObject.class);
+
+		verify(listener).onProgress(2, 4, 3);
+		verify(listener).onProgress(4, 8, 4);
+		verify(listener).onProgress(5, 10, 4);
+		verify(listener, never()).onSpill(anyInt());
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void rejectsExceedingKeysInMemoryWithoutOutputCollection() {
+
+		mapReduce.setMaxKeysInMemory(2);
+		mapReduce.execute(null, "jmr1", DBObject.class);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void propagatesFailureOfMapper() {
+
+		InProcessMapReduce<DBObject, String, Integer> failing = new InProcessMapReduce<DBObject, String, Integer>(
+				operations, new Mapper<DBObject, String, Integer>() {
+					public void map(DBObject input, Emitter<String, Integer> emitter) {
+						throw new IllegalStateException();
+					}
+				}, new SumReducer());
+
+		failing.execute(null, "jmr1", DBObject.class);
+	}
+
+	static class LetterMapper implements Mapper<DBObject, String, Integer> {
+
+		public void map(DBObject input, Emitter<String, Integer> emitter) {
+			for (Object letter : (List<?>) input.get("x")) {
+				emitter.emit(letter.toString(), 1);
+			}
+		}
+	}
+
+	static class SumReducer implements Reducer<String, Integer> {
+
+		public Integer reduce(String key, List<Integer> values) {
+
+			int sum = 0;
+
+			for (Integer value : values) {
+				sum += value;
+			}
+
+			return sum;
+		}
+	}
+}
@@ -25,15 +25,25 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.bson.types.ObjectId;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.CountCache;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.StoredFunctions;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.query.Query;
@@ -42,6 +52,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
 import com.mongodb.Mongo;
 
 /**
@@ -92,6 +103,8 @@ public class MapReduceTests {
 		template.dropCollection("jmr2_out");
 		template.dropCollection("jmr1_out");
 		template.dropCollection("jmr1");
+		template.dropCollection(MapReduceOptions.DEFAULT_JOB_COLLECTION);
+		template.getCollection(StoredFunctions.COLLECTION_NAME).remove(new BasicDBObject());
 	}
 
 	@Test
@@ -275,6 +288,268 @@ public class MapReduceTests {
 
 	}
 
+	@Test
+	public void readsOutputCollectionWithResultQuery() {
+
+		createMapReduceData();
+
+		Query resultQuery = new Query(where("value").gt(1)).with(new Sort(Direction.DESC, "_id")).limit(1);
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out").resultQuery(resultQuery), ValueObject.class);
+
+		Map<String, Float> m = copyToMap(results);
+		assertEquals(1, m.size());
+		assertEquals(2, m.get("c").intValue());
+	}
+
+	@Test
+	public void skipsFetchingResultsIfConfigured() {
+
+		createMapReduceData();
+
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out").fetchResults(false), ValueObject.class);
+
+		assertFalse(results.iterator().hasNext());
+		assertEquals("jmr1_out", results.getOutputCollection());
+		assertEquals(4, results.getCounts().getOutputCount());
+		assertEquals(4, mongoTemplate.getCollection("jmr1_out").count());
+	}
+
+	@Test
+	public void evictsCachedCountsOfOutputCollection() {
+
+		createMapReduceData();
+		mongoTemplate.setCountCache(new CountCache(10, 1, TimeUnit.MINUTES));
+
+		assertEquals(0, mongoTemplate.count(new Query(), "jmr1_out"));
+
+		mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction, options().outputCollection("jmr1_out")
+				.fetchResults(false), ValueObject.class);
+
+		assertEquals(4, mongoTemplate.count(new Query(), "jmr1_out"));
+	}
+
+	@Test
+	public void readsResultsFromOutputCollectionEagerlyByDefault() {
+
+		createMapReduceData();
+
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out"), ValueObject.class);
+
+		mongoTemplate.dropCollection("jmr1_out");
+
+		assertMapReduceResults(copyToMap(results));
+	}
+
+	@Test
+	public void readsResultsFromOutputCollectionLazilyIfConfigured() {
+
+		createMapReduceData();
+
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out").lazyResults(true), ValueObject.class);
+
+		assertMapReduceResults(copyToMap(results));
+
+		mongoTemplate.dropCollection("jmr1_out");
+
+		assertFalse(results.iterator().hasNext());
+	}
+
+	@Test
+	public void foldsNewDocumentsIntoOutputCollectionIncrementally() {
+
+		createMapReduceData();
+
+		MapReduceOptions options = options().outputCollection("jmr1_out").incremental("letters", "_id");
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction, options,
+				ValueObject.class);
+
+		assertMapReduceResults(copyToMap(results));
+		assertEquals(3, results.getCounts().getInputCount());
+
+		results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction, options, ValueObject.class);
+
+		assertMapReduceResults(copyToMap(results));
+		assertEquals(0, results.getCounts().getInputCount());
+
+		mongoTemplate.getDb().getCollection("jmr1").save(new BasicDBObject("x", new String[] { "a", "d" }));
+		results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction, options, ValueObject.class);
+
+		Map<String, Float> m = copyToMap(results);
+		assertEquals(1, results.getCounts().getInputCount());
+		assertEquals(4, m.size());
+		assertEquals(2, m.get("a").intValue());
+		assertEquals(2, m.get("d").intValue());
+	}
+
+	@Test(expected = IncorrectUpdateSemanticsDataAccessException.class)
+	public void rejectsRetryOfUnfinishedIncrementalRunReducingOutput() {
+
+		createMapReduceData();
+		mongoTemplate.getCollection(MapReduceOptions.DEFAULT_JOB_COLLECTION).save(
+				new BasicDBObject("_id", "letters").append("pending", new ObjectId()));
+
+		mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out").incremental("letters", "_id"), ValueObject.class);
+	}
+
+	@Test
+	public void retriesUnfinishedIncrementalRunMergingOutput() {
+
+		createMapReduceData();
+		mongoTemplate.getCollection(MapReduceOptions.DEFAULT_JOB_COLLECTION).save(
+				new BasicDBObject("_id", "letters").append("pending", new ObjectId()));
+
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out").incremental("letters", "_id").outputTypeMerge(), ValueObject.class);
+
+		assertMapReduceResults(copyToMap(results));
+		assertEquals(3, results.getCounts().getInputCount());
+	}
+
+	@Test
+	public void skipsDocumentsWithinWatermarkLag() {
+
+		createMapReduceData();
+
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+				options().outputCollection("jmr1_out").incremental("letters", "_id").watermarkLag(1, TimeUnit.HOURS),
+				ValueObject.class);
+
+		assertEquals(0, results.getCounts().getInputCount());
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void rejectsIncrementalMapReduceReplacingOutput() {
+
+		createMapReduceData();
+
+		mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction, options().incremental("letters", "_id")
+				.outputCollection("jmr1_out").outputTypeReplace(), ValueObject.class);
+	}
+
+	@Test
+	public void combinesResultsOfParallelPartitions() {
+
+		createMapReduceData();
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		mongoTemplate.setMapReduceExecutor(executor);
+
+		try {
+
+			MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction,
+					options().outputCollection("jmr1_out").parallel(3), ValueObject.class);
+
+			assertMapReduceResults(copyToMap(results));
+			assertEquals(3, results.getCounts().getInputCount());
+			assertEquals(6, results.getCounts().getEmitCount());
+
+			results = mongoTemplate.mapReduce("jmr1", mapFunction, reduceFunction, options().outputTypeInline().parallel(2),
+					ValueObject.class);
+
+			assertMapReduceResults(copyToMap(results));
+
+			for (String collectionName : mongoTemplate.getCollectionNames()) {
+				assertFalse(collectionName.startsWith("springdata.mr.jmr1."));
+			}
+
+		} finally {
+			mongoTemplate.setMapReduceExecutor(null);
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void writesResultsOfInProcessMapReduceSpillingToOutputCollection() {
+
+		createMapReduceData();
+
+		InProcessMapReduce<DBObject, String, Integer> mapReduce = new InProcessMapReduce<DBObject, String, Integer>(
+				template, new Mapper<DBObject, String, Integer>() {
+					public void map(DBObject input, Emitter<String, Integer> emitter) {
+						for (Object letter : (List<?>) input.get("x")) {
+							emitter.emit(letter.toString(), 1);
+						}
+					}
+				}, new Reducer<String, Integer>() {
+					public Integer reduce(String key, List<Integer> values) {
+						int sum = 0;
+						for (Integer value : values) {
+							sum += value;
+						}
+						return sum;
+					}
+				});
+
+		mapReduce.setBatchSize(1);
+		mapReduce.setMaxKeysInMemory(1);
+
+		MapReduceCounts counts = mapReduce.execute(null, "jmr1", DBObject.class, "jmr1_out", Integer.class);
+
+		assertEquals(new MapReduceCounts(3, 6, 4), counts);
+
+		Map<String, Float> m = new HashMap<String, Float>();
+		for (ValueObject valueObject : template.findAll(ValueObject.class, "jmr1_out")) {
+			m.put(valueObject.getId(), valueObject.getValue());
+		}
+
+		assertMapReduceResults(m);
+	}
+
+	@Test
+	public void leavesOutputCollectionUntouchedIfInProcessMapReduceFails() {
+
+		createMapReduceData();
+		template.getCollection("jmr1_out").save(new BasicDBObject("_id", "a").append("value", 42));
+
+		InProcessMapReduce<DBObject, String, Integer> mapReduce = new InProcessMapReduce<DBObject, String, Integer>(
+				template, new Mapper<DBObject, String, Integer>() {
+					public void map(DBObject input, Emitter<String, Integer> emitter) {
+						throw new IllegalStateException("Map failed!");
+					}
+				}, new Reducer<String, Integer>() {
+					public Integer reduce(String key, List<Integer> values) {
+						return values.get(0);
+					}
+				});
+
+		try {
+			mapReduce.execute(null, "jmr1", DBObject.class, "jmr1_out", Integer.class);
+			fail("Expected IllegalStateException!");
+		} catch (IllegalStateException e) {}
+
+		assertEquals(1, template.getCollection("jmr1_out").count());
+		assertEquals(42, template.getCollection("jmr1_out").findOne().get("value"));
+
+		for (String collectionName : template.getCollectionNames()) {
+			assertFalse(collectionName.startsWith("springdata.mr.jmr1_out."));
+		}
+	}
+
+	@Test
+	public void invokesInstalledFunctionsByName() {
+
+		createMapReduceData();
+
+		String map = mongoTemplate.installFunction("mapLetters", mapFunction);
+		String reduce = mongoTemplate.installFunction("sumValues", reduceFunction);
+
+		assertEquals(StoredFunctions.reference("mapLetters"), map);
+		assertNotNull(template.findById("sumValues", DBObject.class, StoredFunctions.COLLECTION_NAME));
+
+		MapReduceResults<ValueObject> results = mongoTemplate.mapReduce("jmr1", map, reduce, ValueObject.class);
+
+		assertMapReduceResults(copyToMap(results));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInvalidFunctionName() {
+		mongoTemplate.installFunction("map letters", mapFunction);
+	}
+
 	private void performMapReduce(boolean inline, boolean withQuery) {
 		createMapReduceData();
 		MapReduceResults<ValueObject> results;
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.query;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.data.mongodb.core.query.Criteria.*;
+
+import java.util.Arrays;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.InvalidMongoDbApiUsageException;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link KeysetToken}.
+ */
+public class KeysetTokenUnitTests {
+
+	ObjectId id = new ObjectId();
+	DBObject document = new BasicDBObject("_id", id).append("lastname", "Matthews").append("address",
+			new BasicDBObject("city", "London"));
+
+	@Test
+	public void capturesValuesOfGivenKeys() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("lastname", "address.city", "_id"));
+
+		assertThat(token.getKeys(), contains("lastname", "address.city", "_id"));
+		assertThat(token.getValue("lastname"), is((Object) "Matthews"));
+		assertThat(token.getValue("address.city"), is((Object) "London"));
+		assertThat(token.getValue("_id"), is((Object) id));
+		assertThat(token.getValue("firstname"), is(nullValue()));
+	}
+
+	@Test
+	public void readsValuesFromMappedFieldNames() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("city", "id"), Arrays.asList("address.city", "_id"));
+
+		assertThat(token.getKeys(), contains("city", "id"));
+		assertThat(token.getValue("city"), is((Object) "London"));
+		assertThat(token.getValue("id"), is((Object) id));
+	}
+
+	@Test(expected = InvalidMongoDbApiUsageException.class)
+	public void rejectsMissingValueForKey() {
+		KeysetToken.of(document, Arrays.asList("lastname", "firstname"));
+	}
+
+	@Test
+	public void parsesTokenFromItsStringRepresentation() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("lastname", "_id"));
+		KeysetToken parsed = KeysetToken.parse(token.toString());
+
+		assertThat(parsed, is(token));
+		assertThat(parsed.getKeys(), is(token.getKeys()));
+		assertThat(parsed.getValue("_id"), is((Object) id));
+	}
+
+	@Test(expected = InvalidMongoDbApiUsageException.class)
+	public void rejectsMalformedToken() {
+		KeysetToken.parse("foo");
+	}
+
+	@Test
+	public void createsRangePredicateForSortKeys() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("lastname", "_id"));
+		DBObject criteria = token.getCriteriaObject(new BasicDBObject("lastname", -1).append("_id", 1));
+
+		DBObject expected = new BasicDBObject("$or", Arrays.asList(new BasicDBObject("lastname", new BasicDBObject(
+				"$lt", "Matthews")), new BasicDBObject("lastname", "Matthews").append("_id", new BasicDBObject("$gt", id))));
+
+		assertThat(criteria, is(expected));
+	}
+
+	@Test(expected = InvalidMongoDbApiUsageException.class)
+	public void rejectsSortNotMatchingTokenKeys() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("lastname", "_id"));
+		token.getCriteriaObject(new BasicDBObject("firstname", 1).append("_id", 1));
+	}
+
+	@Test
+	public void queryLeavesIdTieBreakerToMapping() {
+
+		Query query = new Query().with(new Sort(Direction.DESC, "lastname")).withKeyset(null);
+
+		assertThat(query.getSortObject(), is((DBObject) new BasicDBObject("lastname", -1)));
+		assertThat(query.getQueryObject(), is((DBObject) new BasicDBObject()));
+	}
+
+	@Test
+	public void appliesIdTieBreakerOfTokenToSortWithoutIt() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("lastname", "_id"));
+		DBObject criteria = token.getCriteriaObject(new BasicDBObject("lastname", -1));
+
+		DBObject expected = new BasicDBObject("$or", Arrays.asList(new BasicDBObject("lastname", new BasicDBObject(
+				"$lt", "Matthews")), new BasicDBObject("lastname", "Matthews").append("_id", new BasicDBObject("$gt", id))));
+
+		assertThat(criteria, is(expected));
+	}
+
+	@Test
+	public void queryCombinesCriteriaWithRangePredicate() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("_id"));
+		Query query = new Query(where("firstname").is("Dave")).withKeyset(token);
+
+		DBObject expected = new BasicDBObject("firstname", "Dave").append("$or",
+				Arrays.asList(new BasicDBObject("_id", new BasicDBObject("$gt", id))));
+
+		assertThat(query.getQueryObject(), is(expected));
+	}
+
+	@Test
+	public void queryUsesAndIfCriteriaContainsOr() {
+
+		KeysetToken token = KeysetToken.of(document, Arrays.asList("_id"));
+		Query query = new Query(new Criteria().orOperator(where("firstname").is("Dave"), where("firstname").is("Carter")))
+				.withKeyset(token);
+
+		DBObject queryObject = query.getQueryObject();
+
+		assertThat(queryObject.keySet(), contains("$and"));
+	}
+}
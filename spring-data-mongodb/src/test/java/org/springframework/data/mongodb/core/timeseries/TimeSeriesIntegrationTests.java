@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.timeseries;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Integration tests for {@link TimeSeriesWriter} and {@link TimeSeriesReader}.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:infrastructure.xml")
+public class TimeSeriesIntegrationTests {
+
+	static final String COLLECTION = "readings";
+
+	@Autowired MongoTemplate template;
+
+	TimeSeriesWriter writer;
+	TimeSeriesReader reader;
+
+	@Before
+	public void setUp() {
+
+		template.dropCollection(COLLECTION);
+
+		writer = new TimeSeriesWriter(template, COLLECTION, 1, TimeUnit.MINUTES, 3);
+		writer.ensureIndex();
+		reader = new TimeSeriesReader(template, COLLECTION);
+	}
+
+	@After
+	public void tearDown() {
+		template.dropCollection(COLLECTION);
+	}
+
+	@Test
+	public void bucketsMeasurementsAndReadsThemBackForTimeRange() {
+
+		for (int i = 0; i < 10; i++) {
+			writer.append("sensor-1", new Date(i * 15000L), i);
+		}
+
+		writer.append("sensor-2", new Date(0), 42);
+
+		// 4 + 4 + 2 measurements of sensor-1 in 3 windows with at most 3 per bucket plus one bucket for sensor-2
+		assertThat(template.count(new Query(), COLLECTION), is(6L));
+
+		List<Measurement<Long>> result = reader.find("sensor-1", new Date(30000), new Date(120000), Long.class);
+
+		assertThat(result, hasSize(6));
+
+		for (int i = 0; i < result.size(); i++) {
+			assertThat(result.get(i), is(new Measurement<Long>(new Date((i + 2) * 15000L), (long) (i + 2))));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.mongodb.core.timeseries;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Unit tests for {@link TimeSeriesWriter}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TimeSeriesWriterUnitTests {
+
+	@Mock MongoOperations operations;
+
+	@Test
+	public void upsertsMeasurementIntoBucketOfItsWindow() {
+
+		TimeSeriesWriter writer = new TimeSeriesWriter(operations, "readings", 1, TimeUnit.MINUTES, 100);
+		Date timestamp = new Date(150000);
+
+		writer.append("sensor-1", timestamp, 21.5);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(operations).upsert(query.capture(), update.capture(), eq("readings"));
+
+		DBObject expectedQuery = new BasicDBObject("series", "sensor-1").append("start", new Date(120000))
+				.append("end", new Date(180000)).append("count", new BasicDBObject("$lt", 100));
+		assertThat(query.getValue().getQueryObject(), is(expectedQuery));
+
+		DBObject expectedUpdate = new BasicDBObject("$push", new BasicDBObject("measurements", new BasicDBObject("t",
+				timestamp).append("v", 21.5))).append("$inc", new BasicDBObject("count", 1));
+		assertThat(update.getValue().getUpdateObject(), is(expectedUpdate));
+	}
+
+	@Test
+	public void alignsWindowsOfTimestampsBeforeEpoch() {
+
+		TimeSeriesWriter writer = new TimeSeriesWriter(operations, "readings", 1, TimeUnit.MINUTES);
+		writer.append("sensor-1", new Date(-30000), 1);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(operations).upsert(query.capture(), any(Update.class), eq("readings"));
+
+		assertThat(query.getValue().getQueryObject().get("start"), is((Object) new Date(-60000)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsWindowBelowOneMillisecond() {
+		new TimeSeriesWriter(operations, "readings", 10, TimeUnit.MICROSECONDS);
+	}
+}
@@ -19,6 +19,7 @@ import static java.util.Arrays.*;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -30,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mongodb.core.MongoOperations;
@@ -42,7 +44,10 @@ import org.springframework.data.mongodb.core.geo.Metric;
 import org.springframework.data.mongodb.core.geo.Metrics;
 import org.springframework.data.mongodb.core.geo.Point;
 import org.springframework.data.mongodb.core.geo.Polygon;
+import org.springframework.data.mongodb.core.query.KeysetResults;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.repository.Person.Sex;
+import org.springframework.data.mongodb.repository.PersonRepository.PersonSummary;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 /**
@@ -170,6 +175,41 @@ public abstract class AbstractPersonRepositoryIntegrationTests {
 		assertThat(page, hasItems(carter, stefan));
 	}
 
+	@Test
+	public void executesSlicedFinderCorrectly() throws Exception {
+
+		Slice<Person> slice = repository.findSliceByLastnameLike("*a*", new PageRequest(0, 2, Direction.ASC, "lastname",
+				"firstname"));
+		assertThat(slice.hasPreviousSlice(), is(false));
+		assertThat(slice.hasNextSlice(), is(true));
+		assertThat(slice.getNumberOfElements(), is(2));
+		assertThat(slice, hasItems(carter, stefan));
+
+		Slice<Person> last = repository.findSliceByLastnameLike("*a*", new PageRequest(100, 2));
+		assertThat(last.hasNextSlice(), is(false));
+		assertThat(last.isEmpty(), is(true));
+	}
+
+	@Test
+	public void executesKeysetFinderCorrectly() throws Exception {
+
+		Pageable pageable = new PageRequest(0, 2, Direction.ASC, "lastname", "firstname");
+		Page<Person> page = repository.findByLastnameLike("*a*", new PageRequest(0, 100, Direction.ASC, "lastname",
+				"firstname"));
+
+		List<Person> result = new ArrayList<Person>();
+		KeysetToken token = null;
+
+		do {
+			KeysetResults<Person> window = repository.findWindowByLastnameLike("*a*", token, pageable);
+			assertThat(window.size(), is(lessThanOrEqualTo(2)));
+			result.addAll(window);
+			token = window.getNextToken();
+		} while (token != null);
+
+		assertThat(result, is(page.getContent()));
+	}
+
 	@Test
 	public void executesPagedFinderWithAnnotatedQueryCorrectly() throws Exception {
 
@@ -569,6 +609,70 @@ public abstract class AbstractPersonRepositoryIntegrationTests {
 		assertThat(repository.someCountQuery("Matthews"), is(2L));
 	}
 
+	@Test
+	public void executesQueryReturningInterfaceProjection() {
+
+		List<PersonSummary> result = repository.findSummaryByLastname("Beauford");
+
+		assertThat(result, hasSize(1));
+		assertThat(result.get(0).getFirstname(), is("Carter"));
+		assertThat(result.get(0).getLastname(), is("Beauford"));
+	}
+
+	@Test
+	public void executesPagedQueryReturningInterfaceProjection() {
+
+		Page<PersonSummary> page = repository.findSummaryByLastname("Matthews", new PageRequest(0, 1, Direction.ASC,
+				"firstname"));
+
+		assertThat(page.getTotalElements(), is(2L));
+		assertThat(page.getContent(), hasSize(1));
+		assertThat(page.getContent().get(0).getFirstname(), is("Dave"));
+	}
+
+	@Test
+	public void executesDerivedDeleteQueryReturningCount() {
+
+		assertThat(repository.deleteByLastname("Matthews"), is(2L));
+		assertThat(repository.findByLastname("Matthews"), hasSize(0));
+		assertThat(repository.count(), is(5L));
+	}
+
+	@Test
+	public void executesDerivedRemoveQueryReturningDeletedEntities() {
+
+		List<Person> result = repository.removeByLastname("Matthews");
+
+		assertThat(result, hasSize(2));
+		assertThat(result, hasItems(dave, oliver));
+		assertThat(repository.findByLastname("Matthews"), hasSize(0));
+	}
+
+	@Test
+	public void executesAnnotatedDeleteQueryReturningSingleEntity() {
+
+		assertThat(repository.deleteSingleByTheLastname("Beauford"), is(carter));
+		assertThat(repository.exists(carter.getId()), is(false));
+	}
+
+	@Test
+	public void annotatedDeleteQueryReturningSingleEntityRemovesAllMatches() {
+
+		Person removed = repository.deleteSingleByTheLastname("Matthews");
+
+		assertThat(removed, is(anyOf(is(dave), is(oliver))));
+		assertThat(repository.findByLastname("Matthews"), hasSize(0));
+	}
+
+	@Test
+	public void executesAnnotatedUpdateQuery() {
+
+		assertThat(repository.incrementAgeByLastname("Matthews", 2), is(2));
+		assertThat(repository.findOne(dave.getId()).getAge(), is(44));
+		assertThat(repository.findOne(oliver.getId()).getAge(), is(6));
+		assertThat(repository.findOne(carter.getId()).getAge(), is(49));
+	}
+
 	/**
 	 * @see DATAMONGO-701
 	 */
@@ -29,6 +29,8 @@ import org.springframework.data.mongodb.core.geo.GeoPage;
 import org.springframework.data.mongodb.core.geo.GeoResults;
 import org.springframework.data.mongodb.core.geo.Point;
 import org.springframework.data.mongodb.core.geo.Polygon;
+import org.springframework.data.mongodb.core.query.KeysetResults;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.repository.Person.Sex;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 
@@ -94,6 +96,26 @@ public interface PersonRepository extends MongoRepository<Person, String>, Query
 	@Query("{ 'lastname' : { '$regex' : ?0, '$options' : ''}}")
 	Page<Person> findByLastnameLikeWithPageable(String lastname, Pageable pageable);
 
+	/**
+	 * Returns a {@link Slice} of {@link Person}s with a lastname matching the given one (*-wildcards supported).
+	 * 
+	 * @param lastname
+	 * @param pageable
+	 * @return
+	 */
+	Slice<Person> findSliceByLastnameLike(String lastname, Pageable pageable);
+
+	/**
+	 * Returns a window of {@link Person}s with a lastname matching the given one (*-wildcards supported) continuing after
+	 * the given {@link KeysetToken}.
+	 * 
+	 * @param lastname
+	 * @param token
+	 * @param pageable
+	 * @return
+	 */
+	KeysetResults<Person> findWindowByLastnameLike(String lastname, KeysetToken token, Pageable pageable);
+
 	/**
 	 * Returns all {@link Person}s with a firstname contained in the given varargs.
 	 * 
@@ -218,4 +240,29 @@ public interface PersonRepository extends MongoRepository<Person, String>, Query
 	 */
 	@Query(value = "{ 'lastname' : ?0 }", count = true)
 	long someCountQuery(String lastname);
+
+	long deleteByLastname(String lastname);
+
+	List<Person> removeByLastname(String lastname);
+
+	@Query(value = "{ 'lastname' : ?0 }", delete = true)
+	Person deleteSingleByTheLastname(String lastname);
+
+	@Query("{ 'lastname' : ?0 }")
+	@Update("{ '$inc' : { 'age' : ?1 } }")
+	int incrementAgeByLastname(String lastname, int increment);
+
+	List<PersonSummary> findSummaryByLastname(String lastname);
+
+	Page<PersonSummary> findSummaryByLastname(String lastname, Pageable pageable);
+
+	/**
+	 * Projection exposing a subset of the properties of {@link Person}.
+	 */
+	interface PersonSummary {
+
+		String getFirstname();
+
+		String getLastname();
+	}
 }
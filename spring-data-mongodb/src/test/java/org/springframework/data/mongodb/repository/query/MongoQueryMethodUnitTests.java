@@ -32,9 +32,14 @@ import org.springframework.data.mongodb.core.geo.GeoResult;
 import org.springframework.data.mongodb.core.geo.GeoResults;
 import org.springframework.data.mongodb.core.geo.Point;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.KeysetResults;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.mongodb.repository.Address;
 import org.springframework.data.mongodb.repository.Contact;
 import org.springframework.data.mongodb.repository.Person;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Slice;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
 
@@ -113,6 +118,66 @@ public class MongoQueryMethodUnitTests {
 		assertThat(method.isCollectionQuery(), is(false));
 	}
 
+	@Test
+	public void considersMethodReturningSliceAsSliceMethod() throws Exception {
+
+		MongoQueryMethod method = queryMethod("findByLastname", String.class, Pageable.class);
+		assertThat(method.isSliceQuery(), is(true));
+		assertThat(method.isPageQuery(), is(false));
+		assertThat(method.getEntityInformation().getJavaType(), is(typeCompatibleWith(User.class)));
+	}
+
+	@Test
+	public void considersMethodReturningKeysetResultsAsKeysetMethod() throws Exception {
+
+		MongoQueryMethod method = queryMethod("findByLastname", String.class, KeysetToken.class, Pageable.class);
+		assertThat(method.isKeysetQuery(), is(true));
+		assertThat(method.isSliceQuery(), is(false));
+		assertThat(method.getParameters().getKeysetTokenIndex(), is(1));
+		assertThat(method.getEntityInformation().getJavaType(), is(typeCompatibleWith(User.class)));
+	}
+
+	@Test
+	public void detectsProjectionReturnTypes() throws Exception {
+
+		MongoQueryMethod method = queryMethod("findSummaryByLastname", String.class);
+
+		assertThat(method.isProjectionQuery(), is(true));
+		assertThat(method.getProjectionType(), is(typeCompatibleWith(UserSummary.class)));
+		assertThat(method.getEntityInformation().getJavaType(), is(typeCompatibleWith(User.class)));
+
+		assertThat(queryMethod("findByLastname", String.class).isProjectionQuery(), is(false));
+		assertThat(queryMethod("deleteByLastname", String.class).isProjectionQuery(), is(false));
+	}
+
+	@Test
+	public void detectsDerivedDeleteQueries() throws Exception {
+
+		assertThat(queryMethod("deleteByLastname", String.class).isDeleteQuery(), is(true));
+		assertThat(queryMethod("removeAllByLastname", String.class).isDeleteQuery(), is(true));
+		assertThat(queryMethod("findByLastname", String.class).isDeleteQuery(), is(false));
+	}
+
+	@Test
+	public void detectsAnnotatedUpdateQuery() throws Exception {
+
+		MongoQueryMethod method = queryMethod("updateFirstname", String.class, String.class);
+
+		assertThat(method.isUpdateQuery(), is(true));
+		assertThat(method.isDeleteQuery(), is(false));
+		assertThat(method.getAnnotatedUpdate(), is("{ '$set' : { 'firstname' : ?1 } }"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsUpdateWithoutAnnotatedQuery() throws Exception {
+		queryMethod("updateWithoutQuery", String.class);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsUpdateReturningEntities() throws Exception {
+		queryMethod("updateReturningEntities", String.class);
+	}
+
 	@Test
 	public void createsMongoQueryMethodObjectForMethodReturningAnInterface() throws Exception {
 
@@ -137,6 +202,34 @@ public class MongoQueryMethodUnitTests {
 		GeoResults<User> findByFirstname(String firstname, Point location);
 
 		Collection<GeoResult<User>> findByLastname(String lastname, Point location);
+
+		Slice<User> findByLastname(String lastname, Pageable pageable);
+
+		KeysetResults<User> findByLastname(String lastname, KeysetToken token, Pageable pageable);
+
+		User findByLastname(String lastname);
+
+		List<UserSummary> findSummaryByLastname(String lastname);
+
+		long deleteByLastname(String lastname);
+
+		List<User> removeAllByLastname(String lastname);
+
+		@Query("{ 'lastname' : ?0 }")
+		@Update("{ '$set' : { 'firstname' : ?1 } }")
+		int updateFirstname(String lastname, String firstname);
+
+		@Update("{ '$set' : { 'firstname' : 'Dave' } }")
+		int updateWithoutQuery(String lastname);
+
+		@Query("{ 'lastname' : ?0 }")
+		@Update("{ '$set' : { 'firstname' : 'Dave' } }")
+		List<User> updateReturningEntities(String lastname);
+	}
+
+	interface UserSummary {
+
+		String getUsername();
 	}
 
 	interface SampleRepository extends Repository<Contact, Long> {
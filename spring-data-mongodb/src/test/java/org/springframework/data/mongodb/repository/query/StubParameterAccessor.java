@@ -23,6 +23,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.convert.MongoWriter;
 import org.springframework.data.mongodb.core.geo.Distance;
 import org.springframework.data.mongodb.core.geo.Point;
+import org.springframework.data.mongodb.core.query.KeysetToken;
 import org.springframework.data.repository.query.ParameterAccessor;
 
 /**
@@ -105,4 +106,12 @@ class StubParameterAccessor implements MongoParameterAccessor {
 	public Point getGeoNearLocation() {
 		return null;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.mongodb.repository.query.MongoParameterAccessor#getKeysetToken()
+	 */
+	public KeysetToken getKeysetToken() {
+		return null;
+	}
 }
\ No newline at end of file
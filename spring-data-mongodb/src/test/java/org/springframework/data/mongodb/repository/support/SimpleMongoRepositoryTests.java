@@ -76,6 +76,13 @@ public class SimpleMongoRepositoryTests {
 		assertThat(result, is(dave));
 	}
 
+	@Test
+	public void findAllByIdsFromCustomCollectionNameInGivenOrder() {
+
+		Iterable<Person> result = repository.findAll(Arrays.asList(leroi.getId(), dave.getId(), carter.getId()));
+		assertThat(result, contains(leroi, dave, carter));
+	}
+
 	@Test
 	public void deleteFromCustomCollectionName() {
 		repository.delete(dave);